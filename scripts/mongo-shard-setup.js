@@ -0,0 +1,53 @@
+// Zone sharding for the ridepool collections, keyed by airport.
+//
+// Run once against a mongos, after the shards are added and before the
+// application starts with ridepool.sharding.enabled=true:
+//
+//   mongosh "mongodb://mongos-host:27017/ridepool" scripts/mongo-shard-setup.js
+//
+// Each airport in ZONES is pinned to the listed shards. Within an airport the
+// hashed _id spreads writes over every chunk of its zone, so adding a shard to
+// a busy airport's zone adds write throughput for that airport. Airports not
+// listed (and cabs registered outside every service area, home airport "_")
+// are balanced over all shards.
+//
+// Requires MongoDB 4.4+ (compound hashed shard keys). Safe to re-run.
+
+const ZONES = {
+    // airport code: shards serving it
+    DEL: ["shard-north-a", "shard-north-b"],
+    BOM: ["shard-west-a"],
+    BLR: ["shard-south-a"],
+};
+
+const COLLECTIONS = {
+    ride_requests: "airportCode",
+    ride_groups: "airportCode",
+    cabs: "homeAirportCode",
+};
+
+const dbName = db.getName();
+sh.enableSharding(dbName);
+
+for (const [collection, airportField] of Object.entries(COLLECTIONS)) {
+    const namespace = `${dbName}.${collection}`;
+    const key = { [airportField]: 1, _id: "hashed" };
+    db.getCollection(collection).createIndex(key);
+    if (!db.getSiblingDB("config").collections.findOne({ _id: namespace, dropped: { $ne: true } })) {
+        sh.shardCollection(namespace, key);
+        print(`sharded ${namespace} on ${JSON.stringify(key)}`);
+    }
+}
+
+for (const [airport, shards] of Object.entries(ZONES)) {
+    for (const shard of shards) {
+        sh.addShardToZone(shard, airport);
+    }
+    for (const [collection, airportField] of Object.entries(COLLECTIONS)) {
+        sh.updateZoneKeyRange(`${dbName}.${collection}`,
+            { [airportField]: airport, _id: MinKey },
+            { [airportField]: airport, _id: MaxKey },
+            airport);
+    }
+    print(`zone ${airport} -> ${shards.join(", ")}`);
+}
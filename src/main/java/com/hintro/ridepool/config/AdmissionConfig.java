@@ -0,0 +1,92 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for per-airport admission control on ride requests
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.admission")
+public class AdmissionConfig {
+    
+    /**
+     * Enable or disable admission control (default: true)
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Ride requests processed concurrently per airport (default: 8)
+     */
+    private int maxConcurrentPerAirport = 8;
+    
+    /**
+     * Ride requests allowed to wait for a slot per airport (default: 64)
+     * Further requests are rejected immediately with 429
+     */
+    private int maxQueuedPerAirport = 64;
+    
+    /**
+     * Longest a queued request waits for a slot before it is rejected (default: 2000 ms)
+     */
+    private long maxQueueWaitMillis = 2000;
+    
+    /**
+     * Minimum Retry-After returned with a 429 (default: 1 second)
+     */
+    private int minRetryAfterSeconds = 1;
+    
+    /**
+     * Maximum Retry-After returned with a 429 (default: 30 seconds)
+     */
+    private int maxRetryAfterSeconds = 30;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxConcurrentPerAirport() {
+        return maxConcurrentPerAirport;
+    }
+    
+    public void setMaxConcurrentPerAirport(int maxConcurrentPerAirport) {
+        this.maxConcurrentPerAirport = maxConcurrentPerAirport;
+    }
+    
+    public int getMaxQueuedPerAirport() {
+        return maxQueuedPerAirport;
+    }
+    
+    public void setMaxQueuedPerAirport(int maxQueuedPerAirport) {
+        this.maxQueuedPerAirport = maxQueuedPerAirport;
+    }
+    
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+    
+    public void setMaxQueueWaitMillis(long maxQueueWaitMillis) {
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+    
+    public int getMinRetryAfterSeconds() {
+        return minRetryAfterSeconds;
+    }
+    
+    public void setMinRetryAfterSeconds(int minRetryAfterSeconds) {
+        this.minRetryAfterSeconds = minRetryAfterSeconds;
+    }
+    
+    public int getMaxRetryAfterSeconds() {
+        return maxRetryAfterSeconds;
+    }
+    
+    public void setMaxRetryAfterSeconds(int maxRetryAfterSeconds) {
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+    }
+}
@@ -0,0 +1,175 @@
+package com.hintro.ridepool.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for airports served by the pooling engine.
+ * Locations are keyed by airport code, e.g.
+ * ridepool.airports.locations.DEL.lat=28.5562
+ * ridepool.airports.locations.DEL.lng=77.1000
+ * 
+ * Each airport also has a service area that partitions the fleet (see
+ * AirportRegistry): a polygon when service-area points are given, otherwise
+ * a circle of service-radius-km around the terminal. Assignment settings can
+ * be overridden per airport; unset overrides use ridepool.assignment.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.airports")
+public class AirportConfig {
+    
+    /**
+     * Airport terminal locations keyed by airport code.
+     * Used as the drop-off point when scoring pooled routes.
+     */
+    private Map<String, AirportLocation> locations = new HashMap<>();
+    
+    public AirportConfig() {
+        // Delhi IGI Airport (default airport used across the API examples)
+        locations.put("DEL", new AirportLocation(28.5562, 77.1000));
+    }
+    
+    /**
+     * Get location for an airport code
+     * 
+     * @param airportCode airport code
+     * @return location, or null if the airport is not configured
+     */
+    public AirportLocation getLocation(String airportCode) {
+        if (airportCode == null) {
+            return null;
+        }
+        return locations.get(airportCode);
+    }
+    
+    // Getters and Setters
+    public Map<String, AirportLocation> getLocations() {
+        return locations;
+    }
+    
+    public void setLocations(Map<String, AirportLocation> locations) {
+        this.locations = locations;
+    }
+    
+    /**
+     * Geographic location, service area and overrides of an airport
+     */
+    public static class AirportLocation {
+        private double lat;
+        private double lng;
+        
+        /**
+         * Radius of the service area around the terminal when no polygon is given (default: 40 KM)
+         */
+        private double serviceRadiusKm = 40.0;
+        
+        /**
+         * Service area polygon vertices in order (default: none, use serviceRadiusKm)
+         */
+        private List<Point> serviceArea = new ArrayList<>();
+        
+        /**
+         * Cab search radius for this airport (default: ridepool.assignment.cab-assignment-radius-km)
+         */
+        private Double cabAssignmentRadiusKm;
+        
+        /**
+         * Minimum group size before a cab is assigned at this airport
+         * (default: ridepool.assignment.min-passengers-for-assignment)
+         */
+        private Integer minPassengersForAssignment;
+        
+        public AirportLocation() {
+        }
+        
+        public AirportLocation(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+        }
+        
+        public double getLat() {
+            return lat;
+        }
+        
+        public void setLat(double lat) {
+            this.lat = lat;
+        }
+        
+        public double getLng() {
+            return lng;
+        }
+        
+        public void setLng(double lng) {
+            this.lng = lng;
+        }
+        
+        public double getServiceRadiusKm() {
+            return serviceRadiusKm;
+        }
+        
+        public void setServiceRadiusKm(double serviceRadiusKm) {
+            this.serviceRadiusKm = serviceRadiusKm;
+        }
+        
+        public List<Point> getServiceArea() {
+            return serviceArea;
+        }
+        
+        public void setServiceArea(List<Point> serviceArea) {
+            this.serviceArea = serviceArea;
+        }
+        
+        public Double getCabAssignmentRadiusKm() {
+            return cabAssignmentRadiusKm;
+        }
+        
+        public void setCabAssignmentRadiusKm(Double cabAssignmentRadiusKm) {
+            this.cabAssignmentRadiusKm = cabAssignmentRadiusKm;
+        }
+        
+        public Integer getMinPassengersForAssignment() {
+            return minPassengersForAssignment;
+        }
+        
+        public void setMinPassengersForAssignment(Integer minPassengersForAssignment) {
+            this.minPassengersForAssignment = minPassengersForAssignment;
+        }
+    }
+    
+    /**
+     * Service area polygon vertex
+     */
+    public static class Point {
+        private double lat;
+        private double lng;
+        
+        public Point() {
+        }
+        
+        public Point(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+        }
+        
+        public double getLat() {
+            return lat;
+        }
+        
+        public void setLat(double lat) {
+            this.lat = lat;
+        }
+        
+        public double getLng() {
+            return lng;
+        }
+        
+        public void setLng(double lng) {
+            this.lng = lng;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for bulk cab and ride request registration
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.bulk")
+public class BulkConfig {
+    
+    /**
+     * Most items accepted in one bulk request (default: 1000)
+     * Larger bodies are rejected with 413
+     */
+    private int maxItems = 1000;
+    
+    /**
+     * Documents written per insertMany round trip (default: 200)
+     */
+    private int insertBatchSize = 200;
+    
+    // Getters and Setters
+    public int getMaxItems() {
+        return maxItems;
+    }
+    
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+    
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+    
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+}
@@ -26,10 +26,32 @@ public class CabAssignmentConfig {
     private boolean enableAssignment = true;
     
     /**
-     * Estimated time for cab to arrive (in seconds)
+     * Estimated time for cab to arrive (in seconds) when the ETA model
+     * (ridepool.eta) is disabled
      */
     private int estimatedArrivalSeconds = 30;
     
+    /**
+     * Serve cab lookups from the in-memory fleet index instead of a
+     * full collection scan per assignment (default: true)
+     */
+    private boolean enableFleetIndex = true;
+    
+    /**
+     * Fleet index grid cell size in degrees (default: 0.02, roughly 2.2 KM)
+     */
+    private double fleetIndexCellSizeDegrees = 0.02;
+    
+    /**
+     * Allow RESERVED / ON_TRIP cabs with spare seats to take more passengers (default: true)
+     */
+    private boolean allowMidRoutePooling = true;
+    
+    /**
+     * Nearest cabs to try when a reservation loses a race (default: 3)
+     */
+    private int maxReservationAttempts = 3;
+    
     // Getters and Setters
     public int getMinPassengersForAssignment() {
         return minPassengersForAssignment;
@@ -62,4 +84,36 @@ public class CabAssignmentConfig {
     public void setEstimatedArrivalSeconds(int estimatedArrivalSeconds) {
         this.estimatedArrivalSeconds = estimatedArrivalSeconds;
     }
+    
+    public boolean isEnableFleetIndex() {
+        return enableFleetIndex;
+    }
+    
+    public void setEnableFleetIndex(boolean enableFleetIndex) {
+        this.enableFleetIndex = enableFleetIndex;
+    }
+    
+    public double getFleetIndexCellSizeDegrees() {
+        return fleetIndexCellSizeDegrees;
+    }
+    
+    public void setFleetIndexCellSizeDegrees(double fleetIndexCellSizeDegrees) {
+        this.fleetIndexCellSizeDegrees = fleetIndexCellSizeDegrees;
+    }
+    
+    public boolean isAllowMidRoutePooling() {
+        return allowMidRoutePooling;
+    }
+    
+    public void setAllowMidRoutePooling(boolean allowMidRoutePooling) {
+        this.allowMidRoutePooling = allowMidRoutePooling;
+    }
+    
+    public int getMaxReservationAttempts() {
+        return maxReservationAttempts;
+    }
+    
+    public void setMaxReservationAttempts(int maxReservationAttempts) {
+        this.maxReservationAttempts = maxReservationAttempts;
+    }
 }
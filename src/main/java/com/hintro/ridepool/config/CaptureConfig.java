@@ -0,0 +1,54 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for recording live traffic for offline replay
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.capture")
+public class CaptureConfig {
+    
+    /**
+     * Start recording as soon as the application is ready (default: false)
+     * A capture can also be started and stopped at runtime via /admin/capture
+     */
+    private boolean enabled = false;
+    
+    /**
+     * File the capture is written to, one JSON record per line (default: data/capture/traffic.jsonl)
+     * Starting a capture overwrites the file
+     */
+    private String file = "data/capture/traffic.jsonl";
+    
+    /**
+     * Records buffered for the writer thread before new ones are dropped (default: 10000)
+     */
+    private int queueCapacity = 10000;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public void setFile(String file) {
+        this.file = file;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
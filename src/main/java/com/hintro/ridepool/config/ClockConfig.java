@@ -0,0 +1,19 @@
+package com.hintro.ridepool.config;
+
+import java.time.Clock;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Time source for wait-time and sliding-window calculations.
+ * A bean so replays and tests can run against a simulated clock.
+ */
+@Configuration
+public class ClockConfig {
+    
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
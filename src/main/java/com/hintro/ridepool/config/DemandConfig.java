@@ -0,0 +1,119 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the demand heatmap and cab repositioning
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.demand")
+public class DemandConfig {
+    
+    /**
+     * Enable or disable demand aggregation (default: true)
+     */
+    private boolean enableHeatmap = true;
+    
+    /**
+     * Grid cell size in degrees (default: 0.01, roughly 1.1 KM)
+     */
+    private double cellSizeDegrees = 0.01;
+    
+    /**
+     * Length of one sliding-window bucket in seconds (default: 300)
+     */
+    private int bucketSeconds = 300;
+    
+    /**
+     * Number of buckets in the sliding window (default: 6, i.e. 30 minutes)
+     */
+    private int bucketCount = 6;
+    
+    /**
+     * Maximum live grid cells tracked per airport (default: 4096)
+     * Fixes the memory used per airport regardless of traffic
+     */
+    private int maxCellsPerAirport = 4096;
+    
+    /**
+     * Ride requests one cab is expected to absorb per window (default: 3)
+     * A cell needs ceil(demand / requestsPerCab) cabs
+     */
+    private double requestsPerCab = 3.0;
+    
+    /**
+     * Maximum distance a cab is asked to reposition (default: 10 KM)
+     */
+    private double repositionRadiusKm = 10.0;
+    
+    /**
+     * Maximum recommendations returned per call (default: 20)
+     */
+    private int maxRecommendations = 20;
+    
+    // Getters and Setters
+    public boolean isEnableHeatmap() {
+        return enableHeatmap;
+    }
+    
+    public void setEnableHeatmap(boolean enableHeatmap) {
+        this.enableHeatmap = enableHeatmap;
+    }
+    
+    public double getCellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+    
+    public void setCellSizeDegrees(double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+    
+    public int getBucketSeconds() {
+        return bucketSeconds;
+    }
+    
+    public void setBucketSeconds(int bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+    }
+    
+    public int getBucketCount() {
+        return bucketCount;
+    }
+    
+    public void setBucketCount(int bucketCount) {
+        this.bucketCount = bucketCount;
+    }
+    
+    public int getMaxCellsPerAirport() {
+        return maxCellsPerAirport;
+    }
+    
+    public void setMaxCellsPerAirport(int maxCellsPerAirport) {
+        this.maxCellsPerAirport = maxCellsPerAirport;
+    }
+    
+    public double getRequestsPerCab() {
+        return requestsPerCab;
+    }
+    
+    public void setRequestsPerCab(double requestsPerCab) {
+        this.requestsPerCab = requestsPerCab;
+    }
+    
+    public double getRepositionRadiusKm() {
+        return repositionRadiusKm;
+    }
+    
+    public void setRepositionRadiusKm(double repositionRadiusKm) {
+        this.repositionRadiusKm = repositionRadiusKm;
+    }
+    
+    public int getMaxRecommendations() {
+        return maxRecommendations;
+    }
+    
+    public void setMaxRecommendations(int maxRecommendations) {
+        this.maxRecommendations = maxRecommendations;
+    }
+}
@@ -0,0 +1,55 @@
+package com.hintro.ridepool.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.hintro.ridepool.routing.RoadNetworkDistanceProvider;
+import com.hintro.ridepool.util.DistanceCalculator;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Selects the distance provider used by matching and cab assignment
+ * based on ridepool.routing.provider
+ */
+@Configuration
+public class DistanceProviderConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DistanceProviderConfig.class);
+    
+    /**
+     * Active distance provider
+     * Falls back to Haversine if the road graph is not configured or cannot be loaded
+     */
+    @Bean
+    @Primary
+    public DistanceProvider distanceProvider(RoutingConfig routingConfig, DistanceCalculator distanceCalculator) {
+        if (routingConfig.getProvider() != RoutingConfig.Provider.ROAD) {
+            logger.info("Using Haversine distance provider");
+            return distanceCalculator;
+        }
+        
+        if (routingConfig.getGraphFile() == null || routingConfig.getGraphFile().isEmpty()) {
+            logger.error("✗ Road distance provider selected but ridepool.routing.graph-file is not set - using Haversine");
+            return distanceCalculator;
+        }
+        
+        try {
+            RoadNetworkDistanceProvider provider = RoadNetworkDistanceProvider.load(
+                    Path.of(routingConfig.getGraphFile()),
+                    routingConfig.getMaxSnapDistanceKm(),
+                    routingConfig.getWitnessSearchLimit(),
+                    distanceCalculator);
+            logger.info("✓ Using road network distance provider");
+            return provider;
+        } catch (IOException e) {
+            logger.error("✗ Failed to load road graph - using Haversine", e);
+            return distanceCalculator;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the learned cab arrival time (ETA) model
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.eta")
+public class EtaConfig {
+    
+    /**
+     * Rank cabs and quote arrival times by learned ETA (default: true)
+     * When disabled, cabs are ranked by distance and every group is quoted
+     * ridepool.assignment.estimated-arrival-seconds
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Grid cell size in degrees for origin / destination cells (default: 0.02, roughly 2.2 KM)
+     */
+    private double cellSizeDegrees = 0.02;
+    
+    /**
+     * Speed assumed before anything is learned (default: 25 KM/h)
+     */
+    private double defaultSpeedKmh = 25.0;
+    
+    /**
+     * Completed legs needed before a learned speed is used (default: 3)
+     */
+    private int minSamples = 3;
+    
+    /**
+     * Weight of a new leg in a warm moving average (default: 0.1)
+     */
+    private double learningRate = 0.1;
+    
+    /**
+     * Maximum learned (cell pair, hour) entries (default: 65536)
+     * Fixes the memory used by the model regardless of traffic
+     */
+    private int maxEntries = 65536;
+    
+    /**
+     * Legs shorter than this are not learned from (default: 0.5 KM)
+     */
+    private double minLegKm = 0.5;
+    
+    /**
+     * Observed speeds outside this range are treated as bad data (default: 3 - 120 KM/h)
+     */
+    private double minSpeedKmh = 3.0;
+    private double maxSpeedKmh = 120.0;
+    
+    /**
+     * Time zone of the hour-of-day buckets (default: UTC)
+     */
+    private String timeZone = "UTC";
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public double getCellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+    
+    public void setCellSizeDegrees(double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+    
+    public double getDefaultSpeedKmh() {
+        return defaultSpeedKmh;
+    }
+    
+    public void setDefaultSpeedKmh(double defaultSpeedKmh) {
+        this.defaultSpeedKmh = defaultSpeedKmh;
+    }
+    
+    public int getMinSamples() {
+        return minSamples;
+    }
+    
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+    
+    public double getLearningRate() {
+        return learningRate;
+    }
+    
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    public double getMinLegKm() {
+        return minLegKm;
+    }
+    
+    public void setMinLegKm(double minLegKm) {
+        this.minLegKm = minLegKm;
+    }
+    
+    public double getMinSpeedKmh() {
+        return minSpeedKmh;
+    }
+    
+    public void setMinSpeedKmh(double minSpeedKmh) {
+        this.minSpeedKmh = minSpeedKmh;
+    }
+    
+    public double getMaxSpeedKmh() {
+        return maxSpeedKmh;
+    }
+    
+    public void setMaxSpeedKmh(double maxSpeedKmh) {
+        this.maxSpeedKmh = maxSpeedKmh;
+    }
+    
+    public String getTimeZone() {
+        return timeZone;
+    }
+    
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+}
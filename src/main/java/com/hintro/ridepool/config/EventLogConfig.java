@@ -0,0 +1,67 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the ride lifecycle event log
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.events")
+public class EventLogConfig {
+    
+    /**
+     * Enable or disable the event log (default: false)
+     * When enabled, every ride status change written to MongoDB is also
+     * recorded in the log as an audit trail
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Directory holding log segments (default: data/events)
+     */
+    private String directory = "data/events";
+    
+    /**
+     * Size of one memory-mapped log segment in MB (default: 64)
+     */
+    private int segmentSizeMb = 64;
+    
+    /**
+     * Most events written and flushed to disk together (default: 512)
+     */
+    private int maxBatchEvents = 512;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    
+    public int getSegmentSizeMb() {
+        return segmentSizeMb;
+    }
+    
+    public void setSegmentSizeMb(int segmentSizeMb) {
+        this.segmentSizeMb = segmentSizeMb;
+    }
+    
+    public int getMaxBatchEvents() {
+        return maxBatchEvents;
+    }
+    
+    public void setMaxBatchEvents(int maxBatchEvents) {
+        this.maxBatchEvents = maxBatchEvents;
+    }
+}
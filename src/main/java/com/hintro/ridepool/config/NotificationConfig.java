@@ -0,0 +1,82 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for relaying rider and driver notifications
+ * from the outbox to the notification sinks
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.notifications")
+public class NotificationConfig {
+    
+    /**
+     * Run the notification dispatcher (default: true)
+     * Status changes queue notifications either way; while disabled they are
+     * not delivered and expire after maxAgeSeconds
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Pause between outbox polls when the last one found no full batch (default: 200 ms)
+     */
+    private long pollIntervalMillis = 200;
+    
+    /**
+     * Most rider and most driver notifications read and delivered per batch (default: 100)
+     */
+    private int batchSize = 100;
+    
+    /**
+     * Notifications queued longer ago than this are dropped undelivered (default: 300 s)
+     * Keeps a long sink outage from flooding riders with stale updates
+     */
+    private long maxAgeSeconds = 300;
+    
+    /**
+     * Longest wait between retries while a sink keeps failing (default: 5000 ms)
+     */
+    private long maxRetryBackoffMillis = 5000;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+    
+    public void setPollIntervalMillis(long pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+    
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+    
+    public long getMaxRetryBackoffMillis() {
+        return maxRetryBackoffMillis;
+    }
+    
+    public void setMaxRetryBackoffMillis(long maxRetryBackoffMillis) {
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+    }
+}
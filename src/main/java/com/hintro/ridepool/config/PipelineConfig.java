@@ -0,0 +1,82 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the staged ride request pipeline
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.pipeline")
+public class PipelineConfig {
+    
+    /**
+     * Enable or disable the pipeline (default: false)
+     * When enabled, ride request creation is handed to dedicated persistence,
+     * matching and cab assignment threads instead of running on the HTTP thread
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Slots in each stage's ring buffer, rounded up to a power of two (default: 1024)
+     * A full first ring rejects new requests with 429
+     */
+    private int ringSize = 1024;
+    
+    /**
+     * Most requests a stage takes from its ring at once (default: 64)
+     * The persistence stage saves each batch in a single MongoDB round trip
+     */
+    private int maxBatchSize = 64;
+    
+    /**
+     * How long an idle stage parks between polls of its ring (default: 50 µs)
+     */
+    private long idleParkMicros = 50;
+    
+    /**
+     * Retry-After sent when the pipeline is full (default: 1 second)
+     */
+    private int retryAfterSeconds = 1;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getRingSize() {
+        return ringSize;
+    }
+    
+    public void setRingSize(int ringSize) {
+        this.ringSize = ringSize;
+    }
+    
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+    
+    public long getIdleParkMicros() {
+        return idleParkMicros;
+    }
+    
+    public void setIdleParkMicros(long idleParkMicros) {
+        this.idleParkMicros = idleParkMicros;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
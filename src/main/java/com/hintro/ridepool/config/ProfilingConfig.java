@@ -0,0 +1,91 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for on-demand Flight Recorder profiling
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.profiling")
+public class ProfilingConfig {
+    
+    /**
+     * Allow recordings through /admin/profiling (default: true)
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Length of a recording when none is requested (default: 30 seconds)
+     */
+    private int defaultDurationSeconds = 30;
+    
+    /**
+     * Longest recording allowed; longer requests are cut to this (default: 120 seconds)
+     */
+    private int maxDurationSeconds = 120;
+    
+    /**
+     * JDK event settings the recording starts from: "default" or "profile" (default: profile)
+     */
+    private String settings = "profile";
+    
+    /**
+     * Matching and assignment stages faster than this are not recorded (default: 0, record all)
+     */
+    private long stageThresholdMillis = 0;
+    
+    /**
+     * Directory for recording files, deleted once sent (default: empty, the system temp directory)
+     */
+    private String directory = "";
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getDefaultDurationSeconds() {
+        return defaultDurationSeconds;
+    }
+    
+    public void setDefaultDurationSeconds(int defaultDurationSeconds) {
+        this.defaultDurationSeconds = defaultDurationSeconds;
+    }
+    
+    public int getMaxDurationSeconds() {
+        return maxDurationSeconds;
+    }
+    
+    public void setMaxDurationSeconds(int maxDurationSeconds) {
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+    
+    public String getSettings() {
+        return settings;
+    }
+    
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+    
+    public long getStageThresholdMillis() {
+        return stageThresholdMillis;
+    }
+    
+    public void setStageThresholdMillis(long stageThresholdMillis) {
+        this.stageThresholdMillis = stageThresholdMillis;
+    }
+    
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+}
@@ -1,5 +1,8 @@
 package com.hintro.ridepool.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -28,6 +31,145 @@ public class RideMatcherConfig {
      */
     private boolean enableMatching = true;
     
+    /**
+     * Enable or disable route-aware detour scoring (default: true)
+     * When enabled, candidates are ranked by how well they pool with the new
+     * request and groups whose pickup route is too long are rejected
+     */
+    private boolean enableDetourScoring = true;
+    
+    /**
+     * Maximum allowed detour ratio (default: 1.5)
+     * A passenger's pooled ride distance may be at most this multiple of
+     * their direct (solo) distance to the airport
+     */
+    private double maxDetourRatio = 1.5;
+    
+    /**
+     * Maximum pickup stops optimized exactly (default: 6)
+     * Larger groups fall back to a nearest-neighbour pickup order
+     */
+    private int maxExactPickupStops = 6;
+    
+    /**
+     * Matching strategy used unless overridden per airport (default: detour-aware)
+     * One of: greedy, best-fit, batch-optimal, detour-aware
+     */
+    private String strategy = "detour-aware";
+    
+    /**
+     * Per-airport strategy overrides, keyed by airport code
+     */
+    private Map<String, String> airportStrategies = new HashMap<>();
+    
+    /**
+     * Strategy run in shadow mode next to the active one (default: none)
+     * Its groups are only measured, never applied
+     */
+    private String shadowStrategy;
+    
+    /**
+     * Per-airport shadow strategy overrides, keyed by airport code
+     */
+    private Map<String, String> airportShadowStrategies = new HashMap<>();
+    
+    /**
+     * Shadow evaluations queued before new ones are dropped (default: 1000)
+     */
+    private int shadowQueueCapacity = 1000;
+    
+    /**
+     * Nearest candidates searched by the batch-optimal strategy (default: 10)
+     */
+    private int batchOptimalMaxCandidates = 10;
+    
+    /**
+     * Adapt the matching radius to local demand density and wait time (default: true)
+     * When disabled, matchingRadiusKm is used everywhere
+     */
+    private boolean enableAdaptiveRadius = true;
+    
+    /**
+     * Smallest adaptive radius, used in the densest areas (default: 1 KM)
+     */
+    private double minMatchingRadiusKm = 1.0;
+    
+    /**
+     * Largest adaptive radius, used where there is no recent demand (default: 8 KM)
+     */
+    private double maxMatchingRadiusKm = 8.0;
+    
+    /**
+     * Candidates the adaptive radius aims to cover per match (default: 20)
+     */
+    private int targetCandidatesPerMatch = 20;
+    
+    /**
+     * Hard cap on candidates handed to the matching strategy; the nearest are kept (default: 50)
+     */
+    private int maxCandidatesPerMatch = 50;
+    
+    /**
+     * Radius growth per minute a rider has been waiting (default: 0.2 KM)
+     */
+    private double waitRadiusGrowthKmPerMinute = 0.2;
+    
+    /**
+     * Maximum radius added for waiting time (default: 2 KM)
+     */
+    private double maxWaitRadiusBonusKm = 2.0;
+    
+    /**
+     * Grid cell size for waiting rider lookups in degrees (default: 0.01, roughly 1.1 KM)
+     */
+    private double candidateCellSizeDegrees = 0.01;
+    
+    /**
+     * Rank candidates by wait time as well as distance (default: true)
+     * When disabled, the nearest candidates are kept in index order
+     */
+    private boolean enableWaitFairness = true;
+    
+    /**
+     * Seconds of waiting worth one KM of pickup distance when ranking candidates (default: 60)
+     */
+    private double fairnessSecondsPerKm = 60.0;
+    
+    /**
+     * Riders waiting longer than this are placed in the next compatible group
+     * whatever the strategy prefers (default: 600 seconds)
+     */
+    private long priorityWaitSeconds = 600;
+    
+    /**
+     * Size groups by the free seats of cabs near the pickup instead of cabCapacitySeats alone (default: true)
+     */
+    private boolean enableFleetMixTargets = true;
+    
+    /**
+     * Share of nearby cabs that must fit a group size for matching to aim for it (default: 0.25)
+     */
+    private double fleetMixMinShare = 0.25;
+    
+    /**
+     * Largest group the fleet mix can raise the target to (default: 8 seats)
+     */
+    private int maxGroupSeats = 8;
+    
+    /**
+     * Strategy name for an airport
+     */
+    public String getStrategyFor(String airportCode) {
+        return airportStrategies.getOrDefault(airportCode, strategy);
+    }
+    
+    /**
+     * Shadow strategy name for an airport, or null when shadow mode is off
+     */
+    public String getShadowStrategyFor(String airportCode) {
+        return airportShadowStrategies.getOrDefault(airportCode, shadowStrategy);
+    }
+    
     // Getters and Setters
     public double getMatchingRadiusKm() {
         return matchingRadiusKm;
@@ -52,4 +194,188 @@ public class RideMatcherConfig {
     public void setEnableMatching(boolean enableMatching) {
         this.enableMatching = enableMatching;
     }
+    
+    public boolean isEnableDetourScoring() {
+        return enableDetourScoring;
+    }
+    
+    public void setEnableDetourScoring(boolean enableDetourScoring) {
+        this.enableDetourScoring = enableDetourScoring;
+    }
+    
+    public double getMaxDetourRatio() {
+        return maxDetourRatio;
+    }
+    
+    public void setMaxDetourRatio(double maxDetourRatio) {
+        this.maxDetourRatio = maxDetourRatio;
+    }
+    
+    public int getMaxExactPickupStops() {
+        return maxExactPickupStops;
+    }
+    
+    public void setMaxExactPickupStops(int maxExactPickupStops) {
+        this.maxExactPickupStops = maxExactPickupStops;
+    }
+    
+    public String getStrategy() {
+        return strategy;
+    }
+    
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+    
+    public Map<String, String> getAirportStrategies() {
+        return airportStrategies;
+    }
+    
+    public void setAirportStrategies(Map<String, String> airportStrategies) {
+        this.airportStrategies = airportStrategies;
+    }
+    
+    public String getShadowStrategy() {
+        return shadowStrategy;
+    }
+    
+    public void setShadowStrategy(String shadowStrategy) {
+        this.shadowStrategy = shadowStrategy;
+    }
+    
+    public Map<String, String> getAirportShadowStrategies() {
+        return airportShadowStrategies;
+    }
+    
+    public void setAirportShadowStrategies(Map<String, String> airportShadowStrategies) {
+        this.airportShadowStrategies = airportShadowStrategies;
+    }
+    
+    public int getShadowQueueCapacity() {
+        return shadowQueueCapacity;
+    }
+    
+    public void setShadowQueueCapacity(int shadowQueueCapacity) {
+        this.shadowQueueCapacity = shadowQueueCapacity;
+    }
+    
+    public int getBatchOptimalMaxCandidates() {
+        return batchOptimalMaxCandidates;
+    }
+    
+    public void setBatchOptimalMaxCandidates(int batchOptimalMaxCandidates) {
+        this.batchOptimalMaxCandidates = batchOptimalMaxCandidates;
+    }
+    
+    public boolean isEnableAdaptiveRadius() {
+        return enableAdaptiveRadius;
+    }
+    
+    public void setEnableAdaptiveRadius(boolean enableAdaptiveRadius) {
+        this.enableAdaptiveRadius = enableAdaptiveRadius;
+    }
+    
+    public double getMinMatchingRadiusKm() {
+        return minMatchingRadiusKm;
+    }
+    
+    public void setMinMatchingRadiusKm(double minMatchingRadiusKm) {
+        this.minMatchingRadiusKm = minMatchingRadiusKm;
+    }
+    
+    public double getMaxMatchingRadiusKm() {
+        return maxMatchingRadiusKm;
+    }
+    
+    public void setMaxMatchingRadiusKm(double maxMatchingRadiusKm) {
+        this.maxMatchingRadiusKm = maxMatchingRadiusKm;
+    }
+    
+    public int getTargetCandidatesPerMatch() {
+        return targetCandidatesPerMatch;
+    }
+    
+    public void setTargetCandidatesPerMatch(int targetCandidatesPerMatch) {
+        this.targetCandidatesPerMatch = targetCandidatesPerMatch;
+    }
+    
+    public int getMaxCandidatesPerMatch() {
+        return maxCandidatesPerMatch;
+    }
+    
+    public void setMaxCandidatesPerMatch(int maxCandidatesPerMatch) {
+        this.maxCandidatesPerMatch = maxCandidatesPerMatch;
+    }
+    
+    public double getWaitRadiusGrowthKmPerMinute() {
+        return waitRadiusGrowthKmPerMinute;
+    }
+    
+    public void setWaitRadiusGrowthKmPerMinute(double waitRadiusGrowthKmPerMinute) {
+        this.waitRadiusGrowthKmPerMinute = waitRadiusGrowthKmPerMinute;
+    }
+    
+    public double getMaxWaitRadiusBonusKm() {
+        return maxWaitRadiusBonusKm;
+    }
+    
+    public void setMaxWaitRadiusBonusKm(double maxWaitRadiusBonusKm) {
+        this.maxWaitRadiusBonusKm = maxWaitRadiusBonusKm;
+    }
+    
+    public double getCandidateCellSizeDegrees() {
+        return candidateCellSizeDegrees;
+    }
+    
+    public void setCandidateCellSizeDegrees(double candidateCellSizeDegrees) {
+        this.candidateCellSizeDegrees = candidateCellSizeDegrees;
+    }
+    
+    public boolean isEnableWaitFairness() {
+        return enableWaitFairness;
+    }
+    
+    public void setEnableWaitFairness(boolean enableWaitFairness) {
+        this.enableWaitFairness = enableWaitFairness;
+    }
+    
+    public double getFairnessSecondsPerKm() {
+        return fairnessSecondsPerKm;
+    }
+    
+    public void setFairnessSecondsPerKm(double fairnessSecondsPerKm) {
+        this.fairnessSecondsPerKm = fairnessSecondsPerKm;
+    }
+    
+    public long getPriorityWaitSeconds() {
+        return priorityWaitSeconds;
+    }
+    
+    public void setPriorityWaitSeconds(long priorityWaitSeconds) {
+        this.priorityWaitSeconds = priorityWaitSeconds;
+    }
+    
+    public boolean isEnableFleetMixTargets() {
+        return enableFleetMixTargets;
+    }
+    
+    public void setEnableFleetMixTargets(boolean enableFleetMixTargets) {
+        this.enableFleetMixTargets = enableFleetMixTargets;
+    }
+    
+    public double getFleetMixMinShare() {
+        return fleetMixMinShare;
+    }
+    
+    public void setFleetMixMinShare(double fleetMixMinShare) {
+        this.fleetMixMinShare = fleetMixMinShare;
+    }
+    
+    public int getMaxGroupSeats() {
+        return maxGroupSeats;
+    }
+    
+    public void setMaxGroupSeats(int maxGroupSeats) {
+        this.maxGroupSeats = maxGroupSeats;
+    }
 }
@@ -0,0 +1,77 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for distance calculation.
+ * Selects between straight-line Haversine and the offline road network engine.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.routing")
+public class RoutingConfig {
+    
+    /**
+     * Distance provider used by matching and cab assignment (default: HAVERSINE)
+     */
+    private Provider provider = Provider.HAVERSINE;
+    
+    /**
+     * Path to the local road graph file (required when provider is ROAD)
+     */
+    private String graphFile;
+    
+    /**
+     * Maximum distance from a coordinate to its nearest road node (default: 1 KM)
+     * Points farther than this from the road network fall back to Haversine
+     */
+    private double maxSnapDistanceKm = 1.0;
+    
+    /**
+     * Maximum nodes settled per witness search when a graph file without a
+     * contraction hierarchy is contracted at startup (default: 500)
+     * Lower values preprocess faster but add more shortcut edges
+     */
+    private int witnessSearchLimit = 500;
+    
+    /**
+     * Available distance providers
+     */
+    public enum Provider {
+        HAVERSINE,  // Straight-line great-circle distance
+        ROAD        // Shortest path over the local road graph
+    }
+    
+    // Getters and Setters
+    public Provider getProvider() {
+        return provider;
+    }
+    
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+    }
+    
+    public String getGraphFile() {
+        return graphFile;
+    }
+    
+    public void setGraphFile(String graphFile) {
+        this.graphFile = graphFile;
+    }
+    
+    public double getMaxSnapDistanceKm() {
+        return maxSnapDistanceKm;
+    }
+    
+    public void setMaxSnapDistanceKm(double maxSnapDistanceKm) {
+        this.maxSnapDistanceKm = maxSnapDistanceKm;
+    }
+    
+    public int getWitnessSearchLimit() {
+        return witnessSearchLimit;
+    }
+    
+    public void setWitnessSearchLimit(int witnessSearchLimit) {
+        this.witnessSearchLimit = witnessSearchLimit;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for running on a zone-sharded MongoDB cluster
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.sharding")
+public class ShardingConfig {
+    
+    /**
+     * Give new ride requests, cabs and ride groups IDs that carry their
+     * shard airport (default: false)
+     * Enable together with scripts/mongo-shard-setup.js; IDs created while
+     * disabled keep working but updates by those IDs are broadcast to every shard
+     */
+    private boolean enabled = false;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for snapshotting in-memory matching state
+ * (fleet index and waiting riders) to local disk for warm restarts
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.snapshot")
+public class SnapshotConfig {
+    
+    /**
+     * Enable or disable snapshots and the change journal (default: false)
+     * When disabled, in-memory state is rebuilt from MongoDB on every start
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Directory holding the snapshot and journal files (default: data/snapshot)
+     */
+    private String directory = "data/snapshot";
+    
+    /**
+     * Seconds between periodic snapshots (default: 60)
+     * The journal only has to be replayed from the latest snapshot onwards
+     */
+    private int intervalSeconds = 60;
+    
+    /**
+     * Overlap in seconds when catching up on ride requests created in MongoDB
+     * after the snapshot was taken, to absorb clock skew between instances (default: 60)
+     */
+    private int catchUpOverlapSeconds = 60;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+    
+    public void setIntervalSeconds(int intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+    
+    public int getCatchUpOverlapSeconds() {
+        return catchUpOverlapSeconds;
+    }
+    
+    public void setCatchUpOverlapSeconds(int catchUpOverlapSeconds) {
+        this.catchUpOverlapSeconds = catchUpOverlapSeconds;
+    }
+}
@@ -0,0 +1,66 @@
+package com.hintro.ridepool.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for match and cab assignment decision tracing
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ridepool.tracing")
+public class TracingConfig {
+    
+    /**
+     * Enable or disable decision tracing (default: true)
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Most recent decisions kept in memory, rounded up to a power of two (default: 4096)
+     */
+    private int bufferSize = 4096;
+    
+    /**
+     * Fraction of decisions also written to the "ridepool.decisions" log (default: 0.01)
+     * FAILED decisions are always logged
+     */
+    private double logSampleRate = 0.01;
+    
+    /**
+     * Sampled decisions waiting for the log writer; more are dropped and counted (default: 1024)
+     */
+    private int logQueueSize = 1024;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getBufferSize() {
+        return bufferSize;
+    }
+    
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+    
+    public double getLogSampleRate() {
+        return logSampleRate;
+    }
+    
+    public void setLogSampleRate(double logSampleRate) {
+        this.logSampleRate = logSampleRate;
+    }
+    
+    public int getLogQueueSize() {
+        return logQueueSize;
+    }
+    
+    public void setLogQueueSize(int logQueueSize) {
+        this.logQueueSize = logQueueSize;
+    }
+}
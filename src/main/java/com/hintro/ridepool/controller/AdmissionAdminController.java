@@ -0,0 +1,33 @@
+package com.hintro.ridepool.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.AdmissionStats;
+import com.hintro.ridepool.service.AdmissionControlService;
+
+/**
+ * Admin controller for per-airport admission queues
+ */
+@RestController
+@RequestMapping("/admin/admission")
+public class AdmissionAdminController {
+    
+    private final AdmissionControlService admissionControlService;
+    
+    public AdmissionAdminController(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+    
+    /**
+     * Queue depth, wait time and rejection counts per airport
+     */
+    @GetMapping
+    public ResponseEntity<List<AdmissionStats>> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControlService.getStats());
+    }
+}
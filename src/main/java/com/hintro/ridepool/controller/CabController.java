@@ -1,14 +1,30 @@
 package com.hintro.ridepool.controller;
 
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hintro.ridepool.config.BulkConfig;
+import com.hintro.ridepool.dto.BulkRegistrationResult;
+import com.hintro.ridepool.dto.CabRegistrationDTO;
+import com.hintro.ridepool.dto.ListingFilter;
 import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.service.CabLifecycleService;
 import com.hintro.ridepool.service.CabService;
+import com.hintro.ridepool.service.ListingService;
 
 /**
  * Controller for cab operations
@@ -17,10 +33,19 @@ import com.hintro.ridepool.service.CabService;
 @RequestMapping("/cabs")
 public class CabController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CabController.class);
+
     private final CabService cabService;
+    private final CabLifecycleService cabLifecycleService;
+    private final ListingService listingService;
+    private final BulkConfig bulkConfig;
 
-    public CabController(CabService cabService) {
+    public CabController(CabService cabService, CabLifecycleService cabLifecycleService,
+                         ListingService listingService, BulkConfig bulkConfig) {
         this.cabService = cabService;
+        this.cabLifecycleService = cabLifecycleService;
+        this.listingService = listingService;
+        this.bulkConfig = bulkConfig;
     }
 
     /**
@@ -56,6 +81,144 @@ public class CabController {
         }
     }
 
+    /**
+     * List cabs in ID order, one page at a time, streamed as it is read.
+     * Pass the returned nextCursor as "after" to get the next page.
+     * 
+     * GET /cabs?status=AVAILABLE&airportCode=DEL&minLat=28.5&maxLat=28.7&minLng=77.0&maxLng=77.3
+     *     &fields=driverName,status,currentLat,currentLng&after=...&limit=100
+     * 
+     * @param fields comma-separated fields to return besides id (default: all)
+     * @param limit cabs per page, 1 - 1000 (default: 100)
+     * @return {"items": [...], "nextCursor": ...}; 400 for an unknown field or bad limit
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listCabs(@RequestParam(required = false) CabStatus status,
+                                                          @RequestParam(required = false) String airportCode,
+                                                          @RequestParam(required = false) Double minLat,
+                                                          @RequestParam(required = false) Double maxLat,
+                                                          @RequestParam(required = false) Double minLng,
+                                                          @RequestParam(required = false) Double maxLng,
+                                                          @RequestParam(required = false) String fields,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > ListingService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> projection;
+        try {
+            projection = listingService.cabFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid cab listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        ListingFilter filter = ListingFilter.builder()
+                .status(status != null ? status.name() : null)
+                .airportCode(airportCode)
+                .minLat(minLat)
+                .maxLat(maxLat)
+                .minLng(minLng)
+                .maxLng(maxLng)
+                .build();
+        StreamingResponseBody body = out -> listingService.streamCabs(filter, after, limit, projection, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Register many cabs at once (e.g. at shift start). Valid cabs are
+     * inserted in batches; invalid ones are reported per item.
+     * 
+     * Request body: an array of cab creation bodies
+     * 
+     * @return per-cab results, 400 if the body is empty, 413 if it holds more
+     *         than ridepool.bulk.max-items
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkRegistrationResult> createCabs(@RequestBody List<CabRegistrationDTO> registrations) {
+        if (registrations == null || registrations.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (registrations.size() > bulkConfig.getMaxItems()) {
+            logger.warn("Bulk cab registration of {} items exceeds {}", registrations.size(), bulkConfig.getMaxItems());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            logger.info("Received bulk cab registration with {} items", registrations.size());
+            return ResponseEntity.ok(cabService.createCabs(registrations));
+        } catch (Exception e) {
+            logger.error("✗ Error registering cabs in bulk", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Passengers picked up: RESERVED -> ON_TRIP
+     */
+    @PostMapping("/{id}/trip/start")
+    public ResponseEntity<Cab> startTrip(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(cabLifecycleService.startTrip(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            logger.warn("⚠ Cannot start trip: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("✗ Error starting trip for cab {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Passengers dropped off: ON_TRIP -> AVAILABLE, cab becomes assignable
+     * again from the drop-off point
+     * 
+     * Request body:
+     * {
+     *   "dropLat": 28.5562,
+     *   "dropLng": 77.1000
+     * }
+     */
+    @PostMapping("/{id}/trip/complete")
+    public ResponseEntity<Cab> completeTrip(@PathVariable String id, @RequestBody TripCompleteRequest request) {
+        try {
+            return ResponseEntity.ok(cabLifecycleService.completeTrip(id, request.getDropLat(), request.getDropLng()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            logger.warn("⚠ Cannot complete trip: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("✗ Error completing trip for cab {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Request DTO for trip completion
+     */
+    public static class TripCompleteRequest {
+        private double dropLat;
+        private double dropLng;
+
+        // Getters and Setters
+        public double getDropLat() {
+            return dropLat;
+        }
+
+        public void setDropLat(double dropLat) {
+            this.dropLat = dropLat;
+        }
+
+        public double getDropLng() {
+            return dropLng;
+        }
+
+        public void setDropLng(double dropLng) {
+            this.dropLng = dropLng;
+        }
+    }
+
     /**
      * Request DTO for cab creation
      */
@@ -0,0 +1,73 @@
+package com.hintro.ridepool.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.CaptureStatus;
+import com.hintro.ridepool.replay.TrafficRecorder;
+
+/**
+ * Admin controller for recording live traffic for offline replay
+ */
+@RestController
+@RequestMapping("/admin/capture")
+public class CaptureAdminController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CaptureAdminController.class);
+    private final TrafficRecorder trafficRecorder;
+    
+    public CaptureAdminController(TrafficRecorder trafficRecorder) {
+        this.trafficRecorder = trafficRecorder;
+    }
+    
+    /**
+     * Whether a capture is running, its file and record counts
+     */
+    @GetMapping
+    public ResponseEntity<CaptureStatus> getStatus() {
+        return ResponseEntity.ok(trafficRecorder.getStatus());
+    }
+    
+    /**
+     * Start recording, beginning with a snapshot of the fleet
+     * 
+     * @param file capture file (default: ridepool.capture.file), overwritten
+     * @return capture status, or 409 if a capture is already running
+     */
+    @PostMapping("/start")
+    public ResponseEntity<CaptureStatus> start(@RequestParam(required = false) String file) {
+        try {
+            return ResponseEntity.ok(trafficRecorder.start(file));
+        } catch (IllegalStateException e) {
+            logger.warn("⚠ Cannot start capture: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("✗ Error starting traffic capture", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Stop recording once queued records are written
+     * 
+     * @return final capture status, or 409 if no capture is running
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<CaptureStatus> stop() {
+        try {
+            return ResponseEntity.ok(trafficRecorder.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("✗ Error stopping traffic capture", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.hintro.ridepool.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.DecisionTraceStats;
+import com.hintro.ridepool.trace.Decision;
+import com.hintro.ridepool.trace.DecisionOutcome;
+import com.hintro.ridepool.trace.DecisionTracer;
+import com.hintro.ridepool.trace.DecisionType;
+
+/**
+ * Admin controller for recent match and cab assignment decisions
+ */
+@RestController
+@RequestMapping("/admin/decisions")
+public class DecisionAdminController {
+    
+    private final DecisionTracer decisionTracer;
+    
+    public DecisionAdminController(DecisionTracer decisionTracer) {
+        this.decisionTracer = decisionTracer;
+    }
+    
+    /**
+     * Most recent decisions still in memory, newest first, optionally filtered
+     * 
+     * @param type MATCH or ASSIGNMENT
+     * @param outcome e.g. NO_CAB
+     * @param airportCode only decisions for this airport
+     * @param rideRequestId request being matched, or first rider of the group
+     * @param groupId only decisions about this group
+     * @param cabId only assignments of this cab
+     * @param limit maximum decisions returned (default: 100)
+     */
+    @GetMapping
+    public ResponseEntity<List<Decision>> getDecisions(@RequestParam(required = false) DecisionType type,
+                                                       @RequestParam(required = false) DecisionOutcome outcome,
+                                                       @RequestParam(required = false) String airportCode,
+                                                       @RequestParam(required = false) String rideRequestId,
+                                                       @RequestParam(required = false) String groupId,
+                                                       @RequestParam(required = false) String cabId,
+                                                       @RequestParam(defaultValue = "100") int limit) {
+        if (!decisionTracer.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(decisionTracer.recent(decision ->
+                (type == null || type == decision.getType())
+                        && (outcome == null || outcome == decision.getOutcome())
+                        && (airportCode == null || airportCode.equals(decision.getAirportCode()))
+                        && (rideRequestId == null || rideRequestId.equals(decision.getRideRequestId()))
+                        && (groupId == null || groupId.equals(decision.getGroupId()))
+                        && (cabId == null || cabId.equals(decision.getCabId())), limit));
+    }
+    
+    /**
+     * Decisions recorded and logged
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<DecisionTraceStats> getStats() {
+        return ResponseEntity.ok(decisionTracer.getStats());
+    }
+}
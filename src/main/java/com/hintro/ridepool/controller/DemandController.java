@@ -0,0 +1,63 @@
+package com.hintro.ridepool.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.DemandCell;
+import com.hintro.ridepool.dto.RepositioningRecommendation;
+import com.hintro.ridepool.service.DemandHeatmapService;
+
+/**
+ * Controller for demand heatmap and cab repositioning
+ */
+@RestController
+@RequestMapping("/demand")
+public class DemandController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DemandController.class);
+    private final DemandHeatmapService demandHeatmapService;
+    
+    public DemandController(DemandHeatmapService demandHeatmapService) {
+        this.demandHeatmapService = demandHeatmapService;
+    }
+    
+    /**
+     * Get recent demand and supply per grid cell for an airport
+     * 
+     * @param airportCode airport code
+     * @return cells ordered by demand
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<List<DemandCell>> getHeatmap(@RequestParam String airportCode) {
+        try {
+            return ResponseEntity.ok(demandHeatmapService.getHeatmap(airportCode));
+        } catch (Exception e) {
+            logger.error("✗ Error building demand heatmap", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get repositioning recommendations for AVAILABLE cabs
+     * 
+     * @param airportCode airport code
+     * @return recommendations, largest shortfall first
+     */
+    @GetMapping("/repositioning")
+    public ResponseEntity<List<RepositioningRecommendation>> getRepositioning(@RequestParam String airportCode) {
+        try {
+            return ResponseEntity.ok(demandHeatmapService.recommendRepositioning(airportCode));
+        } catch (Exception e) {
+            logger.error("✗ Error computing repositioning recommendations", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
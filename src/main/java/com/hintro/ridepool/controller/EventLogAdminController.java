@@ -0,0 +1,73 @@
+package com.hintro.ridepool.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.EventLogStats;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+
+/**
+ * Admin controller for the ride lifecycle event log (audit trail)
+ */
+@RestController
+@RequestMapping("/admin/events")
+public class EventLogAdminController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventLogAdminController.class);
+    private final RideEventLog eventLog;
+    
+    public EventLogAdminController(RideEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+    
+    /**
+     * Events in log order, optionally for one ride request or group.
+     * Scans the log from fromSequence, so narrow it down on large logs.
+     * 
+     * @param rideRequestId only events about this ride request
+     * @param groupId only events about this group
+     * @param fromSequence first sequence to scan (default: 1)
+     * @param limit maximum events returned (default: 100)
+     */
+    @GetMapping
+    public ResponseEntity<List<RideEvent>> getEvents(@RequestParam(required = false) String rideRequestId,
+                                                     @RequestParam(required = false) String groupId,
+                                                     @RequestParam(defaultValue = "1") long fromSequence,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        if (!eventLog.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        try {
+            List<RideEvent> events = new ArrayList<>();
+            eventLog.read(fromSequence, event -> {
+                if ((rideRequestId == null || rideRequestId.equals(event.getRideRequestId()))
+                        && (groupId == null || groupId.equals(event.getGroupId()))) {
+                    events.add(event);
+                }
+                return events.size() < limit;
+            });
+            return ResponseEntity.ok(events);
+        } catch (Exception e) {
+            logger.error("✗ Error reading ride event log", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Group commit progress
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EventLogStats> getStats() {
+        return ResponseEntity.ok(eventLog.getStats());
+    }
+}
@@ -0,0 +1,79 @@
+package com.hintro.ridepool.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.ShadowComparison;
+import com.hintro.ridepool.matcher.MatchingStrategyRegistry;
+import com.hintro.ridepool.matcher.ShadowMatchingEvaluator;
+
+/**
+ * Admin controller for matching strategies and shadow evaluation
+ */
+@RestController
+@RequestMapping("/admin/matching")
+public class MatchingAdminController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MatchingAdminController.class);
+    private final MatchingStrategyRegistry strategyRegistry;
+    private final ShadowMatchingEvaluator shadowEvaluator;
+    private final RideMatcherConfig matcherConfig;
+    
+    public MatchingAdminController(MatchingStrategyRegistry strategyRegistry,
+                                   ShadowMatchingEvaluator shadowEvaluator,
+                                   RideMatcherConfig matcherConfig) {
+        this.strategyRegistry = strategyRegistry;
+        this.shadowEvaluator = shadowEvaluator;
+        this.matcherConfig = matcherConfig;
+    }
+    
+    /**
+     * List available strategies and the configured active / shadow ones
+     */
+    @GetMapping("/strategies")
+    public ResponseEntity<Map<String, Object>> getStrategies() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("available", strategyRegistry.getNames());
+        body.put("default", matcherConfig.getStrategy());
+        body.put("airports", matcherConfig.getAirportStrategies());
+        body.put("shadowDefault", matcherConfig.getShadowStrategy());
+        body.put("shadowAirports", matcherConfig.getAirportShadowStrategies());
+        return ResponseEntity.ok(body);
+    }
+    
+    /**
+     * Compare shadow strategies against the active ones on live traffic
+     * 
+     * @return one comparison per airport and strategy pair
+     */
+    @GetMapping("/shadow")
+    public ResponseEntity<List<ShadowComparison>> getShadowComparisons() {
+        try {
+            return ResponseEntity.ok(shadowEvaluator.getComparisons());
+        } catch (Exception e) {
+            logger.error("✗ Error reading shadow comparisons", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Clear shadow comparison totals (e.g. after changing the shadow strategy)
+     */
+    @DeleteMapping("/shadow")
+    public ResponseEntity<Void> resetShadowComparisons() {
+        shadowEvaluator.reset();
+        logger.info("✓ Shadow comparison totals cleared");
+        return ResponseEntity.noContent().build();
+    }
+}
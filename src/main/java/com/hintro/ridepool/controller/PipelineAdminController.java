@@ -0,0 +1,37 @@
+package com.hintro.ridepool.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.dto.PipelineStageStats;
+import com.hintro.ridepool.pipeline.RideRequestPipeline;
+
+/**
+ * Admin controller for the staged ride request pipeline
+ */
+@RestController
+@RequestMapping("/admin/pipeline")
+public class PipelineAdminController {
+    
+    private final RideRequestPipeline ridePipeline;
+    
+    public PipelineAdminController(RideRequestPipeline ridePipeline) {
+        this.ridePipeline = ridePipeline;
+    }
+    
+    /**
+     * Queue depth, batch size and queue wait per stage (404 when the pipeline is off)
+     */
+    @GetMapping
+    public ResponseEntity<List<PipelineStageStats>> getPipelineStats() {
+        if (!ridePipeline.isRunning()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(ridePipeline.getStats());
+    }
+}
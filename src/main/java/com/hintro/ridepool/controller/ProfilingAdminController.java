@@ -0,0 +1,76 @@
+package com.hintro.ridepool.controller;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.hintro.ridepool.trace.ProfilingRecorder;
+
+/**
+ * Admin controller for on-demand Flight Recorder profiles
+ */
+@RestController
+@RequestMapping("/admin/profiling")
+public class ProfilingAdminController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingAdminController.class);
+    private final ProfilingRecorder profilingRecorder;
+    
+    public ProfilingAdminController(ProfilingRecorder profilingRecorder) {
+        this.profilingRecorder = profilingRecorder;
+    }
+    
+    /**
+     * Record a profile and return it as a .jfr file once the time is up
+     * 
+     * @param durationSeconds recording length (default: ridepool.profiling.default-duration-seconds),
+     *                        cut to ridepool.profiling.max-duration-seconds
+     * @return the recording, 404 if profiling is disabled, or 409 if a recording is already running
+     */
+    @PostMapping("/recording")
+    public ResponseEntity<StreamingResponseBody> record(@RequestParam(required = false) Integer durationSeconds) {
+        if (!profilingRecorder.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        
+        Path file;
+        try {
+            file = profilingRecorder.record(profilingRecorder.durationFor(durationSeconds));
+        } catch (IllegalStateException e) {
+            logger.warn("⚠ Cannot start recording: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("✗ Error recording profile", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        
+        StreamingResponseBody body = out -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                in.transferTo(out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,46 @@
+package com.hintro.ridepool.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.repository.RideGroupRepository;
+
+/**
+ * Controller for reading ride groups
+ */
+@RestController
+@RequestMapping("/groups")
+public class RideGroupController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideGroupController.class);
+    private final RideGroupRepository rideGroupRepository;
+    
+    public RideGroupController(RideGroupRepository rideGroupRepository) {
+        this.rideGroupRepository = rideGroupRepository;
+    }
+    
+    /**
+     * Get a ride group: members, seat and luggage counters, centroid, status and cab
+     * 
+     * @param id group ID (the groupId of its riders)
+     * @return the group, or 404 if no such group was stored
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RideGroup> getGroup(@PathVariable String id) {
+        try {
+            return rideGroupRepository.findById(id)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            logger.error("✗ Error fetching ride group {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package com.hintro.ridepool.controller;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hintro.ridepool.config.BulkConfig;
+import com.hintro.ridepool.dto.BulkRegistrationResult;
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.dto.RideCancellationResult;
 import com.hintro.ridepool.dto.RideRequestDTO;
 import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.pipeline.RideRequestPipeline;
+import com.hintro.ridepool.service.AdmissionControlService;
+import com.hintro.ridepool.service.AdmissionRejectedException;
+import com.hintro.ridepool.service.ListingService;
+import com.hintro.ridepool.service.RideCancellationService;
 import com.hintro.ridepool.service.RideRequestService;
 
 @RestController
@@ -19,47 +39,192 @@ public class RideRequestController {
     
     private static final Logger logger = LoggerFactory.getLogger(RideRequestController.class);
     private final RideRequestService rideRequestService;
+    private final AdmissionControlService admissionControlService;
+    private final RideCancellationService rideCancellationService;
+    private final RideRequestPipeline ridePipeline;
+    private final ListingService listingService;
+    private final BulkConfig bulkConfig;
     
-    public RideRequestController(RideRequestService rideRequestService) {
+    public RideRequestController(RideRequestService rideRequestService,
+                                 AdmissionControlService admissionControlService,
+                                 RideCancellationService rideCancellationService,
+                                 RideRequestPipeline ridePipeline,
+                                 ListingService listingService,
+                                 BulkConfig bulkConfig) {
         this.rideRequestService = rideRequestService;
+        this.admissionControlService = admissionControlService;
+        this.rideCancellationService = rideCancellationService;
+        this.ridePipeline = ridePipeline;
+        this.listingService = listingService;
+        this.bulkConfig = bulkConfig;
     }
     
     /**
-     * Create a new ride request
+     * Create a new ride request behind the airport's admission queue. With the
+     * pipeline enabled the HTTP thread is released while the request is saved,
+     * matched and assigned.
      * 
      * @param dto RideRequestDTO with passenger details
-     * @return ResponseEntity with saved RideRequest
+     * @return ResponseEntity with saved RideRequest, or 429 with Retry-After
+     *         when the airport's admission queue (or the pipeline) is full
      */
     @PostMapping("/request")
-    public ResponseEntity<RideRequest> createRideRequest(@RequestBody RideRequestDTO dto) {
-        try {
-            logger.info("Received ride request from user: {}", dto.getUserId());
-            
-            // Validate input
-            if (dto.getUserId() == null || dto.getUserId().isEmpty()) {
-                logger.warn("Invalid ride request: userId is empty");
-                return ResponseEntity.badRequest().build();
-            }
-            
-            if (dto.getAirportCode() == null || dto.getAirportCode().isEmpty()) {
-                logger.warn("Invalid ride request: airportCode is empty");
-                return ResponseEntity.badRequest().build();
-            }
-            
-            if (dto.getSeatsRequired() <= 0) {
-                logger.warn("Invalid ride request: seatsRequired must be greater than 0");
-                return ResponseEntity.badRequest().build();
+    public CompletableFuture<ResponseEntity<RideRequest>> createRideRequest(@RequestBody RideRequestDTO dto) {
+        logger.debug("Received ride request from user: {}", dto.getUserId());
+        
+        ResponseEntity<RideRequest> invalid = validate(dto);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        
+        if (ridePipeline.isRunning()) {
+            // The airport's slot is held until the pipeline is done with the request,
+            // so a burst at one airport cannot fill the shared rings
+            Runnable release;
+            try {
+                release = admissionControlService.acquire(dto.getAirportCode());
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(failed(e));
             }
-            
-            RideRequest savedRideRequest = rideRequestService.createRideRequest(dto);
-            
-            logger.info("Ride request created successfully with ID: {}", savedRideRequest.getId());
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedRideRequest);
-            
+            return ridePipeline.submit(dto).whenComplete((savedRideRequest, error) -> release.run())
+                    .handle((savedRideRequest, error) -> error == null
+                            ? created(savedRideRequest)
+                            : failed(error instanceof CompletionException ? error.getCause() : error));
+        }
+        
+        try {
+            RideRequest savedRideRequest = admissionControlService.admit(dto.getAirportCode(),
+                    () -> rideRequestService.createRideRequest(dto));
+            return CompletableFuture.completedFuture(created(savedRideRequest));
         } catch (Exception e) {
-            logger.error("✗ Error creating ride request", e);
-            System.err.println("✗ Error creating ride request: " + e.getMessage());
+            return CompletableFuture.completedFuture(failed(e));
+        }
+    }
+    
+    /**
+     * Get a ride request by ID
+     * 
+     * @param id ride request ID
+     * @return ResponseEntity with the ride request, 404 if unknown
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RideRequest> getRideRequest(@PathVariable String id) {
+        RideRequest rideRequest = rideRequestService.getRideRequestById(id);
+        return rideRequest != null ? ResponseEntity.ok(rideRequest) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+    
+    /**
+     * List ride requests in ID order, one page at a time, streamed as it is
+     * read. The bounding box applies to the pickup point. Pass the returned
+     * nextCursor as "after" to get the next page.
+     * 
+     * @param fields comma-separated fields to return besides id (default: all)
+     * @param limit ride requests per page, 1 - 1000 (default: 100)
+     * @return {"items": [...], "nextCursor": ...}; 400 for an unknown field or bad limit
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listRideRequests(@RequestParam(required = false) RideStatus status,
+                                                                  @RequestParam(required = false) String airportCode,
+                                                                  @RequestParam(required = false) Double minLat,
+                                                                  @RequestParam(required = false) Double maxLat,
+                                                                  @RequestParam(required = false) Double minLng,
+                                                                  @RequestParam(required = false) Double maxLng,
+                                                                  @RequestParam(required = false) String fields,
+                                                                  @RequestParam(required = false) String after,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > ListingService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> projection;
+        try {
+            projection = listingService.rideFields(fields);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid ride request listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        ListingFilter filter = ListingFilter.builder()
+                .status(status != null ? status.name() : null)
+                .airportCode(airportCode)
+                .minLat(minLat)
+                .maxLat(maxLat)
+                .minLng(minLng)
+                .maxLng(maxLng)
+                .build();
+        StreamingResponseBody body = out -> listingService.streamRides(filter, after, limit, projection, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    /**
+     * Register many ride requests at once. Valid requests are saved in
+     * batches and then matched one by one; invalid ones are reported per item.
+     * 
+     * @param dtos passenger details
+     * @return ResponseEntity with per-request results, 400 if the body is
+     *         empty, 413 if it holds more than ridepool.bulk.max-items
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkRegistrationResult> createRideRequests(@RequestBody List<RideRequestDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (dtos.size() > bulkConfig.getMaxItems()) {
+            logger.warn("Bulk ride request of {} items exceeds {}", dtos.size(), bulkConfig.getMaxItems());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            logger.info("Received bulk ride request with {} items", dtos.size());
+            return ResponseEntity.ok(rideRequestService.createRideRequests(dtos));
+        } catch (Exception e) {
+            logger.error("✗ Error creating ride requests in bulk", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    /**
+     * Cancel a ride request. Seats held on a cab are released and offered to
+     * nearby waiting riders.
+     * 
+     * @param id ride request ID
+     * @return ResponseEntity with the cancellation outcome, 404 if unknown,
+     *         409 if already completed or cancelled
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<RideCancellationResult> cancelRideRequest(@PathVariable String id) {
+        try {
+            logger.info("Received cancellation for ride request: {}", id);
+            return ResponseEntity.ok(rideCancellationService.cancel(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            logger.warn("⚠ Cannot cancel ride request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("✗ Error cancelling ride request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private ResponseEntity<RideRequest> validate(RideRequestDTO dto) {
+        String problem = RideRequestService.validationError(dto);
+        if (problem != null) {
+            logger.warn("Invalid ride request: {}", problem);
+            return ResponseEntity.badRequest().build();
+        }
+        return null;
+    }
+    
+    private ResponseEntity<RideRequest> created(RideRequest savedRideRequest) {
+        logger.debug("Ride request created successfully with ID: {}", savedRideRequest.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedRideRequest);
+    }
+    
+    private ResponseEntity<RideRequest> failed(Throwable error) {
+        if (error instanceof AdmissionRejectedException rejected) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()))
+                    .build();
+        }
+        logger.error("✗ Error creating ride request", error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
 }
@@ -0,0 +1,48 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one airport's admission queue
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStats {
+    
+    private String airportCode;
+    
+    /**
+     * Requests being processed / concurrency limit
+     */
+    private int inFlight;
+    private int maxConcurrent;
+    
+    /**
+     * Requests waiting for a slot / queue limit
+     */
+    private int queued;
+    private int maxQueued;
+    
+    /**
+     * Totals since startup
+     */
+    private long admitted;
+    private long rejectedQueueFull;
+    private long rejectedTimeout;
+    
+    /**
+     * Time admitted requests spent waiting for a slot
+     */
+    private double avgQueueWaitMillis;
+    private long maxQueueWaitMillis;
+    
+    /**
+     * Average processing time of admitted requests
+     */
+    private double avgServiceMillis;
+}
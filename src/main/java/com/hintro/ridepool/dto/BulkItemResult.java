@@ -0,0 +1,42 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk registration
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+    
+    /**
+     * Position of the item in the request body
+     */
+    private int index;
+    
+    /**
+     * ID of the stored cab or ride request (null unless stored)
+     */
+    private String id;
+    
+    /**
+     * INVALID, REJECTED or FAILED when not stored; otherwise the cab or ride status
+     * after registration (e.g. AVAILABLE, WAITING, MATCHED, ASSIGNED)
+     */
+    private String status;
+    
+    /**
+     * Ride group the request joined, if any
+     */
+    private String groupId;
+    
+    /**
+     * Why the item was not stored
+     */
+    private String error;
+}
@@ -0,0 +1,64 @@
+package com.hintro.ridepool.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a bulk cab or ride request registration, one entry per item in
+ * request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegistrationResult {
+    
+    /**
+     * Item statuses for items that were not stored
+     */
+    public static final String INVALID = "INVALID";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+    
+    private int received;
+    private int created;
+    
+    /**
+     * Items that failed validation / were refused by admission control / could not be stored
+     */
+    private int invalid;
+    private int rejected;
+    private int failed;
+    
+    private List<BulkItemResult> items;
+    
+    /**
+     * Summarize per-item results
+     */
+    public static BulkRegistrationResult of(List<BulkItemResult> items) {
+        int invalid = 0;
+        int rejected = 0;
+        int failed = 0;
+        for (BulkItemResult item : items) {
+            if (INVALID.equals(item.getStatus())) {
+                invalid++;
+            } else if (REJECTED.equals(item.getStatus())) {
+                rejected++;
+            } else if (FAILED.equals(item.getStatus())) {
+                failed++;
+            }
+        }
+        return BulkRegistrationResult.builder()
+                .received(items.size())
+                .created(items.size() - invalid - rejected - failed)
+                .invalid(invalid)
+                .rejected(rejected)
+                .failed(failed)
+                .items(items)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One cab in a bulk registration
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CabRegistrationDTO {
+    
+    private String driverName;
+    private double currentLat;
+    private double currentLng;
+    private int totalSeats;
+    private int luggageCapacity;
+}
@@ -0,0 +1,28 @@
+package com.hintro.ridepool.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the state of the traffic capture
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaptureStatus {
+    
+    private boolean capturing;
+    private String file;
+    private Instant startedAt;
+    
+    /**
+     * Records written to the file / dropped because the writer fell behind
+     */
+    private long recorded;
+    private long dropped;
+}
@@ -0,0 +1,30 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for decision tracing counters
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecisionTraceStats {
+    
+    private boolean enabled;
+    
+    /**
+     * Decisions recorded since startup / kept in memory at most
+     */
+    private long recorded;
+    private int bufferSize;
+    
+    /**
+     * Sampled decisions written to the log / dropped because the writer fell behind
+     */
+    private long logged;
+    private long droppedLogs;
+}
@@ -0,0 +1,37 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing recent ride demand in one grid cell
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandCell {
+    
+    /**
+     * Packed grid cell ID
+     */
+    private long cellId;
+    
+    /**
+     * Cell center coordinates
+     */
+    private double centerLat;
+    private double centerLng;
+    
+    /**
+     * Ride requests in the cell within the sliding window
+     */
+    private int demand;
+    
+    /**
+     * AVAILABLE cabs currently in the cell
+     */
+    private int supply;
+}
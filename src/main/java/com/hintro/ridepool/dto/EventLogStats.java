@@ -0,0 +1,36 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for event log group commit progress
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventLogStats {
+    
+    private boolean enabled;
+    
+    /**
+     * Last sequence durable in the log
+     */
+    private long committedSequence;
+    
+    /**
+     * Group commit: batches forced to disk and events written
+     */
+    private long batches;
+    private long events;
+    private double avgBatchSize;
+    
+    /**
+     * Time spent forcing a batch to disk
+     */
+    private double avgForceMicros;
+    private long maxForceMicros;
+}
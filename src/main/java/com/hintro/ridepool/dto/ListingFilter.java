@@ -0,0 +1,40 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter for cab and ride request listings; null fields do not filter.
+ * The bounding box applies to the cab's position or the rider's pickup.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingFilter {
+    
+    /**
+     * Cab or ride status name (e.g. AVAILABLE, WAITING)
+     */
+    private String status;
+    private String airportCode;
+    
+    private Double minLat;
+    private Double maxLat;
+    private Double minLng;
+    private Double maxLng;
+    
+    /**
+     * Whether a document with these values passes the filter
+     */
+    public boolean matches(Enum<?> status, String airportCode, double lat, double lng) {
+        return (this.status == null || (status != null && this.status.equals(status.name())))
+                && (this.airportCode == null || this.airportCode.equals(airportCode))
+                && (minLat == null || lat >= minLat)
+                && (maxLat == null || lat <= maxLat)
+                && (minLng == null || lng >= minLng)
+                && (maxLng == null || lng <= maxLng);
+    }
+}
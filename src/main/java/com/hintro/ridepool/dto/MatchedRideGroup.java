@@ -42,4 +42,19 @@ public class MatchedRideGroup {
      * Group status: PARTIAL (waiting for more), FULL (ready for cab assignment)
      */
     private String groupStatus; // PARTIAL or FULL
+    
+    /**
+     * Ride request IDs in planned pickup order (null when route scoring is not applied)
+     */
+    private List<String> pickupOrder;
+    
+    /**
+     * Planned route length from first pickup to the airport in kilometers
+     */
+    private double routeDistanceKm;
+    
+    /**
+     * Worst pooled-to-solo ride distance ratio across passengers
+     */
+    private double maxDetourRatio;
 }
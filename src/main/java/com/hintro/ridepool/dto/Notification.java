@@ -0,0 +1,73 @@
+package com.hintro.ridepool.dto;
+
+import java.time.Instant;
+
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.NotificationType;
+import com.hintro.ridepool.entity.RideRequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one rider or driver notification handed to the notification sinks
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notification {
+    
+    private NotificationType type;
+    
+    /**
+     * Rider notified (rider notifications only)
+     */
+    private String rideRequestId;
+    private String userId;
+    
+    /**
+     * Cab notified, or the rider's cab
+     */
+    private String cabId;
+    private String driverName;
+    
+    private String groupId;
+    private Instant cabArrivalTime;
+    
+    /**
+     * When the status change that queued the notification was written
+     */
+    private Instant queuedAt;
+    
+    /**
+     * Notification owed to a rider, built from its current state
+     */
+    public static Notification forRider(RideRequest rider) {
+        return Notification.builder()
+                .type(rider.getPendingNotification())
+                .rideRequestId(rider.getId())
+                .userId(rider.getUserId())
+                .cabId(rider.getAssignedCabId())
+                .driverName(rider.getAssignedDriverName())
+                .groupId(rider.getGroupId())
+                .cabArrivalTime(rider.getCabArrivalTime())
+                .queuedAt(rider.getNotificationQueuedAt())
+                .build();
+    }
+    
+    /**
+     * Notification owed to a cab's driver, built from the cab's current state
+     */
+    public static Notification forDriver(Cab cab) {
+        return Notification.builder()
+                .type(cab.getPendingNotification())
+                .cabId(cab.getId())
+                .driverName(cab.getDriverName())
+                .groupId(cab.getAssignedGroupId())
+                .queuedAt(cab.getNotificationQueuedAt())
+                .build();
+    }
+}
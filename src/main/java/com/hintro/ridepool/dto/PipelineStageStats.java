@@ -0,0 +1,38 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one stage of the ride request pipeline
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineStageStats {
+    
+    private String stage;
+    
+    /**
+     * Requests waiting in the stage's ring / ring capacity
+     */
+    private long queueDepth;
+    private int capacity;
+    
+    /**
+     * Totals since startup
+     */
+    private long processed;
+    private long failed;
+    private long batches;
+    private double avgBatchSize;
+    
+    /**
+     * Time requests waited in the ring before the stage took them
+     */
+    private double avgQueueWaitMicros;
+    private long maxQueueWaitMicros;
+}
@@ -0,0 +1,68 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO summarizing one replay of captured traffic through the matching and
+ * assignment engine
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayReport {
+    
+    private String captureFile;
+    
+    /**
+     * Matching strategy applied to the default airport
+     */
+    private String strategy;
+    
+    /**
+     * Records replayed, by kind
+     */
+    private long requests;
+    private long cabs;
+    private long tripEvents;
+    private long cancellations;
+    
+    /**
+     * Recorded trip or cancellation events that no longer applied because
+     * this build made different decisions than the captured one
+     */
+    private long skipped;
+    
+    /**
+     * Wall time spent creating ride requests (matching + assignment)
+     */
+    private long elapsedMillis;
+    private double requestsPerSecond;
+    private double p50LatencyMicros;
+    private double p99LatencyMicros;
+    
+    /**
+     * Pooled groups formed (two or more riders) and their average size
+     */
+    private long groups;
+    private double avgGroupSize;
+    
+    /**
+     * Average share of cab seats filled by an assigned group (0..1)
+     */
+    private double fillRatio;
+    
+    /**
+     * Worst pooled-to-solo ride distance ratio per pooled group, averaged and maximum
+     */
+    private double avgDetourRatio;
+    private double maxDetourRatio;
+    
+    /**
+     * Share of riders that got a cab (ASSIGNED or COMPLETED at the end of the replay)
+     */
+    private double assignmentRate;
+}
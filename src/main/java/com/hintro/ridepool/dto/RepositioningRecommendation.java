@@ -0,0 +1,43 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO recommending that an idle cab moves toward an under-supplied cell
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepositioningRecommendation {
+    
+    private String cabId;
+    private String driverName;
+    
+    /**
+     * Cab's current position
+     */
+    private double fromLat;
+    private double fromLng;
+    
+    /**
+     * Center of the target cell
+     */
+    private long targetCellId;
+    private double targetLat;
+    private double targetLng;
+    
+    /**
+     * Travel distance to the target cell in kilometers
+     */
+    private double distanceKm;
+    
+    /**
+     * Demand and supply of the target cell when the recommendation was made
+     */
+    private int cellDemand;
+    private int cellSupply;
+}
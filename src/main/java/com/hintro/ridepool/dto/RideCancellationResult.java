@@ -0,0 +1,44 @@
+package com.hintro.ridepool.dto;
+
+import java.util.List;
+
+import com.hintro.ridepool.entity.RideStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing what a ride cancellation changed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideCancellationResult {
+    
+    private String rideRequestId;
+    
+    /**
+     * Status the request had before it was cancelled
+     */
+    private RideStatus previousStatus;
+    
+    /**
+     * Group and cab the rider left (null if none)
+     */
+    private String groupId;
+    private String cabId;
+    
+    /**
+     * Seats given back to the cab
+     */
+    private int seatsReleased;
+    
+    /**
+     * Riders placed into a group as a result: WAITING riders that took the
+     * freed seats, or the new group of a rider left alone by the cancellation
+     */
+    private List<String> rematchedRequestIds;
+}
@@ -0,0 +1,48 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the best pickup route for a candidate group
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePlan {
+    
+    /**
+     * Pickup stops in visiting order (indices into the batch distance matrix)
+     */
+    private int[] pickupOrder;
+    
+    /**
+     * Total route length from the first pickup to the airport
+     */
+    private double totalDistanceKm;
+    
+    /**
+     * Sum of every passenger's direct (solo) distance to the airport
+     */
+    private double soloDistanceKm;
+    
+    /**
+     * Worst pooled-to-solo ride distance ratio across passengers
+     */
+    private double maxDetourRatio;
+    
+    /**
+     * Whether the pickup order is provably optimal (false for heuristic orders)
+     */
+    private boolean exact;
+    
+    /**
+     * Kilometers saved compared to every passenger riding alone
+     */
+    public double getSavingsKm() {
+        return soloDistanceKm - totalDistanceKm;
+    }
+}
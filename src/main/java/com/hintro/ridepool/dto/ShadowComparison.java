@@ -0,0 +1,36 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO comparing the active matching strategy with its shadow on the same live requests
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowComparison {
+    
+    private String airportCode;
+    
+    /**
+     * Requests both strategies were run on
+     */
+    private long comparisons;
+    
+    /**
+     * Share of requests where both strategies chose the same passengers
+     */
+    private double agreementRate;
+    
+    /**
+     * Evaluations skipped because the shadow queue was full
+     */
+    private long dropped;
+    
+    private StrategyStats active;
+    private StrategyStats shadow;
+}
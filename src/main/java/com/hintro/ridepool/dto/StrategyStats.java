@@ -0,0 +1,47 @@
+package com.hintro.ridepool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO summarizing the groups one matching strategy produced
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StrategyStats {
+    
+    /**
+     * Strategy name
+     */
+    private String strategy;
+    
+    /**
+     * Average passengers per group, including the new request
+     */
+    private double avgGroupSize;
+    
+    /**
+     * Average share of cab seats filled (0..1)
+     */
+    private double fillRate;
+    
+    /**
+     * Share of groups that filled the cab
+     */
+    private double fullGroupRate;
+    
+    /**
+     * Average worst detour ratio per group (1.0 = nobody detours)
+     */
+    private double avgMaxDetourRatio;
+    
+    /**
+     * Grouping latency in microseconds
+     */
+    private double avgLatencyMicros;
+    private long maxLatencyMicros;
+}
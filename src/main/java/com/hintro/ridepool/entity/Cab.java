@@ -1,10 +1,14 @@
 package com.hintro.ridepool.entity;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +20,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "cabs")
+@CompoundIndex(name = "airport_status", def = "{'airportCode': 1, 'status': 1}")
+@Sharded(shardKey = {"homeAirportCode", "_id"}, immutableKey = true)
 public class Cab {
 
     @Id
@@ -25,6 +31,17 @@ public class Cab {
     private double currentLat;
     private double currentLng;
     
+    /**
+     * Airport partition the cab is in, null outside every service area
+     */
+    private String airportCode;
+    
+    /**
+     * Airport the cab was registered at (shard key prefix, never changes);
+     * see ShardKeys
+     */
+    private String homeAirportCode;
+    
     private int totalSeats;
     private int availableSeats;
     private int luggageCapacity;
@@ -37,6 +54,21 @@ public class Cab {
      */
     private String assignedGroupId;
     
+    /**
+     * Lifecycle timestamps for the current assignment
+     */
+    private Instant reservedAt;             // When the cab was reserved for its group
+    private Instant tripStartedAt;          // When passengers were picked up
+    
     @CreatedDate
     private LocalDateTime createdAt;
+    
+    /**
+     * Outbox: notification owed to the driver for the latest reservation,
+     * written by the same update and cleared once delivered
+     */
+    private NotificationType pendingNotification;
+    
+    @Indexed(sparse = true)
+    private Instant notificationQueuedAt;
 }
\ No newline at end of file
@@ -2,10 +2,24 @@ package com.hintro.ridepool.entity;
 
 /**
  * Cab status enum
+ * 
+ * Lifecycle:
+ * AVAILABLE -> RESERVED -> ON_TRIP -> AVAILABLE
+ * RESERVED -> AVAILABLE (reservation released)
+ * AVAILABLE <-> MAINTENANCE
+ * 
+ * Transitions are enforced by the conditional updates in CabRepository.
  */
 public enum CabStatus {
     AVAILABLE,  // Available to accept new rides
     RESERVED,   // Reserved for a group (waiting for pickup to start)
     ON_TRIP,    // Currently on trip with passengers
-    MAINTENANCE // Under maintenance
+    MAINTENANCE; // Under maintenance
+    
+    /**
+     * Statuses in which a cab with spare seats can still take pooled passengers
+     */
+    public boolean isPoolable() {
+        return this == AVAILABLE || this == RESERVED || this == ON_TRIP;
+    }
 }
\ No newline at end of file
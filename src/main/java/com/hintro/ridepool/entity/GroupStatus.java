@@ -0,0 +1,15 @@
+package com.hintro.ridepool.entity;
+
+/**
+ * Ride group status enum
+ * 
+ * Lifecycle:
+ * FORMING -> CAB_ASSIGNED -> COMPLETED
+ * FORMING / CAB_ASSIGNED -> DISSOLVED (broken up, emptied or merged into a cab's group)
+ */
+public enum GroupStatus {
+    FORMING,        // Riders grouped, no cab yet - open to joins up to maxSeats
+    CAB_ASSIGNED,   // A cab is reserved for or carrying the group - open to joins up to the cab's seats
+    COMPLETED,      // Trip finished
+    DISSOLVED       // No longer in use
+}
@@ -0,0 +1,21 @@
+package com.hintro.ridepool.entity;
+
+/**
+ * Notifications a rider or driver can be owed, queued in the outbox fields
+ * of the ride request or cab
+ */
+public enum NotificationType {
+    RIDER_MATCHED,          // Grouped with other riders, no cab yet
+    RIDER_CAB_ASSIGNED,     // Cab on its way to the pickup
+    DRIVER_GROUP_ASSIGNED,  // Cab reserved for a group
+    DRIVER_RIDERS_JOINED;   // More riders joined the cab mid-route
+    
+    /**
+     * Notification owed to a rider that was just grouped or given a cab
+     * 
+     * @param assignedCabId the rider's cab, null if none yet
+     */
+    public static NotificationType forRider(String assignedCabId) {
+        return assignedCabId != null ? RIDER_CAB_ASSIGNED : RIDER_MATCHED;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hintro.ridepool.entity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A group of pooled riders.
+ * 
+ * The group's ID is the groupId carried by its riders. Membership and seat
+ * and luggage totals are changed only by single conditional updates ($inc /
+ * $push / $pull on this document), so concurrent joins can never take the
+ * group past maxSeats.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ride_groups")
+@Sharded(shardKey = {"airportCode", "_id"}, immutableKey = true)
+public class RideGroup {
+
+    @Id
+    private String id;
+
+    private String airportCode;
+    private GroupStatus status;
+    
+    /**
+     * Ride request IDs of the riders in the group
+     */
+    @Builder.Default
+    private List<String> memberIds = new ArrayList<>();
+    
+    /**
+     * Seats and luggage taken by the members, and the seats the group may hold
+     * (the group target while forming, the cab's seats once a cab is assigned)
+     */
+    private int seatsUsed;
+    private int luggageUsed;
+    private int maxSeats;
+    
+    /**
+     * Sums of the members' pickup coordinates, kept so the centroid follows
+     * joins and leaves with a plain $inc
+     */
+    private double pickupLatSum;
+    private double pickupLngSum;
+    
+    /**
+     * Cab reserved for the group once assigned
+     */
+    private String cabId;
+    
+    private Instant formedAt;
+    
+    /**
+     * A new FORMING group holding the given riders
+     */
+    public static RideGroup formedFrom(String id, String airportCode, int maxSeats, List<RideRequest> members,
+                                       Instant formedAt) {
+        RideGroup group = RideGroup.builder()
+                .id(id)
+                .airportCode(airportCode)
+                .status(GroupStatus.FORMING)
+                .formedAt(formedAt)
+                .build();
+        for (RideRequest member : members) {
+            group.getMemberIds().add(member.getId());
+            group.setSeatsUsed(group.getSeatsUsed() + member.getSeatsRequired());
+            group.setLuggageUsed(group.getLuggageUsed() + member.getLuggageCount());
+            group.setPickupLatSum(group.getPickupLatSum() + member.getPickupLat());
+            group.setPickupLngSum(group.getPickupLngSum() + member.getPickupLng());
+        }
+        group.setMaxSeats(Math.max(maxSeats, group.getSeatsUsed()));
+        return group;
+    }
+    
+    /**
+     * Average pickup latitude of the members (0 for an empty group)
+     */
+    public double getCentroidLat() {
+        return memberIds.isEmpty() ? 0 : pickupLatSum / memberIds.size();
+    }
+    
+    /**
+     * Average pickup longitude of the members (0 for an empty group)
+     */
+    public double getCentroidLng() {
+        return memberIds.isEmpty() ? 0 : pickupLngSum / memberIds.size();
+    }
+}
@@ -4,7 +4,9 @@ import java.time.Instant;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +18,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "ride_requests")
+@Sharded(shardKey = {"airportCode", "_id"}, immutableKey = true)
 public class RideRequest {
 
     @Id
@@ -45,4 +48,18 @@ public class RideRequest {
     private String assignedCabId;           // ID of assigned cab
     private String assignedDriverName;      // Driver name
     private Instant cabArrivalTime;         // Estimated arrival time
+    
+    /**
+     * Set when the rider cancels
+     */
+    private Instant cancelledAt;
+    
+    /**
+     * Outbox: notification owed to the rider for its latest status change,
+     * written by the same update as the status and cleared once delivered
+     */
+    private NotificationType pendingNotification;
+    
+    @Indexed(sparse = true)
+    private Instant notificationQueuedAt;
 }
@@ -0,0 +1,89 @@
+package com.hintro.ridepool.events;
+
+import java.time.Instant;
+
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ride lifecycle event as stored in the event log
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEvent {
+    
+    /**
+     * Position in the log, assigned when the event is written
+     */
+    private long sequence;
+    private Instant timestamp;
+    private RideEventType type;
+    
+    /**
+     * Ride request the event is about (null for group-level events)
+     */
+    private String rideRequestId;
+    
+    /**
+     * Rider state after the event
+     */
+    private RideStatus status;
+    private String groupId;
+    private String cabId;
+    private String driverName;
+    private Instant cabArrivalTime;
+    
+    /**
+     * Request details, CREATED events only
+     */
+    private String userId;
+    private String airportCode;
+    private double pickupLat;
+    private double pickupLng;
+    private int seatsRequired;
+    private int luggageCount;
+    
+    /**
+     * Event recording a rider's current state (status, group and cab fields)
+     */
+    public static RideEvent of(RideEventType type, RideRequest rider) {
+        RideEvent.RideEventBuilder builder = RideEvent.builder()
+                .type(type)
+                .rideRequestId(rider.getId())
+                .status(rider.getStatus())
+                .groupId(rider.getGroupId())
+                .cabId(rider.getAssignedCabId())
+                .driverName(rider.getAssignedDriverName())
+                .cabArrivalTime(rider.getCabArrivalTime());
+        if (type == RideEventType.CREATED) {
+            builder.userId(rider.getUserId())
+                    .airportCode(rider.getAirportCode())
+                    .pickupLat(rider.getPickupLat())
+                    .pickupLng(rider.getPickupLng())
+                    .seatsRequired(rider.getSeatsRequired())
+                    .luggageCount(rider.getLuggageCount());
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Group-level event, e.g. a trip completed for every rider in a cab
+     */
+    public static RideEvent ofGroup(RideEventType type, String groupId, Cab cab, RideStatus status) {
+        return RideEvent.builder()
+                .type(type)
+                .status(status)
+                .groupId(groupId)
+                .cabId(cab == null ? null : cab.getId())
+                .driverName(cab == null ? null : cab.getDriverName())
+                .build();
+    }
+}
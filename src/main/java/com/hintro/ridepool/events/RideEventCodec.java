@@ -0,0 +1,92 @@
+package com.hintro.ridepool.events;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import com.hintro.ridepool.entity.RideStatus;
+
+/**
+ * Compact binary encoding of ride events.
+ * 
+ * Fixed header (sequence, timestamp, type, status), then length-prefixed
+ * UTF-8 strings; request details follow only for CREATED events.
+ */
+final class RideEventCodec {
+    
+    private static final long NO_TIME = Long.MIN_VALUE;
+    
+    private RideEventCodec() {
+    }
+    
+    static void encode(ByteBuffer out, RideEvent event) {
+        out.putLong(event.getSequence());
+        out.putLong(millisOf(event.getTimestamp()));
+        out.put(event.getType().getCode());
+        out.put(event.getStatus() == null ? -1 : (byte) event.getStatus().ordinal());
+        putString(out, event.getRideRequestId());
+        putString(out, event.getGroupId());
+        putString(out, event.getCabId());
+        putString(out, event.getDriverName());
+        out.putLong(millisOf(event.getCabArrivalTime()));
+        if (event.getType() == RideEventType.CREATED) {
+            putString(out, event.getUserId());
+            putString(out, event.getAirportCode());
+            out.putDouble(event.getPickupLat());
+            out.putDouble(event.getPickupLng());
+            out.putShort((short) event.getSeatsRequired());
+            out.putShort((short) event.getLuggageCount());
+        }
+    }
+    
+    static RideEvent decode(ByteBuffer in) {
+        RideEvent event = new RideEvent();
+        event.setSequence(in.getLong());
+        event.setTimestamp(instantOf(in.getLong()));
+        event.setType(RideEventType.fromCode(in.get()));
+        byte status = in.get();
+        event.setStatus(status < 0 ? null : RideStatus.values()[status]);
+        event.setRideRequestId(getString(in));
+        event.setGroupId(getString(in));
+        event.setCabId(getString(in));
+        event.setDriverName(getString(in));
+        event.setCabArrivalTime(instantOf(in.getLong()));
+        if (event.getType() == RideEventType.CREATED) {
+            event.setUserId(getString(in));
+            event.setAirportCode(getString(in));
+            event.setPickupLat(in.getDouble());
+            event.setPickupLng(in.getDouble());
+            event.setSeatsRequired(in.getShort());
+            event.setLuggageCount(in.getShort());
+        }
+        return event;
+    }
+    
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+    
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static long millisOf(Instant instant) {
+        return instant == null ? NO_TIME : instant.toEpochMilli();
+    }
+    
+    private static Instant instantOf(long millis) {
+        return millis == NO_TIME ? null : Instant.ofEpochMilli(millis);
+    }
+}
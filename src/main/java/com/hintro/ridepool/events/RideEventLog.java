@@ -0,0 +1,465 @@
+package com.hintro.ridepool.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.EventLogConfig;
+import com.hintro.ridepool.dto.EventLogStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only, memory-mapped log of ride lifecycle events.
+ * 
+ * The log is a sequence of fixed-size segment files segment-N.log, where N
+ * is the sequence of the first event in the file. Each record is
+ * [length][crc32][payload]; a zero length marks the end of the written part
+ * (segments are pre-sized and zero-filled). On startup the last segment is
+ * scanned to the first missing or corrupt record, which also discards a
+ * record torn by a crash.
+ * 
+ * Group commit: callers queue their events; one writer thread drains
+ * everything queued, copies it into the mapped segment and forces it to disk
+ * once for the whole batch. append() blocks until its batch is durable;
+ * tryAppend() only queues, since the log is an audit trail of changes
+ * already written to MongoDB. Committed batches are then handed to listeners.
+ */
+@Component
+public class RideEventLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideEventLog.class);
+    
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int MAX_EVENT_BYTES = 64 * 1024;
+    
+    private final EventLogConfig eventLogConfig;
+    private final Clock clock;
+    private final LinkedBlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final List<Consumer<List<RideEvent>>> listeners = new CopyOnWriteArrayList<>();
+    
+    // Writer thread state
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_EVENT_BYTES);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private Thread writer;
+    private volatile boolean running;
+    
+    private volatile long committedSequence;
+    private volatile long batches;
+    private volatile long events;
+    private volatile long forceNanosTotal;
+    private volatile long forceNanosMax;
+    
+    public RideEventLog(EventLogConfig eventLogConfig, Clock clock) {
+        this.eventLogConfig = eventLogConfig;
+        this.clock = clock;
+    }
+    
+    /**
+     * Recover the write position and start the writer thread
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!eventLogConfig.isEnabled()) {
+            return;
+        }
+        Files.createDirectories(directory());
+        recover();
+        running = true;
+        writer = new Thread(this::writeLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("✓ Ride event log open at sequence {} in {}", committedSequence, directory());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSegment();
+    }
+    
+    public boolean isEnabled() {
+        return running;
+    }
+    
+    /**
+     * Append events and wait until they are on disk. Sequences and missing
+     * timestamps are filled in on the given instances.
+     * 
+     * @param batch events to append, in order
+     * @return sequence of the last event written
+     * @throws IllegalStateException if the log is disabled or the write failed
+     */
+    public long append(List<RideEvent> batch) {
+        if (!running) {
+            throw new IllegalStateException("Ride event log is not enabled");
+        }
+        if (batch.isEmpty()) {
+            return committedSequence;
+        }
+        PendingAppend pending = new PendingAppend(batch);
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Ride event log is not enabled");
+        }
+        try {
+            return pending.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for event log commit", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Event log write failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Queue events for the next group commit if the log is enabled, without
+     * waiting for the flush. The change is already in MongoDB; the log only
+     * records it, so a failed write is logged by the writer and otherwise ignored.
+     * 
+     * @return true if the events were queued; false if the log is disabled
+     */
+    public boolean tryAppend(List<RideEvent> batch) {
+        if (!running) {
+            return false;
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+        PendingAppend pending = new PendingAppend(batch);
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            return false;
+        }
+        return true;
+    }
+    
+    public boolean tryAppend(RideEvent event) {
+        return tryAppend(List.of(event));
+    }
+    
+    /**
+     * Register a consumer for committed batches (called on the writer thread, must not block)
+     */
+    public void addCommitListener(Consumer<List<RideEvent>> listener) {
+        listeners.add(listener);
+    }
+    
+    public long getCommittedSequence() {
+        return committedSequence;
+    }
+    
+    /**
+     * Read committed events in order, starting at a sequence
+     * 
+     * @param fromSequence first sequence to return
+     * @param consumer receives each event; return false to stop
+     */
+    public void read(long fromSequence, EventVisitor consumer) throws IOException {
+        long upTo = committedSequence;
+        List<Path> segments = segmentFiles();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequenceOf(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try (FileChannel reader = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                ByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+                RideEvent event;
+                while ((event = readRecord(buffer)) != null) {
+                    if (event.getSequence() > upTo) {
+                        return;
+                    }
+                    if (event.getSequence() >= fromSequence && !consumer.visit(event)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+    
+    public EventLogStats getStats() {
+        long batchCount = batches;
+        return EventLogStats.builder()
+                .enabled(running)
+                .committedSequence(committedSequence)
+                .batches(batchCount)
+                .events(events)
+                .avgBatchSize(batchCount == 0 ? 0 : (double) events / batchCount)
+                .avgForceMicros(batchCount == 0 ? 0 : forceNanosTotal / 1_000.0 / batchCount)
+                .maxForceMicros(forceNanosMax / 1_000)
+                .build();
+    }
+    
+    /**
+     * Visitor for {@link #read(long, EventVisitor)}
+     */
+    @FunctionalInterface
+    public interface EventVisitor {
+        boolean visit(RideEvent event);
+    }
+    
+    private void writeLoop() {
+        List<PendingAppend> drained = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                int eventCount = first.events.size();
+                while (eventCount < eventLogConfig.getMaxBatchEvents()) {
+                    PendingAppend next = queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    drained.add(next);
+                    eventCount += next.events.size();
+                }
+                commit(drained);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Shutting down: flush whatever is still queued
+                    queue.drainTo(drained);
+                    if (!drained.isEmpty()) {
+                        commit(drained);
+                    }
+                }
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+    
+    /**
+     * Write one batch, force it once and release its callers
+     */
+    private void commit(List<PendingAppend> drained) {
+        long sequence = committedSequence;
+        int batchStart = segment.position();
+        List<RideEvent> written = new ArrayList<>();
+        try {
+            for (PendingAppend pending : drained) {
+                for (RideEvent event : pending.events) {
+                    event.setSequence(++sequence);
+                    if (event.getTimestamp() == null) {
+                        event.setTimestamp(clock.instant());
+                    }
+                    scratch.clear();
+                    RideEventCodec.encode(scratch, event);
+                    scratch.flip();
+                    
+                    int frameBytes = FRAME_HEADER_BYTES + scratch.remaining();
+                    if (segment.remaining() < frameBytes + FRAME_HEADER_BYTES) {
+                        force(batchStart, segment.position() - batchStart);
+                        openSegment(sequence, frameBytes);
+                        batchStart = 0;
+                    }
+                    crc.reset();
+                    crc.update(scratch.duplicate());
+                    segment.putInt(scratch.remaining());
+                    segment.putInt((int) crc.getValue());
+                    segment.put(scratch);
+                    written.add(event);
+                }
+            }
+            
+            long started = System.nanoTime();
+            force(batchStart, segment.position() - batchStart);
+            long forceNanos = System.nanoTime() - started;
+            
+            committedSequence = sequence;
+            batches++;
+            events += written.size();
+            forceNanosTotal += forceNanos;
+            forceNanosMax = Math.max(forceNanosMax, forceNanos);
+        } catch (Exception e) {
+            // Part of the batch may be on disk, so sequences cannot be reused:
+            // stop the log; the changes themselves are already in MongoDB
+            logger.error("✗ Failed to write {} ride events, disabling event log", written.size(), e);
+            running = false;
+            queue.drainTo(drained);
+            for (PendingAppend pending : drained) {
+                pending.done.completeExceptionally(e);
+            }
+            return;
+        }
+        
+        for (PendingAppend pending : drained) {
+            pending.done.complete(pending.events.get(pending.events.size() - 1).getSequence());
+        }
+        for (Consumer<List<RideEvent>> listener : listeners) {
+            try {
+                listener.accept(written);
+            } catch (Exception e) {
+                logger.warn("⚠ Event log listener failed: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private void force(int from, int length) {
+        if (length > 0) {
+            segment.force(from, length);
+        }
+    }
+    
+    /**
+     * Position the writer after the last intact record of the newest segment
+     */
+    private void recover() throws IOException {
+        List<Path> segments = segmentFiles();
+        if (segments.isEmpty()) {
+            openSegment(1, 0);
+            committedSequence = 0;
+            return;
+        }
+        
+        Path last = segments.get(segments.size() - 1);
+        long firstSequence = firstSequenceOf(last);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        
+        long lastSequence = firstSequence - 1;
+        RideEvent event;
+        while ((event = readRecord(segment)) != null) {
+            lastSequence = event.getSequence();
+        }
+        int end = segment.position();
+        
+        // Zero anything after the last good record so a torn write cannot resurface
+        int torn = 0;
+        for (int position = end; position < segment.capacity(); position++) {
+            if (segment.get(position) != 0) {
+                segment.put(position, (byte) 0);
+                torn++;
+            }
+        }
+        if (torn > 0) {
+            logger.warn("⚠ Discarded {} bytes of a torn event record in {}", torn, last.getFileName());
+            segment.force();
+        }
+        segment.position(end);
+        committedSequence = lastSequence;
+    }
+    
+    /**
+     * Read the record at the buffer's position and advance past it, or
+     * return null (position unchanged) at the end of the written data
+     */
+    private static RideEvent readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < FRAME_HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        if (length <= 0 || length > buffer.remaining() - FRAME_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + FRAME_HEADER_BYTES).limit(start + FRAME_HEADER_BYTES + length);
+        CRC32 check = new CRC32();
+        check.update(payload.duplicate());
+        if ((int) check.getValue() != checksum) {
+            return null;
+        }
+        RideEvent event = RideEventCodec.decode(payload);
+        buffer.position(start + FRAME_HEADER_BYTES + length);
+        return event;
+    }
+    
+    private void openSegment(long firstSequence, int minBytes) throws IOException {
+        closeSegment();
+        long size = Math.max((long) eventLogConfig.getSegmentSizeMb() * 1024 * 1024, minBytes + 2L * FRAME_HEADER_BYTES);
+        Path file = directory().resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        logger.info("Opened event log segment {}", file.getFileName());
+    }
+    
+    private void closeSegment() {
+        if (segment != null) {
+            segment.force();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("⚠ Failed to close event log segment: {}", e.getMessage());
+            }
+        }
+        segment = null;
+        channel = null;
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Zero-padded sequence numbers sort lexically
+        files.sort(null);
+        return files;
+    }
+    
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+    
+    private Path directory() {
+        return Paths.get(eventLogConfig.getDirectory());
+    }
+    
+    /**
+     * Events from one caller waiting to be committed
+     */
+    private static final class PendingAppend {
+        private final List<RideEvent> events;
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        
+        PendingAppend(List<RideEvent> events) {
+            this.events = events;
+        }
+    }
+}
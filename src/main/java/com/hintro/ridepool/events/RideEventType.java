@@ -0,0 +1,33 @@
+package com.hintro.ridepool.events;
+
+/**
+ * Ride lifecycle event types. Every event records a change already written
+ * to MongoDB; the log is an audit trail and is never applied back.
+ */
+public enum RideEventType {
+    CREATED(1),     // Request saved
+    MATCHED(2),     // Grouped with other riders
+    ASSIGNED(3),    // Cab assigned (or group full)
+    CANCELLED(4),   // Rider cancelled
+    REQUEUED(5),    // Back to WAITING after its group broke up
+    COMPLETED(6);   // Trip completed (group-level event)
+    
+    private final byte code;
+    
+    RideEventType(int code) {
+        this.code = (byte) code;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    public static RideEventType fromCode(byte code) {
+        for (RideEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ride event type: " + code);
+    }
+}
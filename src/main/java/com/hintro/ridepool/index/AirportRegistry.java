@@ -0,0 +1,122 @@
+package com.hintro.ridepool.index;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.AirportConfig.AirportLocation;
+import com.hintro.ridepool.config.AirportConfig.Point;
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.util.DistanceCalculator;
+
+/**
+ * Airports served by the engine and the fleet partition each cab belongs to.
+ * 
+ * A cab is in an airport's partition while it is inside that airport's
+ * service area (polygon, or radius around the terminal); when areas overlap
+ * the nearest terminal wins. Cabs outside every area, and requests for an
+ * airport that is not configured, share the UNZONED partition, so an
+ * unconfigured airport behaves as before. Partitions follow the cab's last
+ * known position and are recomputed on every move.
+ * 
+ * Also resolves per-airport assignment overrides against the global defaults.
+ */
+@Component
+public class AirportRegistry {
+    
+    /**
+     * Partition key for cabs outside every service area and unconfigured airports
+     */
+    public static final String UNZONED = "";
+    
+    private final AirportConfig airportConfig;
+    private final CabAssignmentConfig assignmentConfig;
+    private final DistanceCalculator distanceCalculator;
+    
+    public AirportRegistry(AirportConfig airportConfig,
+                           CabAssignmentConfig assignmentConfig,
+                           DistanceCalculator distanceCalculator) {
+        this.airportConfig = airportConfig;
+        this.assignmentConfig = assignmentConfig;
+        this.distanceCalculator = distanceCalculator;
+    }
+    
+    /**
+     * Airport whose service area contains a point
+     * 
+     * @param lat latitude
+     * @param lng longitude
+     * @return airport code, or null outside every service area
+     */
+    public String airportAt(double lat, double lng) {
+        String nearest = null;
+        double nearestKm = Double.MAX_VALUE;
+        for (Map.Entry<String, AirportLocation> airport : airportConfig.getLocations().entrySet()) {
+            AirportLocation location = airport.getValue();
+            double terminalKm = distanceCalculator.calculateDistance(lat, lng, location.getLat(), location.getLng());
+            if (terminalKm < nearestKm && contains(location, lat, lng, terminalKm)) {
+                nearest = airport.getKey();
+                nearestKm = terminalKm;
+            }
+        }
+        return nearest;
+    }
+    
+    /**
+     * Fleet partition of a cab at a point
+     */
+    public String partitionAt(double lat, double lng) {
+        String airportCode = airportAt(lat, lng);
+        return airportCode != null ? airportCode : UNZONED;
+    }
+    
+    /**
+     * Fleet partition that serves requests for an airport
+     */
+    public String partitionFor(String airportCode) {
+        return airportConfig.getLocation(airportCode) != null ? airportCode : UNZONED;
+    }
+    
+    /**
+     * Cab search radius for an airport
+     */
+    public double cabAssignmentRadiusKm(String airportCode) {
+        AirportLocation location = airportConfig.getLocation(airportCode);
+        if (location != null && location.getCabAssignmentRadiusKm() != null) {
+            return location.getCabAssignmentRadiusKm();
+        }
+        return assignmentConfig.getCabAssignmentRadiusKm();
+    }
+    
+    /**
+     * Minimum group size before a cab is assigned at an airport
+     */
+    public int minPassengersForAssignment(String airportCode) {
+        AirportLocation location = airportConfig.getLocation(airportCode);
+        if (location != null && location.getMinPassengersForAssignment() != null) {
+            return location.getMinPassengersForAssignment();
+        }
+        return assignmentConfig.getMinPassengersForAssignment();
+    }
+    
+    private static boolean contains(AirportLocation location, double lat, double lng, double terminalKm) {
+        List<Point> polygon = location.getServiceArea();
+        if (polygon == null || polygon.size() < 3) {
+            return terminalKm <= location.getServiceRadiusKm();
+        }
+        
+        // Ray casting: count polygon edges crossed by a ray going east from the point
+        boolean inside = false;
+        for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
+            Point a = polygon.get(i);
+            Point b = polygon.get(j);
+            if ((a.getLat() > lat) != (b.getLat() > lat)
+                    && lng < (b.getLng() - a.getLng()) * (lat - a.getLat()) / (b.getLat() - a.getLat()) + a.getLng()) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,307 @@
+package com.hintro.ridepool.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.util.GeoGrid;
+
+/**
+ * In-memory spatial index of cabs that can take passengers.
+ * 
+ * Holds AVAILABLE cabs and, when mid-route pooling is enabled, RESERVED or
+ * ON_TRIP cabs that still have spare seats. Cabs are partitioned by the
+ * airport service area they are in (see AirportRegistry) and bucketed by grid
+ * cell within it, so a lookup only touches one airport's cells around the
+ * pickup point instead of the whole fleet. The partition is recomputed from
+ * the cab's position on every write, so a cab moves between airports as it
+ * drives; the indexed copy carries the partition's airport code.
+ * 
+ * The index is advisory: MongoDB stays the source of truth and every
+ * reservation is a conditional update there. A cab whose reservation fails is
+ * refreshed from the database, so a stale entry costs one retry at most.
+ * 
+ * Each cell also keeps a histogram of free seats across its cabs, updated on
+ * every write, so the fleet mix around a point can be summarized without
+ * visiting individual cabs.
+ * 
+ * Writes are serialized and journaled; reads are lock-free.
+ */
+@Component
+public class FleetIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FleetIndex.class);
+    
+    /**
+     * Free-seat counts above this share the last histogram bucket
+     */
+    public static final int MAX_TRACKED_SEATS = 16;
+    
+    private final CabAssignmentConfig assignmentConfig;
+    private final StateJournal journal;
+    private final AirportRegistry airportRegistry;
+    
+    private final Map<String, Cab> cabsById = new ConcurrentHashMap<>();
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private volatile boolean warm;
+    
+    public FleetIndex(CabAssignmentConfig assignmentConfig, StateJournal journal, AirportRegistry airportRegistry) {
+        this.assignmentConfig = assignmentConfig;
+        this.journal = journal;
+        this.airportRegistry = airportRegistry;
+    }
+    
+    /**
+     * Replace the index contents with the given cabs and mark it ready
+     * 
+     * @param cabs cabs loaded from the database
+     */
+    public synchronized void rebuild(Collection<Cab> cabs) {
+        cabsById.clear();
+        partitions.clear();
+        for (Cab cab : cabs) {
+            apply(cab);
+        }
+        warm = true;
+        logger.info("✓ Fleet index ready with {} cabs in {} airport partitions", cabsById.size(), partitions.size());
+    }
+    
+    /**
+     * Insert, move or drop a cab according to its current state.
+     * Cabs that cannot take passengers are removed.
+     * 
+     * @param cab latest cab state
+     */
+    public synchronized void upsert(Cab cab) {
+        if (cab == null || cab.getId() == null) {
+            return;
+        }
+        boolean wasIndexed = cabsById.containsKey(cab.getId());
+        if (apply(cab)) {
+            journal.cabUpserted(cab);
+        } else if (wasIndexed) {
+            journal.cabRemoved(cab.getId());
+        }
+    }
+    
+    /**
+     * Remove a cab from the index
+     * 
+     * @param cabId cab ID
+     */
+    public synchronized void remove(String cabId) {
+        if (detach(cabId)) {
+            journal.cabRemoved(cabId);
+        }
+    }
+    
+    /**
+     * Apply a change without journaling it (rebuild and journal replay)
+     * 
+     * @return true if the cab is indexed afterwards
+     */
+    synchronized boolean apply(Cab cab) {
+        detach(cab.getId());
+        if (!isEligible(cab)) {
+            return false;
+        }
+        Cab copy = copyOf(cab);
+        copy.setAirportCode(airportRegistry.airportAt(copy.getCurrentLat(), copy.getCurrentLng()));
+        cabsById.put(copy.getId(), copy);
+        Partition partition = partitions.computeIfAbsent(partitionOf(copy), key -> new Partition());
+        long cell = cellOf(copy);
+        partition.cabIdsByCell.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(copy.getId());
+        partition.seatCountsByCell.computeIfAbsent(cell, key -> new AtomicIntegerArray(MAX_TRACKED_SEATS + 1))
+                .incrementAndGet(seatBucket(copy));
+        return true;
+    }
+    
+    synchronized boolean detach(String cabId) {
+        Cab previous = cabsById.remove(cabId);
+        if (previous == null) {
+            return false;
+        }
+        Partition partition = partitions.get(partitionOf(previous));
+        if (partition == null) {
+            return true;
+        }
+        long cell = cellOf(previous);
+        Set<String> ids = partition.cabIdsByCell.get(cell);
+        if (ids != null) {
+            ids.remove(cabId);
+            if (ids.isEmpty()) {
+                partition.cabIdsByCell.remove(cell);
+            }
+        }
+        AtomicIntegerArray seatCounts = partition.seatCountsByCell.get(cell);
+        if (seatCounts != null) {
+            seatCounts.decrementAndGet(seatBucket(previous));
+            if (ids == null || ids.isEmpty()) {
+                partition.seatCountsByCell.remove(cell);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Find indexed cabs of an airport's partition in the grid cells covering a
+     * radius around a point that can fit the requested seats and luggage.
+     * Results are copies and may include cabs slightly outside the radius;
+     * callers apply the exact distance check.
+     * 
+     * @param airportCode airport of the request
+     * @param lat pickup latitude
+     * @param lng pickup longitude
+     * @param radiusKm search radius
+     * @param seats seats needed
+     * @param luggage luggage space needed
+     * @return candidate cabs
+     */
+    public List<Cab> findCandidates(String airportCode, double lat, double lng, double radiusKm,
+                                    int seats, int luggage) {
+        Partition partition = partitions.get(airportRegistry.partitionFor(airportCode));
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        double cellSize = assignmentConfig.getFleetIndexCellSizeDegrees();
+        int rings = GeoGrid.ringsForRadius(lat, radiusKm, cellSize);
+        long center = GeoGrid.cellId(lat, lng, cellSize);
+        int centerRow = GeoGrid.row(center);
+        int centerColumn = GeoGrid.column(center);
+        
+        List<Cab> candidates = new ArrayList<>();
+        for (int row = centerRow - rings; row <= centerRow + rings; row++) {
+            for (int column = centerColumn - rings; column <= centerColumn + rings; column++) {
+                Set<String> ids = partition.cabIdsByCell.get(GeoGrid.pack(row, column));
+                if (ids == null) {
+                    continue;
+                }
+                for (String id : ids) {
+                    Cab cab = cabsById.get(id);
+                    if (cab != null && cab.getAvailableSeats() >= seats && cab.getAvailableLuggage() >= luggage) {
+                        candidates.add(copyOf(cab));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * Free-seat histogram of the indexed cabs of an airport's partition in the
+     * grid cells covering a radius around a point. Entry i is the number of
+     * cabs with exactly i free seats (the last entry also counts cabs with more).
+     * 
+     * @param airportCode airport of the request
+     * @param lat latitude
+     * @param lng longitude
+     * @param radiusKm radius to cover
+     * @return counts indexed by free seats, MAX_TRACKED_SEATS + 1 entries
+     */
+    public int[] availableSeatsNear(String airportCode, double lat, double lng, double radiusKm) {
+        int[] histogram = new int[MAX_TRACKED_SEATS + 1];
+        Partition partition = partitions.get(airportRegistry.partitionFor(airportCode));
+        if (partition == null) {
+            return histogram;
+        }
+        double cellSize = assignmentConfig.getFleetIndexCellSizeDegrees();
+        int rings = GeoGrid.ringsForRadius(lat, radiusKm, cellSize);
+        long center = GeoGrid.cellId(lat, lng, cellSize);
+        int centerRow = GeoGrid.row(center);
+        int centerColumn = GeoGrid.column(center);
+        
+        for (int row = centerRow - rings; row <= centerRow + rings; row++) {
+            for (int column = centerColumn - rings; column <= centerColumn + rings; column++) {
+                AtomicIntegerArray seatCounts = partition.seatCountsByCell.get(GeoGrid.pack(row, column));
+                if (seatCounts == null) {
+                    continue;
+                }
+                for (int seats = 0; seats <= MAX_TRACKED_SEATS; seats++) {
+                    histogram[seats] += seatCounts.get(seats);
+                }
+            }
+        }
+        return histogram;
+    }
+    
+    /**
+     * Snapshot of every indexed cab
+     */
+    public List<Cab> getAll() {
+        List<Cab> cabs = new ArrayList<>(cabsById.size());
+        for (Cab cab : cabsById.values()) {
+            cabs.add(copyOf(cab));
+        }
+        return cabs;
+    }
+    
+    /**
+     * Whether the index has been loaded and can answer lookups
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+    
+    public int size() {
+        return cabsById.size();
+    }
+    
+    private boolean isEligible(Cab cab) {
+        if (cab.getStatus() == CabStatus.AVAILABLE) {
+            return true;
+        }
+        return assignmentConfig.isAllowMidRoutePooling()
+                && cab.getStatus() != null && cab.getStatus().isPoolable()
+                && cab.getAvailableSeats() > 0;
+    }
+    
+    private static int seatBucket(Cab cab) {
+        return Math.max(0, Math.min(MAX_TRACKED_SEATS, cab.getAvailableSeats()));
+    }
+    
+    private static String partitionOf(Cab cab) {
+        return cab.getAirportCode() != null ? cab.getAirportCode() : AirportRegistry.UNZONED;
+    }
+    
+    private long cellOf(Cab cab) {
+        return GeoGrid.cellId(cab.getCurrentLat(), cab.getCurrentLng(), assignmentConfig.getFleetIndexCellSizeDegrees());
+    }
+    
+    private static Cab copyOf(Cab cab) {
+        return Cab.builder()
+                .id(cab.getId())
+                .driverName(cab.getDriverName())
+                .airportCode(cab.getAirportCode())
+                .currentLat(cab.getCurrentLat())
+                .currentLng(cab.getCurrentLng())
+                .totalSeats(cab.getTotalSeats())
+                .availableSeats(cab.getAvailableSeats())
+                .luggageCapacity(cab.getLuggageCapacity())
+                .availableLuggage(cab.getAvailableLuggage())
+                .status(cab.getStatus())
+                .assignedGroupId(cab.getAssignedGroupId())
+                .reservedAt(cab.getReservedAt())
+                .tripStartedAt(cab.getTripStartedAt())
+                .createdAt(cab.getCreatedAt())
+                .build();
+    }
+    
+    /**
+     * Grid cells and seat histograms of one airport's cabs
+     */
+    private static final class Partition {
+        private final Map<Long, Set<String>> cabIdsByCell = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicIntegerArray> seatCountsByCell = new ConcurrentHashMap<>();
+    }
+}
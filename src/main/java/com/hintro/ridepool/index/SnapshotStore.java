@@ -0,0 +1,191 @@
+package com.hintro.ridepool.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.SnapshotConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * Compact binary snapshot of the in-memory matching state on local disk.
+ * 
+ * File layout (big-endian):
+ * magic, version, generation, takenAt millis,
+ * cab count + cabs, airport code table, rider count + riders, CRC32 trailer.
+ * 
+ * A snapshot is written to a temporary file and atomically renamed over the
+ * previous one, so readers only ever see a complete file.
+ */
+@Component
+public class SnapshotStore {
+    
+    private static final int MAGIC = 0x52505331;  // "RPS1"
+    private static final int VERSION = 1;
+    private static final String FILE_NAME = "state.snap";
+    private static final int BUFFER_BYTES = 1 << 16;
+    
+    private final SnapshotConfig snapshotConfig;
+    
+    public SnapshotStore(SnapshotConfig snapshotConfig) {
+        this.snapshotConfig = snapshotConfig;
+    }
+    
+    /**
+     * Persist a snapshot, replacing the previous one
+     * 
+     * @param generation snapshot generation (journal N holds changes made after snapshot N)
+     * @param takenAt when the state was captured
+     * @param cabs indexed cabs
+     * @param riders waiting riders
+     * @return snapshot file
+     */
+    public Path write(long generation, Instant takenAt, Collection<Cab> cabs,
+                      Collection<RideRequest> riders) throws IOException {
+        Path directory = Paths.get(snapshotConfig.getDirectory());
+        Files.createDirectories(directory);
+        Path target = directory.resolve(FILE_NAME);
+        Path temp = directory.resolve(FILE_NAME + ".tmp");
+        
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), BUFFER_BYTES))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeLong(takenAt.toEpochMilli());
+            
+            out.writeInt(cabs.size());
+            for (Cab cab : cabs) {
+                StateCodec.writeCab(out, cab);
+            }
+            
+            Map<String, Integer> airports = new LinkedHashMap<>();
+            for (RideRequest rider : riders) {
+                airports.putIfAbsent(rider.getAirportCode(), airports.size());
+            }
+            out.writeShort(airports.size());
+            for (String code : airports.keySet()) {
+                out.writeUTF(code);
+            }
+            
+            out.writeInt(riders.size());
+            for (RideRequest rider : riders) {
+                StateCodec.writeRider(out, rider, airports.get(rider.getAirportCode()));
+            }
+            
+            out.flush();
+            // Trailer is not part of the checksum
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+    
+    /**
+     * Load the latest snapshot
+     * 
+     * @return snapshot, or null if none has been written yet
+     * @throws IOException if the file is unreadable or fails its checksum
+     */
+    public Snapshot read() throws IOException {
+        Path file = Paths.get(snapshotConfig.getDirectory()).resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file);
+             CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(stream, BUFFER_BYTES), crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long generation = in.readLong();
+            Instant takenAt = Instant.ofEpochMilli(in.readLong());
+            
+            int cabCount = in.readInt();
+            List<Cab> cabs = new ArrayList<>(cabCount);
+            for (int i = 0; i < cabCount; i++) {
+                cabs.add(StateCodec.readCab(in));
+            }
+            
+            String[] airports = new String[in.readUnsignedShort()];
+            for (int i = 0; i < airports.length; i++) {
+                airports[i] = in.readUTF();
+            }
+            
+            int riderCount = in.readInt();
+            List<RideRequest> riders = new ArrayList<>(riderCount);
+            for (int i = 0; i < riderCount; i++) {
+                riders.add(StateCodec.readRider(in, airports));
+            }
+            
+            long expected = crc.getValue();
+            long stored = new DataInputStream(checked).readLong();
+            if (stored != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return new Snapshot(generation, takenAt, cabs, riders);
+        }
+    }
+    
+    /**
+     * Contents of a snapshot file
+     */
+    public static class Snapshot {
+        private final long generation;
+        private final Instant takenAt;
+        private final List<Cab> cabs;
+        private final List<RideRequest> riders;
+        
+        Snapshot(long generation, Instant takenAt, List<Cab> cabs, List<RideRequest> riders) {
+            this.generation = generation;
+            this.takenAt = takenAt;
+            this.cabs = cabs;
+            this.riders = riders;
+        }
+        
+        // Getters
+        public long getGeneration() {
+            return generation;
+        }
+        
+        public Instant getTakenAt() {
+            return takenAt;
+        }
+        
+        public List<Cab> getCabs() {
+            return cabs;
+        }
+        
+        public List<RideRequest> getRiders() {
+            return riders;
+        }
+    }
+}
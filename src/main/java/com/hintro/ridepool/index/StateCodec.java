@@ -0,0 +1,107 @@
+package com.hintro.ridepool.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+
+/**
+ * Binary encoding of the fields the in-memory indexes keep, shared by
+ * snapshot and journal files. Only the fields the indexes need are written;
+ * everything else is reloaded from MongoDB on demand.
+ */
+final class StateCodec {
+    
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final CabStatus[] CAB_STATUSES = CabStatus.values();
+    
+    private StateCodec() {
+    }
+    
+    static void writeCab(DataOutput out, Cab cab) throws IOException {
+        out.writeUTF(cab.getId());
+        writeNullableString(out, cab.getDriverName());
+        out.writeDouble(cab.getCurrentLat());
+        out.writeDouble(cab.getCurrentLng());
+        out.writeShort(cab.getTotalSeats());
+        out.writeShort(cab.getAvailableSeats());
+        out.writeShort(cab.getLuggageCapacity());
+        out.writeShort(cab.getAvailableLuggage());
+        out.writeByte(cab.getStatus() == null ? -1 : cab.getStatus().ordinal());
+        writeNullableString(out, cab.getAssignedGroupId());
+        writeInstant(out, cab.getReservedAt());
+        writeInstant(out, cab.getTripStartedAt());
+    }
+    
+    static Cab readCab(DataInput in) throws IOException {
+        Cab.CabBuilder cab = Cab.builder()
+                .id(in.readUTF())
+                .driverName(readNullableString(in))
+                .currentLat(in.readDouble())
+                .currentLng(in.readDouble())
+                .totalSeats(in.readShort())
+                .availableSeats(in.readShort())
+                .luggageCapacity(in.readShort())
+                .availableLuggage(in.readShort());
+        byte status = in.readByte();
+        return cab.status(status < 0 ? null : CAB_STATUSES[status])
+                .assignedGroupId(readNullableString(in))
+                .reservedAt(readInstant(in))
+                .tripStartedAt(readInstant(in))
+                .build();
+    }
+    
+    /**
+     * Encode a waiting rider. The airport code is written as an index into
+     * a per-file table, so a million riders do not repeat the same strings.
+     */
+    static void writeRider(DataOutput out, RideRequest rider, int airportIndex) throws IOException {
+        out.writeUTF(rider.getId());
+        writeNullableString(out, rider.getUserId());
+        out.writeShort(airportIndex);
+        out.writeDouble(rider.getPickupLat());
+        out.writeDouble(rider.getPickupLng());
+        out.writeByte(rider.getSeatsRequired());
+        out.writeShort(rider.getLuggageCount());
+        writeInstant(out, rider.getRequestTime());
+    }
+    
+    static RideRequest readRider(DataInput in, String[] airports) throws IOException {
+        return RideRequest.builder()
+                .id(in.readUTF())
+                .userId(readNullableString(in))
+                .airportCode(airports[in.readUnsignedShort()])
+                .pickupLat(in.readDouble())
+                .pickupLng(in.readDouble())
+                .seatsRequired(in.readUnsignedByte())
+                .luggageCount(in.readUnsignedShort())
+                .requestTime(readInstant(in))
+                .status(RideStatus.WAITING)
+                .build();
+    }
+    
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    private static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeLong(value == null ? NO_TIME : value.toEpochMilli());
+    }
+    
+    private static Instant readInstant(DataInput in) throws IOException {
+        long millis = in.readLong();
+        return millis == NO_TIME ? null : Instant.ofEpochMilli(millis);
+    }
+}
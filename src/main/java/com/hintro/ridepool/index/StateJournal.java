@@ -0,0 +1,229 @@
+package com.hintro.ridepool.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.SnapshotConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * Append-only log of index changes made since the latest snapshot.
+ * 
+ * Each snapshot generation N has its own file journal-N.log. Records are
+ * full-state upserts or removals, so replaying one that the snapshot already
+ * contains is harmless. A torn record at the end of a file (crash mid-write)
+ * ends the replay of that file.
+ * 
+ * Until {@link #open(long)} is called every append is a no-op, which keeps
+ * rebuilds, replays and snapshot-disabled deployments off the disk.
+ */
+@Component
+public class StateJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StateJournal.class);
+    
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    
+    private static final byte CAB_UPSERTED = 1;
+    private static final byte CAB_REMOVED = 2;
+    private static final byte RIDER_UPSERTED = 3;
+    private static final byte RIDER_REMOVED = 4;
+    
+    private final SnapshotConfig snapshotConfig;
+    private DataOutputStream out;
+    
+    public StateJournal(SnapshotConfig snapshotConfig) {
+        this.snapshotConfig = snapshotConfig;
+    }
+    
+    /**
+     * Start appending to the journal of the given snapshot generation
+     */
+    public synchronized void open(long generation) throws IOException {
+        close();
+        Path directory = directory();
+        Files.createDirectories(directory);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+    
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warn("⚠ Failed to close state journal: {}", e.getMessage());
+        }
+        out = null;
+    }
+    
+    public synchronized boolean isOpen() {
+        return out != null;
+    }
+    
+    synchronized void cabUpserted(Cab cab) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(CAB_UPSERTED);
+            StateCodec.writeCab(out, cab);
+            out.flush();
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+    
+    synchronized void cabRemoved(String cabId) {
+        writeRemoval(CAB_REMOVED, cabId);
+    }
+    
+    synchronized void riderUpserted(RideRequest rider) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(RIDER_UPSERTED);
+            out.writeUTF(rider.getAirportCode());
+            StateCodec.writeRider(out, rider, 0);
+            out.flush();
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+    
+    synchronized void riderRemoved(String riderId) {
+        writeRemoval(RIDER_REMOVED, riderId);
+    }
+    
+    /**
+     * Re-apply every journaled change from the given generation onwards
+     * 
+     * @param fromGeneration generation of the snapshot that was restored
+     * @return number of records applied
+     */
+    public long replay(long fromGeneration, FleetIndex fleetIndex, WaitingRiderIndex riderIndex) throws IOException {
+        long applied = 0;
+        for (Path file : journalFiles(fromGeneration)) {
+            applied += replayFile(file, fleetIndex, riderIndex);
+        }
+        return applied;
+    }
+    
+    /**
+     * Delete journals older than the given generation (covered by its snapshot)
+     */
+    public void deleteBefore(long generation) throws IOException {
+        for (Path file : journalFiles(0)) {
+            if (generationOf(file) < generation) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    private long replayFile(Path file, FleetIndex fleetIndex, WaitingRiderIndex riderIndex) throws IOException {
+        long applied = 0;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                switch (type) {
+                    case CAB_UPSERTED:
+                        fleetIndex.apply(StateCodec.readCab(in));
+                        break;
+                    case CAB_REMOVED:
+                        fleetIndex.detach(in.readUTF());
+                        break;
+                    case RIDER_UPSERTED:
+                        String[] airport = {in.readUTF()};
+                        riderIndex.apply(StateCodec.readRider(in, airport));
+                        break;
+                    case RIDER_REMOVED:
+                        riderIndex.detach(in.readUTF());
+                        break;
+                    default:
+                        throw new IOException("Unknown journal record type " + type + " in " + file);
+                }
+                applied++;
+            }
+        } catch (EOFException e) {
+            logger.warn("⚠ Journal {} ends with a partial record, ignoring it", file.getFileName());
+        }
+        return applied;
+    }
+    
+    private void writeRemoval(byte type, String id) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(type);
+            out.writeUTF(id);
+            out.flush();
+        } catch (IOException e) {
+            disable(e);
+        }
+    }
+    
+    private void disable(IOException e) {
+        logger.error("✗ State journal write failed, journaling disabled until the next snapshot", e);
+        close();
+    }
+    
+    private List<Path> journalFiles(long fromGeneration) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                if (generationOf(file) >= fromGeneration) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort((a, b) -> Long.compare(generationOf(a), generationOf(b)));
+        return files;
+    }
+    
+    private Path directory() {
+        return Paths.get(snapshotConfig.getDirectory());
+    }
+    
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+    
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
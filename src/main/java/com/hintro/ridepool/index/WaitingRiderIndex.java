@@ -0,0 +1,281 @@
+package com.hintro.ridepool.index;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.util.GeoGrid;
+
+/**
+ * In-memory set of WAITING ride requests per airport, bucketed by grid cell.
+ * Each cell keeps its riders ordered by request time, and lookups merge the
+ * cells they visit, so candidates come back longest-waiting first without
+ * sorting the whole candidate list.
+ * 
+ * Lets the matcher find candidates near a pickup without scanning
+ * ride_requests on every request. Like the fleet index it is advisory:
+ * candidates picked from it are re-checked against MongoDB before they are
+ * grouped, and stale entries are dropped.
+ * 
+ * Writes are serialized and journaled; reads are lock-free.
+ */
+@Component
+public class WaitingRiderIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WaitingRiderIndex.class);
+    
+    private final StateJournal journal;
+    private final RideMatcherConfig matcherConfig;
+    
+    /**
+     * Cell order: oldest request first, ID breaks ties (missing times sort last)
+     */
+    private static final Comparator<RideRequest> BY_AGE = Comparator
+            .comparing(RideRequest::getRequestTime, Comparator.nullsLast(Comparator.<Instant>naturalOrder()))
+            .thenComparing(RideRequest::getId);
+    
+    private final Map<String, Map<Long, ConcurrentSkipListMap<RideRequest, RideRequest>>> cellsByAirport =
+            new ConcurrentHashMap<>();
+    private final Map<String, RideRequest> ridersById = new ConcurrentHashMap<>();
+    private volatile boolean warm;
+    
+    public WaitingRiderIndex(StateJournal journal, RideMatcherConfig matcherConfig) {
+        this.journal = journal;
+        this.matcherConfig = matcherConfig;
+    }
+    
+    /**
+     * Replace the index contents with the given riders and mark it ready
+     * 
+     * @param riders WAITING ride requests
+     */
+    public synchronized void rebuild(Collection<RideRequest> riders) {
+        cellsByAirport.clear();
+        ridersById.clear();
+        for (RideRequest rider : riders) {
+            // Freshly loaded instances are owned by the index, no copy needed
+            if (rider.getStatus() == RideStatus.WAITING && rider.getAirportCode() != null) {
+                attach(rider);
+            }
+        }
+        warm = true;
+        logger.info("✓ Waiting rider index ready with {} riders", ridersById.size());
+    }
+    
+    /**
+     * Track a ride request while it is WAITING and drop it once it is not
+     * 
+     * @param rider latest ride request state
+     */
+    public synchronized void upsert(RideRequest rider) {
+        if (rider == null || rider.getId() == null) {
+            return;
+        }
+        boolean wasTracked = ridersById.containsKey(rider.getId());
+        if (apply(rider)) {
+            journal.riderUpserted(rider);
+        } else if (wasTracked) {
+            journal.riderRemoved(rider.getId());
+        }
+    }
+    
+    /**
+     * Stop tracking a ride request
+     * 
+     * @param riderId ride request ID
+     */
+    public synchronized void remove(String riderId) {
+        if (detach(riderId)) {
+            journal.riderRemoved(riderId);
+        }
+    }
+    
+    /**
+     * WAITING riders for an airport. Results are copies.
+     * 
+     * @param airportCode airport code
+     * @return waiting riders, longest waiting first
+     */
+    public List<RideRequest> findWaiting(String airportCode) {
+        Map<Long, ConcurrentSkipListMap<RideRequest, RideRequest>> cells = cellsByAirport.get(airportCode);
+        if (cells == null) {
+            return new ArrayList<>();
+        }
+        return mergeOldestFirst(new ArrayList<>(cells.values()));
+    }
+    
+    /**
+     * WAITING riders for an airport in the grid cells covering a radius around
+     * a point. May include riders slightly outside the radius; callers apply
+     * the exact distance check. Results are copies.
+     * 
+     * @param airportCode airport code
+     * @param lat latitude
+     * @param lng longitude
+     * @param radiusKm search radius
+     * @return nearby waiting riders, longest waiting first
+     */
+    public List<RideRequest> findWaitingNear(String airportCode, double lat, double lng, double radiusKm) {
+        Map<Long, ConcurrentSkipListMap<RideRequest, RideRequest>> cells = cellsByAirport.get(airportCode);
+        if (cells == null) {
+            return new ArrayList<>();
+        }
+        double cellSize = matcherConfig.getCandidateCellSizeDegrees();
+        int rings = GeoGrid.ringsForRadius(lat, radiusKm, cellSize);
+        long center = GeoGrid.cellId(lat, lng, cellSize);
+        int centerRow = GeoGrid.row(center);
+        int centerColumn = GeoGrid.column(center);
+        
+        List<ConcurrentSkipListMap<RideRequest, RideRequest>> visited = new ArrayList<>();
+        for (int row = centerRow - rings; row <= centerRow + rings; row++) {
+            for (int column = centerColumn - rings; column <= centerColumn + rings; column++) {
+                ConcurrentSkipListMap<RideRequest, RideRequest> cell = cells.get(GeoGrid.pack(row, column));
+                if (cell != null) {
+                    visited.add(cell);
+                }
+            }
+        }
+        return mergeOldestFirst(visited);
+    }
+    
+    /**
+     * Snapshot of every tracked rider (shared instances, read-only)
+     */
+    public List<RideRequest> getAll() {
+        return new ArrayList<>(ridersById.values());
+    }
+    
+    /**
+     * Whether the index has been loaded and can answer lookups
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+    
+    public int size() {
+        return ridersById.size();
+    }
+    
+    /**
+     * Apply a change without journaling it (rebuild and journal replay)
+     * 
+     * @return true if the rider is tracked afterwards
+     */
+    synchronized boolean apply(RideRequest rider) {
+        detach(rider.getId());
+        if (rider.getStatus() != RideStatus.WAITING || rider.getAirportCode() == null) {
+            return false;
+        }
+        attach(copyOf(rider));
+        return true;
+    }
+    
+    synchronized boolean detach(String riderId) {
+        RideRequest previous = ridersById.remove(riderId);
+        if (previous == null) {
+            return false;
+        }
+        Map<Long, ConcurrentSkipListMap<RideRequest, RideRequest>> cells = cellsByAirport.get(previous.getAirportCode());
+        if (cells != null) {
+            long cellId = cellOf(previous);
+            ConcurrentSkipListMap<RideRequest, RideRequest> cell = cells.get(cellId);
+            if (cell != null) {
+                cell.remove(previous);
+                if (cell.isEmpty()) {
+                    cells.remove(cellId);
+                }
+            }
+        }
+        return true;
+    }
+    
+    private void attach(RideRequest rider) {
+        cellsByAirport.computeIfAbsent(rider.getAirportCode(), code -> new ConcurrentHashMap<>())
+                .computeIfAbsent(cellOf(rider), cellId -> new ConcurrentSkipListMap<>(BY_AGE))
+                .put(rider, rider);
+        ridersById.put(rider.getId(), rider);
+    }
+    
+    /**
+     * K-way merge of age-ordered cells into one oldest-first list of copies
+     */
+    private static List<RideRequest> mergeOldestFirst(List<ConcurrentSkipListMap<RideRequest, RideRequest>> cells) {
+        List<RideRequest> copies = new ArrayList<>();
+        if (cells.size() == 1) {
+            for (RideRequest rider : cells.get(0).keySet()) {
+                copies.add(copyOf(rider));
+            }
+            return copies;
+        }
+        
+        PriorityQueue<CellCursor> heads = new PriorityQueue<>(Math.max(1, cells.size()),
+                (a, b) -> BY_AGE.compare(a.head, b.head));
+        for (ConcurrentSkipListMap<RideRequest, RideRequest> cell : cells) {
+            Iterator<RideRequest> iterator = cell.keySet().iterator();
+            if (iterator.hasNext()) {
+                heads.add(new CellCursor(iterator));
+            }
+        }
+        while (!heads.isEmpty()) {
+            CellCursor cursor = heads.poll();
+            copies.add(copyOf(cursor.head));
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return copies;
+    }
+    
+    /**
+     * Position in one cell during a merge
+     */
+    private static final class CellCursor {
+        private final Iterator<RideRequest> iterator;
+        private RideRequest head;
+        
+        CellCursor(Iterator<RideRequest> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+        
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+    
+    private long cellOf(RideRequest rider) {
+        return GeoGrid.cellId(rider.getPickupLat(), rider.getPickupLng(), matcherConfig.getCandidateCellSizeDegrees());
+    }
+    
+    private static RideRequest copyOf(RideRequest rider) {
+        return RideRequest.builder()
+                .id(rider.getId())
+                .userId(rider.getUserId())
+                .pickupLat(rider.getPickupLat())
+                .pickupLng(rider.getPickupLng())
+                .airportCode(rider.getAirportCode())
+                .seatsRequired(rider.getSeatsRequired())
+                .luggageCount(rider.getLuggageCount())
+                .requestTime(rider.getRequestTime())
+                .status(RideStatus.WAITING)
+                .build();
+    }
+}
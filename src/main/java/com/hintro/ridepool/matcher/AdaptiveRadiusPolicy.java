@@ -0,0 +1,115 @@
+package com.hintro.ridepool.matcher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.DemandConfig;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.service.DemandHeatmapService;
+
+/**
+ * Picks the matching radius per request from local demand density and wait time.
+ * 
+ * Density comes from the demand heatmap's rolling per-cell counters (the
+ * pickup's cell plus one ring). Assuming demand is spread evenly over that
+ * block, the radius is chosen so the circle is expected to hold
+ * targetCandidatesPerMatch recent requests:
+ * 
+ *   r = sqrt(target / (pi * requestsPerKm2)), clamped to [min, max]
+ * 
+ * Dense areas get a small radius (few candidates to score), sparse areas a
+ * wide one. A pair is then allowed to be further apart the longer either
+ * rider has waited, up to maxWaitRadiusBonusKm.
+ */
+@Component
+public class AdaptiveRadiusPolicy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveRadiusPolicy.class);
+    
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final int DENSITY_RINGS = 1;
+    
+    private final RideMatcherConfig matcherConfig;
+    private final DemandConfig demandConfig;
+    private final DemandHeatmapService demandHeatmapService;
+    private final Clock clock;
+    
+    public AdaptiveRadiusPolicy(RideMatcherConfig matcherConfig,
+                                DemandConfig demandConfig,
+                                DemandHeatmapService demandHeatmapService,
+                                Clock clock) {
+        this.matcherConfig = matcherConfig;
+        this.demandConfig = demandConfig;
+        this.demandHeatmapService = demandHeatmapService;
+        this.clock = clock;
+    }
+    
+    /**
+     * Density-based radius around a request's pickup point
+     * 
+     * @param request the request being matched
+     * @return radius in KM before any wait-time widening
+     */
+    public double baseRadiusKm(RideRequest request) {
+        if (!matcherConfig.isEnableAdaptiveRadius() || !demandConfig.isEnableHeatmap()) {
+            return matcherConfig.getMatchingRadiusKm();
+        }
+        
+        int recentRequests = demandHeatmapService.countNearby(request.getAirportCode(),
+                request.getPickupLat(), request.getPickupLng(), DENSITY_RINGS);
+        double minRadius = matcherConfig.getMinMatchingRadiusKm();
+        double maxRadius = matcherConfig.getMaxMatchingRadiusKm();
+        if (recentRequests == 0) {
+            return maxRadius;
+        }
+        
+        double cellKm = demandConfig.getCellSizeDegrees() * KM_PER_DEGREE;
+        double blockCells = (2 * DENSITY_RINGS + 1) * (2 * DENSITY_RINGS + 1);
+        double areaKm2 = blockCells * cellKm * cellKm * Math.cos(Math.toRadians(request.getPickupLat()));
+        double perKm2 = recentRequests / areaKm2;
+        
+        double radius = Math.sqrt(matcherConfig.getTargetCandidatesPerMatch() / (Math.PI * perKm2));
+        radius = Math.max(minRadius, Math.min(maxRadius, radius));
+        logger.debug("Adaptive radius for request {}: {} recent requests nearby -> {} KM",
+                request.getId(), recentRequests, String.format("%.2f", radius));
+        return radius;
+    }
+    
+    /**
+     * Widest radius any candidate can qualify at, used to bound the lookup
+     */
+    public double searchRadiusKm(double baseRadiusKm) {
+        if (!matcherConfig.isEnableAdaptiveRadius()) {
+            return baseRadiusKm;
+        }
+        return baseRadiusKm + matcherConfig.getMaxWaitRadiusBonusKm();
+    }
+    
+    /**
+     * Radius allowed between the new request and one candidate, widened by
+     * the longer of the two riders' waits
+     */
+    public double pairRadiusKm(double baseRadiusKm, RideRequest newRequest, RideRequest candidate) {
+        if (!matcherConfig.isEnableAdaptiveRadius()) {
+            return baseRadiusKm;
+        }
+        double waitMinutes = Math.max(waitMinutes(newRequest), waitMinutes(candidate));
+        double bonus = Math.min(matcherConfig.getMaxWaitRadiusBonusKm(),
+                waitMinutes * matcherConfig.getWaitRadiusGrowthKmPerMinute());
+        return baseRadiusKm + bonus;
+    }
+    
+    private double waitMinutes(RideRequest request) {
+        Instant requestTime = request.getRequestTime();
+        if (requestTime == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(requestTime, clock.instant()).toMillis() / 60_000.0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.AirportConfig.AirportLocation;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.RoutePlan;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Batch optimal: search every feasible group over the nearest candidates and
+ * keep the one that fills the most seats, then has the shortest pickup route,
+ * with every passenger inside the detour limit.
+ * 
+ * Near-exhaustive, so the candidate pool is capped (batchOptimalMaxCandidates);
+ * with a 4-seat cab that is at most a few hundred route plans per request.
+ * Falls back to best-fit when the airport location is unknown.
+ */
+@Component
+public class BatchOptimalMatchingStrategy implements MatchingStrategy {
+    
+    public static final String NAME = "batch-optimal";
+    
+    private final RideMatcherConfig matcherConfig;
+    private final AirportConfig airportConfig;
+    private final DistanceProvider distanceProvider;
+    private final RouteScorer routeScorer;
+    private final BestFitMatchingStrategy bestFitStrategy;
+    
+    public BatchOptimalMatchingStrategy(RideMatcherConfig matcherConfig,
+                                        AirportConfig airportConfig,
+                                        DistanceProvider distanceProvider,
+                                        RouteScorer routeScorer,
+                                        BestFitMatchingStrategy bestFitStrategy) {
+        this.matcherConfig = matcherConfig;
+        this.airportConfig = airportConfig;
+        this.distanceProvider = distanceProvider;
+        this.routeScorer = routeScorer;
+        this.bestFitStrategy = bestFitStrategy;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public MatchedRideGroup group(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats) {
+        AirportLocation airport = airportConfig.getLocation(newRequest.getAirportCode());
+        if (airport == null) {
+            return bestFitStrategy.group(newRequest, compatibleRequests, maxSeats);
+        }
+        
+        // Keep the candidates closest to the new pickup
+        List<RideRequest> pool = nearest(newRequest, compatibleRequests, matcherConfig.getBatchOptimalMaxCandidates());
+        List<RideRequest> batch = new ArrayList<>(pool.size() + 1);
+        batch.add(newRequest);
+        batch.addAll(pool);
+        DistanceMatrix matrix = new DistanceMatrix(airport.getLat(), airport.getLng(), batch, distanceProvider);
+        
+        Search search = new Search(matrix, batch, maxSeats);
+        search.best = routeScorer.planRoute(matrix, new int[]{1});
+        search.bestSeats = newRequest.getSeatsRequired();
+        search.bestStops = new int[]{1};
+        search.extend(new int[]{1}, 2, newRequest.getSeatsRequired());
+        
+        List<RideRequest> group = new ArrayList<>(search.bestStops.length);
+        for (int index : search.bestStops) {
+            group.add(batch.get(index - 1));
+        }
+        return MatchingGroups.of(newRequest.getAirportCode(), group, maxSeats, batch, search.best);
+    }
+    
+    private List<RideRequest> nearest(RideRequest newRequest, List<RideRequest> candidates, int limit) {
+        if (candidates.size() <= limit) {
+            return candidates;
+        }
+        double[] lats = new double[candidates.size()];
+        double[] lngs = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            lats[i] = candidates.get(i).getPickupLat();
+            lngs[i] = candidates.get(i).getPickupLng();
+        }
+        double[] distances = distanceProvider.calculateDistances(
+                newRequest.getPickupLat(), newRequest.getPickupLng(), lats, lngs);
+        
+        List<Integer> order = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(i -> distances[i]));
+        
+        List<RideRequest> nearest = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            nearest.add(candidates.get(order.get(i)));
+        }
+        return nearest;
+    }
+    
+    /**
+     * Depth-first enumeration of groups in increasing matrix-index order
+     */
+    private final class Search {
+        private final DistanceMatrix matrix;
+        private final List<RideRequest> batch;
+        private final int maxSeats;
+        private RoutePlan best;
+        private int bestSeats;
+        private int[] bestStops;
+        
+        Search(DistanceMatrix matrix, List<RideRequest> batch, int maxSeats) {
+            this.matrix = matrix;
+            this.batch = batch;
+            this.maxSeats = maxSeats;
+        }
+        
+        void extend(int[] stops, int from, int seats) {
+            for (int index = from; index <= batch.size(); index++) {
+                int nextSeats = seats + batch.get(index - 1).getSeatsRequired();
+                if (nextSeats > maxSeats) {
+                    continue;
+                }
+                int[] nextStops = Arrays.copyOf(stops, stops.length + 1);
+                nextStops[stops.length] = index;
+                RoutePlan plan = routeScorer.planRoute(matrix, nextStops);
+                if (!routeScorer.isAcceptable(plan)) {
+                    // Supersets of a rejected group are not explored; adding
+                    // pickups rarely shortens anyone's ride enough to recover
+                    continue;
+                }
+                if (isBetter(plan, nextSeats)) {
+                    best = plan;
+                    bestSeats = nextSeats;
+                    bestStops = nextStops;
+                }
+                if (nextSeats < maxSeats) {
+                    extend(nextStops, index + 1, nextSeats);
+                }
+            }
+        }
+        
+        private boolean isBetter(RoutePlan plan, int seats) {
+            if (seats != bestSeats) {
+                return seats > bestSeats;
+            }
+            return plan.getTotalDistanceKm() < best.getTotalDistanceKm();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Best-fit: choose the companions that fill the most seats, breaking ties by
+ * the smallest total pickup distance from the new request.
+ * 
+ * Solved exactly as a 0/1 knapsack over seats (capacity is a handful of
+ * seats, so the table is tiny) instead of taking candidates in arrival order.
+ */
+@Component
+public class BestFitMatchingStrategy implements MatchingStrategy {
+    
+    public static final String NAME = "best-fit";
+    
+    private final DistanceProvider distanceProvider;
+    
+    public BestFitMatchingStrategy(DistanceProvider distanceProvider) {
+        this.distanceProvider = distanceProvider;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public MatchedRideGroup group(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats) {
+        int freeSeats = Math.max(0, maxSeats - newRequest.getSeatsRequired());
+        int n = compatibleRequests.size();
+        
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = compatibleRequests.get(i).getPickupLat();
+            lngs[i] = compatibleRequests.get(i).getPickupLng();
+        }
+        double[] distances = distanceProvider.calculateDistances(
+                newRequest.getPickupLat(), newRequest.getPickupLng(), lats, lngs);
+        
+        // cost[i][s]: least total distance using candidates 0..i-1 to fill exactly s seats
+        double[][] cost = new double[n + 1][freeSeats + 1];
+        for (double[] row : cost) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        cost[0][0] = 0;
+        for (int i = 1; i <= n; i++) {
+            int seats = compatibleRequests.get(i - 1).getSeatsRequired();
+            for (int s = 0; s <= freeSeats; s++) {
+                cost[i][s] = cost[i - 1][s];
+                if (s >= seats && cost[i - 1][s - seats] + distances[i - 1] < cost[i][s]) {
+                    cost[i][s] = cost[i - 1][s - seats] + distances[i - 1];
+                }
+            }
+        }
+        
+        int filled = freeSeats;
+        while (filled > 0 && cost[n][filled] == Double.POSITIVE_INFINITY) {
+            filled--;
+        }
+        
+        List<RideRequest> companions = new ArrayList<>();
+        for (int i = n, s = filled; i > 0 && s > 0; i--) {
+            if (cost[i][s] != cost[i - 1][s]) {
+                RideRequest candidate = compatibleRequests.get(i - 1);
+                companions.add(0, candidate);
+                s -= candidate.getSeatsRequired();
+            }
+        }
+        
+        List<RideRequest> group = new ArrayList<>(companions.size() + 1);
+        group.add(newRequest);
+        group.addAll(companions);
+        return MatchingGroups.of(newRequest.getAirportCode(), group, maxSeats);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.AirportConfig.AirportLocation;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.RoutePlan;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Detour-aware greedy: rank candidates by kilometers saved when paired with
+ * the new request, then grow the group in that order while the planned
+ * pickup route keeps every passenger within the detour limit.
+ * 
+ * Falls back to first-fit when detour scoring is disabled or the airport
+ * location is unknown.
+ */
+@Component
+public class DetourAwareMatchingStrategy implements MatchingStrategy {
+    
+    public static final String NAME = "detour-aware";
+    
+    private static final Logger logger = LoggerFactory.getLogger(DetourAwareMatchingStrategy.class);
+    
+    private final RideMatcherConfig matcherConfig;
+    private final AirportConfig airportConfig;
+    private final DistanceProvider distanceProvider;
+    private final RouteScorer routeScorer;
+    private final GreedyMatchingStrategy greedyStrategy;
+    
+    public DetourAwareMatchingStrategy(RideMatcherConfig matcherConfig,
+                                       AirportConfig airportConfig,
+                                       DistanceProvider distanceProvider,
+                                       RouteScorer routeScorer,
+                                       GreedyMatchingStrategy greedyStrategy) {
+        this.matcherConfig = matcherConfig;
+        this.airportConfig = airportConfig;
+        this.distanceProvider = distanceProvider;
+        this.routeScorer = routeScorer;
+        this.greedyStrategy = greedyStrategy;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    /**
+     * Group users by route quality
+     * 1. Score every candidate paired with the new request and drop pairs with too much detour
+     * 2. Rank remaining candidates by kilometers saved versus riding alone
+     * 3. Grow the group in ranked order, re-planning the pickup route for every addition
+     */
+    @Override
+    public MatchedRideGroup group(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats) {
+        AirportLocation airport = matcherConfig.isEnableDetourScoring()
+                ? airportConfig.getLocation(newRequest.getAirportCode()) : null;
+        if (airport == null) {
+            logger.debug("No detour scoring for airport {} - using first-fit", newRequest.getAirportCode());
+            return greedyStrategy.group(newRequest, compatibleRequests, maxSeats);
+        }
+        
+        logger.debug("Grouping users by route - {} candidates", compatibleRequests.size());
+        
+        // Matrix index 1 is the new request, candidates follow in list order
+        List<RideRequest> batch = new ArrayList<>(compatibleRequests.size() + 1);
+        batch.add(newRequest);
+        batch.addAll(compatibleRequests);
+        DistanceMatrix matrix = new DistanceMatrix(airport.getLat(), airport.getLng(), batch, distanceProvider);
+        
+        List<double[]> ranked = new ArrayList<>();
+        for (int index = 2; index <= batch.size(); index++) {
+            RoutePlan pairPlan = routeScorer.planRoute(matrix, new int[]{1, index});
+            if (!routeScorer.isAcceptable(pairPlan)) {
+                logger.debug("Candidate {} - Detour ratio {} exceeds limit", 
+                        batch.get(index - 1).getId(), String.format("%.2f", pairPlan.getMaxDetourRatio()));
+                continue;
+            }
+            ranked.add(new double[]{index, pairPlan.getSavingsKm()});
+        }
+        ranked.sort(Comparator.comparingDouble((double[] entry) -> entry[1]).reversed());
+        
+        int totalSeats = newRequest.getSeatsRequired();
+        int[] stops = new int[]{1};
+        RoutePlan plan = routeScorer.planRoute(matrix, stops);
+        List<RideRequest> group = new ArrayList<>();
+        group.add(newRequest);
+        
+        for (double[] entry : ranked) {
+            int index = (int) entry[0];
+            RideRequest candidate = batch.get(index - 1);
+            if (totalSeats + candidate.getSeatsRequired() > maxSeats) {
+                logger.debug("Cannot add user {} - not enough seats remaining", candidate.getUserId());
+                continue;
+            }
+            
+            int[] tentativeStops = Arrays.copyOf(stops, stops.length + 1);
+            tentativeStops[stops.length] = index;
+            RoutePlan tentativePlan = routeScorer.planRoute(matrix, tentativeStops);
+            if (!routeScorer.isAcceptable(tentativePlan)) {
+                logger.debug("Cannot add user {} - group route detour too long", candidate.getUserId());
+                continue;
+            }
+            
+            stops = tentativeStops;
+            plan = tentativePlan;
+            group.add(candidate);
+            totalSeats += candidate.getSeatsRequired();
+            logger.debug("Added user {} to group (Seats used: {}/{}, Route: {} km)", 
+                    candidate.getUserId(), totalSeats, maxSeats, 
+                    String.format("%.2f", plan.getTotalDistanceKm()));
+        }
+        
+        return MatchingGroups.of(newRequest.getAirportCode(), group, maxSeats, batch, plan);
+    }
+}
@@ -0,0 +1,74 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Memoized pairwise distance matrix for a single matching batch.
+ * 
+ * Index 0 is the destination (airport), indices 1..n are the pickup points
+ * of the given ride requests in list order. Distances are calculated lazily
+ * and cached, so each ordered pair is computed at most once per batch no matter
+ * how many candidate groups are scored. Pairs are cached per direction because
+ * road distances are not symmetric (one-way roads, ring roads).
+ */
+public class DistanceMatrix {
+    
+    private final double[] lats;
+    private final double[] lngs;
+    private final double[] cache;
+    private final int size;
+    private final DistanceProvider distanceProvider;
+    
+    public DistanceMatrix(double destinationLat, double destinationLng,
+                          List<RideRequest> pickups,
+                          DistanceProvider distanceProvider) {
+        this.size = pickups.size() + 1;
+        this.lats = new double[size];
+        this.lngs = new double[size];
+        this.distanceProvider = distanceProvider;
+        
+        lats[0] = destinationLat;
+        lngs[0] = destinationLng;
+        for (int i = 0; i < pickups.size(); i++) {
+            lats[i + 1] = pickups.get(i).getPickupLat();
+            lngs[i + 1] = pickups.get(i).getPickupLng();
+        }
+        
+        this.cache = new double[size * size];
+        Arrays.fill(cache, Double.NaN);
+    }
+    
+    /**
+     * Travel distance in kilometers from one point of the matrix to another
+     */
+    public double get(int from, int to) {
+        if (from == to) {
+            return 0.0;
+        }
+        double cached = cache[from * size + to];
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+        double distance = distanceProvider.calculateDistance(lats[from], lngs[from], lats[to], lngs[to]);
+        cache[from * size + to] = distance;
+        return distance;
+    }
+    
+    /**
+     * Direct distance from a pickup point to the destination
+     */
+    public double soloDistance(int pickup) {
+        return get(pickup, 0);
+    }
+    
+    /**
+     * Number of points in the matrix, including the destination
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * First-fit: add compatible requests in the order they were found until
+ * the cab is full. Cheapest strategy, no route awareness.
+ */
+@Component
+public class GreedyMatchingStrategy implements MatchingStrategy {
+    
+    public static final String NAME = "greedy";
+    
+    private static final Logger logger = LoggerFactory.getLogger(GreedyMatchingStrategy.class);
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public MatchedRideGroup group(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats) {
+        List<RideRequest> group = new ArrayList<>();
+        group.add(newRequest);
+        
+        int seatsAvailable = maxSeats - newRequest.getSeatsRequired();
+        
+        // Add compatible requests to group until capacity is reached
+        for (RideRequest candidate : compatibleRequests) {
+            if (candidate.getSeatsRequired() <= seatsAvailable) {
+                group.add(candidate);
+                seatsAvailable -= candidate.getSeatsRequired();
+                logger.debug("Added user {} to group (Seats used: {}/{})", 
+                        candidate.getUserId(), maxSeats - seatsAvailable, maxSeats);
+            } else {
+                logger.debug("Cannot add user {} - not enough seats remaining", candidate.getUserId());
+            }
+        }
+        
+        return MatchingGroups.of(newRequest.getAirportCode(), group, maxSeats);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hintro.ridepool.matcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.hintro.ridepool.index.FleetIndex;
+
+/**
+ * Picks the seat capacity a group is built for from the cabs free near the pickup.
+ * 
+ * Reads the fleet index's per-cell free-seat histograms of the request's
+ * airport partition over that airport's cab assignment radius and chooses the largest size C such that at least
+ * fleetMixMinShare of the nearby cabs have C or more free seats. With vans
+ * idle nearby groups grow to six seats; in a sedan-only area they stay at
+ * four, so no group is formed that no nearby cab can carry.
+ * 
+ * Falls back to cabCapacitySeats when disabled, when the fleet index is not
+ * loaded yet or when no cab is indexed near the pickup. The result is capped
+ * at maxGroupSeats and never below the request's own seats.
+ */
+@Component
+public class GroupCapacityPolicy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GroupCapacityPolicy.class);
+    
+    private final RideMatcherConfig matcherConfig;
+    private final CabAssignmentConfig assignmentConfig;
+    private final FleetIndex fleetIndex;
+    private final AirportRegistry airportRegistry;
+    
+    public GroupCapacityPolicy(RideMatcherConfig matcherConfig,
+                               CabAssignmentConfig assignmentConfig,
+                               FleetIndex fleetIndex,
+                               AirportRegistry airportRegistry) {
+        this.matcherConfig = matcherConfig;
+        this.assignmentConfig = assignmentConfig;
+        this.fleetIndex = fleetIndex;
+        this.airportRegistry = airportRegistry;
+    }
+    
+    /**
+     * Seat capacity to build the request's group for
+     * 
+     * @param request the request being matched
+     * @return maximum total seats of the group
+     */
+    public int targetSeats(RideRequest request) {
+        int fallback = matcherConfig.getCabCapacitySeats();
+        if (!matcherConfig.isEnableFleetMixTargets() || !assignmentConfig.isEnableFleetIndex() || !fleetIndex.isWarm()) {
+            return fallback;
+        }
+        
+        String airportCode = request.getAirportCode();
+        int[] seatCounts = fleetIndex.availableSeatsNear(airportCode, request.getPickupLat(), request.getPickupLng(),
+                airportRegistry.cabAssignmentRadiusKm(airportCode));
+        int nearbyCabs = 0;
+        for (int count : seatCounts) {
+            nearbyCabs += count;
+        }
+        if (nearbyCabs == 0) {
+            return fallback;
+        }
+        
+        // Walk down from the largest free capacity until enough cabs can carry the size
+        int needed = Math.max(1, (int) Math.ceil(matcherConfig.getFleetMixMinShare() * nearbyCabs));
+        int target = fallback;
+        int cabsThatFit = 0;
+        for (int seats = seatCounts.length - 1; seats > 0; seats--) {
+            cabsThatFit += seatCounts[seats];
+            if (cabsThatFit >= needed) {
+                target = seats;
+                break;
+            }
+        }
+        
+        target = Math.max(request.getSeatsRequired(), Math.min(matcherConfig.getMaxGroupSeats(), target));
+        logger.debug("Group target for request {}: {} seats ({} cabs nearby)", request.getId(), target, nearbyCabs);
+        return target;
+    }
+}
@@ -0,0 +1,57 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.RoutePlan;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * Builds MatchedRideGroup results shared by the matching strategies
+ */
+final class MatchingGroups {
+    
+    private MatchingGroups() {
+    }
+    
+    /**
+     * Group without a planned route
+     */
+    static MatchedRideGroup of(String airportCode, List<RideRequest> passengers, int maxSeats) {
+        int totalSeats = 0;
+        int totalLuggage = 0;
+        for (RideRequest passenger : passengers) {
+            totalSeats += passenger.getSeatsRequired();
+            totalLuggage += passenger.getLuggageCount();
+        }
+        
+        return MatchedRideGroup.builder()
+                .passengers(passengers)
+                .totalSeatsRequired(totalSeats)
+                .totalLuggageCount(totalLuggage)
+                .airportCode(airportCode)
+                .groupStatus(totalSeats == maxSeats ? "FULL" : "PARTIAL")
+                .build();
+    }
+    
+    /**
+     * Group with its planned pickup route
+     * 
+     * @param batch requests in distance-matrix order (matrix index i + 1 is batch.get(i))
+     * @param plan route planned over the group's matrix indices
+     */
+    static MatchedRideGroup of(String airportCode, List<RideRequest> passengers, int maxSeats,
+                               List<RideRequest> batch, RoutePlan plan) {
+        MatchedRideGroup group = of(airportCode, passengers, maxSeats);
+        
+        List<String> pickupOrder = new ArrayList<>(plan.getPickupOrder().length);
+        for (int index : plan.getPickupOrder()) {
+            pickupOrder.add(batch.get(index - 1).getId());
+        }
+        group.setPickupOrder(pickupOrder);
+        group.setRouteDistanceKm(plan.getTotalDistanceKm());
+        group.setMaxDetourRatio(plan.getMaxDetourRatio());
+        return group;
+    }
+}
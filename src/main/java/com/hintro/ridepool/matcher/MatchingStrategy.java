@@ -0,0 +1,34 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.List;
+
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * Algorithm that picks which compatible waiting riders join a new request.
+ * 
+ * Implementations are pure: they must not modify the requests passed in or
+ * persist anything, so the same inputs can be run through a shadow strategy
+ * side by side with the active one. RideMatcher applies the chosen group.
+ * 
+ * Strategies are Spring beans; the one used per airport is selected by name
+ * through RideMatcherConfig.
+ */
+public interface MatchingStrategy {
+    
+    /**
+     * Name used to select the strategy in configuration (e.g. "greedy")
+     */
+    String getName();
+    
+    /**
+     * Build the group for a new request
+     * 
+     * @param newRequest the request being matched, always part of the group
+     * @param compatibleRequests waiting requests within radius and seat capacity
+     * @param maxSeats seat capacity the group is built for (see GroupCapacityPolicy)
+     * @return group containing the new request and the chosen companions
+     */
+    MatchedRideGroup group(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats);
+}
@@ -0,0 +1,70 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.RideMatcherConfig;
+
+/**
+ * Resolves the active and shadow matching strategies for an airport from configuration
+ */
+@Component
+public class MatchingStrategyRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MatchingStrategyRegistry.class);
+    
+    private final Map<String, MatchingStrategy> strategies = new LinkedHashMap<>();
+    private final RideMatcherConfig matcherConfig;
+    private final MatchingStrategy fallback;
+    
+    public MatchingStrategyRegistry(List<MatchingStrategy> strategies,
+                                    RideMatcherConfig matcherConfig,
+                                    DetourAwareMatchingStrategy fallback) {
+        for (MatchingStrategy strategy : strategies) {
+            this.strategies.put(strategy.getName(), strategy);
+        }
+        this.matcherConfig = matcherConfig;
+        this.fallback = fallback;
+        logger.info("✓ Matching strategies available: {}", this.strategies.keySet());
+    }
+    
+    /**
+     * Strategy whose groups are applied for this airport
+     */
+    public MatchingStrategy active(String airportCode) {
+        String name = matcherConfig.getStrategyFor(airportCode);
+        MatchingStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            logger.warn("⚠ Unknown matching strategy '{}' for airport {}, using {}", name, airportCode, fallback.getName());
+            return fallback;
+        }
+        return strategy;
+    }
+    
+    /**
+     * Strategy evaluated in shadow mode for this airport, or null when there is
+     * none (or it is the same as the active one)
+     */
+    public MatchingStrategy shadow(String airportCode) {
+        String name = matcherConfig.getShadowStrategyFor(airportCode);
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        MatchingStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            logger.warn("⚠ Unknown shadow strategy '{}' for airport {}, shadow mode off", name, airportCode);
+            return null;
+        }
+        return strategy == active(airportCode) ? null : strategy;
+    }
+    
+    public List<String> getNames() {
+        return new ArrayList<>(strategies.keySet());
+    }
+}
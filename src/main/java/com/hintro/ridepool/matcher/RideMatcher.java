@@ -1,8 +1,15 @@
 package com.hintro.ridepool.matcher;
 
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -11,10 +18,22 @@ import org.springframework.stereotype.Component;
 
 import com.hintro.ridepool.config.RideMatcherConfig;
 import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.entity.RideGroup;
 import com.hintro.ridepool.entity.RideRequest;
 import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.events.RideEventType;
+import com.hintro.ridepool.index.WaitingRiderIndex;
+import com.hintro.ridepool.repository.RideGroupRepository;
 import com.hintro.ridepool.repository.RideRequestRepository;
-import com.hintro.ridepool.util.DistanceCalculator;
+import com.hintro.ridepool.repository.ShardKeys;
+import com.hintro.ridepool.trace.Decision;
+import com.hintro.ridepool.trace.DecisionOutcome;
+import com.hintro.ridepool.trace.DecisionTracer;
+import com.hintro.ridepool.trace.DecisionType;
+import com.hintro.ridepool.trace.MatchingStageEvent;
+import com.hintro.ridepool.util.DistanceProvider;
 
 /**
  * Core matching engine for ride pooling
@@ -22,26 +41,69 @@ import com.hintro.ridepool.util.DistanceCalculator;
  * 
  * Matching Algorithm:
  * 1. Find all WAITING requests for same airport
- * 2. Filter by distance (within matching radius)
- * 3. Group users based on capacity constraints
+ * 2. Filter by distance (within an adaptive radius - see AdaptiveRadiusPolicy)
+ *    and seats (up to the group size the nearby fleet can carry - see GroupCapacityPolicy),
+ *    and rank by wait time against distance, longest-waiting riders first
+ * 3. Group users with the airport's MatchingStrategy (optionally shadowed by another);
+ *    a rider waiting past priorityWaitSeconds is always placed in the group
  * 4. Update status to MATCHED or ASSIGNED
- * 5. Assign groupId to link matched users
+ * 5. Assign groupId to link matched users and store the group in ride_groups
+ * Each match is traced as one decision record (see DecisionTracer), and each
+ * step is timed as a Flight Recorder event (see MatchingStageEvent).
  */
 @Component
 public class RideMatcher {
     
     private static final Logger logger = LoggerFactory.getLogger(RideMatcher.class);
     
+    /**
+     * Added to the priority of riders past priorityWaitSeconds so they outrank everyone else
+     */
+    private static final double OVERDUE_PRIORITY = 1e12;
+    
     private final RideRequestRepository rideRequestRepository;
-    private final DistanceCalculator distanceCalculator;
+    private final RideGroupRepository rideGroupRepository;
+    private final ShardKeys shardKeys;
+    private final DistanceProvider distanceProvider;
     private final RideMatcherConfig matcherConfig;
+    private final WaitingRiderIndex waitingRiderIndex;
+    private final MatchingStrategyRegistry strategyRegistry;
+    private final ShadowMatchingEvaluator shadowEvaluator;
+    private final AdaptiveRadiusPolicy adaptiveRadiusPolicy;
+    private final GroupCapacityPolicy groupCapacityPolicy;
+    private final GreedyMatchingStrategy greedyStrategy;
+    private final RideEventLog eventLog;
+    private final DecisionTracer decisionTracer;
+    private final Clock clock;
     
     public RideMatcher(RideRequestRepository rideRequestRepository,
-                      DistanceCalculator distanceCalculator,
-                      RideMatcherConfig matcherConfig) {
+                      RideGroupRepository rideGroupRepository,
+                      ShardKeys shardKeys,
+                      DistanceProvider distanceProvider,
+                      RideMatcherConfig matcherConfig,
+                      WaitingRiderIndex waitingRiderIndex,
+                      MatchingStrategyRegistry strategyRegistry,
+                      ShadowMatchingEvaluator shadowEvaluator,
+                      AdaptiveRadiusPolicy adaptiveRadiusPolicy,
+                      GroupCapacityPolicy groupCapacityPolicy,
+                      GreedyMatchingStrategy greedyStrategy,
+                      RideEventLog eventLog,
+                      DecisionTracer decisionTracer,
+                      Clock clock) {
         this.rideRequestRepository = rideRequestRepository;
-        this.distanceCalculator = distanceCalculator;
+        this.rideGroupRepository = rideGroupRepository;
+        this.shardKeys = shardKeys;
+        this.distanceProvider = distanceProvider;
         this.matcherConfig = matcherConfig;
+        this.waitingRiderIndex = waitingRiderIndex;
+        this.strategyRegistry = strategyRegistry;
+        this.shadowEvaluator = shadowEvaluator;
+        this.adaptiveRadiusPolicy = adaptiveRadiusPolicy;
+        this.groupCapacityPolicy = groupCapacityPolicy;
+        this.greedyStrategy = greedyStrategy;
+        this.eventLog = eventLog;
+        this.decisionTracer = decisionTracer;
+        this.clock = clock;
     }
     
     /**
@@ -51,68 +113,147 @@ public class RideMatcher {
      * @return MatchedRideGroup containing matched users or empty group if no match
      */
     public MatchedRideGroup findAndGroupMatches(RideRequest newRequest) {
-        logger.info("=== MATCHING ENGINE STARTED for Request ID: {} ===", newRequest.getId());
-        logger.debug("New request - User: {}, Airport: {}, Seats: {}, Position: ({}, {})",
-                newRequest.getUserId(), newRequest.getAirportCode(), 
+        long started = System.nanoTime();
+        logger.debug("Matching request {} - User: {}, Airport: {}, Seats: {}, Position: ({}, {})",
+                newRequest.getId(), newRequest.getUserId(), newRequest.getAirportCode(),
                 newRequest.getSeatsRequired(), newRequest.getPickupLat(), newRequest.getPickupLng());
+        Decision.DecisionBuilder decision = Decision.builder()
+                .type(DecisionType.MATCH)
+                .rideRequestId(newRequest.getId())
+                .airportCode(newRequest.getAirportCode());
         
         // Check if matching is enabled
         if (!matcherConfig.isEnableMatching()) {
-            logger.warn("Matching engine is disabled in configuration");
-            return MatchedRideGroup.builder()
+            return traced(decision.outcome(DecisionOutcome.MATCHING_DISABLED), started, MatchedRideGroup.builder()
                     .passengers(List.of(newRequest))
                     .airportCode(newRequest.getAirportCode())
-                    .build();
+                    .build());
         }
         
         try {
-            // Step 1: Find all waiting requests for the same airport (excluding current request)
-            List<RideRequest> waitingRequests = findWaitingRequestsForAirport(newRequest);
-            logger.info("Found {} waiting requests for airport {}", 
-                    waitingRequests.size(), newRequest.getAirportCode());
+            // Step 1: Find waiting requests for the same airport near the pickup (excluding current request)
+            String airportCode = newRequest.getAirportCode();
+            MatchingStageEvent stage = MatchingStageEvent.start(MatchingStageEvent.SEARCH, airportCode);
+            double radiusKm = adaptiveRadiusPolicy.baseRadiusKm(newRequest);
+            decision.radiusKm(radiusKm);
+            List<RideRequest> waitingRequests = findWaitingRequestsForAirport(newRequest,
+                    adaptiveRadiusPolicy.searchRadiusKm(radiusKm));
+            stage.finish(waitingRequests.size(), 1);
+            decision.candidates(waitingRequests.size());
             
             if (waitingRequests.isEmpty()) {
-                logger.warn("No waiting requests found for airport: {}", newRequest.getAirportCode());
-                return createSinglePassengerGroup(newRequest);
+                return traced(decision.outcome(DecisionOutcome.NO_CANDIDATES), started,
+                        createSinglePassengerGroup(newRequest));
             }
             
             // Step 2: Filter by distance and capacity
-            List<RideRequest> compatibleRequests = filterCompatibleRequests(newRequest, waitingRequests);
-            logger.info("Found {} compatible requests within {} KM radius", 
-                    compatibleRequests.size(), matcherConfig.getMatchingRadiusKm());
+            stage = MatchingStageEvent.start(MatchingStageEvent.FILTER, airportCode);
+            int maxSeats = groupCapacityPolicy.targetSeats(newRequest);
+            List<RideRequest> compatibleRequests = filterCompatibleRequests(newRequest, waitingRequests,
+                    radiusKm, maxSeats);
+            if (waitingRiderIndex.isWarm()) {
+                compatibleRequests = recheckStillWaiting(airportCode, compatibleRequests);
+            }
+            stage.finish(compatibleRequests.size(), 1);
+            decision.compatible(compatibleRequests.size());
             
             if (compatibleRequests.isEmpty()) {
-                logger.warn("No compatible requests found within matching radius");
-                return createSinglePassengerGroup(newRequest);
+                return traced(decision.outcome(DecisionOutcome.NO_CANDIDATES), started,
+                        createSinglePassengerGroup(newRequest));
             }
             
             // Step 3: Group compatible users
-            MatchedRideGroup matchedGroup = groupUsers(newRequest, compatibleRequests);
-            logger.info("Matched group created with {} passengers, Total seats: {}", 
-                    matchedGroup.getPassengers().size(), matchedGroup.getTotalSeatsRequired());
+            stage = MatchingStageEvent.start(MatchingStageEvent.GROUP, airportCode);
+            MatchedRideGroup matchedGroup = groupUsers(newRequest, compatibleRequests, maxSeats, decision);
+            stage.finish(compatibleRequests.size(), matchedGroup.getPassengers().size());
             
             // Step 4: Update statuses and assign groupId
-            updateGroupStatuses(matchedGroup);
-            
-            logger.info("=== MATCHING ENGINE COMPLETED - Group Status: {} ===", 
-                    matchedGroup.getGroupStatus());
+            stage = MatchingStageEvent.start(MatchingStageEvent.CLAIM, airportCode);
+            matchedGroup = updateGroupStatuses(newRequest, matchedGroup, maxSeats);
+            stage.finish(compatibleRequests.size(), matchedGroup.getPassengers().size());
             
-            return matchedGroup;
+            DecisionOutcome outcome = matchedGroup.getPassengers().size() < 2 ? DecisionOutcome.ALONE
+                    : "FULL".equals(matchedGroup.getGroupStatus()) ? DecisionOutcome.GROUPED_FULL
+                    : DecisionOutcome.GROUPED_PARTIAL;
+            return traced(decision.outcome(outcome), started, matchedGroup);
             
         } catch (Exception e) {
             logger.error("Error during matching process", e);
-            return createSinglePassengerGroup(newRequest);
+            return traced(decision.outcome(DecisionOutcome.FAILED), started, createSinglePassengerGroup(newRequest));
         }
     }
     
     /**
-     * Find all WAITING requests for the same airport (excluding current request)
+     * Find WAITING riders near a point that fit into seats freed in an existing
+     * group (e.g. after a cancellation). Uses the same radius, distance and
+     * seat filters and wait-time ranking as new requests.
+     * Nothing is updated - the caller claims the riders it takes.
+     * 
+     * @param airportCode airport of the group
+     * @param lat latitude to search around
+     * @param lng longitude to search around
+     * @param freeSeats seats available in the group
+     * @param excludeIds ride requests not to offer (e.g. the group's members)
+     * @return riders whose seats together fit into freeSeats, highest priority first
      */
-    private List<RideRequest> findWaitingRequestsForAirport(RideRequest newRequest) {
-        logger.debug("Querying database for waiting requests in airport: {}", newRequest.getAirportCode());
+    public List<RideRequest> findRidersForFreedSeats(String airportCode, double lat, double lng,
+                                                     int freeSeats, Set<String> excludeIds) {
+        if (!matcherConfig.isEnableMatching() || freeSeats <= 0) {
+            return List.of();
+        }
+        
+        // Stand-in for the group at the point, with only the free seats to fill
+        RideRequest probe = RideRequest.builder()
+                .airportCode(airportCode)
+                .pickupLat(lat)
+                .pickupLng(lng)
+                .seatsRequired(0)
+                .requestTime(clock.instant())
+                .status(RideStatus.MATCHED)
+                .build();
+        
+        double radiusKm = adaptiveRadiusPolicy.baseRadiusKm(probe);
+        List<RideRequest> waitingRequests = findWaitingRequestsForAirport(probe,
+                adaptiveRadiusPolicy.searchRadiusKm(radiusKm));
+        waitingRequests.removeIf(req -> excludeIds.contains(req.getId()));
+        if (waitingRequests.isEmpty()) {
+            return List.of();
+        }
         
-        List<RideRequest> requests = rideRequestRepository
-                .findByAirportCodeAndStatus(newRequest.getAirportCode(), RideStatus.WAITING);
+        List<RideRequest> compatibleRequests = filterCompatibleRequests(probe, waitingRequests, radiusKm, freeSeats);
+        if (waitingRiderIndex.isWarm()) {
+            compatibleRequests = recheckStillWaiting(airportCode, compatibleRequests);
+        }
+        
+        List<RideRequest> offered = new ArrayList<>();
+        int seatsLeft = freeSeats;
+        for (RideRequest candidate : compatibleRequests) {
+            if (candidate.getSeatsRequired() <= seatsLeft) {
+                offered.add(candidate);
+                seatsLeft -= candidate.getSeatsRequired();
+            }
+        }
+        logger.info("Found {} waiting riders for {} freed seats near ({}, {})",
+                offered.size(), freeSeats, lat, lng);
+        return offered;
+    }
+    
+    /**
+     * Find WAITING requests for the same airport (excluding current request).
+     * The index only returns riders in grid cells within the search radius.
+     */
+    private List<RideRequest> findWaitingRequestsForAirport(RideRequest newRequest, double searchRadiusKm) {
+        List<RideRequest> requests;
+        if (waitingRiderIndex.isWarm()) {
+            logger.debug("Reading waiting requests within {} KM for airport {} from index",
+                    String.format("%.2f", searchRadiusKm), newRequest.getAirportCode());
+            requests = waitingRiderIndex.findWaitingNear(newRequest.getAirportCode(),
+                    newRequest.getPickupLat(), newRequest.getPickupLng(), searchRadiusKm);
+        } else {
+            logger.debug("Querying database for waiting requests in airport: {}", newRequest.getAirportCode());
+            requests = rideRequestRepository
+                    .findByAirportCodeAndStatus(newRequest.getAirportCode(), RideStatus.WAITING);
+        }
         
         // Remove the new request itself from the list
         return requests.stream()
@@ -121,122 +262,346 @@ public class RideMatcher {
     }
     
     /**
-     * Filter requests that are within matching radius and seat capacity constraints
+     * Re-read index candidates from MongoDB and keep those still WAITING.
+     * Another instance may have grouped them since they were indexed;
+     * stale entries are dropped from the index.
+     */
+    private List<RideRequest> recheckStillWaiting(String airportCode, List<RideRequest> candidates) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<String> ids = candidates.stream().map(RideRequest::getId).collect(Collectors.toList());
+        Map<String, RideRequest> current = new HashMap<>();
+        for (RideRequest request : rideRequestRepository.findByAirportCodeAndIdInAndStatus(airportCode, ids,
+                RideStatus.WAITING)) {
+            current.put(request.getId(), request);
+        }
+        
+        List<RideRequest> stillWaiting = new ArrayList<>(current.size());
+        for (RideRequest candidate : candidates) {
+            RideRequest fresh = current.get(candidate.getId());
+            if (fresh != null) {
+                stillWaiting.add(fresh);
+            } else {
+                logger.debug("Candidate {} is no longer waiting, dropping from index", candidate.getId());
+                waitingRiderIndex.remove(candidate.getId());
+            }
+        }
+        return stillWaiting;
+    }
+    
+    /**
+     * Filter requests that are within matching radius and seat capacity constraints.
+     * The radius widens per candidate with wait time; at most maxCandidatesPerMatch
+     * compatible requests are kept, highest priority first.
      */
     private List<RideRequest> filterCompatibleRequests(RideRequest newRequest, 
-                                                       List<RideRequest> candidates) {
+                                                       List<RideRequest> candidates,
+                                                       double radiusKm,
+                                                       int maxSeats) {
         logger.debug("Filtering candidates by distance and capacity");
         
-        int maxSeats = matcherConfig.getCabCapacitySeats();
-        double matchingRadius = matcherConfig.getMatchingRadiusKm();
-        
-        return candidates.stream()
-                .filter(candidate -> {
-                    // Check distance
-                    boolean withinRadius = distanceCalculator.isWithinRadius(
-                            newRequest.getPickupLat(), newRequest.getPickupLng(),
-                            candidate.getPickupLat(), candidate.getPickupLng(),
-                            matchingRadius
-                    );
-                    
-                    if (!withinRadius) {
-                        logger.debug("Candidate {} - Outside matching radius", candidate.getId());
-                        return false;
-                    }
-                    
-                    // Check seat capacity
-                    int totalSeats = newRequest.getSeatsRequired() + candidate.getSeatsRequired();
-                    if (totalSeats > maxSeats) {
-                        logger.debug("Candidate {} - Exceeds seat capacity ({}/{})", 
-                                candidate.getId(), totalSeats, maxSeats);
-                        return false;
-                    }
-                    
-                    logger.debug("Candidate {} is compatible", candidate.getId());
-                    return true;
-                })
-                .collect(Collectors.toList());
+        // One-to-many distance query from the new pickup to every candidate
+        double[] candidateLats = new double[candidates.size()];
+        double[] candidateLngs = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            candidateLats[i] = candidates.get(i).getPickupLat();
+            candidateLngs[i] = candidates.get(i).getPickupLng();
+        }
+        double[] distances = distanceProvider.calculateDistances(
+                newRequest.getPickupLat(), newRequest.getPickupLng(), candidateLats, candidateLngs);
+        
+        List<RideRequest> compatible = new ArrayList<>();
+        List<Double> compatibleDistances = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            RideRequest candidate = candidates.get(i);
+            
+            // Check distance
+            if (distances[i] > adaptiveRadiusPolicy.pairRadiusKm(radiusKm, newRequest, candidate)) {
+                logger.debug("Candidate {} - Outside matching radius", candidate.getId());
+                continue;
+            }
+            
+            // Check seat capacity
+            int totalSeats = newRequest.getSeatsRequired() + candidate.getSeatsRequired();
+            if (totalSeats > maxSeats) {
+                logger.debug("Candidate {} - Exceeds seat capacity ({}/{})", 
+                        candidate.getId(), totalSeats, maxSeats);
+                continue;
+            }
+            
+            logger.debug("Candidate {} is compatible", candidate.getId());
+            compatible.add(candidate);
+            compatibleDistances.add(distances[i]);
+        }
+        if (!matcherConfig.isEnableWaitFairness()) {
+            return capToNearest(compatible, compatibleDistances);
+        }
+        return prioritize(compatible, compatibleDistances);
     }
     
     /**
-     * Group users with compatibility constraints
-     * Takes up to (cabCapacity - newRequest.seatsRequired) compatible requests
+     * Keep the maxCandidatesPerMatch highest-priority candidates, highest first.
+     * Priority is seconds waited minus fairnessSecondsPerKm per KM of pickup
+     * distance; riders past priorityWaitSeconds rank above all others, oldest
+     * first. A bounded heap selects them, so only the kept candidates are sorted.
      */
-    private MatchedRideGroup groupUsers(RideRequest newRequest, List<RideRequest> compatibleRequests) {
-        logger.info("Grouping users - starting with new request");
+    private List<RideRequest> prioritize(List<RideRequest> compatible, List<Double> distances) {
+        int maxCandidates = matcherConfig.getMaxCandidatesPerMatch();
+        int limit = maxCandidates <= 0 ? compatible.size() : Math.min(maxCandidates, compatible.size());
+        if (limit == 0) {
+            return compatible;
+        }
         
-        List<RideRequest> group = new ArrayList<>();
-        group.add(newRequest);
+        long nowMillis = clock.millis();
+        double[] priorities = new double[compatible.size()];
+        PriorityQueue<Integer> kept = new PriorityQueue<>(limit, Comparator.comparingDouble(i -> priorities[i]));
+        for (int i = 0; i < compatible.size(); i++) {
+            long waitedSeconds = waitedSeconds(compatible.get(i), nowMillis);
+            priorities[i] = waitedSeconds >= matcherConfig.getPriorityWaitSeconds()
+                    ? OVERDUE_PRIORITY + waitedSeconds
+                    : waitedSeconds - matcherConfig.getFairnessSecondsPerKm() * distances.get(i);
+            if (kept.size() < limit) {
+                kept.add(i);
+            } else if (priorities[i] > priorities[kept.peek()]) {
+                kept.poll();
+                kept.add(i);
+            }
+        }
+        
+        RideRequest[] ranked = new RideRequest[kept.size()];
+        for (int slot = ranked.length - 1; slot >= 0; slot--) {
+            ranked[slot] = compatible.get(kept.poll());
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+    
+    private long waitedSeconds(RideRequest request, long nowMillis) {
+        if (request.getRequestTime() == null) {
+            return 0;
+        }
+        return Math.max(0, (nowMillis - request.getRequestTime().toEpochMilli()) / 1000);
+    }
+    
+    /**
+     * Keep only the maxCandidatesPerMatch nearest candidates so strategy cost
+     * stays bounded in dense areas. Original order is preserved.
+     */
+    private List<RideRequest> capToNearest(List<RideRequest> compatible, List<Double> distances) {
+        int maxCandidates = matcherConfig.getMaxCandidatesPerMatch();
+        if (maxCandidates <= 0 || compatible.size() <= maxCandidates) {
+            return compatible;
+        }
         
-        int totalSeats = newRequest.getSeatsRequired();
-        int maxSeats = matcherConfig.getCabCapacitySeats();
-        int seatsAvailable = maxSeats - totalSeats;
-        int totalLuggage = newRequest.getLuggageCount();
+        Integer[] order = new Integer[compatible.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(distances::get));
+        boolean[] keep = new boolean[compatible.size()];
+        for (int i = 0; i < maxCandidates; i++) {
+            keep[order[i]] = true;
+        }
         
-        // Add compatible requests to group until capacity is reached
-        for (RideRequest candidate : compatibleRequests) {
-            if (candidate.getSeatsRequired() <= seatsAvailable) {
-                group.add(candidate);
-                totalSeats += candidate.getSeatsRequired();
-                seatsAvailable -= candidate.getSeatsRequired();
-                totalLuggage += candidate.getLuggageCount();
-                logger.debug("Added user {} to group (Seats used: {}/{})", 
-                        candidate.getUserId(), totalSeats, maxSeats);
-            } else {
-                logger.debug("Cannot add user {} - not enough seats remaining", candidate.getUserId());
+        List<RideRequest> capped = new ArrayList<>(maxCandidates);
+        for (int i = 0; i < compatible.size(); i++) {
+            if (keep[i]) {
+                capped.add(compatible.get(i));
             }
         }
+        logger.debug("Capped {} compatible candidates to nearest {}", compatible.size(), maxCandidates);
+        return capped;
+    }
+    
+    /**
+     * Group users with the strategy configured for the airport, and hand the
+     * same inputs to the shadow strategy when one is configured
+     */
+    private MatchedRideGroup groupUsers(RideRequest newRequest, List<RideRequest> compatibleRequests, int maxSeats,
+                                        Decision.DecisionBuilder decision) {
+        MatchingStrategy strategy = strategyRegistry.active(newRequest.getAirportCode());
+        decision.strategy(strategy.getName());
         
-        // Determine group status
-        String groupStatus = (totalSeats == maxSeats) ? "FULL" : "PARTIAL";
-        
-        MatchedRideGroup matchedGroup = MatchedRideGroup.builder()
-                .passengers(group)
-                .totalSeatsRequired(totalSeats)
-                .totalLuggageCount(totalLuggage)
-                .airportCode(newRequest.getAirportCode())
-                .groupStatus(groupStatus)
-                .build();
+        long started = System.nanoTime();
+        MatchedRideGroup matchedGroup = strategy.group(newRequest, compatibleRequests, maxSeats);
         
-        logger.info("Group created: {} passengers, {} seats used, Status: {}", 
-                group.size(), totalSeats, groupStatus);
+        // Candidates are ranked, so an overdue rider is always first; first-fit is guaranteed to take it
+        RideRequest overdue = compatibleRequests.get(0);
+        if (matcherConfig.isEnableWaitFairness() && isOverdue(overdue) && !contains(matchedGroup, overdue)) {
+            logger.info("Rider {} has waited over {}s but {} left it out - grouping first-fit by priority",
+                    overdue.getId(), matcherConfig.getPriorityWaitSeconds(), strategy.getName());
+            matchedGroup = greedyStrategy.group(newRequest, compatibleRequests, maxSeats);
+            decision.strategy(greedyStrategy.getName());
+        }
+        long latencyNanos = System.nanoTime() - started;
         
+        MatchingStrategy shadow = strategyRegistry.shadow(newRequest.getAirportCode());
+        if (shadow != null) {
+            shadowEvaluator.submit(shadow, strategy, newRequest, compatibleRequests, maxSeats, matchedGroup, latencyNanos);
+        }
         return matchedGroup;
     }
     
+    private boolean isOverdue(RideRequest request) {
+        return waitedSeconds(request, clock.millis()) >= matcherConfig.getPriorityWaitSeconds();
+    }
+    
+    private static boolean contains(MatchedRideGroup group, RideRequest request) {
+        for (RideRequest passenger : group.getPassengers()) {
+            if (passenger.getId().equals(request.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
-     * Update statuses of all users in the group and assign groupId
+     * Move the group's passengers out of WAITING under a new groupId.
+     * 
+     * Every passenger is claimed with a conditional update, so a rider that
+     * a concurrent match took first is left out instead of being overwritten
+     * into a second group. The group shrinks to the riders actually claimed;
+     * if the new request itself was taken as someone else's companion, it is
+     * returned alone with that group's state. Only the claimed riders are
+     * appended to the event log, and the final membership is stored as one
+     * ride group document.
+     * 
+     * @param maxSeats seats the group may grow to through later joins
+     * @return the group as persisted
      */
-    private void updateGroupStatuses(MatchedRideGroup matchedGroup) {
-        logger.info("Updating statuses for {} passengers in group", matchedGroup.getPassengers().size());
-        
-        // Generate unique groupId
-        String groupId = UUID.randomUUID().toString();
+    private MatchedRideGroup updateGroupStatuses(RideRequest newRequest, MatchedRideGroup matchedGroup, int maxSeats) {
+        // Generate unique groupId, routable to the airport's shards
+        String groupId = shardKeys.newGroupId(newRequest.getAirportCode());
         
         // Determine status based on group status
         RideStatus newStatus = "FULL".equals(matchedGroup.getGroupStatus()) ? 
                 RideStatus.ASSIGNED : RideStatus.MATCHED;
         
-        logger.info("Assigning groupId: {}, Status: {}", groupId, newStatus);
+        RideRequest claimedRequest = rideRequestRepository.claimIfWaiting(newRequest.getId(), groupId, newStatus, null, null);
+        if (claimedRequest == null) {
+            RideRequest current = rideRequestRepository.findById(newRequest.getId()).orElse(newRequest);
+            logger.debug("Request {} was grouped by a concurrent match into {}", newRequest.getId(), current.getGroupId());
+            newRequest.setGroupId(current.getGroupId());
+            newRequest.setStatus(current.getStatus());
+            newRequest.setAssignedCabId(current.getAssignedCabId());
+            newRequest.setAssignedDriverName(current.getAssignedDriverName());
+            newRequest.setCabArrivalTime(current.getCabArrivalTime());
+            return createSinglePassengerGroup(newRequest);
+        }
         
-        // Update all passengers
+        List<RideRequest> claimed = new ArrayList<>(matchedGroup.getPassengers().size());
         for (RideRequest passenger : matchedGroup.getPassengers()) {
+            if (passenger.getId().equals(newRequest.getId())) {
+                newRequest.setGroupId(groupId);
+                newRequest.setStatus(newStatus);
+                claimed.add(newRequest);
+                continue;
+            }
+            if (rideRequestRepository.claimIfWaiting(passenger.getId(), groupId, newStatus, null, null) == null) {
+                logger.debug("Passenger {} was grouped by a concurrent match, leaving it out", passenger.getId());
+                waitingRiderIndex.remove(passenger.getId());
+                continue;
+            }
             passenger.setGroupId(groupId);
             passenger.setStatus(newStatus);
-            rideRequestRepository.save(passenger);
+            claimed.add(passenger);
+        }
+        
+        if (claimed.size() < matchedGroup.getPassengers().size()) {
+            matchedGroup = withPassengers(matchedGroup, claimed);
+            if (claimed.size() == 1) {
+                rideRequestRepository.dissolveGroup(groupId);
+                newRequest.setGroupId(null);
+                newRequest.setStatus(RideStatus.WAITING);
+                waitingRiderIndex.upsert(newRequest);
+                return createSinglePassengerGroup(newRequest);
+            }
+            if (newStatus == RideStatus.ASSIGNED) {
+                // Losing a passenger means the group is no longer full
+                rideRequestRepository.updateStatusByGroupId(groupId, RideStatus.ASSIGNED, RideStatus.MATCHED);
+                newStatus = RideStatus.MATCHED;
+                for (RideRequest passenger : claimed) {
+                    passenger.setStatus(newStatus);
+                }
+            }
+        }
+        
+        RideEventType eventType = newStatus == RideStatus.ASSIGNED ? RideEventType.ASSIGNED : RideEventType.MATCHED;
+        List<RideEvent> events = new ArrayList<>(claimed.size());
+        for (RideRequest passenger : claimed) {
+            waitingRiderIndex.upsert(passenger);
+            events.add(RideEvent.of(eventType, passenger));
             logger.debug("Updated passenger {}: groupId={}, status={}", 
                     passenger.getUserId(), groupId, newStatus);
         }
+        eventLog.tryAppend(events);
         
-        logger.info("✓ Successfully updated {} passengers' statuses", matchedGroup.getPassengers().size());
+        storeGroup(groupId, matchedGroup, maxSeats);
+        return matchedGroup;
+    }
+    
+    /**
+     * Insert the ride group document for a newly formed group. Riders already
+     * carry the groupId, so a failed insert only costs the group its document.
+     */
+    private void storeGroup(String groupId, MatchedRideGroup matchedGroup, int maxSeats) {
+        try {
+            rideGroupRepository.insert(RideGroup.formedFrom(groupId, matchedGroup.getAirportCode(), maxSeats,
+                    matchedGroup.getPassengers(), clock.instant()));
+        } catch (Exception e) {
+            logger.error("✗ Failed to store ride group {}", groupId, e);
+        }
+    }
+    
+    /**
+     * The group reduced to the passengers that could be claimed, as PARTIAL
+     */
+    private static MatchedRideGroup withPassengers(MatchedRideGroup matchedGroup, List<RideRequest> passengers) {
+        int seats = 0;
+        int luggage = 0;
+        Set<String> ids = new HashSet<>();
+        for (RideRequest passenger : passengers) {
+            seats += passenger.getSeatsRequired();
+            luggage += passenger.getLuggageCount();
+            ids.add(passenger.getId());
+        }
+        List<String> pickupOrder = null;
+        if (matchedGroup.getPickupOrder() != null) {
+            pickupOrder = new ArrayList<>(matchedGroup.getPickupOrder());
+            pickupOrder.retainAll(ids);
+        }
+        return MatchedRideGroup.builder()
+                .passengers(passengers)
+                .totalSeatsRequired(seats)
+                .totalLuggageCount(luggage)
+                .airportCode(matchedGroup.getAirportCode())
+                .groupStatus("PARTIAL")
+                .pickupOrder(pickupOrder)
+                .routeDistanceKm(matchedGroup.getRouteDistanceKm())
+                .maxDetourRatio(matchedGroup.getMaxDetourRatio())
+                .build();
+    }
+    
+    /**
+     * Record the match decision for the group a request ended up in
+     */
+    private MatchedRideGroup traced(Decision.DecisionBuilder decision, long startedNanos, MatchedRideGroup group) {
+        if (decisionTracer.isEnabled()) {
+            String groupId = group.getPassengers().get(0).getGroupId();
+            decisionTracer.record(decision
+                    .groupId(groupId)
+                    .groupSize(group.getPassengers().size())
+                    .seats(group.getTotalSeatsRequired())
+                    .durationMicros((System.nanoTime() - startedNanos) / 1_000)
+                    .build());
+        }
+        return group;
     }
     
     /**
      * Create a single passenger group when no matches found
      */
     private MatchedRideGroup createSinglePassengerGroup(RideRequest request) {
-        logger.info("No matches found for request {}. Creating single passenger group", request.getId());
-        
         return MatchedRideGroup.builder()
                 .passengers(List.of(request))
                 .totalSeatsRequired(request.getSeatsRequired())
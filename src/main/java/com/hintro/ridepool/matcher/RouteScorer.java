@@ -0,0 +1,203 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.RoutePlan;
+
+/**
+ * Route-aware scorer for candidate groups
+ * 
+ * Responsible for:
+ * 1. Finding the best pickup order for a group (pickups first, airport last)
+ * 2. Measuring each passenger's detour against riding alone
+ * 3. Deciding whether a group's route is acceptable
+ * 
+ * Groups up to maxExactPickupStops are solved exactly with Held-Karp dynamic
+ * programming (2^n * n^2 steps, trivial for n <= 6). Larger groups use a
+ * farthest-first nearest-neighbour order. All distances come from the batch
+ * DistanceMatrix, so repeated scoring of overlapping groups is cheap.
+ */
+@Component
+public class RouteScorer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RouteScorer.class);
+    
+    /**
+     * Detour ratios are measured against at least this solo distance, so riders
+     * picked up right next to the airport are not rejected for tiny detours
+     */
+    private static final double MIN_SOLO_DISTANCE_KM = 1.0;
+    
+    /**
+     * Hard upper bound for exact optimization regardless of configuration
+     */
+    private static final int MAX_EXACT_STOPS_LIMIT = 10;
+    
+    private final RideMatcherConfig matcherConfig;
+    
+    public RouteScorer(RideMatcherConfig matcherConfig) {
+        this.matcherConfig = matcherConfig;
+    }
+    
+    /**
+     * Plan the best pickup route for the given stops
+     * 
+     * @param matrix batch distance matrix (index 0 is the airport)
+     * @param stops pickup indices into the matrix
+     * @return route plan with pickup order, length and detour
+     */
+    public RoutePlan planRoute(DistanceMatrix matrix, int[] stops) {
+        int exactLimit = Math.min(matcherConfig.getMaxExactPickupStops(), MAX_EXACT_STOPS_LIMIT);
+        boolean exact = stops.length <= exactLimit;
+        
+        int[] order = exact ? optimalOrder(matrix, stops) : nearestNeighbourOrder(matrix, stops);
+        RoutePlan plan = evaluate(matrix, order, exact);
+        
+        logger.debug("Route planned for {} stops: {} km (solo {} km), max detour ratio {}, exact: {}",
+                stops.length, String.format("%.2f", plan.getTotalDistanceKm()),
+                String.format("%.2f", plan.getSoloDistanceKm()),
+                String.format("%.2f", plan.getMaxDetourRatio()), exact);
+        return plan;
+    }
+    
+    /**
+     * Check whether every passenger's detour is within the configured limit
+     */
+    public boolean isAcceptable(RoutePlan plan) {
+        return plan.getMaxDetourRatio() <= matcherConfig.getMaxDetourRatio();
+    }
+    
+    /**
+     * Exact pickup order via Held-Karp over subsets.
+     * dp[mask][j] = shortest path visiting exactly the stops in mask, ending at stop j
+     */
+    private int[] optimalOrder(DistanceMatrix matrix, int[] stops) {
+        int n = stops.length;
+        if (n == 1) {
+            return stops.clone();
+        }
+        
+        int states = 1 << n;
+        double[] dp = new double[states * n];
+        int[] parent = new int[states * n];
+        Arrays.fill(dp, Double.MAX_VALUE);
+        Arrays.fill(parent, -1);
+        
+        for (int j = 0; j < n; j++) {
+            dp[(1 << j) * n + j] = 0.0;
+        }
+        
+        for (int mask = 1; mask < states; mask++) {
+            for (int j = 0; j < n; j++) {
+                double current = dp[mask * n + j];
+                if ((mask & (1 << j)) == 0 || current == Double.MAX_VALUE) {
+                    continue;
+                }
+                for (int k = 0; k < n; k++) {
+                    if ((mask & (1 << k)) != 0) {
+                        continue;
+                    }
+                    int next = mask | (1 << k);
+                    double candidate = current + matrix.get(stops[j], stops[k]);
+                    if (candidate < dp[next * n + k]) {
+                        dp[next * n + k] = candidate;
+                        parent[next * n + k] = j;
+                    }
+                }
+            }
+        }
+        
+        // Close the route at the airport (matrix index 0)
+        int full = states - 1;
+        int last = 0;
+        double best = Double.MAX_VALUE;
+        for (int j = 0; j < n; j++) {
+            double total = dp[full * n + j] + matrix.soloDistance(stops[j]);
+            if (total < best) {
+                best = total;
+                last = j;
+            }
+        }
+        
+        int[] order = new int[n];
+        int mask = full;
+        for (int position = n - 1; position >= 0; position--) {
+            order[position] = stops[last];
+            int previous = parent[mask * n + last];
+            mask ^= (1 << last);
+            last = previous;
+        }
+        return order;
+    }
+    
+    /**
+     * Heuristic pickup order: start at the stop farthest from the airport,
+     * then always drive to the nearest unvisited stop
+     */
+    private int[] nearestNeighbourOrder(DistanceMatrix matrix, int[] stops) {
+        int n = stops.length;
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        
+        int current = 0;
+        for (int j = 1; j < n; j++) {
+            if (matrix.soloDistance(stops[j]) > matrix.soloDistance(stops[current])) {
+                current = j;
+            }
+        }
+        
+        for (int position = 0; position < n; position++) {
+            order[position] = stops[current];
+            visited[current] = true;
+            
+            int next = -1;
+            double nearest = Double.MAX_VALUE;
+            for (int k = 0; k < n; k++) {
+                if (visited[k]) {
+                    continue;
+                }
+                double distance = matrix.get(stops[current], stops[k]);
+                if (distance < nearest) {
+                    nearest = distance;
+                    next = k;
+                }
+            }
+            current = next;
+        }
+        return order;
+    }
+    
+    /**
+     * Compute route length, solo distances and worst detour for a fixed order
+     */
+    private RoutePlan evaluate(DistanceMatrix matrix, int[] order, boolean exact) {
+        int n = order.length;
+        
+        // Walk backwards from the airport so each passenger's ride distance is a suffix sum
+        double rideDistance = matrix.soloDistance(order[n - 1]);
+        double soloTotal = 0.0;
+        double maxRatio = 0.0;
+        
+        for (int position = n - 1; position >= 0; position--) {
+            if (position < n - 1) {
+                rideDistance += matrix.get(order[position], order[position + 1]);
+            }
+            double solo = matrix.soloDistance(order[position]);
+            soloTotal += solo;
+            maxRatio = Math.max(maxRatio, rideDistance / Math.max(solo, MIN_SOLO_DISTANCE_KM));
+        }
+        
+        return RoutePlan.builder()
+                .pickupOrder(order)
+                .totalDistanceKm(rideDistance)
+                .soloDistanceKm(soloTotal)
+                .maxDetourRatio(maxRatio)
+                .exact(exact)
+                .build();
+    }
+}
@@ -0,0 +1,290 @@
+package com.hintro.ridepool.matcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.AirportConfig.AirportLocation;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.ShadowComparison;
+import com.hintro.ridepool.dto.StrategyStats;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs a shadow matching strategy on the same inputs as the active one and
+ * compares the results, without applying the shadow's groups.
+ * 
+ * Evaluation happens on a single background thread with a bounded queue, so
+ * live matching never waits on it; when the queue is full the evaluation is
+ * dropped and counted. Inputs are copied before queuing because the active
+ * group's requests are updated in place once it is applied.
+ * 
+ * Detour is recomputed the same way for both sides so strategies that do not
+ * plan routes are still comparable. Active latency is measured on the request
+ * path, shadow latency on the evaluator thread.
+ */
+@Component
+public class ShadowMatchingEvaluator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ShadowMatchingEvaluator.class);
+    
+    private final RideMatcherConfig matcherConfig;
+    private final AirportConfig airportConfig;
+    private final DistanceProvider distanceProvider;
+    private final RouteScorer routeScorer;
+    private final ThreadPoolExecutor executor;
+    
+    private final Map<String, Comparison> comparisons = new ConcurrentHashMap<>();
+    
+    public ShadowMatchingEvaluator(RideMatcherConfig matcherConfig,
+                                   AirportConfig airportConfig,
+                                   DistanceProvider distanceProvider,
+                                   RouteScorer routeScorer) {
+        this.matcherConfig = matcherConfig;
+        this.airportConfig = airportConfig;
+        this.distanceProvider = distanceProvider;
+        this.routeScorer = routeScorer;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, matcherConfig.getShadowQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-matching");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> ((ShadowTask) runnable).comparison.recordDrop());
+    }
+    
+    /**
+     * Queue a shadow run for a request the active strategy has just grouped
+     * 
+     * @param shadow strategy to evaluate
+     * @param active strategy whose group is applied
+     * @param newRequest request being matched
+     * @param compatibleRequests candidates both strategies see
+     * @param maxSeats seat capacity both strategies build for
+     * @param activeGroup group chosen by the active strategy
+     * @param activeLatencyNanos time the active strategy took
+     */
+    public void submit(MatchingStrategy shadow, MatchingStrategy active, RideRequest newRequest,
+                       List<RideRequest> compatibleRequests, int maxSeats,
+                       MatchedRideGroup activeGroup, long activeLatencyNanos) {
+        String airportCode = newRequest.getAirportCode();
+        Comparison comparison = comparisons.computeIfAbsent(airportCode + "|" + active.getName() + "|" + shadow.getName(),
+                key -> new Comparison(airportCode, active.getName(), shadow.getName()));
+        
+        RideRequest requestCopy = copyOf(newRequest);
+        List<RideRequest> candidateCopies = new ArrayList<>(compatibleRequests.size());
+        for (RideRequest candidate : compatibleRequests) {
+            candidateCopies.add(copyOf(candidate));
+        }
+        Set<String> activeIds = idsOf(activeGroup.getPassengers());
+        List<RideRequest> activePassengers = new ArrayList<>();
+        activePassengers.add(requestCopy);
+        for (RideRequest candidate : candidateCopies) {
+            if (activeIds.contains(candidate.getId())) {
+                activePassengers.add(candidate);
+            }
+        }
+        MatchedRideGroup activeSnapshot = MatchingGroups.of(airportCode, activePassengers, maxSeats);
+        activeSnapshot.setPickupOrder(activeGroup.getPickupOrder());
+        activeSnapshot.setMaxDetourRatio(activeGroup.getMaxDetourRatio());
+        
+        executor.execute(new ShadowTask(comparison, shadow, requestCopy, candidateCopies, maxSeats,
+                activeSnapshot, activeLatencyNanos));
+    }
+    
+    /**
+     * Current comparison per airport and strategy pair
+     */
+    public List<ShadowComparison> getComparisons() {
+        List<ShadowComparison> reports = new ArrayList<>();
+        for (Comparison comparison : comparisons.values()) {
+            reports.add(comparison.report(matcherConfig.getCabCapacitySeats()));
+        }
+        return reports;
+    }
+    
+    public void reset() {
+        comparisons.clear();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private double maxDetourRatio(MatchedRideGroup group) {
+        if (group.getPickupOrder() != null) {
+            return group.getMaxDetourRatio();
+        }
+        List<RideRequest> passengers = group.getPassengers();
+        AirportLocation airport = airportConfig.getLocation(group.getAirportCode());
+        if (airport == null || passengers.size() < 2) {
+            return 1.0;
+        }
+        DistanceMatrix matrix = new DistanceMatrix(airport.getLat(), airport.getLng(), passengers, distanceProvider);
+        int[] stops = new int[passengers.size()];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i + 1;
+        }
+        return routeScorer.planRoute(matrix, stops).getMaxDetourRatio();
+    }
+    
+    private static Set<String> idsOf(List<RideRequest> passengers) {
+        Set<String> ids = new HashSet<>();
+        for (RideRequest passenger : passengers) {
+            ids.add(passenger.getId());
+        }
+        return ids;
+    }
+    
+    private static RideRequest copyOf(RideRequest request) {
+        return RideRequest.builder()
+                .id(request.getId())
+                .userId(request.getUserId())
+                .pickupLat(request.getPickupLat())
+                .pickupLng(request.getPickupLng())
+                .airportCode(request.getAirportCode())
+                .seatsRequired(request.getSeatsRequired())
+                .luggageCount(request.getLuggageCount())
+                .requestTime(request.getRequestTime())
+                .status(request.getStatus())
+                .build();
+    }
+    
+    private final class ShadowTask implements Runnable {
+        private final Comparison comparison;
+        private final MatchingStrategy shadow;
+        private final RideRequest newRequest;
+        private final List<RideRequest> compatibleRequests;
+        private final int maxSeats;
+        private final MatchedRideGroup activeGroup;
+        private final long activeLatencyNanos;
+        
+        ShadowTask(Comparison comparison, MatchingStrategy shadow, RideRequest newRequest,
+                   List<RideRequest> compatibleRequests, int maxSeats,
+                   MatchedRideGroup activeGroup, long activeLatencyNanos) {
+            this.comparison = comparison;
+            this.shadow = shadow;
+            this.newRequest = newRequest;
+            this.compatibleRequests = compatibleRequests;
+            this.maxSeats = maxSeats;
+            this.activeGroup = activeGroup;
+            this.activeLatencyNanos = activeLatencyNanos;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                long started = System.nanoTime();
+                MatchedRideGroup shadowGroup = shadow.group(newRequest, compatibleRequests, maxSeats);
+                long shadowLatencyNanos = System.nanoTime() - started;
+                
+                boolean agreed = idsOf(shadowGroup.getPassengers()).equals(idsOf(activeGroup.getPassengers()));
+                comparison.record(activeGroup, maxDetourRatio(activeGroup), activeLatencyNanos,
+                        shadowGroup, maxDetourRatio(shadowGroup), shadowLatencyNanos, agreed);
+            } catch (Exception e) {
+                logger.warn("⚠ Shadow strategy {} failed for request {}: {}", shadow.getName(), newRequest.getId(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Running totals for one airport and strategy pair
+     */
+    private static final class Comparison {
+        private final String airportCode;
+        private final Tally active;
+        private final Tally shadow;
+        private long comparisons;
+        private long agreements;
+        private long dropped;
+        
+        Comparison(String airportCode, String activeName, String shadowName) {
+            this.airportCode = airportCode;
+            this.active = new Tally(activeName);
+            this.shadow = new Tally(shadowName);
+        }
+        
+        synchronized void record(MatchedRideGroup activeGroup, double activeDetour, long activeLatencyNanos,
+                                 MatchedRideGroup shadowGroup, double shadowDetour, long shadowLatencyNanos,
+                                 boolean agreed) {
+            active.add(activeGroup, activeDetour, activeLatencyNanos);
+            shadow.add(shadowGroup, shadowDetour, shadowLatencyNanos);
+            comparisons++;
+            if (agreed) {
+                agreements++;
+            }
+        }
+        
+        synchronized void recordDrop() {
+            dropped++;
+        }
+        
+        synchronized ShadowComparison report(int capacity) {
+            return ShadowComparison.builder()
+                    .airportCode(airportCode)
+                    .comparisons(comparisons)
+                    .agreementRate(comparisons == 0 ? 0 : (double) agreements / comparisons)
+                    .dropped(dropped)
+                    .active(active.stats(capacity))
+                    .shadow(shadow.stats(capacity))
+                    .build();
+        }
+    }
+    
+    private static final class Tally {
+        private final String strategy;
+        private long groups;
+        private long passengers;
+        private long seats;
+        private long fullGroups;
+        private double detourSum;
+        private long latencySumNanos;
+        private long latencyMaxNanos;
+        
+        Tally(String strategy) {
+            this.strategy = strategy;
+        }
+        
+        void add(MatchedRideGroup group, double maxDetourRatio, long latencyNanos) {
+            groups++;
+            passengers += group.getPassengers().size();
+            seats += group.getTotalSeatsRequired();
+            if ("FULL".equals(group.getGroupStatus())) {
+                fullGroups++;
+            }
+            detourSum += maxDetourRatio;
+            latencySumNanos += latencyNanos;
+            latencyMaxNanos = Math.max(latencyMaxNanos, latencyNanos);
+        }
+        
+        StrategyStats stats(int capacity) {
+            double n = Math.max(1, groups);
+            return StrategyStats.builder()
+                    .strategy(strategy)
+                    .avgGroupSize(passengers / n)
+                    .fillRate(seats / (n * capacity))
+                    .fullGroupRate(fullGroups / n)
+                    .avgMaxDetourRatio(groups == 0 ? 0 : detourSum / n)
+                    .avgLatencyMicros(latencySumNanos / n / 1_000)
+                    .maxLatencyMicros(latencyMaxNanos / 1_000)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hintro.ridepool.notification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.dto.Notification;
+
+/**
+ * Notification sink that writes each notification to the application log,
+ * standing in until a push / SMS provider is configured
+ */
+@Component
+public class LoggingNotificationSink implements NotificationSink {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSink.class);
+    
+    private final Clock clock;
+    
+    public LoggingNotificationSink(Clock clock) {
+        this.clock = clock;
+    }
+    
+    @Override
+    public void deliver(List<Notification> batch) {
+        for (Notification notification : batch) {
+            switch (notification.getType()) {
+                case RIDER_MATCHED -> logger.info("✓ MATCHED - Rider {} grouped in {}",
+                        notification.getUserId(), notification.getGroupId());
+                case RIDER_CAB_ASSIGNED -> logger.info("✓ CAB ASSIGNED - Rider {}: driver {} arriving in {} seconds",
+                        notification.getUserId(), notification.getDriverName(), secondsUntil(notification));
+                case DRIVER_GROUP_ASSIGNED -> logger.info("✓ NEW GROUP - Driver {} (cab {}) assigned group {}",
+                        notification.getDriverName(), notification.getCabId(), notification.getGroupId());
+                case DRIVER_RIDERS_JOINED -> logger.info("✓ RIDERS JOINED - Driver {} (cab {}) picks up more riders",
+                        notification.getDriverName(), notification.getCabId());
+            }
+        }
+    }
+    
+    private long secondsUntil(Notification notification) {
+        if (notification.getCabArrivalTime() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(clock.instant(), notification.getCabArrivalTime()).getSeconds());
+    }
+}
@@ -0,0 +1,176 @@
+package com.hintro.ridepool.notification;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.NotificationConfig;
+import com.hintro.ridepool.dto.Notification;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Relays queued rider and driver notifications to the notification sinks,
+ * in batches, on a single background thread.
+ * 
+ * The outbox is a pair of fields on each ride request and cab
+ * (pendingNotification, notificationQueuedAt), set by the same conditional
+ * update that changes the status they announce. MongoDB writes one document
+ * atomically, so a status change and its notification are committed
+ * together without a transaction, and the request path never calls a sink.
+ * A later status change before delivery replaces the pending notification,
+ * so a rider is told its latest state once rather than every step.
+ * 
+ * Each poll reads the oldest pending notifications, hands them to every
+ * sink, then clears those that were not replaced meanwhile. A failing sink
+ * leaves the batch queued and the dispatcher retries with backoff.
+ */
+@Component
+public class NotificationDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    
+    private final RideRequestRepository rideRequestRepository;
+    private final CabRepository cabRepository;
+    private final List<NotificationSink> sinks;
+    private final NotificationConfig notificationConfig;
+    private final Clock clock;
+    
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    
+    private Thread dispatcher;
+    private volatile boolean running;
+    
+    public NotificationDispatcher(RideRequestRepository rideRequestRepository,
+                                  CabRepository cabRepository,
+                                  List<NotificationSink> sinks,
+                                  NotificationConfig notificationConfig,
+                                  Clock clock) {
+        this.rideRequestRepository = rideRequestRepository;
+        this.cabRepository = cabRepository;
+        this.sinks = sinks;
+        this.notificationConfig = notificationConfig;
+        this.clock = clock;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!notificationConfig.isEnabled() || sinks.isEmpty()) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::run, "notification-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        logger.info("✓ Notification dispatcher started with {} sinks", sinks.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Deliver one batch of pending notifications to every sink
+     * 
+     * @return notifications taken out of the outbox (delivered or expired)
+     * @throws Exception from the first sink that rejected the batch; nothing is cleared
+     */
+    public int dispatchOnce() throws Exception {
+        int batchSize = notificationConfig.getBatchSize();
+        List<RideRequest> riders = rideRequestRepository.findPendingNotifications(batchSize);
+        List<Cab> cabs = cabRepository.findPendingNotifications(batchSize);
+        if (riders.isEmpty() && cabs.isEmpty()) {
+            return 0;
+        }
+        
+        Instant expiry = clock.instant().minusSeconds(notificationConfig.getMaxAgeSeconds());
+        List<Notification> batch = new ArrayList<>(riders.size() + cabs.size());
+        for (RideRequest rider : riders) {
+            if (rider.getNotificationQueuedAt().isBefore(expiry)) {
+                expired.incrementAndGet();
+            } else {
+                batch.add(Notification.forRider(rider));
+            }
+        }
+        for (Cab cab : cabs) {
+            if (cab.getNotificationQueuedAt().isBefore(expiry)) {
+                expired.incrementAndGet();
+            } else {
+                batch.add(Notification.forDriver(cab));
+            }
+        }
+        
+        if (!batch.isEmpty()) {
+            batch.sort((a, b) -> a.getQueuedAt().compareTo(b.getQueuedAt()));
+            for (NotificationSink sink : sinks) {
+                sink.deliver(batch);
+            }
+        }
+        rideRequestRepository.clearNotifications(riders);
+        cabRepository.clearNotifications(cabs);
+        delivered.addAndGet(batch.size());
+        return riders.size() + cabs.size();
+    }
+    
+    public long getDelivered() {
+        return delivered.get();
+    }
+    
+    public long getExpired() {
+        return expired.get();
+    }
+    
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+    
+    private void run() {
+        long pollMillis = notificationConfig.getPollIntervalMillis();
+        long backoff = pollMillis;
+        while (running) {
+            long pause;
+            try {
+                // A full batch means more are waiting: poll again right away
+                int taken = dispatchOnce();
+                pause = taken >= notificationConfig.getBatchSize() ? 0 : pollMillis;
+                backoff = pollMillis;
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                logger.warn("⚠ Notification delivery failed, retrying in {} ms: {}", backoff, e.getMessage());
+                pause = backoff;
+                backoff = Math.min(notificationConfig.getMaxRetryBackoffMillis(), Math.max(1, backoff) * 2);
+            }
+            if (pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hintro.ridepool.notification;
+
+import java.util.List;
+
+import com.hintro.ridepool.dto.Notification;
+
+/**
+ * Destination for rider and driver notifications (push, SMS, ...).
+ * 
+ * Every NotificationSink bean receives every batch, on the dispatcher thread
+ * and never on a request thread, so a slow provider delays notifications
+ * but not matching or assignment. Delivery is at least once: when any sink
+ * throws, the whole batch stays in the outbox and is handed to every sink
+ * again, so sinks should tolerate duplicates.
+ */
+public interface NotificationSink {
+    
+    /**
+     * Deliver a batch of notifications
+     * 
+     * @param batch notifications, oldest first
+     * @throws Exception if the batch was not accepted and must be retried
+     */
+    void deliver(List<Notification> batch) throws Exception;
+}
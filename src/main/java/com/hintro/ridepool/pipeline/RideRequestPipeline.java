@@ -0,0 +1,282 @@
+package com.hintro.ridepool.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.PipelineConfig;
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.PipelineStageStats;
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.service.AdmissionRejectedException;
+import com.hintro.ridepool.service.RideRequestService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Staged ride request creation: persistence -> matching -> cab assignment,
+ * each stage on its own thread and fed by a lock-free {@link RingBuffer}.
+ * 
+ * HTTP threads only enqueue and get a future back, so they are not held
+ * through three blocking phases. Each stage drains its ring in batches: the
+ * persistence stage saves a whole batch in one MongoDB round trip, matching
+ * and assignment walk their batch in arrival order on a single thread, so
+ * requests never race each other for the same waiting riders or cabs. A
+ * stage whose downstream ring is full waits for it, which pushes back to the
+ * first ring; a full first ring rejects the request (429). Callers hold an
+ * admission slot of the request's airport until its future completes, so one
+ * airport cannot take the rings from the others.
+ * 
+ * The future completes once assignment has run, with the request as updated
+ * by matching and assignment, so the response is the same as without the
+ * pipeline.
+ */
+@Component
+public class RideRequestPipeline {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideRequestPipeline.class);
+    
+    private final PipelineConfig pipelineConfig;
+    private final RideRequestService rideRequestService;
+    
+    private Stage persistence;
+    private Stage matching;
+    private Stage assignment;
+    private volatile boolean running;
+    
+    public RideRequestPipeline(PipelineConfig pipelineConfig, RideRequestService rideRequestService) {
+        this.pipelineConfig = pipelineConfig;
+        this.rideRequestService = rideRequestService;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!pipelineConfig.isEnabled()) {
+            return;
+        }
+        persistence = new Stage("persistence", this::persist);
+        matching = new Stage("matching", this::match);
+        assignment = new Stage("assignment", this::assign);
+        running = true;
+        for (Stage stage : stages()) {
+            stage.thread.start();
+        }
+        logger.info("✓ Ride request pipeline started: {} slots per stage, batches of up to {}",
+                persistence.ring.capacity(), pipelineConfig.getMaxBatchSize());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        List<Task> abandoned = new ArrayList<>();
+        for (Stage stage : stages()) {
+            try {
+                stage.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stage.ring.drainTo(abandoned, Integer.MAX_VALUE);
+        }
+        for (Task task : abandoned) {
+            task.result.completeExceptionally(new IllegalStateException("Ride request pipeline stopped"));
+        }
+        logger.info("✓ Ride request pipeline stopped ({} requests abandoned)", abandoned.size());
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Queue a ride request for creation
+     * 
+     * @param dto validated passenger details
+     * @return future completed with the saved and matched request; fails with
+     *         {@link AdmissionRejectedException} when the pipeline is full
+     */
+    public CompletableFuture<RideRequest> submit(RideRequestDTO dto) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Ride request pipeline is not running"));
+        }
+        Task task = new Task(dto);
+        if (!persistence.ring.offer(task)) {
+            persistence.rejected.increment();
+            return CompletableFuture.failedFuture(new AdmissionRejectedException(dto.getAirportCode(),
+                    pipelineConfig.getRetryAfterSeconds(), "Ride request pipeline is full"));
+        }
+        return task.result;
+    }
+    
+    /**
+     * Queue depth and throughput per stage
+     */
+    public List<PipelineStageStats> getStats() {
+        List<PipelineStageStats> stats = new ArrayList<>();
+        if (!running) {
+            return stats;
+        }
+        for (Stage stage : stages()) {
+            long processed = stage.processed.sum();
+            long batches = stage.batches.sum();
+            stats.add(PipelineStageStats.builder()
+                    .stage(stage.name)
+                    .queueDepth(stage.ring.size())
+                    .capacity(stage.ring.capacity())
+                    .processed(processed)
+                    .failed(stage.failed.sum() + stage.rejected.sum())
+                    .batches(batches)
+                    .avgBatchSize(batches > 0 ? (double) processed / batches : 0)
+                    .avgQueueWaitMicros(processed > 0 ? stage.waitNanos.sum() / 1_000.0 / processed : 0)
+                    .maxQueueWaitMicros(stage.maxWaitNanos.get() / 1_000)
+                    .build());
+        }
+        return stats;
+    }
+    
+    private void persist(List<Task> batch) {
+        List<RideRequestDTO> dtos = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            dtos.add(task.dto);
+        }
+        List<RideRequest> saved;
+        try {
+            saved = rideRequestService.persistBatch(dtos);
+        } catch (Exception e) {
+            logger.error("✗ Failed to save {} ride requests", batch.size(), e);
+            for (Task task : batch) {
+                fail(persistence, task, e);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            task.request = saved.get(i);
+            forward(matching, task);
+        }
+    }
+    
+    private void match(List<Task> batch) {
+        for (Task task : batch) {
+            try {
+                task.group = rideRequestService.match(task.request);
+                forward(assignment, task);
+            } catch (Exception e) {
+                logger.error("✗ Matching failed for ride request {}", task.request.getId(), e);
+                fail(matching, task, e);
+            }
+        }
+    }
+    
+    private void assign(List<Task> batch) {
+        for (Task task : batch) {
+            try {
+                rideRequestService.assign(task.group);
+                task.result.complete(task.request);
+            } catch (Exception e) {
+                logger.error("✗ Cab assignment failed for ride request {}", task.request.getId(), e);
+                fail(assignment, task, e);
+            }
+        }
+    }
+    
+    /**
+     * Hand a task to the next stage, waiting while its ring is full
+     */
+    private void forward(Stage next, Task task) {
+        task.enqueuedNanos = System.nanoTime();
+        while (!next.ring.offer(task)) {
+            if (!running) {
+                task.result.completeExceptionally(new IllegalStateException("Ride request pipeline stopped"));
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(pipelineConfig.getIdleParkMicros()));
+        }
+    }
+    
+    private void fail(Stage stage, Task task, Exception e) {
+        stage.failed.increment();
+        task.result.completeExceptionally(e);
+    }
+    
+    private List<Stage> stages() {
+        return List.of(persistence, matching, assignment);
+    }
+    
+    private void run(Stage stage) {
+        int maxBatch = Math.max(1, pipelineConfig.getMaxBatchSize());
+        long parkNanos = TimeUnit.MICROSECONDS.toNanos(pipelineConfig.getIdleParkMicros());
+        List<Task> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            batch.clear();
+            if (stage.ring.drainTo(batch, maxBatch) == 0) {
+                LockSupport.parkNanos(parkNanos);
+                continue;
+            }
+            long now = System.nanoTime();
+            for (Task task : batch) {
+                long waited = now - task.enqueuedNanos;
+                stage.waitNanos.add(waited);
+                stage.maxWaitNanos.accumulate(waited);
+            }
+            try {
+                stage.handler.accept(batch);
+            } catch (Exception e) {
+                // Handlers fail their own tasks; anything escaping is a bug, keep the stage alive
+                logger.error("✗ Pipeline stage {} failed", stage.name, e);
+            }
+            stage.processed.add(batch.size());
+            stage.batches.increment();
+        }
+    }
+    
+    private final class Stage {
+        private final String name;
+        private final RingBuffer<Task> ring = new RingBuffer<>(pipelineConfig.getRingSize());
+        private final Consumer<List<Task>> handler;
+        private final Thread thread;
+        
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        
+        private Stage(String name, Consumer<List<Task>> handler) {
+            this.name = name;
+            this.handler = handler;
+            this.thread = new Thread(() -> run(this), "pipeline-" + name);
+            this.thread.setDaemon(true);
+        }
+    }
+    
+    /**
+     * One ride request moving through the stages; each field is written by
+     * one stage and read by the next after the ring hand-off
+     */
+    private static final class Task {
+        private final RideRequestDTO dto;
+        private final CompletableFuture<RideRequest> result = new CompletableFuture<>();
+        private long enqueuedNanos = System.nanoTime();
+        private RideRequest request;
+        private MatchedRideGroup group;
+        
+        private Task(RideRequestDTO dto) {
+            this.dto = dto;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hintro.ridepool.pipeline;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * 
+ * Slots are preallocated. Producers claim a sequence with a CAS on the claim
+ * cursor, fill the slot and then publish the sequence in the slot's
+ * availability entry, so the consumer never sees a claimed slot before it is
+ * filled even when producers finish out of order. The consumer drains
+ * contiguous published slots in one pass and releases them with a single
+ * write of its cursor. Nothing blocks: a full ring rejects the offer and an
+ * empty ring drains nothing, leaving the waiting strategy to the caller.
+ */
+public final class RingBuffer<E> {
+    
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray published;
+    
+    /**
+     * Highest sequence claimed by a producer / consumed by the consumer
+     */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+    
+    /**
+     * @param requestedCapacity minimum number of slots, rounded up to a power of two
+     */
+    public RingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+    
+    /**
+     * Add an element (any thread)
+     * 
+     * @return false if the ring is full
+     */
+    public boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (sequence - capacity > consumed.get()) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+        
+        int index = (int) (sequence & mask);
+        slots.lazySet(index, element);
+        published.set(index, sequence);
+        return true;
+    }
+    
+    /**
+     * Move up to max published elements into the sink, oldest first (consumer thread only)
+     * 
+     * @return number of elements drained
+     */
+    public int drainTo(Collection<? super E> sink, int max) {
+        long next = consumed.get() + 1;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.lazySet(index, null);
+            next++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumed.lazySet(next - 1);
+        }
+        return drained;
+    }
+    
+    /**
+     * Elements claimed but not yet consumed (approximate while producers are active)
+     */
+    public long size() {
+        return Math.max(0, claimed.get() - consumed.get());
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+}
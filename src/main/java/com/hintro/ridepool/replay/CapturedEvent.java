@@ -0,0 +1,50 @@
+package com.hintro.ridepool.replay;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.Cab;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a traffic capture: an input the engine received, with the time
+ * it arrived. IDs are the ones assigned in the captured run; replay maps them
+ * to the IDs its own run assigns.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CapturedEvent {
+    
+    public enum Kind {
+        /** Cab state: registered, or part of the fleet snapshot taken when capture starts */
+        CAB,
+        /** Ride request as received, plus the ID it was saved under */
+        REQUEST,
+        TRIP_STARTED,
+        TRIP_COMPLETED,
+        CANCELLED
+    }
+    
+    private Kind kind;
+    private Instant timestamp;
+    
+    private RideRequestDTO request;
+    private String rideRequestId;
+    
+    private Cab cab;
+    private String cabId;
+    
+    /**
+     * Drop-off point of a completed trip
+     */
+    private Double lat;
+    private Double lng;
+}
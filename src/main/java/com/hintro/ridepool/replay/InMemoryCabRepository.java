@@ -0,0 +1,182 @@
+package com.hintro.ridepool.replay;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.NotificationType;
+import com.hintro.ridepool.repository.CabRepository;
+
+/**
+ * In-memory cab repository mirroring the queries and atomic lifecycle
+ * updates of the MongoDB one
+ */
+public class InMemoryCabRepository extends InMemoryRepository<Cab> implements CabRepository {
+    
+    private final Clock clock;
+    
+    public InMemoryCabRepository(Clock clock) {
+        this.clock = clock;
+    }
+    
+    @Override
+    public List<Cab> findByStatus(CabStatus status) {
+        return select(c -> c.getStatus() == status);
+    }
+    
+    @Override
+    public List<Cab> findByStatusInWithSpareSeats(List<CabStatus> statuses) {
+        return select(c -> statuses.contains(c.getStatus()) && c.getAvailableSeats() > 0);
+    }
+    
+    @Override
+    public List<Cab> findByAirportCodeAndStatus(String airportCode, CabStatus status) {
+        return select(c -> Objects.equals(c.getAirportCode(), airportCode) && c.getStatus() == status);
+    }
+    
+    @Override
+    public List<Cab> findByAirportCodeAndStatusInWithSpareSeats(String airportCode, List<CabStatus> statuses) {
+        return select(c -> Objects.equals(c.getAirportCode(), airportCode)
+                && statuses.contains(c.getStatus()) && c.getAvailableSeats() > 0);
+    }
+    
+    @Override
+    public synchronized Cab reserveIfAvailable(String cabId, String groupId, int seats, int luggage) {
+        Cab cab = stored(cabId);
+        if (cab == null || cab.getStatus() != CabStatus.AVAILABLE
+                || cab.getAvailableSeats() < seats || cab.getAvailableLuggage() < luggage) {
+            return null;
+        }
+        cab.setStatus(CabStatus.RESERVED);
+        cab.setAssignedGroupId(groupId);
+        cab.setReservedAt(clock.instant());
+        cab.setPendingNotification(NotificationType.DRIVER_GROUP_ASSIGNED);
+        cab.setNotificationQueuedAt(clock.instant());
+        cab.setAvailableSeats(cab.getAvailableSeats() - seats);
+        cab.setAvailableLuggage(cab.getAvailableLuggage() - luggage);
+        return copy(cab);
+    }
+    
+    @Override
+    public synchronized Cab joinIfSpareCapacity(String cabId, int seats, int luggage) {
+        Cab cab = stored(cabId);
+        if (cab == null || (cab.getStatus() != CabStatus.RESERVED && cab.getStatus() != CabStatus.ON_TRIP)
+                || cab.getAvailableSeats() < seats || cab.getAvailableLuggage() < luggage) {
+            return null;
+        }
+        cab.setPendingNotification(NotificationType.DRIVER_RIDERS_JOINED);
+        cab.setNotificationQueuedAt(clock.instant());
+        cab.setAvailableSeats(cab.getAvailableSeats() - seats);
+        cab.setAvailableLuggage(cab.getAvailableLuggage() - luggage);
+        return copy(cab);
+    }
+    
+    @Override
+    public synchronized Cab releaseCapacity(String cabId, String groupId, int seats, int luggage) {
+        Cab cab = stored(cabId);
+        if (cab == null || groupId == null || !groupId.equals(cab.getAssignedGroupId())) {
+            return null;
+        }
+        boolean emptiedReservation = cab.getStatus() == CabStatus.RESERVED
+                && cab.getAvailableSeats() + seats >= cab.getTotalSeats();
+        if (emptiedReservation) {
+            cab.setStatus(CabStatus.AVAILABLE);
+            cab.setAssignedGroupId(null);
+            cab.setReservedAt(null);
+        }
+        cab.setAvailableSeats(Math.min(cab.getAvailableSeats() + seats, cab.getTotalSeats()));
+        cab.setAvailableLuggage(Math.min(cab.getAvailableLuggage() + luggage, cab.getLuggageCapacity()));
+        return copy(cab);
+    }
+    
+    @Override
+    public synchronized Cab startTrip(String cabId) {
+        Cab cab = stored(cabId);
+        if (cab == null || cab.getStatus() != CabStatus.RESERVED) {
+            return null;
+        }
+        cab.setStatus(CabStatus.ON_TRIP);
+        cab.setTripStartedAt(clock.instant());
+        return copy(cab);
+    }
+    
+    @Override
+    public synchronized Cab completeTrip(String cabId, double lat, double lng, String airportCode) {
+        Cab cab = stored(cabId);
+        if (cab == null || cab.getStatus() != CabStatus.ON_TRIP) {
+            return null;
+        }
+        cab.setStatus(CabStatus.AVAILABLE);
+        cab.setAvailableSeats(cab.getTotalSeats());
+        cab.setAvailableLuggage(cab.getLuggageCapacity());
+        cab.setCurrentLat(lat);
+        cab.setCurrentLng(lng);
+        cab.setAirportCode(airportCode);
+        cab.setAssignedGroupId(null);
+        cab.setReservedAt(null);
+        cab.setTripStartedAt(null);
+        cab.setPendingNotification(null);
+        cab.setNotificationQueuedAt(null);
+        return copy(cab);
+    }
+    
+    @Override
+    public synchronized List<Cab> findPendingNotifications(int limit) {
+        return select(c -> c.getNotificationQueuedAt() != null).stream()
+                .sorted(Comparator.comparing(Cab::getNotificationQueuedAt))
+                .limit(limit)
+                .toList();
+    }
+    
+    @Override
+    public synchronized long clearNotifications(List<Cab> delivered) {
+        long cleared = 0;
+        for (Cab cab : delivered) {
+            Cab current = stored(cab.getId());
+            if (current != null && current.getPendingNotification() == cab.getPendingNotification()
+                    && Objects.equals(current.getNotificationQueuedAt(), cab.getNotificationQueuedAt())) {
+                current.setPendingNotification(null);
+                current.setNotificationQueuedAt(null);
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+    
+    /**
+     * Loads every field; projection only matters for the MongoDB round trip
+     */
+    @Override
+    public synchronized Stream<Cab> streamPage(ListingFilter filter, String afterId, int limit,
+                                             Collection<String> fields) {
+        return select(c -> (afterId == null || c.getId().compareTo(afterId) > 0)
+                && filter.matches(c.getStatus(), c.getAirportCode(), c.getCurrentLat(), c.getCurrentLng())).stream()
+                .sorted(Comparator.comparing(Cab::getId))
+                .limit(limit);
+    }
+    
+    @Override
+    protected String idOf(Cab document) {
+        return document.getId();
+    }
+    
+    @Override
+    protected void assignId(Cab document, String id) {
+        document.setId(id);
+    }
+    
+    @Override
+    protected Cab copy(Cab c) {
+        return new Cab(c.getId(), c.getDriverName(), c.getCurrentLat(), c.getCurrentLng(),
+                c.getAirportCode(), c.getHomeAirportCode(), c.getTotalSeats(), c.getAvailableSeats(), c.getLuggageCapacity(),
+                c.getAvailableLuggage(), c.getStatus(),
+                c.getAssignedGroupId(), c.getReservedAt(), c.getTripStartedAt(), c.getCreatedAt(),
+                c.getPendingNotification(), c.getNotificationQueuedAt());
+    }
+}
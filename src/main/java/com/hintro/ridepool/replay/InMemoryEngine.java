@@ -0,0 +1,255 @@
+package com.hintro.ridepool.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import com.hintro.ridepool.config.AdmissionConfig;
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.BulkConfig;
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.CaptureConfig;
+import com.hintro.ridepool.config.DemandConfig;
+import com.hintro.ridepool.config.DistanceProviderConfig;
+import com.hintro.ridepool.config.EtaConfig;
+import com.hintro.ridepool.config.EventLogConfig;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.config.RoutingConfig;
+import com.hintro.ridepool.config.ShardingConfig;
+import com.hintro.ridepool.config.SnapshotConfig;
+import com.hintro.ridepool.config.TracingConfig;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.index.StateJournal;
+import com.hintro.ridepool.index.WaitingRiderIndex;
+import com.hintro.ridepool.matcher.AdaptiveRadiusPolicy;
+import com.hintro.ridepool.matcher.BatchOptimalMatchingStrategy;
+import com.hintro.ridepool.matcher.BestFitMatchingStrategy;
+import com.hintro.ridepool.matcher.DetourAwareMatchingStrategy;
+import com.hintro.ridepool.matcher.GreedyMatchingStrategy;
+import com.hintro.ridepool.matcher.GroupCapacityPolicy;
+import com.hintro.ridepool.matcher.MatchingStrategyRegistry;
+import com.hintro.ridepool.matcher.RideMatcher;
+import com.hintro.ridepool.matcher.RouteScorer;
+import com.hintro.ridepool.matcher.ShadowMatchingEvaluator;
+import com.hintro.ridepool.repository.ShardKeys;
+import com.hintro.ridepool.service.AdmissionControlService;
+import com.hintro.ridepool.service.CabAssignmentService;
+import com.hintro.ridepool.service.CabLifecycleService;
+import com.hintro.ridepool.service.CabService;
+import com.hintro.ridepool.service.DemandHeatmapService;
+import com.hintro.ridepool.service.EtaService;
+import com.hintro.ridepool.service.RideCancellationService;
+import com.hintro.ridepool.service.RideRequestService;
+import com.hintro.ridepool.trace.DecisionTracer;
+import com.hintro.ridepool.util.DistanceCalculator;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * The matching and cab assignment engine wired by hand exactly as in the
+ * application, but on in-memory repositories and a caller-supplied clock.
+ * 
+ * Used by {@link ReplayRunner} and by tests that drive the services without
+ * MongoDB or a Spring context. The in-memory repositories implement the same
+ * conditional updates as the MongoDB fragments, so concurrent callers race
+ * exactly where they would in production. The event log is off unless
+ * "ridepool.events.enabled" is set (it then projects into the in-memory
+ * repositories); snapshots, traffic capture and shadow matching are left
+ * off. Configuration uses the application's property names (e.g.
+ * "ridepool.matching.strategy").
+ */
+public class InMemoryEngine implements AutoCloseable {
+    
+    private final RideMatcherConfig matcherConfig;
+    private final CabAssignmentConfig assignmentConfig;
+    private final AirportConfig airportConfig;
+    private final DistanceProvider distanceProvider;
+    
+    private final InMemoryRideRequestRepository rideRequests;
+    private final InMemoryCabRepository cabs;
+    private final InMemoryRideGroupRepository rideGroups;
+    private final AirportRegistry airportRegistry;
+    private final FleetIndex fleetIndex;
+    private final WaitingRiderIndex waitingRiderIndex;
+    private final RouteScorer routeScorer;
+    private final MatchingStrategyRegistry strategyRegistry;
+    private final ShadowMatchingEvaluator shadowEvaluator;
+    private final DecisionTracer decisionTracer;
+    private final RideEventLog eventLog;
+    
+    private final EtaService etaService;
+    private final CabService cabService;
+    private final CabLifecycleService cabLifecycleService;
+    private final CabAssignmentService cabAssignmentService;
+    private final RideRequestService rideRequestService;
+    private final RideCancellationService cancellationService;
+    
+    /**
+     * @param properties ridepool.* configuration overrides
+     * @param clock clock seen by every component
+     */
+    public InMemoryEngine(Map<String, String> properties, Clock clock) {
+        Binder binder = new Binder(new MapConfigurationPropertySource(properties));
+        matcherConfig = bind(binder, "ridepool.matching", new RideMatcherConfig());
+        assignmentConfig = bind(binder, "ridepool.assignment", new CabAssignmentConfig());
+        airportConfig = bind(binder, "ridepool.airports", new AirportConfig());
+        DemandConfig demandConfig = bind(binder, "ridepool.demand", new DemandConfig());
+        RoutingConfig routingConfig = bind(binder, "ridepool.routing", new RoutingConfig());
+        EtaConfig etaConfig = bind(binder, "ridepool.eta", new EtaConfig());
+        ShardKeys shardKeys = new ShardKeys(bind(binder, "ridepool.sharding", new ShardingConfig()));
+        BulkConfig bulkConfig = bind(binder, "ridepool.bulk", new BulkConfig());
+        decisionTracer = new DecisionTracer(bind(binder, "ridepool.tracing", new TracingConfig()), clock);
+        EventLogConfig eventLogConfig = bind(binder, "ridepool.events", new EventLogConfig());
+        matcherConfig.setShadowStrategy(null);
+        
+        rideRequests = new InMemoryRideRequestRepository(clock);
+        cabs = new InMemoryCabRepository(clock);
+        rideGroups = new InMemoryRideGroupRepository();
+        distanceProvider = new DistanceProviderConfig().distanceProvider(routingConfig, new DistanceCalculator());
+        
+        StateJournal journal = new StateJournal(new SnapshotConfig());
+        airportRegistry = new AirportRegistry(airportConfig, assignmentConfig, new DistanceCalculator());
+        fleetIndex = new FleetIndex(assignmentConfig, journal, airportRegistry);
+        waitingRiderIndex = new WaitingRiderIndex(journal, matcherConfig);
+        fleetIndex.rebuild(List.of());
+        waitingRiderIndex.rebuild(List.of());
+        eventLog = new RideEventLog(eventLogConfig, clock);
+        try {
+            eventLog.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event log in " + eventLogConfig.getDirectory(), e);
+        }
+        TrafficRecorder recorder = new TrafficRecorder(new CaptureConfig(), cabs, clock);
+        
+        routeScorer = new RouteScorer(matcherConfig);
+        GreedyMatchingStrategy greedy = new GreedyMatchingStrategy();
+        BestFitMatchingStrategy bestFit = new BestFitMatchingStrategy(distanceProvider);
+        DetourAwareMatchingStrategy detourAware = new DetourAwareMatchingStrategy(matcherConfig, airportConfig,
+                distanceProvider, routeScorer, greedy);
+        BatchOptimalMatchingStrategy batchOptimal = new BatchOptimalMatchingStrategy(matcherConfig, airportConfig,
+                distanceProvider, routeScorer, bestFit);
+        strategyRegistry = new MatchingStrategyRegistry(
+                List.of(greedy, bestFit, detourAware, batchOptimal), matcherConfig, detourAware);
+        shadowEvaluator = new ShadowMatchingEvaluator(matcherConfig, airportConfig, distanceProvider, routeScorer);
+        DemandHeatmapService demandHeatmapService = new DemandHeatmapService(demandConfig, cabs, distanceProvider, clock);
+        AdaptiveRadiusPolicy adaptiveRadiusPolicy = new AdaptiveRadiusPolicy(matcherConfig, demandConfig,
+                demandHeatmapService, clock);
+        GroupCapacityPolicy groupCapacityPolicy = new GroupCapacityPolicy(matcherConfig, assignmentConfig, fleetIndex,
+                airportRegistry);
+        RideMatcher rideMatcher = new RideMatcher(rideRequests, rideGroups, shardKeys, distanceProvider, matcherConfig, waitingRiderIndex,
+                strategyRegistry, shadowEvaluator, adaptiveRadiusPolicy, groupCapacityPolicy, greedy, eventLog,
+                decisionTracer, clock);
+        
+        etaService = new EtaService(etaConfig, assignmentConfig, distanceProvider, clock);
+        cabService = new CabService(cabs, fleetIndex, recorder, airportRegistry, shardKeys, bulkConfig);
+        cabLifecycleService = new CabLifecycleService(cabs, rideRequests, rideGroups, fleetIndex,
+                assignmentConfig, eventLog, recorder, airportRegistry, etaService);
+        cabAssignmentService = new CabAssignmentService(rideRequests, rideGroups, distanceProvider,
+                assignmentConfig, cabLifecycleService, fleetIndex, airportRegistry, etaService, eventLog, decisionTracer, clock);
+        rideRequestService = new RideRequestService(rideRequests, shardKeys, rideMatcher,
+                cabAssignmentService, demandHeatmapService, waitingRiderIndex, eventLog, recorder, bulkConfig,
+                new AdmissionControlService(bind(binder, "ridepool.admission", new AdmissionConfig()), airportConfig), clock);
+        cancellationService = new RideCancellationService(rideRequests, rideGroups, rideMatcher, groupCapacityPolicy,
+                cabLifecycleService, cabAssignmentService, waitingRiderIndex, assignmentConfig, eventLog,
+                recorder, etaService);
+    }
+    
+    @Override
+    public void close() {
+        shadowEvaluator.shutdown();
+        eventLog.stop();
+    }
+    
+    private static <T> T bind(Binder binder, String prefix, T config) {
+        binder.bind(prefix, Bindable.ofInstance(config));
+        return config;
+    }
+    
+    // Getters
+    public RideMatcherConfig getMatcherConfig() {
+        return matcherConfig;
+    }
+    
+    public CabAssignmentConfig getAssignmentConfig() {
+        return assignmentConfig;
+    }
+    
+    public AirportConfig getAirportConfig() {
+        return airportConfig;
+    }
+    
+    public DistanceProvider getDistanceProvider() {
+        return distanceProvider;
+    }
+    
+    public InMemoryRideRequestRepository getRideRequests() {
+        return rideRequests;
+    }
+    
+    public InMemoryCabRepository getCabs() {
+        return cabs;
+    }
+    
+    public AirportRegistry getAirportRegistry() {
+        return airportRegistry;
+    }
+    
+    public InMemoryRideGroupRepository getRideGroups() {
+        return rideGroups;
+    }
+    
+    public FleetIndex getFleetIndex() {
+        return fleetIndex;
+    }
+    
+    public WaitingRiderIndex getWaitingRiderIndex() {
+        return waitingRiderIndex;
+    }
+    
+    public RouteScorer getRouteScorer() {
+        return routeScorer;
+    }
+    
+    public MatchingStrategyRegistry getStrategyRegistry() {
+        return strategyRegistry;
+    }
+    
+    public EtaService getEtaService() {
+        return etaService;
+    }
+    
+    public CabService getCabService() {
+        return cabService;
+    }
+    
+    public CabLifecycleService getCabLifecycleService() {
+        return cabLifecycleService;
+    }
+    
+    public CabAssignmentService getCabAssignmentService() {
+        return cabAssignmentService;
+    }
+    
+    public RideRequestService getRideRequestService() {
+        return rideRequestService;
+    }
+    
+    public RideCancellationService getCancellationService() {
+        return cancellationService;
+    }
+    
+    public DecisionTracer getDecisionTracer() {
+        return decisionTracer;
+    }
+    
+    public RideEventLog getEventLog() {
+        return eventLog;
+    }
+}
@@ -0,0 +1,202 @@
+package com.hintro.ridepool.replay;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+/**
+ * Map-backed stand-in for a MongoDB repository, used to run the engine
+ * without a database (replay, load tests).
+ * 
+ * Documents are copied on the way in and out, like a real round trip, so
+ * callers mutating a returned entity do not change the stored one. IDs are
+ * assigned from a counter so repeated runs over the same input produce the
+ * same IDs. Every method is synchronized, which also makes the conditional
+ * updates of the subclasses atomic. Query-by-example, sorting and paging are
+ * not supported.
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+    
+    private final Map<String, T> documents = new LinkedHashMap<>();
+    private long nextId = 1;
+    
+    protected abstract String idOf(T document);
+    
+    protected abstract void assignId(T document, String id);
+    
+    protected abstract T copy(T document);
+    
+    /**
+     * Stored documents matching a filter, copied
+     */
+    protected synchronized List<T> select(Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        for (T document : documents.values()) {
+            if (filter.test(document)) {
+                result.add(copy(document));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * The stored document itself, for conditional in-place updates by subclasses
+     */
+    protected synchronized T stored(String id) {
+        return documents.get(id);
+    }
+    
+    @Override
+    public synchronized <S extends T> S save(S entity) {
+        if (idOf(entity) == null) {
+            assignId(entity, String.format("%024x", nextId++));
+        }
+        documents.put(idOf(entity), copy(entity));
+        return entity;
+    }
+    
+    @Override
+    public synchronized <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+    
+    @Override
+    public synchronized <S extends T> S insert(S entity) {
+        if (idOf(entity) != null && documents.containsKey(idOf(entity))) {
+            throw new IllegalStateException("Duplicate key: " + idOf(entity));
+        }
+        return save(entity);
+    }
+    
+    @Override
+    public synchronized <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for (S entity : entities) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+    
+    @Override
+    public synchronized Optional<T> findById(String id) {
+        T document = documents.get(id);
+        return document == null ? Optional.empty() : Optional.of(copy(document));
+    }
+    
+    @Override
+    public synchronized boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+    
+    @Override
+    public List<T> findAll() {
+        return select(document -> true);
+    }
+    
+    @Override
+    public synchronized List<T> findAllById(Iterable<String> ids) {
+        List<T> result = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+    
+    @Override
+    public synchronized long count() {
+        return documents.size();
+    }
+    
+    @Override
+    public synchronized void deleteById(String id) {
+        documents.remove(id);
+    }
+    
+    @Override
+    public synchronized void delete(T entity) {
+        documents.remove(idOf(entity));
+    }
+    
+    @Override
+    public synchronized void deleteAllById(Iterable<? extends String> ids) {
+        for (String id : ids) {
+            documents.remove(id);
+        }
+    }
+    
+    @Override
+    public synchronized void deleteAll(Iterable<? extends T> entities) {
+        for (T entity : entities) {
+            documents.remove(idOf(entity));
+        }
+    }
+    
+    @Override
+    public synchronized void deleteAll() {
+        documents.clear();
+    }
+    
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported();
+    }
+    
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+    
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by the in-memory repository");
+    }
+}
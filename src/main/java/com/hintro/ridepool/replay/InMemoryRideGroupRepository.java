@@ -0,0 +1,95 @@
+package com.hintro.ridepool.replay;
+
+import java.util.ArrayList;
+
+import com.hintro.ridepool.entity.GroupStatus;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.repository.RideGroupRepository;
+
+/**
+ * In-memory ride group repository mirroring the atomic updates of the MongoDB one
+ */
+public class InMemoryRideGroupRepository extends InMemoryRepository<RideGroup> implements RideGroupRepository {
+    
+    @Override
+    public synchronized RideGroup joinIfCapacity(String groupId, RideRequest rider) {
+        RideGroup group = stored(groupId);
+        if (group == null || !isOpen(group) || group.getMemberIds().contains(rider.getId())
+                || group.getSeatsUsed() + rider.getSeatsRequired() > group.getMaxSeats()) {
+            return null;
+        }
+        group.getMemberIds().add(rider.getId());
+        group.setSeatsUsed(group.getSeatsUsed() + rider.getSeatsRequired());
+        group.setLuggageUsed(group.getLuggageUsed() + rider.getLuggageCount());
+        group.setPickupLatSum(group.getPickupLatSum() + rider.getPickupLat());
+        group.setPickupLngSum(group.getPickupLngSum() + rider.getPickupLng());
+        return copy(group);
+    }
+    
+    @Override
+    public synchronized RideGroup leave(String groupId, RideRequest rider) {
+        RideGroup group = stored(groupId);
+        if (group == null || !group.getMemberIds().remove(rider.getId())) {
+            return null;
+        }
+        group.setSeatsUsed(group.getSeatsUsed() - rider.getSeatsRequired());
+        group.setLuggageUsed(group.getLuggageUsed() - rider.getLuggageCount());
+        group.setPickupLatSum(group.getPickupLatSum() - rider.getPickupLat());
+        group.setPickupLngSum(group.getPickupLngSum() - rider.getPickupLng());
+        return copy(group);
+    }
+    
+    @Override
+    public synchronized RideGroup assignCab(String groupId, String cabId, int cabSeats) {
+        RideGroup group = stored(groupId);
+        if (group == null || !isOpen(group)) {
+            return null;
+        }
+        group.setStatus(GroupStatus.CAB_ASSIGNED);
+        group.setCabId(cabId);
+        group.setMaxSeats(cabSeats);
+        return copy(group);
+    }
+    
+    @Override
+    public synchronized RideGroup complete(String groupId) {
+        RideGroup group = stored(groupId);
+        if (group == null || group.getStatus() != GroupStatus.CAB_ASSIGNED) {
+            return null;
+        }
+        group.setStatus(GroupStatus.COMPLETED);
+        return copy(group);
+    }
+    
+    @Override
+    public synchronized RideGroup dissolve(String groupId) {
+        RideGroup group = stored(groupId);
+        if (group == null || !isOpen(group)) {
+            return null;
+        }
+        group.setStatus(GroupStatus.DISSOLVED);
+        return copy(group);
+    }
+    
+    private static boolean isOpen(RideGroup group) {
+        return group.getStatus() == GroupStatus.FORMING || group.getStatus() == GroupStatus.CAB_ASSIGNED;
+    }
+    
+    @Override
+    protected String idOf(RideGroup document) {
+        return document.getId();
+    }
+    
+    @Override
+    protected void assignId(RideGroup document, String id) {
+        document.setId(id);
+    }
+    
+    @Override
+    protected RideGroup copy(RideGroup g) {
+        return new RideGroup(g.getId(), g.getAirportCode(), g.getStatus(), new ArrayList<>(g.getMemberIds()),
+                g.getSeatsUsed(), g.getLuggageUsed(), g.getMaxSeats(), g.getPickupLatSum(), g.getPickupLngSum(),
+                g.getCabId(), g.getFormedAt());
+    }
+}
@@ -0,0 +1,201 @@
+package com.hintro.ridepool.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.NotificationType;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+/**
+ * In-memory ride request repository mirroring the queries and conditional
+ * updates of the MongoDB one
+ */
+public class InMemoryRideRequestRepository extends InMemoryRepository<RideRequest> implements RideRequestRepository {
+    
+    private static final Set<RideStatus> ACTIVE = Set.of(RideStatus.WAITING, RideStatus.MATCHED, RideStatus.ASSIGNED);
+    
+    private final Clock clock;
+    
+    public InMemoryRideRequestRepository(Clock clock) {
+        this.clock = clock;
+    }
+    
+    @Override
+    public List<RideRequest> findByAirportCodeAndStatus(String airportCode, RideStatus status) {
+        return select(r -> Objects.equals(r.getAirportCode(), airportCode) && r.getStatus() == status);
+    }
+    
+    @Override
+    public List<RideRequest> findByAirportCodeAndGroupId(String airportCode, String groupId) {
+        return select(r -> Objects.equals(r.getAirportCode(), airportCode) && Objects.equals(r.getGroupId(), groupId));
+    }
+    
+    @Override
+    public List<RideRequest> findByStatus(RideStatus status) {
+        return select(r -> r.getStatus() == status);
+    }
+    
+    @Override
+    public List<RideRequest> findByStatusAndRequestTimeSince(RideStatus status, Instant since) {
+        return select(r -> r.getStatus() == status && r.getRequestTime() != null && !r.getRequestTime().isBefore(since));
+    }
+    
+    @Override
+    public List<RideRequest> findByAirportCodeAndIdInAndStatus(String airportCode, Collection<String> ids,
+                                                                RideStatus status) {
+        return select(r -> Objects.equals(r.getAirportCode(), airportCode) && ids.contains(r.getId())
+                && r.getStatus() == status);
+    }
+    
+    @Override
+    public synchronized long updateStatusByGroupId(String groupId, RideStatus from, RideStatus to) {
+        long updated = 0;
+        for (RideRequest request : select(r -> Objects.equals(r.getGroupId(), groupId) && r.getStatus() == from)) {
+            stored(request.getId()).setStatus(to);
+            updated++;
+        }
+        return updated;
+    }
+    
+    @Override
+    public synchronized long demoteGroupWithoutCab(String groupId) {
+        long updated = 0;
+        for (RideRequest request : select(r -> Objects.equals(r.getGroupId(), groupId)
+                && r.getStatus() == RideStatus.ASSIGNED && r.getAssignedCabId() == null)) {
+            stored(request.getId()).setStatus(RideStatus.MATCHED);
+            updated++;
+        }
+        return updated;
+    }
+    
+    @Override
+    public synchronized RideRequest cancelIfActive(String id) {
+        RideRequest request = stored(id);
+        if (request == null || !ACTIVE.contains(request.getStatus())) {
+            return null;
+        }
+        RideRequest before = copy(request);
+        request.setStatus(RideStatus.CANCELLED);
+        request.setCancelledAt(clock.instant());
+        request.setGroupId(null);
+        request.setAssignedCabId(null);
+        request.setAssignedDriverName(null);
+        request.setCabArrivalTime(null);
+        request.setPendingNotification(null);
+        request.setNotificationQueuedAt(null);
+        return before;
+    }
+    
+    @Override
+    public synchronized long dissolveGroup(String groupId) {
+        long updated = 0;
+        for (RideRequest request : select(r -> Objects.equals(r.getGroupId(), groupId)
+                && (r.getStatus() == RideStatus.MATCHED || r.getStatus() == RideStatus.ASSIGNED)
+                && r.getAssignedCabId() == null)) {
+            RideRequest member = stored(request.getId());
+            member.setStatus(RideStatus.WAITING);
+            member.setGroupId(null);
+            updated++;
+        }
+        return updated;
+    }
+    
+    @Override
+    public synchronized RideRequest claimIfWaiting(String id, String groupId, RideStatus status, Cab cab, Instant cabArrivalTime) {
+        RideRequest request = stored(id);
+        if (request == null || request.getStatus() != RideStatus.WAITING) {
+            return null;
+        }
+        request.setStatus(status);
+        request.setGroupId(groupId);
+        request.setPendingNotification(NotificationType.forRider(cab != null ? cab.getId() : null));
+        request.setNotificationQueuedAt(clock.instant());
+        if (cab != null) {
+            request.setAssignedCabId(cab.getId());
+            request.setAssignedDriverName(cab.getDriverName());
+            request.setCabArrivalTime(cabArrivalTime);
+        }
+        return copy(request);
+    }
+    
+    @Override
+    public synchronized boolean assignIfActive(RideRequest state) {
+        RideRequest request = stored(state.getId());
+        if (request == null || request.getStatus() == RideStatus.CANCELLED || request.getStatus() == RideStatus.COMPLETED) {
+            return false;
+        }
+        request.setStatus(state.getStatus());
+        request.setGroupId(state.getGroupId());
+        request.setPendingNotification(NotificationType.forRider(state.getAssignedCabId()));
+        request.setNotificationQueuedAt(clock.instant());
+        if (state.getAssignedCabId() != null) {
+            request.setAssignedCabId(state.getAssignedCabId());
+            request.setAssignedDriverName(state.getAssignedDriverName());
+            request.setCabArrivalTime(state.getCabArrivalTime());
+        }
+        return true;
+    }
+    
+    @Override
+    public synchronized List<RideRequest> findPendingNotifications(int limit) {
+        return select(r -> r.getNotificationQueuedAt() != null).stream()
+                .sorted(Comparator.comparing(RideRequest::getNotificationQueuedAt))
+                .limit(limit)
+                .toList();
+    }
+    
+    @Override
+    public synchronized long clearNotifications(List<RideRequest> delivered) {
+        long cleared = 0;
+        for (RideRequest rider : delivered) {
+            RideRequest request = stored(rider.getId());
+            if (request != null && request.getPendingNotification() == rider.getPendingNotification()
+                    && Objects.equals(request.getNotificationQueuedAt(), rider.getNotificationQueuedAt())) {
+                request.setPendingNotification(null);
+                request.setNotificationQueuedAt(null);
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+    
+    /**
+     * Loads every field; projection only matters for the MongoDB round trip
+     */
+    @Override
+    public synchronized Stream<RideRequest> streamPage(ListingFilter filter, String afterId, int limit,
+                                             Collection<String> fields) {
+        return select(r -> (afterId == null || r.getId().compareTo(afterId) > 0)
+                && filter.matches(r.getStatus(), r.getAirportCode(), r.getPickupLat(), r.getPickupLng())).stream()
+                .sorted(Comparator.comparing(RideRequest::getId))
+                .limit(limit);
+    }
+    
+    @Override
+    protected String idOf(RideRequest document) {
+        return document.getId();
+    }
+    
+    @Override
+    protected void assignId(RideRequest document, String id) {
+        document.setId(id);
+    }
+    
+    @Override
+    protected RideRequest copy(RideRequest r) {
+        return new RideRequest(r.getId(), r.getUserId(), r.getPickupLat(), r.getPickupLng(), r.getAirportCode(),
+                r.getSeatsRequired(), r.getLuggageCount(), r.getRequestTime(), r.getStatus(), r.getGroupId(),
+                r.getAssignedCabId(), r.getAssignedDriverName(), r.getCabArrivalTime(), r.getCancelledAt(),
+                r.getPendingNotification(), r.getNotificationQueuedAt());
+    }
+}
@@ -0,0 +1,256 @@
+package com.hintro.ridepool.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.AirportConfig.AirportLocation;
+import com.hintro.ridepool.dto.ReplayReport;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.matcher.DistanceMatrix;
+import com.hintro.ridepool.matcher.RouteScorer;
+import com.hintro.ridepool.service.CabLifecycleService;
+import com.hintro.ridepool.service.RideCancellationService;
+import com.hintro.ridepool.service.RideRequestService;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Replays a traffic capture through the matching and cab assignment engine
+ * of the current build and reports throughput, fill ratio, detour and
+ * assignment rate.
+ * 
+ * The engine is an {@link InMemoryEngine} on a {@link SimulatedClock}
+ * advanced to each record's timestamp, so no MongoDB is needed and the same
+ * capture and configuration always produce the same groups. Configuration
+ * uses the application's property names:
+ * 
+ *   mvn -q compile exec:java -Dexec.mainClass=com.hintro.ridepool.replay.ReplayRunner \
+ *       -Dexec.args="data/capture/traffic.jsonl --ridepool.matching.strategy=batch-optimal"
+ * 
+ * Compare the report of two builds (or two strategies) on the same capture
+ * before signing off an engine change.
+ */
+public class ReplayRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRunner.class);
+    
+    private final Map<String, String> properties;
+    private final ObjectMapper mapper = TrafficRecorder.newMapper();
+    
+    /**
+     * @param properties ridepool.* configuration overrides
+     */
+    public ReplayRunner(Map<String, String> properties) {
+        this.properties = properties;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayRunner <capture-file> [--ridepool.<property>=<value> ...]");
+            System.exit(2);
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i].startsWith("--") ? args[i].substring(2) : args[i];
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("✗ Ignoring argument without a value: " + args[i]);
+                continue;
+            }
+            properties.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        
+        quietLogging();
+        // Services still print progress to stdout; keep it out of the measured run
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ReplayReport report;
+        try {
+            report = new ReplayRunner(properties).run(Path.of(args[0]));
+        } finally {
+            System.setOut(stdout);
+        }
+        stdout.println(TrafficRecorder.newMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+    
+    /**
+     * Replay a capture on a fresh engine
+     * 
+     * @param captureFile file written by {@link TrafficRecorder}
+     * @return replay report
+     */
+    public ReplayReport run(Path captureFile) throws IOException {
+        SimulatedClock clock = new SimulatedClock(Instant.EPOCH);
+        InMemoryEngine engine = new InMemoryEngine(properties, clock);
+        InMemoryCabRepository cabs = engine.getCabs();
+        FleetIndex fleetIndex = engine.getFleetIndex();
+        CabLifecycleService cabLifecycleService = engine.getCabLifecycleService();
+        RideRequestService rideRequestService = engine.getRideRequestService();
+        RideCancellationService cancellationService = engine.getCancellationService();
+        
+        ReplayReport report = ReplayReport.builder()
+                .captureFile(captureFile.toString())
+                .strategy(engine.getStrategyRegistry().active(null).getName())
+                .build();
+        Map<String, String> requestIds = new HashMap<>();
+        List<Long> latencies = new ArrayList<>();
+        long requestNanos = 0;
+        
+        try (BufferedReader reader = Files.newBufferedReader(captureFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                CapturedEvent event = mapper.readValue(line, CapturedEvent.class);
+                clock.advanceTo(event.getTimestamp());
+                try {
+                    switch (event.getKind()) {
+                        case CAB -> {
+                            Cab saved = cabs.save(event.getCab());
+                            fleetIndex.upsert(saved);
+                            report.setCabs(report.getCabs() + 1);
+                        }
+                        case REQUEST -> {
+                            long start = System.nanoTime();
+                            RideRequest created = rideRequestService.createRideRequest(event.getRequest());
+                            long elapsed = System.nanoTime() - start;
+                            requestNanos += elapsed;
+                            latencies.add(elapsed);
+                            requestIds.put(event.getRideRequestId(), created.getId());
+                            report.setRequests(report.getRequests() + 1);
+                        }
+                        case TRIP_STARTED -> {
+                            report.setTripEvents(report.getTripEvents() + 1);
+                            cabLifecycleService.startTrip(event.getCabId());
+                        }
+                        case TRIP_COMPLETED -> {
+                            report.setTripEvents(report.getTripEvents() + 1);
+                            cabLifecycleService.completeTrip(event.getCabId(), event.getLat(), event.getLng());
+                        }
+                        case CANCELLED -> {
+                            report.setCancellations(report.getCancellations() + 1);
+                            String id = requestIds.get(event.getRideRequestId());
+                            if (id == null) {
+                                throw new IllegalArgumentException("Ride request not in capture: " + event.getRideRequestId());
+                            }
+                            cancellationService.cancel(id);
+                        }
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    // This build made different decisions, so the recorded transition does not apply
+                    logger.debug("Skipping {} record: {}", event.getKind(), e.getMessage());
+                    report.setSkipped(report.getSkipped() + 1);
+                }
+            }
+        } finally {
+            engine.close();
+        }
+        
+        report.setElapsedMillis(requestNanos / 1_000_000);
+        report.setRequestsPerSecond(requestNanos > 0 ? report.getRequests() * 1e9 / requestNanos : 0);
+        latencies.sort(null);
+        report.setP50LatencyMicros(percentile(latencies, 0.50) / 1_000.0);
+        report.setP99LatencyMicros(percentile(latencies, 0.99) / 1_000.0);
+        summarizeGroups(report, engine);
+        return report;
+    }
+    
+    /**
+     * Group, fill, detour and assignment figures from the riders' final state
+     */
+    private static void summarizeGroups(ReplayReport report, InMemoryEngine engine) {
+        InMemoryCabRepository cabs = engine.getCabs();
+        AirportConfig airportConfig = engine.getAirportConfig();
+        DistanceProvider distanceProvider = engine.getDistanceProvider();
+        RouteScorer routeScorer = engine.getRouteScorer();
+        Map<String, List<RideRequest>> groups = new TreeMap<>();
+        long riders = 0;
+        long assigned = 0;
+        for (RideRequest rider : engine.getRideRequests().findAll()) {
+            riders++;
+            if (rider.getStatus() == RideStatus.ASSIGNED || rider.getStatus() == RideStatus.COMPLETED) {
+                assigned++;
+            }
+            if (rider.getGroupId() != null && rider.getStatus() != RideStatus.CANCELLED) {
+                groups.computeIfAbsent(rider.getGroupId(), id -> new ArrayList<>()).add(rider);
+            }
+        }
+        
+        long pooled = 0;
+        long pooledRiders = 0;
+        double detourSum = 0;
+        double detourMax = 0;
+        long filled = 0;
+        double fillSum = 0;
+        for (List<RideRequest> members : groups.values()) {
+            int seats = members.stream().mapToInt(RideRequest::getSeatsRequired).sum();
+            String cabId = members.get(0).getAssignedCabId();
+            Cab cab = cabId != null ? cabs.findById(cabId).orElse(null) : null;
+            if (cab != null && cab.getTotalSeats() > 0) {
+                filled++;
+                fillSum += Math.min(1.0, (double) seats / cab.getTotalSeats());
+            }
+            if (members.size() < 2) {
+                continue;
+            }
+            pooled++;
+            pooledRiders += members.size();
+            AirportLocation airport = airportConfig.getLocation(members.get(0).getAirportCode());
+            if (airport != null) {
+                DistanceMatrix matrix = new DistanceMatrix(airport.getLat(), airport.getLng(), members, distanceProvider);
+                int[] stops = new int[members.size()];
+                for (int i = 0; i < stops.length; i++) {
+                    stops[i] = i + 1;
+                }
+                double detour = routeScorer.planRoute(matrix, stops).getMaxDetourRatio();
+                detourSum += detour;
+                detourMax = Math.max(detourMax, detour);
+            }
+        }
+        
+        report.setGroups(pooled);
+        report.setAvgGroupSize(pooled > 0 ? (double) pooledRiders / pooled : 0);
+        report.setFillRatio(filled > 0 ? fillSum / filled : 0);
+        report.setAvgDetourRatio(pooled > 0 ? detourSum / pooled : 0);
+        report.setMaxDetourRatio(detourMax);
+        report.setAssignmentRate(riders > 0 ? (double) assigned / riders : 0);
+    }
+    
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+    
+    /**
+     * The engine logs every request at INFO; only warnings matter for a replay
+     */
+    private static void quietLogging() {
+        org.slf4j.Logger root = LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        if (root instanceof ch.qos.logback.classic.Logger logbackRoot) {
+            logbackRoot.setLevel(ch.qos.logback.classic.Level.WARN);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hintro.ridepool.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock that only moves when told to, so a replay sees the captured
+ * timestamps instead of wall time. Never moves backwards.
+ */
+public class SimulatedClock extends Clock {
+    
+    private volatile Instant now;
+    
+    public SimulatedClock(Instant start) {
+        this.now = start;
+    }
+    
+    /**
+     * Move the clock forward to the given instant (earlier instants are ignored)
+     */
+    public void advanceTo(Instant instant) {
+        if (instant != null && instant.isAfter(now)) {
+            now = instant;
+        }
+    }
+    
+    @Override
+    public Instant instant() {
+        return now;
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+    
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.fixed(now, zone);
+    }
+}
@@ -0,0 +1,309 @@
+package com.hintro.ridepool.replay;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hintro.ridepool.config.CaptureConfig;
+import com.hintro.ridepool.dto.CaptureStatus;
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.repository.CabRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Records the engine's input stream (ride requests, cab registrations, trip
+ * transitions and cancellations) to a JSON-lines file for {@link ReplayRunner}.
+ * 
+ * A capture begins with a snapshot of the whole fleet so a replay starts from
+ * the same cabs. Records are serialized on the calling thread (entities are
+ * mutated in place later on) and written by a single background thread with a
+ * bounded queue; when the queue is full the record is dropped and counted
+ * rather than slowing down the request path.
+ */
+@Component
+public class TrafficRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+    
+    private final CaptureConfig captureConfig;
+    private final CabRepository cabRepository;
+    private final Clock clock;
+    private final ObjectMapper mapper = newMapper();
+    
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Session session;
+    private volatile CaptureStatus lastStatus;
+    
+    public TrafficRecorder(CaptureConfig captureConfig, CabRepository cabRepository, Clock clock) {
+        this.captureConfig = captureConfig;
+        this.cabRepository = cabRepository;
+        this.clock = clock;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnBoot() {
+        if (!captureConfig.isEnabled()) {
+            return;
+        }
+        try {
+            start(captureConfig.getFile());
+        } catch (Exception e) {
+            logger.warn("⚠ Traffic capture not started: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Start a capture, overwriting the file
+     * 
+     * @param file capture file, or null for the configured one
+     * @return capture status
+     * @throws IllegalStateException if a capture is already running
+     */
+    public synchronized CaptureStatus start(String file) {
+        if (session != null) {
+            throw new IllegalStateException("Capture already running to " + session.file);
+        }
+        Path path = Path.of(file != null ? file : captureConfig.getFile());
+        Instant startedAt = clock.instant();
+        List<Cab> fleet;
+        BufferedWriter writer;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            fleet = cabRepository.findAll();
+            for (Cab cab : fleet) {
+                writer.write(serialize(CapturedEvent.builder()
+                        .kind(CapturedEvent.Kind.CAB)
+                        .timestamp(startedAt)
+                        .cab(cab)
+                        .build()));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start capture to " + path, e);
+        }
+        
+        recorded.set(fleet.size());
+        dropped.set(0);
+        session = new Session(path, writer, startedAt, newWriterExecutor());
+        logger.info("✓ Traffic capture started: {} ({} cabs in fleet snapshot)", path, fleet.size());
+        return getStatus();
+    }
+    
+    /**
+     * Stop the running capture once every queued record is written
+     * 
+     * @return final capture status
+     * @throws IllegalStateException if no capture is running
+     */
+    public synchronized CaptureStatus stop() {
+        Session current = session;
+        if (current == null) {
+            throw new IllegalStateException("No capture running");
+        }
+        session = null;
+        current.executor.shutdown();
+        try {
+            if (!current.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("⚠ Capture writer did not drain in time, closing {}", current.file);
+                current.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            current.writer.close();
+        } catch (IOException e) {
+            logger.warn("⚠ Could not close capture file {}: {}", current.file, e.getMessage());
+        }
+        
+        lastStatus = status(current, false);
+        logger.info("✓ Traffic capture stopped: {} ({} records, {} dropped)", current.file, recorded.get(), dropped.get());
+        return lastStatus;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (session != null) {
+            stop();
+        }
+    }
+    
+    public CaptureStatus getStatus() {
+        Session current = session;
+        if (current != null) {
+            return status(current, true);
+        }
+        return lastStatus != null ? lastStatus : CaptureStatus.builder().file(captureConfig.getFile()).build();
+    }
+    
+    public boolean isCapturing() {
+        return session != null;
+    }
+    
+    public void recordRequest(RideRequestDTO dto, RideRequest saved) {
+        if (session == null) {
+            return;
+        }
+        record(CapturedEvent.builder()
+                .kind(CapturedEvent.Kind.REQUEST)
+                .timestamp(saved.getRequestTime() != null ? saved.getRequestTime() : clock.instant())
+                .request(dto)
+                .rideRequestId(saved.getId())
+                .build());
+    }
+    
+    public void recordCab(Cab cab) {
+        if (session == null) {
+            return;
+        }
+        record(CapturedEvent.builder()
+                .kind(CapturedEvent.Kind.CAB)
+                .timestamp(clock.instant())
+                .cab(cab)
+                .build());
+    }
+    
+    public void recordTripStarted(String cabId) {
+        if (session == null) {
+            return;
+        }
+        record(CapturedEvent.builder()
+                .kind(CapturedEvent.Kind.TRIP_STARTED)
+                .timestamp(clock.instant())
+                .cabId(cabId)
+                .build());
+    }
+    
+    public void recordTripCompleted(String cabId, double dropLat, double dropLng) {
+        if (session == null) {
+            return;
+        }
+        record(CapturedEvent.builder()
+                .kind(CapturedEvent.Kind.TRIP_COMPLETED)
+                .timestamp(clock.instant())
+                .cabId(cabId)
+                .lat(dropLat)
+                .lng(dropLng)
+                .build());
+    }
+    
+    public void recordCancellation(String rideRequestId) {
+        if (session == null) {
+            return;
+        }
+        record(CapturedEvent.builder()
+                .kind(CapturedEvent.Kind.CANCELLED)
+                .timestamp(clock.instant())
+                .rideRequestId(rideRequestId)
+                .build());
+    }
+    
+    /**
+     * JSON mapping shared by the recorder and the replay runner
+     */
+    static ObjectMapper newMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+    
+    private void record(CapturedEvent event) {
+        Session current = session;
+        if (current == null) {
+            return;
+        }
+        String line;
+        try {
+            line = serialize(event);
+        } catch (JsonProcessingException e) {
+            logger.warn("⚠ Could not serialize {} capture record: {}", event.getKind(), e.getMessage());
+            dropped.incrementAndGet();
+            return;
+        }
+        current.executor.execute(() -> write(current, line));
+    }
+    
+    private void write(Session current, String line) {
+        try {
+            current.writer.write(line);
+            current.writer.newLine();
+            recorded.incrementAndGet();
+            if (current.executor.getQueue().isEmpty()) {
+                current.writer.flush();
+            }
+        } catch (IOException e) {
+            logger.warn("⚠ Could not write capture record to {}: {}", current.file, e.getMessage());
+            dropped.incrementAndGet();
+        }
+    }
+    
+    private String serialize(CapturedEvent event) throws JsonProcessingException {
+        return mapper.writeValueAsString(event);
+    }
+    
+    private ThreadPoolExecutor newWriterExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, captureConfig.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "traffic-capture");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.incrementAndGet());
+    }
+    
+    private CaptureStatus status(Session current, boolean capturing) {
+        return CaptureStatus.builder()
+                .capturing(capturing)
+                .file(current.file.toString())
+                .startedAt(current.startedAt)
+                .recorded(recorded.get())
+                .dropped(dropped.get())
+                .build();
+    }
+    
+    private static final class Session {
+        private final Path file;
+        private final BufferedWriter writer;
+        private final Instant startedAt;
+        private final ThreadPoolExecutor executor;
+        
+        private Session(Path file, BufferedWriter writer, Instant startedAt, ThreadPoolExecutor executor) {
+            this.file = file;
+            this.writer = writer;
+            this.startedAt = startedAt;
+            this.executor = executor;
+        }
+    }
+}
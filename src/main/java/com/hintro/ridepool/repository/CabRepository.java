@@ -1,6 +1,7 @@
 package com.hintro.ridepool.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -8,15 +9,54 @@ import org.springframework.data.mongodb.repository.Query;
 import com.hintro.ridepool.entity.Cab;
 import com.hintro.ridepool.entity.CabStatus;
 
-public interface CabRepository extends MongoRepository<Cab, String> {
+public interface CabRepository extends MongoRepository<Cab, String>, CabRepositoryCustom {
     
     /**
-     * Find all available cabs
+     * Routed by the shard airport the ID carries; see {@link CabRepositoryCustom#findById}
+     */
+    @Override
+    Optional<Cab> findById(String id);
+    
+    /**
+     * Find all available cabs (reads every shard)
      * 
      * @param status cab status
      * @return list of cabs with the given status
      */
     @Query("{ 'status': ?0 }")
     List<Cab> findByStatus(CabStatus status);
+    
+    /**
+     * Find cabs that can still take passengers: in one of the given statuses
+     * with at least one free seat (reads every shard)
+     * 
+     * @param statuses cab statuses to include
+     * @return list of cabs with spare seats
+     */
+    @Query("{ 'status': { '$in': ?0 }, 'availableSeats': { '$gt': 0 } }")
+    List<Cab> findByStatusInWithSpareSeats(List<CabStatus> statuses);
+    
+    /**
+     * Find cabs with the given status in one airport partition. Cabs are
+     * sharded by the airport they were registered at, not the partition they
+     * are in now, so this reads every shard; it backs the cold-index scan and
+     * the demand heatmap. Served by the (airportCode, status) index on Cab.
+     * 
+     * @param airportCode airport partition, null for cabs outside every service area
+     * @param status cab status
+     * @return list of cabs
+     */
+    @Query("{ 'airportCode': ?0, 'status': ?1 }")
+    List<Cab> findByAirportCodeAndStatus(String airportCode, CabStatus status);
+    
+    /**
+     * Find cabs in one airport partition that can still take passengers
+     * 
+     * @param airportCode airport partition, null for cabs outside every service area
+     * @param statuses cab statuses to include
+     * @return list of cabs with spare seats
+     */
+    @Query("{ 'airportCode': ?0, 'status': { '$in': ?1 }, 'availableSeats': { '$gt': 0 } }")
+    List<Cab> findByAirportCodeAndStatusInWithSpareSeats(String airportCode, List<CabStatus> statuses);
 }
 
@@ -0,0 +1,110 @@
+package com.hintro.ridepool.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+
+/**
+ * Atomic cab lifecycle updates.
+ * 
+ * Every method is a single conditional findAndModify: it only applies when
+ * the cab is still in the expected state, so concurrent callers cannot both
+ * win. Each returns the updated cab, or null when the condition did not hold.
+ * Updates include the shard airport the cab ID carries (see {@link ShardKeys}).
+ */
+public interface CabRepositoryCustom {
+    
+    /**
+     * Find a cab by ID, routed to its shard when the ID carries one
+     * (overrides the repository's plain _id lookup)
+     * 
+     * @param id cab ID
+     * @return the cab, if stored
+     */
+    Optional<Cab> findById(String id);
+    
+    /**
+     * Reserve an AVAILABLE cab for a group and take its seats and luggage
+     * space; queues DRIVER_GROUP_ASSIGNED
+     * 
+     * @param cabId cab ID
+     * @param groupId group the cab is reserved for
+     * @param seats seats taken by the group
+     * @param luggage luggage taken by the group
+     * @return updated cab, or null if the cab is no longer available or too small
+     */
+    Cab reserveIfAvailable(String cabId, String groupId, int seats, int luggage);
+    
+    /**
+     * Add passengers to a RESERVED or ON_TRIP cab that still has spare capacity
+     * (pooling mid-route); queues DRIVER_RIDERS_JOINED
+     * 
+     * @param cabId cab ID
+     * @param seats extra seats taken
+     * @param luggage extra luggage taken
+     * @return updated cab, or null if the cab has no room left
+     */
+    Cab joinIfSpareCapacity(String cabId, int seats, int luggage);
+    
+    /**
+     * Give seats and luggage space back to a cab serving the given group.
+     * A RESERVED cab that becomes empty again returns to AVAILABLE.
+     * 
+     * @param cabId cab ID
+     * @param groupId group currently holding the cab
+     * @param seats seats released
+     * @param luggage luggage released
+     * @return updated cab, or null if the cab no longer serves the group
+     */
+    Cab releaseCapacity(String cabId, String groupId, int seats, int luggage);
+    
+    /**
+     * Move a RESERVED cab to ON_TRIP once passengers are picked up
+     * 
+     * @param cabId cab ID
+     * @return updated cab, or null if the cab is not RESERVED
+     */
+    Cab startTrip(String cabId);
+    
+    /**
+     * Finish an ON_TRIP cab's trip: back to AVAILABLE with full capacity at the drop-off point
+     * 
+     * @param cabId cab ID
+     * @param lat drop-off latitude
+     * @param lng drop-off longitude
+     * @param airportCode airport partition of the drop-off point, null outside every service area
+     * @return updated cab, or null if the cab is not ON_TRIP
+     */
+    Cab completeTrip(String cabId, double lat, double lng, String airportCode);
+    
+    /**
+     * Oldest cabs with an undelivered notification
+     * 
+     * @param limit most cabs returned
+     * @return cabs ordered by notificationQueuedAt
+     */
+    List<Cab> findPendingNotifications(int limit);
+    
+    /**
+     * Clear delivered notifications, except where a newer one was queued since they were read
+     * 
+     * @param delivered cabs as returned by {@link #findPendingNotifications}
+     * @return number of notifications cleared
+     */
+    long clearNotifications(List<Cab> delivered);
+    
+    /**
+     * One page of a keyset-paginated listing in ID order, read from a cursor
+     * 
+     * @param filter status / airport / bounding box filter
+     * @param afterId last ID of the previous page, null for the first page
+     * @param limit most cabs returned
+     * @param fields fields to load besides the ID, empty for all
+     * @return stream of cabs; the caller must close it
+     */
+    Stream<Cab> streamPage(ListingFilter filter, String afterId, int limit, Collection<String> fields);
+}
@@ -0,0 +1,170 @@
+package com.hintro.ridepool.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.NotificationType;
+
+/**
+ * MongoTemplate implementation of the atomic cab lifecycle updates
+ */
+public class CabRepositoryCustomImpl implements CabRepositoryCustom {
+    
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public CabRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Optional<Cab> findById(String id) {
+        Query query = new Query(ShardKeys.byId(id, ShardKeys.CAB_AIRPORT_FIELD));
+        return Optional.ofNullable(mongoTemplate.findOne(query, Cab.class));
+    }
+    
+    @Override
+    public Cab reserveIfAvailable(String cabId, String groupId, int seats, int luggage) {
+        Query query = new Query(ShardKeys.byId(cabId, ShardKeys.CAB_AIRPORT_FIELD)
+                .and("status").is(CabStatus.AVAILABLE)
+                .and("availableSeats").gte(seats)
+                .and("availableLuggage").gte(luggage));
+        Update update = new Update()
+                .set("status", CabStatus.RESERVED)
+                .set("assignedGroupId", groupId)
+                .set("reservedAt", Instant.now())
+                .set("pendingNotification", NotificationType.DRIVER_GROUP_ASSIGNED)
+                .set("notificationQueuedAt", Instant.now())
+                .inc("availableSeats", -seats)
+                .inc("availableLuggage", -luggage);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cab.class);
+    }
+    
+    @Override
+    public Cab joinIfSpareCapacity(String cabId, int seats, int luggage) {
+        Query query = new Query(ShardKeys.byId(cabId, ShardKeys.CAB_AIRPORT_FIELD)
+                .and("status").in(CabStatus.RESERVED, CabStatus.ON_TRIP)
+                .and("availableSeats").gte(seats)
+                .and("availableLuggage").gte(luggage));
+        Update update = new Update()
+                .set("pendingNotification", NotificationType.DRIVER_RIDERS_JOINED)
+                .set("notificationQueuedAt", Instant.now())
+                .inc("availableSeats", -seats)
+                .inc("availableLuggage", -luggage);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cab.class);
+    }
+    
+    @Override
+    public Cab releaseCapacity(String cabId, String groupId, int seats, int luggage) {
+        Query query = new Query(ShardKeys.byId(cabId, ShardKeys.CAB_AIRPORT_FIELD).and("assignedGroupId").is(groupId));
+        
+        // Single $set stage: every expression sees the document as it was before the update
+        Document emptiedReservation = new Document("$and", List.of(
+                new Document("$eq", List.of("$status", CabStatus.RESERVED.name())),
+                new Document("$gte", List.of(new Document("$add", List.of("$availableSeats", seats)), "$totalSeats"))));
+        Document set = new Document()
+                .append("status", cond(emptiedReservation, CabStatus.AVAILABLE.name(), "$status"))
+                .append("assignedGroupId", cond(emptiedReservation, "$$REMOVE", "$assignedGroupId"))
+                .append("reservedAt", cond(emptiedReservation, "$$REMOVE", "$reservedAt"))
+                .append("availableSeats", new Document("$min", List.of(
+                        new Document("$add", List.of("$availableSeats", seats)), "$totalSeats")))
+                .append("availableLuggage", new Document("$min", List.of(
+                        new Document("$add", List.of("$availableLuggage", luggage)), "$luggageCapacity")));
+        
+        return mongoTemplate.findAndModify(query, pipeline(new Document("$set", set)), RETURN_NEW, Cab.class);
+    }
+    
+    @Override
+    public Cab startTrip(String cabId) {
+        Query query = new Query(ShardKeys.byId(cabId, ShardKeys.CAB_AIRPORT_FIELD).and("status").is(CabStatus.RESERVED));
+        Update update = new Update()
+                .set("status", CabStatus.ON_TRIP)
+                .set("tripStartedAt", Instant.now());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cab.class);
+    }
+    
+    @Override
+    public Cab completeTrip(String cabId, double lat, double lng, String airportCode) {
+        Query query = new Query(ShardKeys.byId(cabId, ShardKeys.CAB_AIRPORT_FIELD).and("status").is(CabStatus.ON_TRIP));
+        Document set = new Document()
+                .append("status", CabStatus.AVAILABLE.name())
+                .append("availableSeats", "$totalSeats")
+                .append("availableLuggage", "$luggageCapacity")
+                .append("currentLat", lat)
+                .append("currentLng", lng);
+        List<String> cleared = new ArrayList<>(List.of("assignedGroupId", "reservedAt", "tripStartedAt",
+                "pendingNotification", "notificationQueuedAt"));
+        if (airportCode != null) {
+            set.append("airportCode", airportCode);
+        } else {
+            cleared.add("airportCode");
+        }
+        Document unset = new Document("$unset", cleared);
+        
+        return mongoTemplate.findAndModify(query, pipeline(new Document("$set", set), unset), RETURN_NEW, Cab.class);
+    }
+    
+    @Override
+    public List<Cab> findPendingNotifications(int limit) {
+        Query query = new Query(Criteria.where("notificationQueuedAt").exists(true))
+                .with(Sort.by("notificationQueuedAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, Cab.class);
+    }
+    
+    @Override
+    public long clearNotifications(List<Cab> delivered) {
+        if (delivered.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cab.class);
+        for (Cab cab : delivered) {
+            Query query = new Query(ShardKeys.byId(cab.getId(), ShardKeys.CAB_AIRPORT_FIELD)
+                    .and("pendingNotification").is(cab.getPendingNotification())
+                    .and("notificationQueuedAt").is(cab.getNotificationQueuedAt()));
+            bulk.updateOne(query, new Update().unset("pendingNotification").unset("notificationQueuedAt"));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+    
+    private static Document cond(Document condition, Object then, Object otherwise) {
+        return new Document("$cond", List.of(condition, then, otherwise));
+    }
+    
+    /**
+     * Build an update pipeline from raw stages (field names are stored as-is)
+     */
+    private static AggregationUpdate pipeline(Document... stages) {
+        AggregationOperation[] operations = new AggregationOperation[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            Document stage = stages[i];
+            operations[i] = context -> stage;
+        }
+        return AggregationUpdate.from(List.of(operations));
+    }
+    
+    @Override
+    public Stream<Cab> streamPage(ListingFilter filter, String afterId, int limit, Collection<String> fields) {
+        Query query = ListingQueries.page(filter, afterId, limit, fields, "currentLat", "currentLng");
+        return mongoTemplate.stream(query, Cab.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hintro.ridepool.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.hintro.ridepool.dto.ListingFilter;
+
+/**
+ * Keyset-paginated listing queries shared by the cab and ride request repositories.
+ * 
+ * Pages are read in _id order and resume after the last ID of the previous
+ * page, so every page is an index range scan no matter how deep the listing
+ * goes, and documents inserted meanwhile never shift later pages.
+ */
+final class ListingQueries {
+    
+    private ListingQueries() {
+    }
+    
+    /**
+     * @param latField / lngField position fields the bounding box applies to
+     */
+    static Query page(ListingFilter filter, String afterId, int limit, Collection<String> fields,
+                      String latField, String lngField) {
+        Criteria criteria = new Criteria();
+        if (afterId != null) {
+            criteria.and("id").gt(afterId);
+        }
+        if (filter.getStatus() != null) {
+            criteria.and("status").is(filter.getStatus());
+        }
+        if (filter.getAirportCode() != null) {
+            criteria.and("airportCode").is(filter.getAirportCode());
+        }
+        range(criteria, latField, filter.getMinLat(), filter.getMaxLat());
+        range(criteria, lngField, filter.getMinLng(), filter.getMaxLng());
+        
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "id")).limit(limit);
+        if (!fields.isEmpty()) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return query;
+    }
+    
+    private static void range(Criteria criteria, String field, Double min, Double max) {
+        if (min == null && max == null) {
+            return;
+        }
+        Criteria bound = criteria.and(field);
+        if (min != null) {
+            bound.gte(min);
+        }
+        if (max != null) {
+            bound.lte(max);
+        }
+    }
+}
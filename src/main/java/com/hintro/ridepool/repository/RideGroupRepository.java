@@ -0,0 +1,16 @@
+package com.hintro.ridepool.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.hintro.ridepool.entity.RideGroup;
+
+public interface RideGroupRepository extends MongoRepository<RideGroup, String>, RideGroupRepositoryCustom {
+    
+    /**
+     * Routed by the shard airport the ID carries; see {@link RideGroupRepositoryCustom#findById}
+     */
+    @Override
+    Optional<RideGroup> findById(String id);
+}
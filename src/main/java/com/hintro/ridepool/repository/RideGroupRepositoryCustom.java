@@ -0,0 +1,72 @@
+package com.hintro.ridepool.repository;
+
+import java.util.Optional;
+
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * Atomic ride group updates.
+ * 
+ * Every method is a single conditional findAndModify on the group document:
+ * it only applies when the group is still in the expected state, so
+ * concurrent callers cannot both win. Each returns the updated group, or
+ * null when the condition did not hold.
+ */
+public interface RideGroupRepositoryCustom {
+    
+    /**
+     * Find a group by ID, routed to its shard when the ID carries one
+     * (overrides the repository's plain _id lookup)
+     * 
+     * @param id group ID
+     * @return the group, if stored
+     */
+    Optional<RideGroup> findById(String id);
+    
+    /**
+     * Add a rider to a FORMING or CAB_ASSIGNED group if its seats still fit
+     * under maxSeats ($inc seats / luggage / pickup sums, $push member)
+     * 
+     * @param groupId group ID
+     * @param rider rider joining
+     * @return updated group, or null if the group is full, closed or already has the rider
+     */
+    RideGroup joinIfCapacity(String groupId, RideRequest rider);
+    
+    /**
+     * Take a rider out of a group and give its seats and luggage back
+     * 
+     * @param groupId group ID
+     * @param rider rider leaving
+     * @return updated group, or null if the rider is not a member
+     */
+    RideGroup leave(String groupId, RideRequest rider);
+    
+    /**
+     * Record the cab serving a FORMING or CAB_ASSIGNED group; the group may
+     * then fill up to the cab's seats
+     * 
+     * @param groupId group ID
+     * @param cabId cab reserved for the group
+     * @param cabSeats total seats of the cab
+     * @return updated group, or null if the group is completed or dissolved
+     */
+    RideGroup assignCab(String groupId, String cabId, int cabSeats);
+    
+    /**
+     * Close a CAB_ASSIGNED group when its trip ends
+     * 
+     * @param groupId group ID
+     * @return updated group, or null if the group has no cab
+     */
+    RideGroup complete(String groupId);
+    
+    /**
+     * Close a FORMING or CAB_ASSIGNED group that was broken up, emptied or merged
+     * 
+     * @param groupId group ID
+     * @return updated group, or null if the group is already closed
+     */
+    RideGroup dissolve(String groupId);
+}
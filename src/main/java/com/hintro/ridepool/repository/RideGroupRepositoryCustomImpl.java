@@ -0,0 +1,92 @@
+package com.hintro.ridepool.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.hintro.ridepool.entity.GroupStatus;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+
+/**
+ * MongoTemplate implementation of atomic ride group updates
+ */
+public class RideGroupRepositoryCustomImpl implements RideGroupRepositoryCustom {
+    
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public RideGroupRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Optional<RideGroup> findById(String id) {
+        Query query = new Query(ShardKeys.byId(id, ShardKeys.AIRPORT_FIELD));
+        return Optional.ofNullable(mongoTemplate.findOne(query, RideGroup.class));
+    }
+    
+    @Override
+    public RideGroup joinIfCapacity(String groupId, RideRequest rider) {
+        // seatsUsed + seats <= maxSeats, compared inside the document
+        Criteria fits = Criteria.expr(ComparisonOperators.valueOf(
+                ArithmeticOperators.valueOf("seatsUsed").add(rider.getSeatsRequired()))
+                .lessThanEqualTo("maxSeats"));
+        Query query = new Query(ShardKeys.byId(groupId, ShardKeys.AIRPORT_FIELD)
+                .and("status").in(GroupStatus.FORMING, GroupStatus.CAB_ASSIGNED)
+                .and("memberIds").ne(rider.getId())
+                .andOperator(fits));
+        Update update = new Update()
+                .push("memberIds", rider.getId())
+                .inc("seatsUsed", rider.getSeatsRequired())
+                .inc("luggageUsed", rider.getLuggageCount())
+                .inc("pickupLatSum", rider.getPickupLat())
+                .inc("pickupLngSum", rider.getPickupLng());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, RideGroup.class);
+    }
+    
+    @Override
+    public RideGroup leave(String groupId, RideRequest rider) {
+        Query query = new Query(ShardKeys.byId(groupId, ShardKeys.AIRPORT_FIELD).and("memberIds").is(rider.getId()));
+        Update update = new Update()
+                .pull("memberIds", rider.getId())
+                .inc("seatsUsed", -rider.getSeatsRequired())
+                .inc("luggageUsed", -rider.getLuggageCount())
+                .inc("pickupLatSum", -rider.getPickupLat())
+                .inc("pickupLngSum", -rider.getPickupLng());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, RideGroup.class);
+    }
+    
+    @Override
+    public RideGroup assignCab(String groupId, String cabId, int cabSeats) {
+        Query query = new Query(ShardKeys.byId(groupId, ShardKeys.AIRPORT_FIELD)
+                .and("status").in(GroupStatus.FORMING, GroupStatus.CAB_ASSIGNED));
+        Update update = new Update()
+                .set("status", GroupStatus.CAB_ASSIGNED)
+                .set("cabId", cabId)
+                .set("maxSeats", cabSeats);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, RideGroup.class);
+    }
+    
+    @Override
+    public RideGroup complete(String groupId) {
+        Query query = new Query(ShardKeys.byId(groupId, ShardKeys.AIRPORT_FIELD).and("status").is(GroupStatus.CAB_ASSIGNED));
+        return mongoTemplate.findAndModify(query, Update.update("status", GroupStatus.COMPLETED),
+                RETURN_NEW, RideGroup.class);
+    }
+    
+    @Override
+    public RideGroup dissolve(String groupId) {
+        Query query = new Query(ShardKeys.byId(groupId, ShardKeys.AIRPORT_FIELD)
+                .and("status").in(GroupStatus.FORMING, GroupStatus.CAB_ASSIGNED));
+        return mongoTemplate.findAndModify(query, Update.update("status", GroupStatus.DISSOLVED),
+                RETURN_NEW, RideGroup.class);
+    }
+}
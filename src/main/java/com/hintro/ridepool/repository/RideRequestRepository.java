@@ -1,6 +1,9 @@
 package com.hintro.ridepool.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -8,7 +11,13 @@ import org.springframework.data.mongodb.repository.Query;
 import com.hintro.ridepool.entity.RideRequest;
 import com.hintro.ridepool.entity.RideStatus;
 
-public interface RideRequestRepository extends MongoRepository<RideRequest, String> {
+public interface RideRequestRepository extends MongoRepository<RideRequest, String>, RideRequestRepositoryCustom {
+    
+    /**
+     * Routed by the shard airport the ID carries; see {@link RideRequestRepositoryCustom#findById}
+     */
+    @Override
+    Optional<RideRequest> findById(String id);
     
     /**
      * Find all waiting ride requests for a specific airport
@@ -23,10 +32,43 @@ public interface RideRequestRepository extends MongoRepository<RideRequest, Stri
     /**
      * Find all ride requests that belong to a specific group
      * 
+     * @param airportCode airport of the group (shard key prefix)
      * @param groupId group ID
      * @return list of ride requests in the group
      */
-    @Query("{ 'groupId': ?0 }")
-    List<RideRequest> findByGroupId(String groupId);
+    @Query("{ 'airportCode': ?0, 'groupId': ?1 }")
+    List<RideRequest> findByAirportCodeAndGroupId(String airportCode, String groupId);
+    
+    /**
+     * Find all ride requests in a status (warming the waiting rider index;
+     * reads every shard)
+     * 
+     * @param status ride status
+     * @return ride requests in that status
+     */
+    @Query("{ 'status': ?0 }")
+    List<RideRequest> findByStatus(RideStatus status);
+    
+    /**
+     * Find ride requests in a status created at or after a point in time
+     * (catching up after restoring a snapshot; reads every shard)
+     * 
+     * @param status ride status
+     * @param since earliest request time
+     * @return matching ride requests
+     */
+    @Query("{ 'status': ?0, 'requestTime': { '$gte': ?1 } }")
+    List<RideRequest> findByStatusAndRequestTimeSince(RideStatus status, Instant since);
+    
+    /**
+     * Find the requests among the given IDs that are still in a status
+     * (re-checking candidates taken from the in-memory index)
+     * 
+     * @param airportCode airport of the requests (shard key prefix)
+     * @param ids ride request IDs
+     * @param status ride status
+     * @return requests still in that status
+     */
+    @Query("{ 'airportCode': ?0, '_id': { '$in': ?1 }, 'status': ?2 }")
+    List<RideRequest> findByAirportCodeAndIdInAndStatus(String airportCode, Collection<String> ids, RideStatus status);
 }
-
@@ -0,0 +1,116 @@
+package com.hintro.ridepool.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+
+/**
+ * Targeted multi-document ride request updates.
+ * 
+ * Updates by ID or group ID include the shard airport the ID carries, so on
+ * a sharded cluster they are routed instead of broadcast (see {@link ShardKeys}).
+ */
+public interface RideRequestRepositoryCustom {
+    
+    /**
+     * Find a ride request by ID, routed to its shard when the ID carries one
+     * (overrides the repository's plain _id lookup)
+     * 
+     * @param id ride request ID
+     * @return the request, if stored
+     */
+    Optional<RideRequest> findById(String id);
+    
+    /**
+     * Move every member of a group from one status to another in a single update
+     * 
+     * @param groupId group ID
+     * @param from current status of the members to update
+     * @param to new status
+     * @return number of ride requests updated
+     */
+    long updateStatusByGroupId(String groupId, RideStatus from, RideStatus to);
+    
+    /**
+     * Return the ASSIGNED members of a group that has no cab to MATCHED, once
+     * the group is no longer full
+     * 
+     * @param groupId group ID
+     * @return number of ride requests updated
+     */
+    long demoteGroupWithoutCab(String groupId);
+    
+    /**
+     * Cancel a ride request that is WAITING, MATCHED or ASSIGNED, clearing its
+     * group and cab fields and any undelivered notification
+     * 
+     * @param id ride request ID
+     * @return the request as it was before cancelling, or null if it was not active
+     */
+    RideRequest cancelIfActive(String id);
+    
+    /**
+     * Return the members of a group that has no cab to WAITING and clear their groupId
+     * 
+     * @param groupId group ID
+     * @return number of ride requests updated
+     */
+    long dissolveGroup(String groupId);
+    
+    /**
+     * Move a WAITING ride request into a group, optionally with a cab, and
+     * queue the rider's notification in the same update
+     * 
+     * @param id ride request ID
+     * @param groupId group to join
+     * @param status MATCHED, or ASSIGNED when joining a cab
+     * @param cab cab the group rides in, or null
+     * @param cabArrivalTime estimated cab arrival, or null
+     * @return updated request, or null if it was no longer WAITING
+     */
+    RideRequest claimIfWaiting(String id, String groupId, RideStatus status, Cab cab, Instant cabArrivalTime);
+    
+    /**
+     * Write a rider's status, group and cab fields, unless the rider has
+     * since been cancelled or completed, and queue the rider's notification
+     * in the same update
+     * 
+     * @param state ride request ID plus the fields to write
+     * @return true if the document was updated
+     */
+    boolean assignIfActive(RideRequest state);
+    
+    /**
+     * Oldest ride requests with an undelivered notification
+     * 
+     * @param limit most ride requests returned
+     * @return ride requests ordered by notificationQueuedAt
+     */
+    List<RideRequest> findPendingNotifications(int limit);
+    
+    /**
+     * Clear delivered notifications, except where a newer one was queued since they were read
+     * 
+     * @param delivered ride requests as returned by {@link #findPendingNotifications}
+     * @return number of notifications cleared
+     */
+    long clearNotifications(List<RideRequest> delivered);
+    
+    /**
+     * One page of a keyset-paginated listing in ID order, read from a cursor
+     * 
+     * @param filter status / airport / bounding box filter
+     * @param afterId last ID of the previous page, null for the first page
+     * @param limit most ride requests returned
+     * @param fields fields to load besides the ID, empty for all
+     * @return stream of ride requests; the caller must close it
+     */
+    Stream<RideRequest> streamPage(ListingFilter filter, String afterId, int limit, Collection<String> fields);
+}
@@ -0,0 +1,146 @@
+package com.hintro.ridepool.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.NotificationType;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+
+/**
+ * MongoTemplate implementation of targeted ride request updates
+ */
+public class RideRequestRepositoryCustomImpl implements RideRequestRepositoryCustom {
+    
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public RideRequestRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Optional<RideRequest> findById(String id) {
+        Query query = new Query(ShardKeys.byId(id, ShardKeys.AIRPORT_FIELD));
+        return Optional.ofNullable(mongoTemplate.findOne(query, RideRequest.class));
+    }
+    
+    @Override
+    public long updateStatusByGroupId(String groupId, RideStatus from, RideStatus to) {
+        Query query = new Query(ShardKeys.byGroupId(groupId).and("status").is(from));
+        return mongoTemplate.updateMulti(query, Update.update("status", to), RideRequest.class)
+                .getModifiedCount();
+    }
+    
+    @Override
+    public long demoteGroupWithoutCab(String groupId) {
+        Query query = new Query(ShardKeys.byGroupId(groupId)
+                .and("status").is(RideStatus.ASSIGNED)
+                .and("assignedCabId").is(null));
+        return mongoTemplate.updateMulti(query, Update.update("status", RideStatus.MATCHED), RideRequest.class)
+                .getModifiedCount();
+    }
+    
+    @Override
+    public RideRequest cancelIfActive(String id) {
+        Query query = new Query(ShardKeys.byId(id, ShardKeys.AIRPORT_FIELD)
+                .and("status").in(RideStatus.WAITING, RideStatus.MATCHED, RideStatus.ASSIGNED));
+        Update update = new Update()
+                .set("status", RideStatus.CANCELLED)
+                .set("cancelledAt", Instant.now())
+                .unset("groupId")
+                .unset("assignedCabId")
+                .unset("assignedDriverName")
+                .unset("cabArrivalTime")
+                .unset("pendingNotification")
+                .unset("notificationQueuedAt");
+        return mongoTemplate.findAndModify(query, update, RideRequest.class);
+    }
+    
+    @Override
+    public long dissolveGroup(String groupId) {
+        Query query = new Query(ShardKeys.byGroupId(groupId)
+                .and("status").in(RideStatus.MATCHED, RideStatus.ASSIGNED)
+                .and("assignedCabId").is(null));
+        Update update = new Update()
+                .set("status", RideStatus.WAITING)
+                .unset("groupId");
+        return mongoTemplate.updateMulti(query, update, RideRequest.class).getModifiedCount();
+    }
+    
+    @Override
+    public RideRequest claimIfWaiting(String id, String groupId, RideStatus status, Cab cab, Instant cabArrivalTime) {
+        Query query = new Query(ShardKeys.byId(id, ShardKeys.AIRPORT_FIELD).and("status").is(RideStatus.WAITING));
+        Update update = new Update()
+                .set("status", status)
+                .set("groupId", groupId)
+                .set("pendingNotification", NotificationType.forRider(cab != null ? cab.getId() : null))
+                .set("notificationQueuedAt", Instant.now());
+        if (cab != null) {
+            update.set("assignedCabId", cab.getId())
+                    .set("assignedDriverName", cab.getDriverName())
+                    .set("cabArrivalTime", cabArrivalTime);
+        }
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, RideRequest.class);
+    }
+    
+    @Override
+    public boolean assignIfActive(RideRequest state) {
+        Query query = new Query(ShardKeys.byId(state.getId(), ShardKeys.AIRPORT_FIELD)
+                .and("status").nin(RideStatus.CANCELLED, RideStatus.COMPLETED));
+        Update update = new Update()
+                .set("status", state.getStatus())
+                .set("groupId", state.getGroupId())
+                .set("pendingNotification", NotificationType.forRider(state.getAssignedCabId()))
+                .set("notificationQueuedAt", Instant.now());
+        if (state.getAssignedCabId() != null) {
+            update.set("assignedCabId", state.getAssignedCabId())
+                    .set("assignedDriverName", state.getAssignedDriverName())
+                    .set("cabArrivalTime", state.getCabArrivalTime());
+        }
+        return mongoTemplate.updateFirst(query, update, RideRequest.class).getModifiedCount() > 0;
+    }
+    
+    @Override
+    public List<RideRequest> findPendingNotifications(int limit) {
+        Query query = new Query(Criteria.where("notificationQueuedAt").exists(true))
+                .with(Sort.by("notificationQueuedAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, RideRequest.class);
+    }
+    
+    @Override
+    public long clearNotifications(List<RideRequest> delivered) {
+        if (delivered.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RideRequest.class);
+        for (RideRequest rider : delivered) {
+            Query query = new Query(ShardKeys.byId(rider.getId(), ShardKeys.AIRPORT_FIELD)
+                    .and("pendingNotification").is(rider.getPendingNotification())
+                    .and("notificationQueuedAt").is(rider.getNotificationQueuedAt()));
+            bulk.updateOne(query, new Update().unset("pendingNotification").unset("notificationQueuedAt"));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+    
+    @Override
+    public Stream<RideRequest> streamPage(ListingFilter filter, String afterId, int limit, Collection<String> fields) {
+        Query query = ListingQueries.page(filter, afterId, limit, fields, "pickupLat", "pickupLng");
+        return mongoTemplate.stream(query, RideRequest.class);
+    }
+}
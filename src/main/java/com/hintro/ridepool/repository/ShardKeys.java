@@ -0,0 +1,120 @@
+package com.hintro.ridepool.repository;
+
+import java.util.UUID;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.ShardingConfig;
+import com.hintro.ridepool.index.AirportRegistry;
+
+/**
+ * Shard keys and routable document IDs for a zone-sharded deployment.
+ * 
+ * ride_requests and ride_groups are sharded on { airportCode: 1, _id: "hashed" },
+ * cabs on { homeAirportCode: 1, _id: "hashed" }. The airport prefix lets each
+ * airport be pinned to its own zone of shards; the hashed ID spreads one
+ * airport's writes over every chunk of that zone, so write throughput grows
+ * with the shards added to it. A cab's current airportCode follows the cab
+ * around, so cabs are keyed by the airport they were registered at instead,
+ * which never changes and never moves the document between shards.
+ * 
+ * With sharding enabled, new documents get IDs that start with their shard
+ * airport ("DEL.65f0c1..."). A query by such an ID carries the full shard key
+ * and is routed to one shard; a query by group ID is routed to the group's
+ * airport zone. IDs without a prefix (sharding disabled, or documents created
+ * before it was enabled) are matched on _id alone and broadcast.
+ */
+@Component
+public class ShardKeys {
+    
+    /**
+     * Shard key prefix of ride requests and ride groups
+     */
+    public static final String AIRPORT_FIELD = "airportCode";
+    
+    /**
+     * Shard key prefix of cabs
+     */
+    public static final String CAB_AIRPORT_FIELD = "homeAirportCode";
+    
+    /**
+     * Shard airport of cabs registered outside every service area
+     */
+    public static final String NO_AIRPORT = "_";
+    
+    private static final char SEPARATOR = '.';
+    
+    private final ShardingConfig shardingConfig;
+    
+    public ShardKeys(ShardingConfig shardingConfig) {
+        this.shardingConfig = shardingConfig;
+    }
+    
+    /**
+     * ID for a new ride request or cab
+     * 
+     * @param shardAirport airport the document is sharded under
+     * @return routable ID, or null to let MongoDB assign one when sharding is disabled
+     */
+    public String newId(String shardAirport) {
+        return routable(shardAirport) ? shardAirport + SEPARATOR + new ObjectId().toHexString() : null;
+    }
+    
+    /**
+     * ID for a new ride group
+     * 
+     * @param airportCode airport of the group's riders
+     */
+    public String newGroupId(String airportCode) {
+        String uuid = UUID.randomUUID().toString();
+        return routable(airportCode) ? airportCode + SEPARATOR + uuid : uuid;
+    }
+    
+    /**
+     * Shard airport of a cab registered in a fleet partition
+     * 
+     * @param partition fleet partition from {@link AirportRegistry#partitionAt}
+     */
+    public static String cabShardAirport(String partition) {
+        return AirportRegistry.UNZONED.equals(partition) ? NO_AIRPORT : partition;
+    }
+    
+    /**
+     * Shard airport carried by an ID
+     * 
+     * @return airport prefix, or null if the ID is not routable
+     */
+    public static String airportOf(String id) {
+        int separator = id != null ? id.indexOf(SEPARATOR) : -1;
+        return separator > 0 ? id.substring(0, separator) : null;
+    }
+    
+    /**
+     * Criteria matching one document by ID, with its shard airport when the ID carries one
+     * 
+     * @param id document ID
+     * @param airportField {@link #AIRPORT_FIELD} or {@link #CAB_AIRPORT_FIELD}
+     */
+    public static Criteria byId(String id, String airportField) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        String airport = airportOf(id);
+        return airport != null ? criteria.and(airportField).is(airport) : criteria;
+    }
+    
+    /**
+     * Criteria matching the ride requests of a group, within the group's airport
+     * when the group ID carries one
+     */
+    public static Criteria byGroupId(String groupId) {
+        Criteria criteria = Criteria.where("groupId").is(groupId);
+        String airport = airportOf(groupId);
+        return airport != null ? criteria.and(AIRPORT_FIELD).is(airport) : criteria;
+    }
+    
+    private boolean routable(String airport) {
+        return shardingConfig.isEnabled() && airport != null && !airport.isEmpty()
+                && airport.indexOf(SEPARATOR) < 0;
+    }
+}
@@ -0,0 +1,680 @@
+package com.hintro.ridepool.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Contraction hierarchy over a directed road graph.
+ * 
+ * Preprocessing:
+ * 1. Order nodes by importance (edge difference, contracted neighbours and level, lazily updated)
+ * 2. Contract nodes in that order, adding a shortcut u->x around node v whenever
+ *    u->v->x is the only shortest path (checked with a bounded witness search)
+ * 3. Keep only "upward" edges (towards higher-ranked nodes) for queries
+ * 
+ * Queries run a bidirectional Dijkstra in which both directions only climb the
+ * hierarchy, so each search settles a few hundred nodes instead of most of the graph.
+ * One-to-many queries reuse a single full forward search for every target.
+ * 
+ * Preprocessing runs offline ({@link RoadGraphPreprocessor}), which appends
+ * the search graph to the road graph file (big-endian, after the edges):
+ *   int    magic         0x52504348 ("RPCH")
+ *   int    forwardEdges
+ *   int    backwardEdges
+ *   (nodeCount + 1) x int forwardStart,  forwardEdges x int target,  forwardEdges x float weight
+ *   (nodeCount + 1) x int backwardStart, backwardEdges x int target, backwardEdges x float weight
+ * Loading maps that section and queries read it in place, so neither the
+ * edges nor the shortcuts live on the heap.
+ * 
+ * Instances are immutable after build and safe for concurrent queries. Search
+ * buffers are pooled, so memory grows with concurrent queries, not thread count.
+ */
+public class ContractionHierarchy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ContractionHierarchy.class);
+    
+    public static final double UNREACHABLE = Double.POSITIVE_INFINITY;
+    
+    public static final int MAGIC = 0x52504348;
+    
+    private static final int HEADER_BYTES = 12;
+    
+    private final int nodeCount;
+    
+    // Upward edges u->v (rank v > rank u), CSR layout
+    private final IntBuffer forwardStart;
+    private final IntBuffer forwardTarget;
+    private final FloatBuffer forwardWeight;
+    
+    // Reversed upward edges: for u, edges v->u with rank v > rank u
+    private final IntBuffer backwardStart;
+    private final IntBuffer backwardTarget;
+    private final FloatBuffer backwardWeight;
+    
+    private final ConcurrentLinkedQueue<QueryContext> contexts = new ConcurrentLinkedQueue<>();
+    
+    private ContractionHierarchy(int nodeCount,
+                                 IntBuffer forwardStart, IntBuffer forwardTarget, FloatBuffer forwardWeight,
+                                 IntBuffer backwardStart, IntBuffer backwardTarget, FloatBuffer backwardWeight) {
+        this.nodeCount = nodeCount;
+        this.forwardStart = forwardStart;
+        this.forwardTarget = forwardTarget;
+        this.forwardWeight = forwardWeight;
+        this.backwardStart = backwardStart;
+        this.backwardTarget = backwardTarget;
+        this.backwardWeight = backwardWeight;
+    }
+    
+    /**
+     * Preprocess a road graph into a contraction hierarchy (offline; see
+     * {@link RoadGraphPreprocessor})
+     * 
+     * @param graph loaded road graph
+     * @param witnessSearchLimit maximum nodes settled per witness search
+     * @return query-ready hierarchy
+     */
+    public static ContractionHierarchy build(RoadGraph graph, int witnessSearchLimit) {
+        long start = System.currentTimeMillis();
+        Builder builder = new Builder(graph, witnessSearchLimit);
+        ContractionHierarchy hierarchy = builder.contractAll();
+        logger.info("Contraction hierarchy built: {} nodes, {} edges, {} shortcuts in {} ms",
+                graph.getNodeCount(), graph.getEdgeCount(), builder.shortcutCount,
+                System.currentTimeMillis() - start);
+        return hierarchy;
+    }
+    
+    /**
+     * Map a hierarchy section of a road graph file
+     * 
+     * @param section the section, starting at its magic number
+     * @param nodeCount node count of the graph it belongs to
+     * @param path file the section was mapped from, for error messages
+     * @return query-ready hierarchy reading the mapping in place
+     * @throws IOException if the section is not a hierarchy for this graph
+     */
+    static ContractionHierarchy map(ByteBuffer section, int nodeCount, Path path) throws IOException {
+        if (section.remaining() < HEADER_BYTES || section.getInt(0) != MAGIC) {
+            throw new IOException("Unknown section after road graph edges: " + path);
+        }
+        int forwardEdges = section.getInt(4);
+        int backwardEdges = section.getInt(8);
+        if (forwardEdges < 0 || backwardEdges < 0
+                || section.remaining() != sectionBytes(nodeCount, forwardEdges, backwardEdges)) {
+            throw new IOException("Truncated contraction hierarchy in " + path);
+        }
+        
+        int offset = HEADER_BYTES;
+        IntBuffer forwardStart = section.slice(offset, (nodeCount + 1) * 4).asIntBuffer();
+        offset += (nodeCount + 1) * 4;
+        IntBuffer forwardTarget = section.slice(offset, forwardEdges * 4).asIntBuffer();
+        offset += forwardEdges * 4;
+        FloatBuffer forwardWeight = section.slice(offset, forwardEdges * 4).asFloatBuffer();
+        offset += forwardEdges * 4;
+        IntBuffer backwardStart = section.slice(offset, (nodeCount + 1) * 4).asIntBuffer();
+        offset += (nodeCount + 1) * 4;
+        IntBuffer backwardTarget = section.slice(offset, backwardEdges * 4).asIntBuffer();
+        offset += backwardEdges * 4;
+        FloatBuffer backwardWeight = section.slice(offset, backwardEdges * 4).asFloatBuffer();
+        
+        if (forwardStart.get(nodeCount) != forwardEdges || backwardStart.get(nodeCount) != backwardEdges) {
+            throw new IOException("Corrupt contraction hierarchy in " + path);
+        }
+        return new ContractionHierarchy(nodeCount, forwardStart, forwardTarget, forwardWeight,
+                backwardStart, backwardTarget, backwardWeight);
+    }
+    
+    /**
+     * @return size of this hierarchy's file section in bytes
+     */
+    int byteSize() {
+        return sectionBytes(nodeCount, forwardTarget.limit(), backwardTarget.limit());
+    }
+    
+    /**
+     * Write this hierarchy as a file section in the layout read by {@link #map}
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(MAGIC).putInt(forwardTarget.limit()).putInt(backwardTarget.limit());
+        writeEdges(out, forwardStart, forwardTarget, forwardWeight);
+        writeEdges(out, backwardStart, backwardTarget, backwardWeight);
+    }
+    
+    private static void writeEdges(ByteBuffer out, IntBuffer start, IntBuffer target, FloatBuffer weight) {
+        for (int i = 0; i < start.limit(); i++) {
+            out.putInt(start.get(i));
+        }
+        for (int i = 0; i < target.limit(); i++) {
+            out.putInt(target.get(i));
+        }
+        for (int i = 0; i < weight.limit(); i++) {
+            out.putFloat(weight.get(i));
+        }
+    }
+    
+    private static int sectionBytes(int nodeCount, int forwardEdges, int backwardEdges) {
+        return Math.toIntExact(HEADER_BYTES + 2L * (nodeCount + 1) * 4 + (long) (forwardEdges + backwardEdges) * 8);
+    }
+    
+    /**
+     * Shortest path distance between two nodes
+     * 
+     * @return distance in meters, or UNREACHABLE
+     */
+    public double distance(int source, int target) {
+        if (source == target) {
+            return 0.0;
+        }
+        QueryContext context = acquire();
+        double[] forward = context.forward;
+        double[] backward = context.backward;
+        
+        forward[source] = 0.0;
+        context.forwardTouched.add(source);
+        context.forwardHeap.insertOrDecrease(source, 0.0);
+        backward[target] = 0.0;
+        context.backwardTouched.add(target);
+        context.backwardHeap.insertOrDecrease(target, 0.0);
+        
+        double best = UNREACHABLE;
+        try {
+            while (true) {
+                double forwardKey = context.forwardHeap.peekKey();
+                double backwardKey = context.backwardHeap.peekKey();
+                if (Math.min(forwardKey, backwardKey) >= best) {
+                    break;
+                }
+                if (forwardKey <= backwardKey) {
+                    best = settle(context.forwardHeap, forward, context.forwardTouched, backward,
+                            forwardStart, forwardTarget, forwardWeight, best);
+                } else {
+                    best = settle(context.backwardHeap, backward, context.backwardTouched, forward,
+                            backwardStart, backwardTarget, backwardWeight, best);
+                }
+            }
+            return best;
+        } finally {
+            release(context);
+        }
+    }
+    
+    /**
+     * One-to-many shortest path distances
+     * 
+     * @return distances in meters (UNREACHABLE where no path exists), aligned with targets
+     */
+    public double[] distancesFrom(int source, int[] targets) {
+        QueryContext context = acquire();
+        try {
+            exhaust(context.forwardHeap, context.forward, context.forwardTouched,
+                    source, forwardStart, forwardTarget, forwardWeight);
+            double[] distances = new double[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                distances[i] = targets[i] < 0 ? UNREACHABLE : prunedSearch(context.backwardHeap,
+                        context.backward, context.backwardTouched, context.forward, targets[i],
+                        backwardStart, backwardTarget, backwardWeight);
+            }
+            return distances;
+        } finally {
+            release(context);
+        }
+    }
+    
+    /**
+     * Many-to-one shortest path distances
+     * 
+     * @return distances in meters (UNREACHABLE where no path exists), aligned with sources
+     */
+    public double[] distancesTo(int[] sources, int target) {
+        QueryContext context = acquire();
+        try {
+            exhaust(context.backwardHeap, context.backward, context.backwardTouched,
+                    target, backwardStart, backwardTarget, backwardWeight);
+            double[] distances = new double[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                distances[i] = sources[i] < 0 ? UNREACHABLE : prunedSearch(context.forwardHeap,
+                        context.forward, context.forwardTouched, context.backward, sources[i],
+                        forwardStart, forwardTarget, forwardWeight);
+            }
+            return distances;
+        } finally {
+            release(context);
+        }
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    /**
+     * @return upward edges (road edges and shortcuts) over both search directions
+     */
+    public int getSearchEdgeCount() {
+        return forwardTarget.limit() + backwardTarget.limit();
+    }
+    
+    private QueryContext acquire() {
+        QueryContext context = contexts.poll();
+        return context != null ? context : new QueryContext(nodeCount);
+    }
+    
+    private void release(QueryContext context) {
+        context.reset();
+        contexts.offer(context);
+    }
+    
+    /**
+     * Settle one node of a bidirectional search and return the improved meeting distance
+     */
+    private static double settle(MinHeap heap, double[] dist, IntList touched, double[] other,
+                                 IntBuffer start, IntBuffer target, FloatBuffer weight, double best) {
+        int node = heap.poll();
+        double base = dist[node];
+        if (other[node] != UNREACHABLE) {
+            best = Math.min(best, base + other[node]);
+        }
+        for (int edge = start.get(node), end = start.get(node + 1); edge < end; edge++) {
+            int next = target.get(edge);
+            double candidate = base + weight.get(edge);
+            if (candidate < dist[next]) {
+                if (dist[next] == UNREACHABLE) {
+                    touched.add(next);
+                }
+                dist[next] = candidate;
+                heap.insertOrDecrease(next, candidate);
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Run an unbounded upward search, leaving the full search space in dist
+     */
+    private static void exhaust(MinHeap heap, double[] dist, IntList touched, int source,
+                                IntBuffer start, IntBuffer target, FloatBuffer weight) {
+        dist[source] = 0.0;
+        touched.add(source);
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            settle(heap, dist, touched, dist, start, target, weight, UNREACHABLE);
+        }
+    }
+    
+    /**
+     * Upward search from one endpoint that meets a precomputed opposite search space.
+     * Its buffers are reset before returning so the next endpoint starts clean.
+     */
+    private static double prunedSearch(MinHeap heap, double[] dist, IntList touched, double[] other,
+                                       int source, IntBuffer start, IntBuffer target, FloatBuffer weight) {
+        int mark = touched.size();
+        dist[source] = 0.0;
+        touched.add(source);
+        heap.insertOrDecrease(source, 0.0);
+        
+        double best = UNREACHABLE;
+        while (!heap.isEmpty() && heap.peekKey() < best) {
+            best = settle(heap, dist, touched, other, start, target, weight, best);
+        }
+        
+        heap.clear();
+        touched.resetFrom(mark, dist);
+        return best;
+    }
+    
+    /**
+     * Per-thread search buffers
+     */
+    private static final class QueryContext {
+        final double[] forward;
+        final double[] backward;
+        final IntList forwardTouched = new IntList();
+        final IntList backwardTouched = new IntList();
+        final MinHeap forwardHeap;
+        final MinHeap backwardHeap;
+        
+        QueryContext(int nodeCount) {
+            forward = new double[nodeCount];
+            backward = new double[nodeCount];
+            Arrays.fill(forward, UNREACHABLE);
+            Arrays.fill(backward, UNREACHABLE);
+            forwardHeap = new MinHeap(nodeCount);
+            backwardHeap = new MinHeap(nodeCount);
+        }
+        
+        void reset() {
+            forwardHeap.clear();
+            backwardHeap.clear();
+            forwardTouched.resetFrom(0, forward);
+            backwardTouched.resetFrom(0, backward);
+        }
+    }
+    
+    /**
+     * Growable int list used to remember touched nodes for cheap resets
+     */
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void resetFrom(int mark, double[] dist) {
+            for (int i = mark; i < size; i++) {
+                dist[values[i]] = UNREACHABLE;
+            }
+            size = mark;
+        }
+    }
+    
+    /**
+     * Mutable adjacency list used only while contracting
+     */
+    private static final class Adjacency {
+        int[] nodes = new int[4];
+        float[] weights = new float[4];
+        int size;
+        
+        void addOrImprove(int node, float weight) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    if (weight < weights[i]) {
+                        weights[i] = weight;
+                    }
+                    return;
+                }
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            size++;
+        }
+        
+        void remove(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    size--;
+                    nodes[i] = nodes[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Node contraction state
+     */
+    private static final class Builder {
+        static final int SIMULATION_LIMIT_DIVISOR = 10;
+        
+        final int nodeCount;
+        final int witnessSearchLimit;
+        final Adjacency[] out;
+        final Adjacency[] in;
+        final boolean[] contracted;
+        final int[] deletedNeighbours;
+        final int[] level;
+        final int[] rank;
+        
+        // Witness search buffers
+        final double[] witness;
+        final boolean[] witnessTarget;
+        final IntList witnessTouched = new IntList();
+        final MinHeap witnessHeap;
+        
+        long shortcutCount;
+        
+        Builder(RoadGraph graph, int witnessSearchLimit) {
+            this.nodeCount = graph.getNodeCount();
+            this.witnessSearchLimit = Math.max(1, witnessSearchLimit);
+            this.out = new Adjacency[nodeCount];
+            this.in = new Adjacency[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                out[node] = new Adjacency();
+                in[node] = new Adjacency();
+            }
+            for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+                int from = graph.edgeFrom(edge);
+                int to = graph.edgeTo(edge);
+                if (from == to) {
+                    continue;
+                }
+                out[from].addOrImprove(to, graph.edgeMeters(edge));
+                in[to].addOrImprove(from, graph.edgeMeters(edge));
+            }
+            this.contracted = new boolean[nodeCount];
+            this.deletedNeighbours = new int[nodeCount];
+            this.level = new int[nodeCount];
+            this.rank = new int[nodeCount];
+            this.witness = new double[nodeCount];
+            Arrays.fill(witness, UNREACHABLE);
+            this.witnessTarget = new boolean[nodeCount];
+            this.witnessHeap = new MinHeap(nodeCount);
+        }
+        
+        ContractionHierarchy contractAll() {
+            MinHeap order = new MinHeap(nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                order.insertOrDecrease(node, priority(node));
+            }
+            
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int node = order.poll();
+                // Lazy update: re-queue if the node became less attractive than the next one
+                double current = priority(node);
+                if (!order.isEmpty() && current > order.peekKey()) {
+                    order.insertOrDecrease(node, current);
+                    continue;
+                }
+                
+                contract(node, true);
+                contracted[node] = true;
+                rank[node] = nextRank++;
+                detach(node);
+                
+                updateNeighbours(node, out[node], order);
+                updateNeighbours(node, in[node], order);
+            }
+            return buildSearchGraph();
+        }
+        
+        /**
+         * Drop a contracted node from its neighbours' lists. The edges stay in the
+         * contracted node's own lists, which is all the upward search graph needs,
+         * and later witness searches no longer wade through contracted nodes.
+         */
+        private void detach(int node) {
+            for (int i = 0; i < in[node].size; i++) {
+                out[in[node].nodes[i]].remove(node);
+            }
+            for (int i = 0; i < out[node].size; i++) {
+                in[out[node].nodes[i]].remove(node);
+            }
+        }
+        
+        private void updateNeighbours(int contractedNode, Adjacency adjacency, MinHeap order) {
+            for (int i = 0; i < adjacency.size; i++) {
+                int neighbour = adjacency.nodes[i];
+                if (!contracted[neighbour]) {
+                    deletedNeighbours[neighbour]++;
+                    level[neighbour] = Math.max(level[neighbour], level[contractedNode] + 1);
+                    order.insertOrUpdate(neighbour, priority(neighbour));
+                }
+            }
+        }
+        
+        /**
+         * Edge difference plus contracted-neighbour count and hierarchy level,
+         * which spread contraction evenly and keep query search spaces shallow
+         */
+        private double priority(int node) {
+            int removed = 0;
+            for (int i = 0; i < in[node].size; i++) {
+                if (!contracted[in[node].nodes[i]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < out[node].size; i++) {
+                if (!contracted[out[node].nodes[i]]) {
+                    removed++;
+                }
+            }
+            int shortcuts = contract(node, false);
+            return 2.0 * (shortcuts - removed) + deletedNeighbours[node] + level[node];
+        }
+        
+        /**
+         * Count (and optionally add) the shortcuts needed to remove a node
+         */
+        private int contract(int node, boolean apply) {
+            int shortcuts = 0;
+            Adjacency incoming = in[node];
+            Adjacency outgoing = out[node];
+            
+            for (int i = 0; i < incoming.size; i++) {
+                int from = incoming.nodes[i];
+                if (contracted[from]) {
+                    continue;
+                }
+                float inWeight = incoming.weights[i];
+                
+                double limit = -1;
+                int targets = 0;
+                for (int j = 0; j < outgoing.size; j++) {
+                    int to = outgoing.nodes[j];
+                    if (!contracted[to] && to != from) {
+                        limit = Math.max(limit, inWeight + outgoing.weights[j]);
+                        witnessTarget[to] = true;
+                        targets++;
+                    }
+                }
+                if (limit < 0) {
+                    continue;
+                }
+                
+                // Priority simulation only needs an estimate, so it uses a much cheaper search
+                witnessSearch(from, node, limit, targets,
+                        apply ? witnessSearchLimit : Math.max(1, witnessSearchLimit / SIMULATION_LIMIT_DIVISOR));
+                for (int j = 0; j < outgoing.size; j++) {
+                    int to = outgoing.nodes[j];
+                    if (contracted[to] || to == from) {
+                        continue;
+                    }
+                    witnessTarget[to] = false;
+                    float via = inWeight + outgoing.weights[j];
+                    if (witness[to] > via) {
+                        shortcuts++;
+                        if (apply) {
+                            out[from].addOrImprove(to, via);
+                            in[to].addOrImprove(from, via);
+                            shortcutCount++;
+                        }
+                    }
+                }
+                witnessHeap.clear();
+                witnessTouched.resetFrom(0, witness);
+            }
+            return shortcuts;
+        }
+        
+        /**
+         * Bounded Dijkstra from a node that ignores the node being contracted.
+         * Stops early once every target neighbour has been settled.
+         */
+        private void witnessSearch(int source, int ignored, double limit, int targets, int settleLimit) {
+            witness[source] = 0.0;
+            witnessTouched.add(source);
+            witnessHeap.insertOrDecrease(source, 0.0);
+            int settled = 0;
+            
+            while (!witnessHeap.isEmpty() && witnessHeap.peekKey() <= limit
+                    && settled++ < settleLimit) {
+                int current = witnessHeap.poll();
+                if (witnessTarget[current] && --targets == 0) {
+                    break;
+                }
+                double base = witness[current];
+                Adjacency adjacency = out[current];
+                for (int i = 0; i < adjacency.size; i++) {
+                    int next = adjacency.nodes[i];
+                    if (next == ignored || contracted[next]) {
+                        continue;
+                    }
+                    double candidate = base + adjacency.weights[i];
+                    if (candidate < witness[next]) {
+                        if (witness[next] == UNREACHABLE) {
+                            witnessTouched.add(next);
+                        }
+                        witness[next] = candidate;
+                        witnessHeap.insertOrDecrease(next, candidate);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Keep only upward edges and pack them into CSR arrays
+         */
+        private ContractionHierarchy buildSearchGraph() {
+            int[] forwardStart = new int[nodeCount + 1];
+            int[] backwardStart = new int[nodeCount + 1];
+            for (int node = 0; node < nodeCount; node++) {
+                forwardStart[node + 1] = forwardStart[node] + countUpward(node, out[node]);
+                backwardStart[node + 1] = backwardStart[node] + countUpward(node, in[node]);
+            }
+            
+            int[] forwardTarget = new int[forwardStart[nodeCount]];
+            float[] forwardWeight = new float[forwardStart[nodeCount]];
+            int[] backwardTarget = new int[backwardStart[nodeCount]];
+            float[] backwardWeight = new float[backwardStart[nodeCount]];
+            for (int node = 0; node < nodeCount; node++) {
+                copyUpward(node, out[node], forwardStart[node], forwardTarget, forwardWeight);
+                copyUpward(node, in[node], backwardStart[node], backwardTarget, backwardWeight);
+            }
+            
+            return new ContractionHierarchy(nodeCount,
+                    IntBuffer.wrap(forwardStart), IntBuffer.wrap(forwardTarget), FloatBuffer.wrap(forwardWeight),
+                    IntBuffer.wrap(backwardStart), IntBuffer.wrap(backwardTarget), FloatBuffer.wrap(backwardWeight));
+        }
+        
+        private int countUpward(int node, Adjacency adjacency) {
+            int count = 0;
+            for (int i = 0; i < adjacency.size; i++) {
+                if (rank[adjacency.nodes[i]] > rank[node]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        private void copyUpward(int node, Adjacency adjacency, int offset, int[] targets, float[] weights) {
+            for (int i = 0; i < adjacency.size; i++) {
+                if (rank[adjacency.nodes[i]] > rank[node]) {
+                    targets[offset] = adjacency.nodes[i];
+                    weights[offset] = adjacency.weights[i];
+                    offset++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.hintro.ridepool.routing;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of graph nodes keyed by tentative distance.
+ * Supports decrease-key, and clear() only touches entries still queued,
+ * so one instance can be reused across searches on large graphs.
+ */
+class MinHeap {
+    
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+    
+    MinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    double peekKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[heap[0]];
+    }
+    
+    /**
+     * Insert a node or lower its key if it is already queued with a larger one
+     */
+    void insertOrDecrease(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            heap[size] = node;
+            positions[node] = size;
+            keys[node] = key;
+            siftUp(size++);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(position);
+        }
+    }
+    
+    /**
+     * Insert a node or move it to a new key in either direction
+     */
+    void insertOrUpdate(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            insertOrDecrease(node, key);
+            return;
+        }
+        keys[node] = key;
+        siftUp(position);
+        siftDown(positions[node]);
+    }
+    
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+    
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+    
+    private void siftUp(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+    
+    private void siftDown(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,270 @@
+package com.hintro.ridepool.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only road graph loaded from a local binary file.
+ * 
+ * File layout (big-endian):
+ *   int    magic      0x52504731 ("RPG1")
+ *   int    nodeCount
+ *   int    edgeCount
+ *   nodeCount x (float lat, float lng)
+ *   edgeCount x (int from, int to, float lengthMeters)
+ *   optional contraction hierarchy section, see {@link ContractionHierarchy}
+ * 
+ * Edges are directed; two-way roads are stored once per direction.
+ * The file is memory-mapped, and node coordinates, edges and the contraction
+ * hierarchy are read straight from the mapping without copying. The
+ * hierarchy section is written offline by {@link RoadGraphPreprocessor}.
+ * A uniform grid over the nodes answers nearest-node (snapping) queries.
+ */
+public class RoadGraph {
+    
+    public static final int MAGIC = 0x52504731;
+    
+    private static final int HEADER_BYTES = 12;
+    
+    // Snapping grid cell size in degrees (~1.1 KM of latitude)
+    private static final double CELL_SIZE_DEGREES = 0.01;
+    
+    private final int nodeCount;
+    private final int edgeCount;
+    private final FloatBuffer coordinates;
+    
+    // Header, nodes and edges as mapped; edges are (int from, int to, float meters)
+    private final ByteBuffer graphData;
+    private final ByteBuffer edges;
+    
+    // Precomputed hierarchy from the file, null if it has none
+    private final ContractionHierarchy hierarchy;
+    
+    // Grid index: sorted cell keys, each owning a slice of nodesByCell
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] nodesByCell;
+    
+    private RoadGraph(int nodeCount, int edgeCount, ByteBuffer graphData, ContractionHierarchy hierarchy) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.graphData = graphData;
+        this.coordinates = graphData.slice(HEADER_BYTES, nodeCount * 8).asFloatBuffer();
+        this.edges = graphData.slice(HEADER_BYTES + nodeCount * 8, edgeCount * 12);
+        this.hierarchy = hierarchy;
+        
+        // Build the snapping grid by sorting nodes on their cell key
+        long[] keyed = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            keyed[node] = cellKey(lat(node), lng(node));
+        }
+        Integer[] order = new Integer[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            order[node] = node;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        
+        this.nodesByCell = new int[nodeCount];
+        long[] keys = new long[nodeCount];
+        int[] starts = new int[nodeCount + 1];
+        int cells = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int node = order[i];
+            nodesByCell[i] = node;
+            if (cells == 0 || keys[cells - 1] != keyed[node]) {
+                keys[cells] = keyed[node];
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = nodeCount;
+        this.cellKeys = Arrays.copyOf(keys, cells);
+        this.cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+    
+    /**
+     * Memory-map and load a road graph file
+     * 
+     * @param path graph file path
+     * @return loaded graph
+     * @throws IOException if the file cannot be read or is not a road graph
+     */
+    public static RoadGraph load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a road graph file: " + path);
+            }
+            int nodeCount = buffer.getInt(4);
+            int edgeCount = buffer.getInt(8);
+            long expected = HEADER_BYTES + (long) nodeCount * 8 + (long) edgeCount * 12;
+            if (nodeCount < 0 || edgeCount < 0 || channel.size() < expected) {
+                throw new IOException("Truncated road graph file: " + path);
+            }
+            
+            int offset = HEADER_BYTES + nodeCount * 8;
+            for (int edge = 0; edge < edgeCount; edge++) {
+                int from = buffer.getInt(offset);
+                int to = buffer.getInt(offset + 4);
+                offset += 12;
+                if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+                    throw new IOException("Edge " + edge + " references unknown node in " + path);
+                }
+            }
+            
+            ContractionHierarchy hierarchy = buffer.limit() > offset
+                    ? ContractionHierarchy.map(buffer.slice(offset, buffer.limit() - offset), nodeCount, path)
+                    : null;
+            return new RoadGraph(nodeCount, edgeCount, buffer.slice(0, offset), hierarchy);
+        }
+    }
+    
+    /**
+     * Write this graph followed by a contraction hierarchy section, replacing
+     * any hierarchy the graph was loaded with
+     * 
+     * @param path output file (must not be the file this graph is mapped from)
+     * @param hierarchy hierarchy built from this graph
+     */
+    public void write(Path path, ContractionHierarchy hierarchy) throws IOException {
+        if (hierarchy.getNodeCount() != nodeCount) {
+            throw new IllegalArgumentException("Hierarchy has " + hierarchy.getNodeCount()
+                    + " nodes, graph has " + nodeCount);
+        }
+        ByteBuffer section = ByteBuffer.allocate(hierarchy.byteSize());
+        hierarchy.writeTo(section);
+        section.flip();
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = graphData.duplicate().clear();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            while (section.hasRemaining()) {
+                channel.write(section);
+            }
+        }
+    }
+    
+    /**
+     * Write a road graph file in the format read by {@link #load(Path)}.
+     * Used by offline converters and tests.
+     */
+    public static void write(Path path, float[] lats, float[] lngs,
+                             int[] from, int[] to, float[] meters) throws IOException {
+        int nodeCount = lats.length;
+        int edgeCount = from.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + nodeCount * 8 + edgeCount * 12);
+        buffer.putInt(MAGIC).putInt(nodeCount).putInt(edgeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            buffer.putFloat(lats[node]).putFloat(lngs[node]);
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            buffer.putInt(from[edge]).putInt(to[edge]).putFloat(meters[edge]);
+        }
+        buffer.flip();
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    /**
+     * Find the road node nearest to a coordinate
+     * 
+     * @param lat latitude
+     * @param lng longitude
+     * @param maxDistanceKm search limit
+     * @return node index, or -1 if no node lies within the limit
+     */
+    public int nearestNode(double lat, double lng, double maxDistanceKm) {
+        int ring = (int) Math.ceil(maxDistanceKm / (CELL_SIZE_DEGREES * 111.0 * Math.max(0.1, Math.cos(Math.toRadians(lat)))));
+        long centerLat = (long) Math.floor(lat / CELL_SIZE_DEGREES);
+        long centerLng = (long) Math.floor(lng / CELL_SIZE_DEGREES);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        
+        int best = -1;
+        double bestSquared = Double.MAX_VALUE;
+        for (long dLat = -ring; dLat <= ring; dLat++) {
+            for (long dLng = -ring; dLng <= ring; dLng++) {
+                int cell = Arrays.binarySearch(cellKeys, packCell(centerLat + dLat, centerLng + dLng));
+                if (cell < 0) {
+                    continue;
+                }
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int node = nodesByCell[i];
+                    // Equirectangular approximation is plenty for picking the closest node
+                    double y = lat(node) - lat;
+                    double x = (lng(node) - lng) * cosLat;
+                    double squared = x * x + y * y;
+                    if (squared < bestSquared) {
+                        bestSquared = squared;
+                        best = node;
+                    }
+                }
+            }
+        }
+        
+        if (best < 0 || Math.sqrt(bestSquared) * 111.195 > maxDistanceKm) {
+            return -1;
+        }
+        return best;
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+    
+    /**
+     * @return the contraction hierarchy mapped from the graph file, or null if
+     *         the file was not preprocessed
+     */
+    public ContractionHierarchy getHierarchy() {
+        return hierarchy;
+    }
+    
+    public double lat(int node) {
+        return coordinates.get(node * 2);
+    }
+    
+    public double lng(int node) {
+        return coordinates.get(node * 2 + 1);
+    }
+    
+    int edgeFrom(int edge) {
+        return edges.getInt(edge * 12);
+    }
+    
+    int edgeTo(int edge) {
+        return edges.getInt(edge * 12 + 4);
+    }
+    
+    float edgeMeters(int edge) {
+        return edges.getFloat(edge * 12 + 8);
+    }
+    
+    private static long cellKey(double lat, double lng) {
+        return packCell((long) Math.floor(lat / CELL_SIZE_DEGREES), (long) Math.floor(lng / CELL_SIZE_DEGREES));
+    }
+    
+    private static long packCell(long latCell, long lngCell) {
+        return (latCell << 32) ^ (lngCell & 0xffffffffL);
+    }
+}
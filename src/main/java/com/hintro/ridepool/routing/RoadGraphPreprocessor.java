@@ -0,0 +1,74 @@
+package com.hintro.ridepool.routing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Offline preprocessing of a road graph file.
+ * 
+ * Contracts the graph and writes the contraction hierarchy into the graph
+ * file, so the service only maps it at startup instead of contracting on
+ * every boot. Run it whenever the graph file is regenerated:
+ * 
+ *   mvn -q compile exec:java -Dexec.mainClass=com.hintro.ridepool.routing.RoadGraphPreprocessor \
+ *       -Dexec.args="/var/lib/ridepool/del-roads.rpg --witness-search-limit=500"
+ * 
+ * The output defaults to the input file, which is replaced atomically.
+ */
+public class RoadGraphPreprocessor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RoadGraphPreprocessor.class);
+    
+    private static final String WITNESS_SEARCH_LIMIT = "--witness-search-limit=";
+    
+    public static void main(String[] args) throws IOException {
+        Path input = null;
+        Path output = null;
+        int witnessSearchLimit = 500;
+        for (String arg : args) {
+            if (arg.startsWith(WITNESS_SEARCH_LIMIT)) {
+                witnessSearchLimit = Integer.parseInt(arg.substring(WITNESS_SEARCH_LIMIT.length()));
+            } else if (input == null) {
+                input = Path.of(arg);
+            } else if (output == null) {
+                output = Path.of(arg);
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: RoadGraphPreprocessor <graph-file> [output-file] [--witness-search-limit=N]");
+            System.exit(2);
+        }
+        preprocess(input, output != null ? output : input, witnessSearchLimit);
+    }
+    
+    /**
+     * Contract a road graph file and write it with its hierarchy
+     * 
+     * @param input road graph file, with or without a hierarchy
+     * @param output file to write; may be the input file
+     * @param witnessSearchLimit maximum nodes settled per witness search
+     */
+    public static void preprocess(Path input, Path output, int witnessSearchLimit) throws IOException {
+        RoadGraph graph = RoadGraph.load(input);
+        logger.info("Contracting road graph {}: {} nodes, {} edges",
+                input, graph.getNodeCount(), graph.getEdgeCount());
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, witnessSearchLimit);
+        
+        // The input stays mapped while it is read, so write beside it and swap
+        Path absolute = output.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            graph.write(temp, hierarchy);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("✓ Wrote road graph with contraction hierarchy to {} ({} search edges)",
+                absolute, hierarchy.getSearchEdgeCount());
+    }
+}
@@ -0,0 +1,137 @@
+package com.hintro.ridepool.routing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Distance provider backed by the offline road network.
+ * 
+ * Each coordinate is snapped to its nearest road node; the distance is the
+ * snapping distance at both ends plus the shortest road path between the
+ * nodes, answered by the contraction hierarchy. Everything runs in-process.
+ * 
+ * Coordinates too far from the network, or node pairs with no connecting
+ * path, fall back to the straight-line provider so callers always get a value.
+ */
+public class RoadNetworkDistanceProvider implements DistanceProvider {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RoadNetworkDistanceProvider.class);
+    
+    private final RoadGraph graph;
+    private final ContractionHierarchy hierarchy;
+    private final DistanceProvider fallback;
+    private final double maxSnapDistanceKm;
+    
+    public RoadNetworkDistanceProvider(RoadGraph graph, ContractionHierarchy hierarchy,
+                                       DistanceProvider fallback, double maxSnapDistanceKm) {
+        this.graph = graph;
+        this.hierarchy = hierarchy;
+        this.fallback = fallback;
+        this.maxSnapDistanceKm = maxSnapDistanceKm;
+    }
+    
+    /**
+     * Load a road graph file and its contraction hierarchy.
+     * 
+     * Files written by {@link RoadGraphPreprocessor} carry the hierarchy and
+     * are only mapped. A file without one is contracted in memory, which is
+     * slow on a city-sized graph and keeps the shortcuts on the heap.
+     * 
+     * @param graphFile local road graph file
+     * @param maxSnapDistanceKm maximum coordinate-to-node snapping distance
+     * @param witnessSearchLimit contraction witness search limit, for files without a hierarchy
+     * @param fallback provider used when a coordinate cannot be routed
+     * @return ready-to-query provider
+     * @throws IOException if the graph file cannot be loaded
+     */
+    public static RoadNetworkDistanceProvider load(Path graphFile, double maxSnapDistanceKm,
+                                                   int witnessSearchLimit, DistanceProvider fallback)
+            throws IOException {
+        logger.info("Loading road graph from {}", graphFile);
+        RoadGraph graph = RoadGraph.load(graphFile);
+        logger.info("Road graph loaded: {} nodes, {} edges", graph.getNodeCount(), graph.getEdgeCount());
+        
+        ContractionHierarchy hierarchy = graph.getHierarchy();
+        if (hierarchy != null) {
+            logger.info("✓ Contraction hierarchy mapped from graph file: {} search edges",
+                    hierarchy.getSearchEdgeCount());
+        } else {
+            logger.warn("⚠ Road graph {} has no contraction hierarchy - contracting in memory; "
+                    + "run RoadGraphPreprocessor on the file to skip this at startup", graphFile);
+            hierarchy = ContractionHierarchy.build(graph, witnessSearchLimit);
+        }
+        return new RoadNetworkDistanceProvider(graph, hierarchy, fallback, maxSnapDistanceKm);
+    }
+    
+    @Override
+    public double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
+        int source = graph.nearestNode(lat1, lng1, maxSnapDistanceKm);
+        int target = graph.nearestNode(lat2, lng2, maxSnapDistanceKm);
+        if (source < 0 || target < 0) {
+            logger.debug("Coordinate off the road network - using fallback distance");
+            return fallback.calculateDistance(lat1, lng1, lat2, lng2);
+        }
+        
+        double meters = hierarchy.distance(source, target);
+        if (meters == ContractionHierarchy.UNREACHABLE) {
+            logger.debug("No road path between nodes {} and {} - using fallback distance", source, target);
+            return fallback.calculateDistance(lat1, lng1, lat2, lng2);
+        }
+        return snapDistance(lat1, lng1, source) + meters / 1000.0 + snapDistance(lat2, lng2, target);
+    }
+    
+    @Override
+    public double[] calculateDistances(double fromLat, double fromLng, double[] toLats, double[] toLngs) {
+        int source = graph.nearestNode(fromLat, fromLng, maxSnapDistanceKm);
+        if (source < 0) {
+            return DistanceProvider.super.calculateDistances(fromLat, fromLng, toLats, toLngs);
+        }
+        
+        int[] targets = new int[toLats.length];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = graph.nearestNode(toLats[i], toLngs[i], maxSnapDistanceKm);
+        }
+        double[] meters = hierarchy.distancesFrom(source, targets);
+        
+        double sourceSnap = snapDistance(fromLat, fromLng, source);
+        double[] distances = new double[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = meters[i] == ContractionHierarchy.UNREACHABLE
+                    ? fallback.calculateDistance(fromLat, fromLng, toLats[i], toLngs[i])
+                    : sourceSnap + meters[i] / 1000.0 + snapDistance(toLats[i], toLngs[i], targets[i]);
+        }
+        return distances;
+    }
+    
+    @Override
+    public double[] calculateDistancesTo(double[] fromLats, double[] fromLngs, double toLat, double toLng) {
+        int target = graph.nearestNode(toLat, toLng, maxSnapDistanceKm);
+        if (target < 0) {
+            return DistanceProvider.super.calculateDistancesTo(fromLats, fromLngs, toLat, toLng);
+        }
+        
+        int[] sources = new int[fromLats.length];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = graph.nearestNode(fromLats[i], fromLngs[i], maxSnapDistanceKm);
+        }
+        double[] meters = hierarchy.distancesTo(sources, target);
+        
+        double targetSnap = snapDistance(toLat, toLng, target);
+        double[] distances = new double[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            distances[i] = meters[i] == ContractionHierarchy.UNREACHABLE
+                    ? fallback.calculateDistance(fromLats[i], fromLngs[i], toLat, toLng)
+                    : snapDistance(fromLats[i], fromLngs[i], sources[i]) + meters[i] / 1000.0 + targetSnap;
+        }
+        return distances;
+    }
+    
+    private double snapDistance(double lat, double lng, int node) {
+        return fallback.calculateDistance(lat, lng, graph.lat(node), graph.lng(node));
+    }
+}
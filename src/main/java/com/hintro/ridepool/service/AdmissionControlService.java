@@ -0,0 +1,230 @@
+package com.hintro.ridepool.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.AdmissionConfig;
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.dto.AdmissionStats;
+
+/**
+ * Per-airport admission control for ride request processing
+ * 
+ * Responsible for:
+ * 1. Limiting how many requests per airport run matching and Mongo writes at once,
+ *    directly or through the ride request pipeline
+ * 2. Bounding how many more may wait for a slot, and for how long
+ * 3. Shedding the rest with a Retry-After estimate
+ * 4. Tracking queue depth and wait time per airport
+ * 
+ * Each airport has its own slots and queue, so a burst at one airport can hold
+ * at most maxConcurrent + maxQueued request threads and never takes slots
+ * from another airport. Only airports configured under ridepool.airports get
+ * their own lane; every other code shares one lane, so clients cannot grow
+ * the lane map but their requests are still served.
+ */
+@Service
+public class AdmissionControlService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+    
+    /**
+     * Lane name in stats for airports that are not configured
+     */
+    public static final String OTHER_AIRPORTS = "OTHER";
+    
+    private final AdmissionConfig admissionConfig;
+    private final AirportConfig airportConfig;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Lane otherAirports;
+    
+    public AdmissionControlService(AdmissionConfig admissionConfig, AirportConfig airportConfig) {
+        this.admissionConfig = admissionConfig;
+        this.airportConfig = airportConfig;
+        this.otherAirports = new Lane(OTHER_AIRPORTS, admissionConfig.getMaxConcurrentPerAirport());
+    }
+    
+    /**
+     * Run work once the airport has a free slot
+     * 
+     * @param airportCode airport the request belongs to
+     * @param work request processing to run
+     * @return result of the work
+     * @throws AdmissionRejectedException if the queue is full or the wait times out
+     */
+    public <T> T admit(String airportCode, Supplier<T> work) {
+        Runnable release = acquire(airportCode);
+        try {
+            return work.get();
+        } finally {
+            release.run();
+        }
+    }
+    
+    /**
+     * Take one of the airport's slots for work that completes asynchronously
+     * (e.g. in the ride request pipeline), waiting like {@link #admit}
+     * 
+     * @param airportCode airport the request belongs to
+     * @return gives the slot back; later calls do nothing
+     * @throws AdmissionRejectedException if the queue is full or the wait times out
+     */
+    public Runnable acquire(String airportCode) {
+        if (!admissionConfig.isEnabled()) {
+            return () -> { };
+        }
+        
+        Lane lane = airportConfig.getLocation(airportCode) == null
+                ? otherAirports
+                : lanes.computeIfAbsent(airportCode, code -> new Lane(code, admissionConfig.getMaxConcurrentPerAirport()));
+        
+        long queuedAt = System.nanoTime();
+        if (!lane.permits.tryAcquire()) {
+            waitForSlot(lane, airportCode);
+        }
+        long waitNanos = System.nanoTime() - queuedAt;
+        
+        lane.recordAdmitted(waitNanos);
+        long started = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                lane.recordService(System.nanoTime() - started);
+                lane.permits.release();
+            }
+        };
+    }
+    
+    /**
+     * Admission stats for every configured airport that has had a request,
+     * plus the shared lane once an unconfigured airport has used it
+     */
+    public List<AdmissionStats> getStats() {
+        List<AdmissionStats> stats = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            stats.add(lane.stats(admissionConfig.getMaxQueuedPerAirport()));
+        }
+        if (otherAirports.isUsed()) {
+            stats.add(otherAirports.stats(admissionConfig.getMaxQueuedPerAirport()));
+        }
+        stats.sort(Comparator.comparing(AdmissionStats::getAirportCode));
+        return stats;
+    }
+    
+    private void waitForSlot(Lane lane, String airportCode) {
+        int maxQueued = admissionConfig.getMaxQueuedPerAirport();
+        if (lane.queued.incrementAndGet() > maxQueued) {
+            lane.queued.decrementAndGet();
+            lane.rejectedQueueFull.increment();
+            int retryAfter = retryAfterSeconds(lane);
+            logger.warn("⚠ Admission queue full for airport {} ({} waiting in lane {}), retry after {}s",
+                    airportCode, maxQueued, lane.airportCode, retryAfter);
+            throw new AdmissionRejectedException(airportCode, retryAfter,
+                    "Too many pending ride requests for airport " + airportCode);
+        }
+        
+        boolean acquired;
+        try {
+            acquired = lane.permits.tryAcquire(admissionConfig.getMaxQueueWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            lane.queued.decrementAndGet();
+        }
+        
+        if (!acquired) {
+            lane.rejectedTimeout.increment();
+            int retryAfter = retryAfterSeconds(lane);
+            logger.warn("⚠ Ride request for airport {} waited {} ms without a slot, retry after {}s",
+                    airportCode, admissionConfig.getMaxQueueWaitMillis(), retryAfter);
+            throw new AdmissionRejectedException(airportCode, retryAfter,
+                    "Timed out waiting for a processing slot for airport " + airportCode);
+        }
+    }
+    
+    /**
+     * Estimate how long the current queue takes to drain at the observed service time
+     */
+    private int retryAfterSeconds(Lane lane) {
+        double drainMillis = (lane.queued.get() + 1) * lane.avgServiceMillis() / Math.max(1, lane.maxConcurrent);
+        int seconds = (int) Math.ceil(drainMillis / 1000.0);
+        return Math.max(admissionConfig.getMinRetryAfterSeconds(),
+                Math.min(admissionConfig.getMaxRetryAfterSeconds(), seconds));
+    }
+    
+    /**
+     * Slots, queue depth and counters for one airport
+     */
+    private static final class Lane {
+        private final String airportCode;
+        private final int maxConcurrent;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejectedQueueFull = new LongAdder();
+        private final LongAdder rejectedTimeout = new LongAdder();
+        private final LongAdder waitNanosSum = new LongAdder();
+        private final AtomicLong waitNanosMax = new AtomicLong();
+        private final LongAdder served = new LongAdder();
+        private final LongAdder serviceNanosSum = new LongAdder();
+        
+        Lane(String airportCode, int maxConcurrent) {
+            this.airportCode = airportCode;
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+            this.permits = new Semaphore(this.maxConcurrent, true);
+        }
+        
+        void recordAdmitted(long waitNanos) {
+            admitted.increment();
+            waitNanosSum.add(waitNanos);
+            waitNanosMax.accumulateAndGet(waitNanos, Math::max);
+        }
+        
+        void recordService(long serviceNanos) {
+            served.increment();
+            serviceNanosSum.add(serviceNanos);
+        }
+        
+        boolean isUsed() {
+            return admitted.sum() > 0 || queued.get() > 0
+                    || rejectedQueueFull.sum() > 0 || rejectedTimeout.sum() > 0;
+        }
+        
+        double avgServiceMillis() {
+            long count = served.sum();
+            return count == 0 ? 0 : serviceNanosSum.sum() / 1_000_000.0 / count;
+        }
+        
+        AdmissionStats stats(int maxQueued) {
+            long count = admitted.sum();
+            return AdmissionStats.builder()
+                    .airportCode(airportCode)
+                    .inFlight(maxConcurrent - permits.availablePermits())
+                    .maxConcurrent(maxConcurrent)
+                    .queued(queued.get())
+                    .maxQueued(maxQueued)
+                    .admitted(count)
+                    .rejectedQueueFull(rejectedQueueFull.sum())
+                    .rejectedTimeout(rejectedTimeout.sum())
+                    .avgQueueWaitMillis(count == 0 ? 0 : waitNanosSum.sum() / 1_000_000.0 / count)
+                    .maxQueueWaitMillis(waitNanosMax.get() / 1_000_000)
+                    .avgServiceMillis(avgServiceMillis())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.hintro.ridepool.service;
+
+/**
+ * Thrown when an airport's admission queue is full or a queued request
+ * waited too long for a processing slot
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String airportCode;
+    private final int retryAfterSeconds;
+    
+    public AdmissionRejectedException(String airportCode, int retryAfterSeconds, String message) {
+        super(message);
+        this.airportCode = airportCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public String getAirportCode() {
+        return airportCode;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,8 +1,10 @@
 package com.hintro.ridepool.service;
 
+import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,40 +13,72 @@ import org.springframework.stereotype.Service;
 import com.hintro.ridepool.config.CabAssignmentConfig;
 import com.hintro.ridepool.dto.MatchedRideGroup;
 import com.hintro.ridepool.entity.Cab;
-import com.hintro.ridepool.entity.CabStatus;
 import com.hintro.ridepool.entity.RideRequest;
 import com.hintro.ridepool.entity.RideStatus;
-import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.events.RideEventType;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.repository.RideGroupRepository;
 import com.hintro.ridepool.repository.RideRequestRepository;
-import com.hintro.ridepool.util.DistanceCalculator;
+import com.hintro.ridepool.trace.AssignmentStageEvent;
+import com.hintro.ridepool.trace.Decision;
+import com.hintro.ridepool.trace.DecisionOutcome;
+import com.hintro.ridepool.trace.DecisionTracer;
+import com.hintro.ridepool.trace.DecisionType;
+import com.hintro.ridepool.util.DistanceProvider;
 
 /**
  * Cab Assignment Service
  * 
  * Responsible for:
- * 1. Finding available cabs near passenger group
- * 2. Reserving the nearest cab
+ * 1. Finding cabs near passenger group, in its airport's partition, with room for its seats and luggage
+ * 2. Reserving the cab predicted to arrive first atomically (next best on a lost race)
  * 3. Assigning cab to all passengers
- * 4. Updating group status to CAB_ASSIGNED
+ * 4. Updating group status to CAB_ASSIGNED in ride_groups
+ * 5. Tracing each assignment decision (see DecisionTracer) and timing each step
+ *    as a Flight Recorder event (see AssignmentStageEvent)
  */
 @Service
 public class CabAssignmentService {
     
     private static final Logger logger = LoggerFactory.getLogger(CabAssignmentService.class);
     
-    private final CabRepository cabRepository;
     private final RideRequestRepository rideRequestRepository;
-    private final DistanceCalculator distanceCalculator;
+    private final RideGroupRepository rideGroupRepository;
+    private final DistanceProvider distanceProvider;
     private final CabAssignmentConfig assignmentConfig;
+    private final CabLifecycleService cabLifecycleService;
+    private final FleetIndex fleetIndex;
+    private final AirportRegistry airportRegistry;
+    private final EtaService etaService;
+    private final RideEventLog eventLog;
+    private final DecisionTracer decisionTracer;
+    private final Clock clock;
     
-    public CabAssignmentService(CabRepository cabRepository,
-                               RideRequestRepository rideRequestRepository,
-                               DistanceCalculator distanceCalculator,
-                               CabAssignmentConfig assignmentConfig) {
-        this.cabRepository = cabRepository;
+    public CabAssignmentService(RideRequestRepository rideRequestRepository,
+                               RideGroupRepository rideGroupRepository,
+                               DistanceProvider distanceProvider,
+                               CabAssignmentConfig assignmentConfig,
+                               CabLifecycleService cabLifecycleService,
+                               FleetIndex fleetIndex,
+                               AirportRegistry airportRegistry,
+                               EtaService etaService,
+                               RideEventLog eventLog,
+                               DecisionTracer decisionTracer,
+                               Clock clock) {
         this.rideRequestRepository = rideRequestRepository;
-        this.distanceCalculator = distanceCalculator;
+        this.rideGroupRepository = rideGroupRepository;
+        this.distanceProvider = distanceProvider;
         this.assignmentConfig = assignmentConfig;
+        this.cabLifecycleService = cabLifecycleService;
+        this.fleetIndex = fleetIndex;
+        this.airportRegistry = airportRegistry;
+        this.etaService = etaService;
+        this.eventLog = eventLog;
+        this.decisionTracer = decisionTracer;
+        this.clock = clock;
     }
     
     /**
@@ -54,83 +88,106 @@ public class CabAssignmentService {
      * @return true if cab assigned successfully, false otherwise
      */
     public boolean attemptCabAssignment(MatchedRideGroup matchedGroup) {
-        logger.info("========================================");
-        logger.info("CAB ASSIGNMENT ENGINE STARTED");
-        logger.info("========================================");
-        logger.info("Group: {}, Airport: {}, Passengers: {}", 
-                matchedGroup.getPassengers().get(0).getGroupId(),
-                matchedGroup.getAirportCode(),
-                matchedGroup.getPassengers().size());
+        long started = System.nanoTime();
+        RideRequest firstPassenger = matchedGroup.getPassengers().get(0);
+        Decision.DecisionBuilder decision = Decision.builder()
+                .type(DecisionType.ASSIGNMENT)
+                .rideRequestId(firstPassenger.getId())
+                .groupId(firstPassenger.getGroupId())
+                .airportCode(matchedGroup.getAirportCode())
+                .groupSize(matchedGroup.getPassengers().size());
         
         try {
             // Check if assignment is enabled
             if (!assignmentConfig.isEnableAssignment()) {
-                logger.warn("Cab assignment is disabled in configuration");
-                return false;
+                return traced(decision.outcome(DecisionOutcome.ASSIGNMENT_DISABLED), started);
             }
             
             // Check minimum passengers requirement
-            if (matchedGroup.getPassengers().size() < assignmentConfig.getMinPassengersForAssignment()) {
-                logger.info("⏳ Group has {} passengers, minimum required: {}", 
-                        matchedGroup.getPassengers().size(),
-                        assignmentConfig.getMinPassengersForAssignment());
-                return false;
+            String airportCode = matchedGroup.getAirportCode();
+            int minPassengers = airportRegistry.minPassengersForAssignment(airportCode);
+            if (matchedGroup.getPassengers().size() < minPassengers) {
+                return traced(decision.outcome(DecisionOutcome.BELOW_MIN_PASSENGERS), started);
             }
+            double assignmentRadius = airportRegistry.cabAssignmentRadiusKm(airportCode);
+            decision.radiusKm(assignmentRadius);
             
             // Step 1: Calculate average pickup location
             double[] avgLocation = calculateAverageLocation(matchedGroup.getPassengers());
-            logger.info("Group center location: Lat: {}, Lng: {}", 
-                    String.format("%.4f", avgLocation[0]), 
-                    String.format("%.4f", avgLocation[1]));
             
-            // Step 2: Find available cabs
-            List<Cab> availableCabs = findAvailableCabs();
-            logger.info("Found {} available cabs", availableCabs.size());
+            int seatsNeeded = 0;
+            int luggageNeeded = 0;
+            for (RideRequest passenger : matchedGroup.getPassengers()) {
+                seatsNeeded += passenger.getSeatsRequired();
+                luggageNeeded += passenger.getLuggageCount();
+            }
+            decision.seats(seatsNeeded);
+            
+            // Step 2: Find cabs that can fit the group
+            int groupSize = matchedGroup.getPassengers().size();
+            AssignmentStageEvent stage = AssignmentStageEvent.start(AssignmentStageEvent.SEARCH, airportCode,
+                    groupSize);
+            List<Cab> availableCabs = findAvailableCabs(airportCode, avgLocation[0], avgLocation[1],
+                    assignmentRadius, seatsNeeded, luggageNeeded);
+            stage.finish(availableCabs.size());
+            decision.candidates(availableCabs.size());
             
             if (availableCabs.isEmpty()) {
-                logger.warn("⚠ No available cabs found for assignment");
-                return false;
+                return traced(decision.outcome(DecisionOutcome.NO_CAB), started);
             }
             
-            // Step 3: Find nearest cab within assignment radius
-            Cab nearestCab = findNearestCab(avgLocation[0], avgLocation[1], availableCabs);
+            // Step 3: Rank cabs within assignment radius, earliest predicted arrival first
+            stage = AssignmentStageEvent.start(AssignmentStageEvent.RANK, airportCode, groupSize);
+            List<Cab> rankedCabs = rankCabsByArrival(avgLocation[0], avgLocation[1], assignmentRadius, availableCabs);
+            stage.finish(rankedCabs.size());
+            decision.compatible(rankedCabs.size());
             
-            if (nearestCab == null) {
-                logger.warn("⚠ No cab found within {} KM radius", 
-                        assignmentConfig.getCabAssignmentRadiusKm());
-                return false;
+            if (rankedCabs.isEmpty()) {
+                return traced(decision.outcome(DecisionOutcome.NO_CAB), started);
             }
             
-            logger.info("✓ Nearest cab found: ID: {}, Driver: {}", 
-                    nearestCab.getId(), nearestCab.getDriverName());
-            
-            // Step 4: Reserve the cab (atomic operation)
-            boolean reserved = reserveCab(nearestCab, matchedGroup);
-            if (!reserved) {
-                logger.warn("⚠ Failed to reserve cab (race condition or unavailable)");
-                return false;
+            // Step 4: Reserve the cab (atomic operation), falling back to the next best on a lost race
+            String groupId = firstPassenger.getGroupId();
+            stage = AssignmentStageEvent.start(AssignmentStageEvent.RESERVE, airportCode, groupSize);
+            Cab reservedCab = reserveCab(rankedCabs, groupId, seatsNeeded, luggageNeeded);
+            stage.finish(reservedCab != null ? 1 : 0);
+            if (reservedCab == null) {
+                return traced(decision.outcome(DecisionOutcome.RESERVE_LOST), started);
             }
+            decision.cabId(reservedCab.getId());
             
             // Step 5: Assign cab to all passengers
-            boolean assigned = assignCabToPassengers(matchedGroup, nearestCab);
+            stage = AssignmentStageEvent.start(AssignmentStageEvent.ASSIGN, airportCode, groupSize);
+            Instant cabArrivalTime = etaService.predictArrival(reservedCab.getCurrentLat(),
+                    reservedCab.getCurrentLng(), avgLocation[0], avgLocation[1]);
+            boolean assigned = assignCabToPassengers(matchedGroup, reservedCab, cabArrivalTime);
+            stage.finish(assigned ? 1 : 0);
             if (!assigned) {
-                logger.warn("⚠ Failed to assign cab to passengers");
+                logger.warn("⚠ Failed to assign cab {} to passengers", reservedCab.getId());
                 // Try to unreserve cab
-                unreserveCab(nearestCab);
-                return false;
+                unreserveCab(reservedCab, seatsNeeded, luggageNeeded);
+                return traced(decision.outcome(DecisionOutcome.FAILED), started);
             }
             
-            logger.info("========================================");
-            logger.info("✓ CAB ASSIGNMENT SUCCESSFUL");
-            logger.info("========================================");
-            return true;
+            return traced(decision.outcome(DecisionOutcome.ASSIGNED), started);
             
         } catch (Exception e) {
             logger.error("✗ Error during cab assignment", e);
-            return false;
+            return traced(decision.outcome(DecisionOutcome.FAILED), started);
         }
     }
     
+    /**
+     * Record the assignment decision
+     * 
+     * @return whether a cab was assigned
+     */
+    private boolean traced(Decision.DecisionBuilder decision, long startedNanos) {
+        Decision built = decision.durationMicros((System.nanoTime() - startedNanos) / 1_000).build();
+        decisionTracer.record(built);
+        return built.getOutcome() == DecisionOutcome.ASSIGNED;
+    }
+    
     /**
      * Calculate average pickup location for the group
      */
@@ -153,92 +210,103 @@ public class CabAssignmentService {
     }
     
     /**
-     * Find all available cabs
+     * Find cabs of the airport's partition with room for the group: from the
+     * fleet index when it is loaded, otherwise straight from MongoDB
      */
-    private List<Cab> findAvailableCabs() {
+    private List<Cab> findAvailableCabs(String airportCode, double pickupLat, double pickupLng,
+                                        double radiusKm, int seats, int luggage) {
+        if (assignmentConfig.isEnableFleetIndex() && fleetIndex.isWarm()) {
+            logger.debug("Querying fleet index for cabs near pickup");
+            return fleetIndex.findCandidates(airportCode, pickupLat, pickupLng, radiusKm, seats, luggage);
+        }
+        
         logger.debug("Querying for available cabs");
-        return cabRepository.findByStatus(CabStatus.AVAILABLE);
+        List<Cab> cabs = new ArrayList<>();
+        for (Cab cab : cabLifecycleService.findPoolableCabs(airportCode)) {
+            if (cab.getAvailableSeats() >= seats && cab.getAvailableLuggage() >= luggage) {
+                cabs.add(cab);
+            }
+        }
+        return cabs;
     }
     
     /**
-     * Find nearest cab within assignment radius
+     * Find cabs within assignment radius, ordered by predicted arrival at
+     * the pickup (nearest first among equal predictions)
      */
-    private Cab findNearestCab(double pickupLat, double pickupLng, List<Cab> availableCabs) {
-        logger.debug("Finding nearest cab from {} available cabs", availableCabs.size());
+    private List<Cab> rankCabsByArrival(double pickupLat, double pickupLng, double assignmentRadius,
+                                        List<Cab> availableCabs) {
+        logger.debug("Ranking {} available cabs by predicted arrival", availableCabs.size());
         
-        double assignmentRadius = assignmentConfig.getCabAssignmentRadiusKm();
-        Cab nearestCab = null;
-        double nearestDistance = Double.MAX_VALUE;
+        // Many-to-one distance query: every cab's travel distance to the pickup point
+        double[] cabLats = new double[availableCabs.size()];
+        double[] cabLngs = new double[availableCabs.size()];
+        for (int i = 0; i < availableCabs.size(); i++) {
+            cabLats[i] = availableCabs.get(i).getCurrentLat();
+            cabLngs[i] = availableCabs.get(i).getCurrentLng();
+        }
+        double[] distances = distanceProvider.calculateDistancesTo(cabLats, cabLngs, pickupLat, pickupLng);
+        long[] etaSeconds = new long[availableCabs.size()];
+        Instant now = clock.instant();
         
-        for (Cab cab : availableCabs) {
+        List<Integer> inRange = new ArrayList<>();
+        for (int i = 0; i < availableCabs.size(); i++) {
             // Check if within radius
-            boolean withinRadius = distanceCalculator.isWithinRadius(
-                    pickupLat, pickupLng,
-                    cab.getCurrentLat(), cab.getCurrentLng(),
-                    assignmentRadius
-            );
-            
-            if (!withinRadius) {
-                logger.debug("Cab {} is outside {} KM radius", cab.getId(), assignmentRadius);
+            if (distances[i] > assignmentRadius) {
+                logger.debug("Cab {} is outside {} KM radius", availableCabs.get(i).getId(), assignmentRadius);
                 continue;
             }
-            
-            // Calculate distance
-            double distance = distanceCalculator.calculateDistance(
-                    pickupLat, pickupLng,
-                    cab.getCurrentLat(), cab.getCurrentLng()
-            );
-            
-            // Update nearest
-            if (distance < nearestDistance) {
-                nearestDistance = distance;
-                nearestCab = cab;
-                logger.debug("Found closer cab {} at distance: {} KM", 
-                        cab.getId(), String.format("%.2f", distance));
-            }
+            etaSeconds[i] = etaService.predictSeconds(cabLats[i], cabLngs[i], pickupLat, pickupLng, distances[i], now);
+            inRange.add(i);
+        }
+        inRange.sort(Comparator.<Integer>comparingLong(i -> etaSeconds[i]).thenComparingDouble(i -> distances[i]));
+        
+        List<Cab> rankedCabs = new ArrayList<>(inRange.size());
+        for (int i : inRange) {
+            rankedCabs.add(availableCabs.get(i));
         }
         
-        if (nearestCab != null) {
-            logger.info("Nearest cab: ID: {}, Distance: {} KM", 
-                    nearestCab.getId(), String.format("%.2f", nearestDistance));
+        if (!rankedCabs.isEmpty() && logger.isDebugEnabled()) {
+            int best = inRange.get(0);
+            logger.debug("Best cab: ID: {}, Distance: {} KM, ETA: {} s", 
+                    rankedCabs.get(0).getId(), String.format("%.2f", distances[best]), etaSeconds[best]);
         }
         
-        return nearestCab;
+        return rankedCabs;
     }
     
     /**
-     * Reserve cab by changing status to RESERVED
+     * Reserve the best ranked cab that still has room. Each attempt is a
+     * conditional update, so a cab taken by a concurrent assignment is skipped.
      */
-    private boolean reserveCab(Cab cab, MatchedRideGroup matchedGroup) {
-        logger.info("Attempting to reserve cab: {}", cab.getId());
+    private Cab reserveCab(List<Cab> rankedCabs, String groupId, int seats, int luggage) {
+        int attempts = Math.min(rankedCabs.size(), Math.max(1, assignmentConfig.getMaxReservationAttempts()));
         
-        try {
-            // Update cab status
-            cab.setStatus(CabStatus.RESERVED);
-            cab.setAssignedGroupId(matchedGroup.getPassengers().get(0).getGroupId());
-            
-            Cab savedCab = cabRepository.save(cab);
-            
-            logger.info("✓ Cab reserved successfully: ID: {}", savedCab.getId());
-            return true;
-            
-        } catch (Exception e) {
-            logger.error("✗ Error reserving cab", e);
-            return false;
+        for (int i = 0; i < attempts; i++) {
+            Cab cab = rankedCabs.get(i);
+            try {
+                Cab reservedCab = cabLifecycleService.reserve(cab, groupId, seats, luggage);
+                if (reservedCab != null) {
+                    return reservedCab;
+                }
+                logger.debug("Cab {} was taken meanwhile, trying next best", cab.getId());
+            } catch (Exception e) {
+                logger.error("✗ Error reserving cab", e);
+            }
         }
+        return null;
     }
     
     /**
      * Unreserve cab if assignment fails
      */
-    private void unreserveCab(Cab cab) {
+    private void unreserveCab(Cab cab, int seats, int luggage) {
         logger.warn("Unreserving cab: {}", cab.getId());
         
         try {
-            cab.setStatus(CabStatus.AVAILABLE);
-            cab.setAssignedGroupId(null);
-            cabRepository.save(cab);
-            logger.info("✓ Cab unreserved");
+            if (cabLifecycleService.releaseCapacity(cab.getId(), cab.getAssignedGroupId(), seats, luggage) != null) {
+                logger.info("✓ Cab unreserved");
+            }
         } catch (Exception e) {
             logger.error("✗ Error unreserving cab", e);
         }
@@ -247,28 +315,46 @@ public class CabAssignmentService {
     /**
      * Assign cab to all passengers in the group
      */
-    private boolean assignCabToPassengers(MatchedRideGroup matchedGroup, Cab cab) {
-        logger.info("Assigning cab to {} passengers", matchedGroup.getPassengers().size());
-        
+    private boolean assignCabToPassengers(MatchedRideGroup matchedGroup, Cab cab, Instant cabArrivalTime) {
         try {
-            // Calculate estimated arrival time (30 seconds from now as example)
-            Instant cabArrivalTime = Instant.now().plusSeconds(30);
+            String formedGroupId = matchedGroup.getPassengers().get(0).getGroupId();
+            
+            // Riders joining a cab mid-route take their seats in the group it serves
+            // first: the group document is the gate, the rider writes follow it
+            boolean joinsCabGroup = cab.getAssignedGroupId() != null
+                    && !cab.getAssignedGroupId().equals(formedGroupId);
+            if (joinsCabGroup && !joinCabGroup(cab, matchedGroup.getPassengers())) {
+                return false;
+            }
             
             // Update all passengers
+            List<RideEvent> events = new ArrayList<>();
             for (RideRequest passenger : matchedGroup.getPassengers()) {
+                // Riders joining a cab mid-route become part of the group it already serves
+                passenger.setGroupId(cab.getAssignedGroupId());
                 passenger.setAssignedCabId(cab.getId());
                 passenger.setAssignedDriverName(cab.getDriverName());
                 passenger.setCabArrivalTime(cabArrivalTime);
                 passenger.setStatus(RideStatus.ASSIGNED);
                 
-                rideRequestRepository.save(passenger);
-                logger.debug("Updated passenger {} with cab assignment", passenger.getUserId());
+                // Conditional write: a rider cancelled meanwhile stays cancelled and gives its seats back
+                if (rideRequestRepository.assignIfActive(passenger)) {
+                    logger.debug("Updated passenger {} with cab assignment", passenger.getUserId());
+                    events.add(RideEvent.of(RideEventType.ASSIGNED, passenger));
+                } else {
+                    logger.info("Passenger {} was cancelled before the cab was assigned", passenger.getId());
+                    if (joinsCabGroup) {
+                        rideGroupRepository.leave(cab.getAssignedGroupId(), passenger);
+                    }
+                    cabLifecycleService.releaseCapacity(cab.getId(), cab.getAssignedGroupId(),
+                            passenger.getSeatsRequired(), passenger.getLuggageCount());
+                }
             }
+            eventLog.tryAppend(events);
+            recordGroupCab(formedGroupId, cab);
             
-            logger.info("✓ Successfully assigned cab to all {} passengers", 
-                    matchedGroup.getPassengers().size());
-            System.out.println("✓ CAB ASSIGNED - Driver arriving in 30 seconds!");
-            
+            // Riders and driver are told by the notification dispatcher, from the
+            // outbox fields the writes above queued
             return true;
             
         } catch (Exception e) {
@@ -276,4 +362,56 @@ public class CabAssignmentService {
             return false;
         }
     }
+    
+    /**
+     * Add riders joining a cab mid-route to the group the cab serves, all or
+     * none, before the cab is recorded on any of them
+     * 
+     * @return false if the group has no room left for them; nothing is changed
+     */
+    private boolean joinCabGroup(Cab cab, List<RideRequest> riders) {
+        String cabGroupId = cab.getAssignedGroupId();
+        List<RideRequest> joined = new ArrayList<>();
+        for (RideRequest rider : riders) {
+            if (rideGroupRepository.joinIfCapacity(cabGroupId, rider) != null) {
+                joined.add(rider);
+                continue;
+            }
+            if (joined.isEmpty() && rideGroupRepository.findById(cabGroupId).isEmpty()) {
+                // Group formed before ride groups were stored: the cab's seats are the only gate
+                return true;
+            }
+            logger.info("Group {} of cab {} has no room left for rider {}", cabGroupId, cab.getId(), rider.getId());
+            for (RideRequest member : joined) {
+                rideGroupRepository.leave(cabGroupId, member);
+            }
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Bring the ride group documents in step with the assignment: a group
+     * that got its own cab records it; a group whose riders joined a cab
+     * mid-route (and already moved into the cab's group) is dissolved
+     */
+    private void recordGroupCab(String formedGroupId, Cab cab) {
+        String cabGroupId = cab.getAssignedGroupId();
+        if (cabGroupId == null) {
+            return;
+        }
+        try {
+            if (cabGroupId.equals(formedGroupId)) {
+                if (rideGroupRepository.assignCab(cabGroupId, cab.getId(), cab.getTotalSeats()) == null) {
+                    logger.warn("⚠ Group {} was closed before cab {} was recorded on it", cabGroupId, cab.getId());
+                }
+                return;
+            }
+            if (formedGroupId != null) {
+                rideGroupRepository.dissolve(formedGroupId);
+            }
+        } catch (Exception e) {
+            logger.error("✗ Error updating ride group {} for cab {}", cabGroupId, cab.getId(), e);
+        }
+    }
 }
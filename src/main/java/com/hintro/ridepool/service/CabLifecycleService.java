@@ -0,0 +1,219 @@
+package com.hintro.ridepool.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.events.RideEventType;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.replay.TrafficRecorder;
+import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.repository.RideGroupRepository;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+/**
+ * Cab Lifecycle Service
+ * 
+ * Responsible for:
+ * 1. Moving cabs through AVAILABLE -> RESERVED -> ON_TRIP -> AVAILABLE
+ * 2. Taking and freeing seats / luggage space atomically in MongoDB
+ * 3. Letting partially filled cabs take more passengers mid-route
+ * 4. Keeping the fleet index in step with every transition
+ * 5. Feeding completed trips to the ETA model
+ */
+@Service
+public class CabLifecycleService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CabLifecycleService.class);
+    
+    private final CabRepository cabRepository;
+    private final RideRequestRepository rideRequestRepository;
+    private final RideGroupRepository rideGroupRepository;
+    private final FleetIndex fleetIndex;
+    private final CabAssignmentConfig assignmentConfig;
+    private final RideEventLog eventLog;
+    private final TrafficRecorder trafficRecorder;
+    private final AirportRegistry airportRegistry;
+    private final EtaService etaService;
+    
+    public CabLifecycleService(CabRepository cabRepository,
+                               RideRequestRepository rideRequestRepository,
+                               RideGroupRepository rideGroupRepository,
+                               FleetIndex fleetIndex,
+                               CabAssignmentConfig assignmentConfig,
+                               RideEventLog eventLog,
+                               TrafficRecorder trafficRecorder,
+                               AirportRegistry airportRegistry,
+                               EtaService etaService) {
+        this.cabRepository = cabRepository;
+        this.rideRequestRepository = rideRequestRepository;
+        this.rideGroupRepository = rideGroupRepository;
+        this.fleetIndex = fleetIndex;
+        this.assignmentConfig = assignmentConfig;
+        this.eventLog = eventLog;
+        this.trafficRecorder = trafficRecorder;
+        this.airportRegistry = airportRegistry;
+        this.etaService = etaService;
+    }
+    
+    /**
+     * Cabs that can take passengers right now: AVAILABLE cabs plus, when
+     * mid-route pooling is enabled, RESERVED / ON_TRIP cabs with spare seats
+     */
+    public List<Cab> findPoolableCabs() {
+        List<Cab> cabs = new ArrayList<>(cabRepository.findByStatus(CabStatus.AVAILABLE));
+        if (assignmentConfig.isAllowMidRoutePooling()) {
+            cabs.addAll(cabRepository.findByStatusInWithSpareSeats(List.of(CabStatus.RESERVED, CabStatus.ON_TRIP)));
+        }
+        return cabs;
+    }
+    
+    /**
+     * Poolable cabs of one airport partition (the fallback scan when the
+     * fleet index is off or cold). Unconfigured airports are served by the
+     * cabs outside every service area.
+     */
+    public List<Cab> findPoolableCabs(String airportCode) {
+        String partition = airportRegistry.partitionFor(airportCode);
+        String stored = AirportRegistry.UNZONED.equals(partition) ? null : partition;
+        List<Cab> cabs = new ArrayList<>(cabRepository.findByAirportCodeAndStatus(stored, CabStatus.AVAILABLE));
+        if (assignmentConfig.isAllowMidRoutePooling()) {
+            cabs.addAll(cabRepository.findByAirportCodeAndStatusInWithSpareSeats(stored,
+                    List.of(CabStatus.RESERVED, CabStatus.ON_TRIP)));
+        }
+        return cabs;
+    }
+    
+    /**
+     * Take seats on a cab for a group. An AVAILABLE cab is reserved for the
+     * group; a RESERVED / ON_TRIP cab with room is joined mid-route.
+     * 
+     * @param cab cab candidate (possibly stale)
+     * @param groupId group requesting the cab
+     * @param seats seats needed
+     * @param luggage luggage space needed
+     * @return updated cab, or null if the cab was taken or filled up meanwhile
+     */
+    public Cab reserve(Cab cab, String groupId, int seats, int luggage) {
+        Cab updated;
+        if (cab.getStatus() == CabStatus.AVAILABLE) {
+            updated = cabRepository.reserveIfAvailable(cab.getId(), groupId, seats, luggage);
+        } else if (assignmentConfig.isAllowMidRoutePooling() && cab.getStatus() != null && cab.getStatus().isPoolable()) {
+            updated = cabRepository.joinIfSpareCapacity(cab.getId(), seats, luggage);
+        } else {
+            updated = null;
+        }
+        
+        if (updated == null) {
+            logger.debug("Cab {} could not take {} seats, refreshing index entry", cab.getId(), seats);
+            refresh(cab.getId());
+            return null;
+        }
+        
+        logger.info("✓ Cab {} now {} with {} seats left", updated.getId(), updated.getStatus(), updated.getAvailableSeats());
+        fleetIndex.upsert(updated);
+        return updated;
+    }
+    
+    /**
+     * Give seats back to a cab, e.g. when passenger assignment fails or a rider cancels
+     * 
+     * @param cabId cab ID
+     * @param groupId group holding the cab
+     * @param seats seats released
+     * @param luggage luggage released
+     * @return updated cab, or null if the cab no longer serves the group
+     */
+    public Cab releaseCapacity(String cabId, String groupId, int seats, int luggage) {
+        Cab updated = cabRepository.releaseCapacity(cabId, groupId, seats, luggage);
+        if (updated == null) {
+            logger.warn("⚠ Cab {} no longer serves group {}, nothing released", cabId, groupId);
+            refresh(cabId);
+            return null;
+        }
+        logger.info("✓ Released {} seats on cab {}, status: {}", seats, cabId, updated.getStatus());
+        fleetIndex.upsert(updated);
+        return updated;
+    }
+    
+    /**
+     * Passengers picked up: RESERVED -> ON_TRIP
+     * 
+     * @param cabId cab ID
+     * @return updated cab
+     * @throws IllegalArgumentException if the cab does not exist
+     * @throws IllegalStateException if the cab is not RESERVED
+     */
+    public Cab startTrip(String cabId) {
+        Cab updated = cabRepository.startTrip(cabId);
+        if (updated == null) {
+            throw invalidTransition(cabId, CabStatus.ON_TRIP);
+        }
+        logger.info("✓ Trip started: Cab {}, Group {}", cabId, updated.getAssignedGroupId());
+        fleetIndex.upsert(updated);
+        trafficRecorder.recordTripStarted(cabId);
+        return updated;
+    }
+    
+    /**
+     * Passengers dropped off: ON_TRIP -> AVAILABLE with full capacity at the
+     * drop-off point, and the group's riders marked COMPLETED
+     * 
+     * @param cabId cab ID
+     * @param dropLat drop-off latitude
+     * @param dropLng drop-off longitude
+     * @return updated cab
+     * @throws IllegalArgumentException if the cab does not exist
+     * @throws IllegalStateException if the cab is not ON_TRIP
+     */
+    public Cab completeTrip(String cabId, double dropLat, double dropLng) {
+        Cab before = cabRepository.findById(cabId)
+                .orElseThrow(() -> new IllegalArgumentException("Cab not found: " + cabId));
+        String groupId = before.getAssignedGroupId();
+        
+        Cab updated = cabRepository.completeTrip(cabId, dropLat, dropLng, airportRegistry.airportAt(dropLat, dropLng));
+        if (updated == null) {
+            throw invalidTransition(cabId, CabStatus.AVAILABLE);
+        }
+        
+        if (groupId != null) {
+            RideGroup group = rideGroupRepository.complete(groupId);
+            etaService.learnFromTrip(before, group, dropLat, dropLng);
+            long completed = rideRequestRepository.updateStatusByGroupId(groupId, RideStatus.ASSIGNED, RideStatus.COMPLETED);
+            eventLog.tryAppend(RideEvent.ofGroup(RideEventType.COMPLETED, groupId, updated, RideStatus.COMPLETED));
+            logger.info("✓ Trip completed: Cab {}, Group {}, {} riders completed", cabId, groupId, completed);
+        }
+        fleetIndex.upsert(updated);
+        trafficRecorder.recordTripCompleted(cabId, dropLat, dropLng);
+        return updated;
+    }
+    
+    private void refresh(String cabId) {
+        Cab current = cabRepository.findById(cabId).orElse(null);
+        if (current == null) {
+            fleetIndex.remove(cabId);
+        } else {
+            fleetIndex.upsert(current);
+        }
+    }
+    
+    private RuntimeException invalidTransition(String cabId, CabStatus target) {
+        Cab current = cabRepository.findById(cabId).orElse(null);
+        if (current == null) {
+            return new IllegalArgumentException("Cab not found: " + cabId);
+        }
+        fleetIndex.upsert(current);
+        return new IllegalStateException("Cab " + cabId + " cannot move from " + current.getStatus() + " to " + target);
+    }
+}
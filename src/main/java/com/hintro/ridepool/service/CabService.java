@@ -1,21 +1,44 @@
 package com.hintro.ridepool.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.hintro.ridepool.config.BulkConfig;
+import com.hintro.ridepool.dto.BulkItemResult;
+import com.hintro.ridepool.dto.BulkRegistrationResult;
+import com.hintro.ridepool.dto.CabRegistrationDTO;
 import com.hintro.ridepool.entity.Cab;
 import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.replay.TrafficRecorder;
 import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.repository.ShardKeys;
 
 @Service
 public class CabService {
     
     private static final Logger logger = LoggerFactory.getLogger(CabService.class);
     private final CabRepository cabRepository;
+    private final FleetIndex fleetIndex;
+    private final TrafficRecorder trafficRecorder;
+    private final AirportRegistry airportRegistry;
+    private final ShardKeys shardKeys;
+    private final BulkConfig bulkConfig;
     
-    public CabService(CabRepository cabRepository) {
+    public CabService(CabRepository cabRepository, FleetIndex fleetIndex, TrafficRecorder trafficRecorder,
+                      AirportRegistry airportRegistry, ShardKeys shardKeys, BulkConfig bulkConfig) {
         this.cabRepository = cabRepository;
+        this.fleetIndex = fleetIndex;
+        this.trafficRecorder = trafficRecorder;
+        this.airportRegistry = airportRegistry;
+        this.shardKeys = shardKeys;
+        this.bulkConfig = bulkConfig;
     }
     
     /**
@@ -31,34 +54,15 @@ public class CabService {
     public Cab createCab(String driverName, double currentLat, double currentLng, 
                         int totalSeats, int luggageCapacity) {
         try {
-            Cab cab = Cab.builder()
-                    .driverName(driverName)
-                    .currentLat(currentLat)
-                    .currentLng(currentLng)
-                    .totalSeats(totalSeats)
-                    .availableSeats(totalSeats)
-                    .luggageCapacity(luggageCapacity)
-                    .availableLuggage(luggageCapacity)
-                    .status(CabStatus.AVAILABLE)
-                    .build();
+            Cab cab = newCab(driverName, currentLat, currentLng, totalSeats, luggageCapacity);
             
             logger.info("Attempting to save cab: Driver: {}, Location: ({}, {})", 
                     driverName, currentLat, currentLng);
             Cab savedCab = cabRepository.save(cab);
-            
             logger.info("✓ Cab successfully saved to database with ID: {}", savedCab.getId());
-            System.out.println("✓ Cab successfully saved to database with ID: " + savedCab.getId());
-            
-            // Verify the cab was actually saved
-            Cab retrievedCab = cabRepository.findById(savedCab.getId()).orElse(null);
-            if (retrievedCab != null) {
-                logger.info("✓ Verification: Cab retrieved from database: {}", retrievedCab);
-                System.out.println("✓ Verification: Cab retrieved from database!");
-            } else {
-                logger.warn("⚠ Warning: Cab was not found in database after saving!");
-                System.out.println("⚠ Warning: Cab was not found in database after saving!");
-            }
             
+            fleetIndex.upsert(savedCab);
+            trafficRecorder.recordCab(savedCab);
             return savedCab;
         } catch (Exception e) {
             logger.error("✗ Error saving cab to database", e);
@@ -67,6 +71,74 @@ public class CabService {
         }
     }
     
+    /**
+     * Register many cabs at once (e.g. at shift start). Valid cabs are
+     * written with one insertMany per insertBatchSize cabs; invalid ones are
+     * reported and skipped.
+     * 
+     * A batch that fails is reported FAILED item by item. Inserts are
+     * ordered, so cabs ahead of the failing document may still have been
+     * stored; they become assignable after the fleet index is next rebuilt.
+     * 
+     * @param registrations cabs to register
+     * @return per-cab results in request order
+     */
+    public BulkRegistrationResult createCabs(List<CabRegistrationDTO> registrations) {
+        BulkItemResult[] results = new BulkItemResult[registrations.size()];
+        int batchSize = Math.max(1, bulkConfig.getInsertBatchSize());
+        List<Cab> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+        
+        for (int i = 0; i < registrations.size(); i++) {
+            CabRegistrationDTO registration = registrations.get(i);
+            String problem = validationError(registration);
+            if (problem != null) {
+                results[i] = BulkItemResult.builder().index(i).status(BulkRegistrationResult.INVALID).error(problem).build();
+                continue;
+            }
+            batch.add(newCab(registration.getDriverName(), registration.getCurrentLat(), registration.getCurrentLng(),
+                    registration.getTotalSeats(), registration.getLuggageCapacity()));
+            batchIndexes.add(i);
+            if (batch.size() == batchSize) {
+                insertBatch(batch, batchIndexes, results);
+                batch = new ArrayList<>(batchSize);
+                batchIndexes = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, batchIndexes, results);
+        }
+        
+        BulkRegistrationResult result = BulkRegistrationResult.of(Arrays.asList(results));
+        logger.info("✓ Bulk registration stored {} of {} cabs ({} invalid, {} failed)",
+                result.getCreated(), result.getReceived(), result.getInvalid(), result.getFailed());
+        return result;
+    }
+    
+    /**
+     * Why a cab registration cannot be accepted
+     * 
+     * @return problem description, or null if the registration is valid
+     */
+    public static String validationError(CabRegistrationDTO registration) {
+        if (registration == null) {
+            return "cab is empty";
+        }
+        if (registration.getDriverName() == null || registration.getDriverName().isBlank()) {
+            return "driverName is empty";
+        }
+        if (Math.abs(registration.getCurrentLat()) > 90 || Math.abs(registration.getCurrentLng()) > 180) {
+            return "currentLat / currentLng out of range";
+        }
+        if (registration.getTotalSeats() <= 0) {
+            return "totalSeats must be greater than 0";
+        }
+        if (registration.getLuggageCapacity() < 0) {
+            return "luggageCapacity must not be negative";
+        }
+        return null;
+    }
+    
     /**
      * Get cab by ID
      * 
@@ -76,5 +148,46 @@ public class CabService {
     public Cab getCabById(String id) {
         return cabRepository.findById(id).orElse(null);
     }
+    
+    private Cab newCab(String driverName, double currentLat, double currentLng, int totalSeats, int luggageCapacity) {
+        String homeAirport = ShardKeys.cabShardAirport(airportRegistry.partitionAt(currentLat, currentLng));
+        return Cab.builder()
+                .id(shardKeys.newId(homeAirport))
+                .driverName(driverName)
+                .currentLat(currentLat)
+                .currentLng(currentLng)
+                .airportCode(airportRegistry.airportAt(currentLat, currentLng))
+                .homeAirportCode(homeAirport)
+                .totalSeats(totalSeats)
+                .availableSeats(totalSeats)
+                .luggageCapacity(luggageCapacity)
+                .availableLuggage(luggageCapacity)
+                .status(CabStatus.AVAILABLE)
+                .build();
+    }
+    
+    private void insertBatch(List<Cab> batch, List<Integer> indexes, BulkItemResult[] results) {
+        try {
+            List<Cab> saved = cabRepository.insert(batch);
+            for (int j = 0; j < saved.size(); j++) {
+                Cab cab = saved.get(j);
+                fleetIndex.upsert(cab);
+                trafficRecorder.recordCab(cab);
+                results[indexes.get(j)] = BulkItemResult.builder()
+                        .index(indexes.get(j))
+                        .id(cab.getId())
+                        .status(cab.getStatus().name())
+                        .build();
+            }
+        } catch (Exception e) {
+            logger.error("✗ Failed to insert a batch of {} cabs", batch.size(), e);
+            for (int index : indexes) {
+                results[index] = BulkItemResult.builder()
+                        .index(index)
+                        .status(BulkRegistrationResult.FAILED)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+    }
 }
-
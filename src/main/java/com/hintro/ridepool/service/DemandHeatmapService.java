@@ -0,0 +1,255 @@
+package com.hintro.ridepool.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.DemandConfig;
+import com.hintro.ridepool.dto.DemandCell;
+import com.hintro.ridepool.dto.RepositioningRecommendation;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.util.DistanceProvider;
+import com.hintro.ridepool.util.GeoGrid;
+import com.hintro.ridepool.util.SlidingWindowGrid;
+
+/**
+ * Demand Heatmap Service
+ * 
+ * Responsible for:
+ * 1. Aggregating incoming ride requests into per-airport grid-cell counts
+ *    over a sliding window (fixed memory, O(1) per request)
+ * 2. Comparing recent demand with AVAILABLE cabs per cell
+ * 3. Recommending moves of idle cabs toward under-supplied cells
+ */
+@Service
+public class DemandHeatmapService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DemandHeatmapService.class);
+    
+    private final DemandConfig demandConfig;
+    private final CabRepository cabRepository;
+    private final DistanceProvider distanceProvider;
+    private final Clock clock;
+    
+    private final Map<String, SlidingWindowGrid> windows = new ConcurrentHashMap<>();
+    
+    public DemandHeatmapService(DemandConfig demandConfig,
+                                CabRepository cabRepository,
+                                DistanceProvider distanceProvider,
+                                Clock clock) {
+        this.demandConfig = demandConfig;
+        this.cabRepository = cabRepository;
+        this.distanceProvider = distanceProvider;
+        this.clock = clock;
+    }
+    
+    /**
+     * Record a new ride request in its airport's demand window
+     * 
+     * @param request the ride request
+     */
+    public void recordRequest(RideRequest request) {
+        if (!demandConfig.isEnableHeatmap() || request.getAirportCode() == null) {
+            return;
+        }
+        
+        SlidingWindowGrid window = windows.computeIfAbsent(request.getAirportCode(),
+                code -> new SlidingWindowGrid(demandConfig.getMaxCellsPerAirport(),
+                        demandConfig.getBucketCount(), demandConfig.getBucketSeconds() * 1000L));
+        long cellId = GeoGrid.cellId(request.getPickupLat(), request.getPickupLng(),
+                demandConfig.getCellSizeDegrees());
+        
+        boolean recorded;
+        synchronized (window) {
+            recorded = window.increment(cellId, clock.millis());
+        }
+        if (!recorded) {
+            logger.warn("⚠ Demand window full for airport {} - event dropped", request.getAirportCode());
+        }
+    }
+    
+    /**
+     * Recent demand in the block of cells around a point (the point's cell
+     * plus the given number of rings), a cheap local density signal
+     * 
+     * @param airportCode airport code
+     * @param lat latitude
+     * @param lng longitude
+     * @param rings rings of neighbouring cells to include
+     * @return requests in the window across the block
+     */
+    public int countNearby(String airportCode, double lat, double lng, int rings) {
+        SlidingWindowGrid window = windows.get(airportCode);
+        if (window == null) {
+            return 0;
+        }
+        long center = GeoGrid.cellId(lat, lng, demandConfig.getCellSizeDegrees());
+        int row = GeoGrid.row(center);
+        int column = GeoGrid.column(center);
+        long now = clock.millis();
+        
+        int total = 0;
+        synchronized (window) {
+            for (int r = row - rings; r <= row + rings; r++) {
+                for (int c = column - rings; c <= column + rings; c++) {
+                    total += window.count(GeoGrid.pack(r, c), now);
+                }
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Get demand and supply per cell for an airport, busiest cells first
+     * 
+     * @param airportCode airport code
+     * @return cells with demand in the current window
+     */
+    public List<DemandCell> getHeatmap(String airportCode) {
+        List<long[]> counts = snapshot(airportCode);
+        Map<Long, List<Cab>> cabsByCell = availableCabsByCell(airportCode);
+        
+        List<DemandCell> cells = new ArrayList<>(counts.size());
+        for (long[] entry : counts) {
+            cells.add(toDemandCell(entry[0], (int) entry[1], cabsByCell));
+        }
+        cells.sort(Comparator.comparingInt(DemandCell::getDemand).reversed());
+        
+        logger.debug("Heatmap for airport {}: {} active cells", airportCode, cells.size());
+        return cells;
+    }
+    
+    /**
+     * Recommend repositioning of AVAILABLE cabs toward under-supplied cells
+     * 
+     * Algorithm:
+     * 1. Each cell needs ceil(demand / requestsPerCab) cabs
+     * 2. Cabs beyond their own cell's need form the donor pool
+     * 3. Cells with the largest shortfall pull the nearest donors within the reposition radius
+     * 
+     * @param airportCode airport code
+     * @return recommendations, largest shortfall first
+     */
+    public List<RepositioningRecommendation> recommendRepositioning(String airportCode) {
+        List<long[]> counts = snapshot(airportCode);
+        Map<Long, List<Cab>> cabsByCell = availableCabsByCell(airportCode);
+        
+        Map<Long, Integer> needByCell = new HashMap<>();
+        List<DemandCell> deficitCells = new ArrayList<>();
+        for (long[] entry : counts) {
+            DemandCell cell = toDemandCell(entry[0], (int) entry[1], cabsByCell);
+            int need = cabsNeeded(cell.getDemand());
+            needByCell.put(cell.getCellId(), need);
+            if (need > cell.getSupply()) {
+                deficitCells.add(cell);
+            }
+        }
+        deficitCells.sort(Comparator.comparingInt(
+                (DemandCell cell) -> cabsNeeded(cell.getDemand()) - cell.getSupply()).reversed());
+        
+        // Donors: cabs in cells that have more supply than their own demand needs
+        List<Cab> donors = new ArrayList<>();
+        for (Map.Entry<Long, List<Cab>> entry : cabsByCell.entrySet()) {
+            int keep = needByCell.getOrDefault(entry.getKey(), 0);
+            List<Cab> cabs = entry.getValue();
+            for (int i = keep; i < cabs.size(); i++) {
+                donors.add(cabs.get(i));
+            }
+        }
+        
+        List<RepositioningRecommendation> recommendations = new ArrayList<>();
+        int limit = demandConfig.getMaxRecommendations();
+        
+        for (DemandCell cell : deficitCells) {
+            if (donors.isEmpty() || recommendations.size() >= limit) {
+                break;
+            }
+            
+            double[] donorLats = new double[donors.size()];
+            double[] donorLngs = new double[donors.size()];
+            for (int i = 0; i < donors.size(); i++) {
+                donorLats[i] = donors.get(i).getCurrentLat();
+                donorLngs[i] = donors.get(i).getCurrentLng();
+            }
+            double[] distances = distanceProvider.calculateDistancesTo(
+                    donorLats, donorLngs, cell.getCenterLat(), cell.getCenterLng());
+            
+            List<Integer> nearest = new ArrayList<>();
+            for (int i = 0; i < donors.size(); i++) {
+                if (distances[i] <= demandConfig.getRepositionRadiusKm()) {
+                    nearest.add(i);
+                }
+            }
+            nearest.sort(Comparator.comparingDouble(i -> distances[i]));
+            
+            int shortfall = cabsNeeded(cell.getDemand()) - cell.getSupply();
+            List<Cab> moved = new ArrayList<>();
+            for (int i = 0; i < Math.min(shortfall, nearest.size()) && recommendations.size() < limit; i++) {
+                Cab cab = donors.get(nearest.get(i));
+                moved.add(cab);
+                recommendations.add(RepositioningRecommendation.builder()
+                        .cabId(cab.getId())
+                        .driverName(cab.getDriverName())
+                        .fromLat(cab.getCurrentLat())
+                        .fromLng(cab.getCurrentLng())
+                        .targetCellId(cell.getCellId())
+                        .targetLat(cell.getCenterLat())
+                        .targetLng(cell.getCenterLng())
+                        .distanceKm(distances[nearest.get(i)])
+                        .cellDemand(cell.getDemand())
+                        .cellSupply(cell.getSupply())
+                        .build());
+            }
+            donors.removeAll(moved);
+        }
+        
+        logger.info("Repositioning for airport {}: {} under-supplied cells, {} recommendations",
+                airportCode, deficitCells.size(), recommendations.size());
+        return recommendations;
+    }
+    
+    private List<long[]> snapshot(String airportCode) {
+        SlidingWindowGrid window = windows.get(airportCode);
+        if (window == null) {
+            return List.of();
+        }
+        synchronized (window) {
+            return window.snapshot(clock.millis());
+        }
+    }
+    
+    private Map<Long, List<Cab>> availableCabsByCell(String airportCode) {
+        Map<Long, List<Cab>> cabsByCell = new HashMap<>();
+        for (Cab cab : cabRepository.findByAirportCodeAndStatus(airportCode, CabStatus.AVAILABLE)) {
+            long cellId = GeoGrid.cellId(cab.getCurrentLat(), cab.getCurrentLng(), demandConfig.getCellSizeDegrees());
+            cabsByCell.computeIfAbsent(cellId, id -> new ArrayList<>()).add(cab);
+        }
+        return cabsByCell;
+    }
+    
+    private DemandCell toDemandCell(long cellId, int demand, Map<Long, List<Cab>> cabsByCell) {
+        double cellSize = demandConfig.getCellSizeDegrees();
+        return DemandCell.builder()
+                .cellId(cellId)
+                .centerLat(GeoGrid.centerLat(cellId, cellSize))
+                .centerLng(GeoGrid.centerLng(cellId, cellSize))
+                .demand(demand)
+                .supply(cabsByCell.getOrDefault(cellId, List.of()).size())
+                .build();
+    }
+    
+    private int cabsNeeded(int demand) {
+        return (int) Math.ceil(demand / demandConfig.getRequestsPerCab());
+    }
+}
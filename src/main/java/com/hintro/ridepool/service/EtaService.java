@@ -0,0 +1,196 @@
+package com.hintro.ridepool.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.EtaConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.util.DistanceProvider;
+import com.hintro.ridepool.util.GeoGrid;
+import com.hintro.ridepool.util.SpeedTable;
+
+/**
+ * ETA Service
+ * 
+ * Responsible for:
+ * 1. Learning average travel speeds per (origin cell, destination cell,
+ *    hour of day) from the legs of completed trips
+ * 2. Predicting how long a cab takes to reach a pickup point
+ * 
+ * A prediction uses the most specific learned speed that has enough samples:
+ * the cell pair at that hour, the cell pair at any hour, the whole area at
+ * that hour, then defaultSpeedKmh. All levels live in one fixed-size
+ * primitive table; lookups take an optimistic read stamp and only lock when
+ * a trip completion wrote concurrently, so the assignment path never blocks
+ * and never allocates.
+ */
+@Service
+public class EtaService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EtaService.class);
+    
+    /**
+     * Hour bucket for speeds learned across all hours
+     */
+    private static final int ANY_HOUR = 24;
+    
+    /**
+     * Cell key for speeds learned across all cells
+     */
+    private static final long ANY_CELL = Long.MAX_VALUE;
+    
+    private final EtaConfig etaConfig;
+    private final CabAssignmentConfig assignmentConfig;
+    private final DistanceProvider distanceProvider;
+    private final Clock clock;
+    private final ZoneRules zoneRules;
+    
+    private final SpeedTable speeds;
+    private final StampedLock lock = new StampedLock();
+    
+    public EtaService(EtaConfig etaConfig,
+                      CabAssignmentConfig assignmentConfig,
+                      DistanceProvider distanceProvider,
+                      Clock clock) {
+        this.etaConfig = etaConfig;
+        this.assignmentConfig = assignmentConfig;
+        this.distanceProvider = distanceProvider;
+        this.clock = clock;
+        this.zoneRules = ZoneId.of(etaConfig.getTimeZone()).getRules();
+        this.speeds = new SpeedTable(etaConfig.getMaxEntries());
+    }
+    
+    /**
+     * Predicted arrival time of a cab at a pickup point, from now
+     */
+    public Instant predictArrival(double fromLat, double fromLng, double toLat, double toLng) {
+        Instant now = clock.instant();
+        if (!etaConfig.isEnabled()) {
+            return now.plusSeconds(assignmentConfig.getEstimatedArrivalSeconds());
+        }
+        double distanceKm = distanceProvider.calculateDistance(fromLat, fromLng, toLat, toLng);
+        return now.plusSeconds(predictSeconds(fromLat, fromLng, toLat, toLng, distanceKm, now));
+    }
+    
+    /**
+     * Predicted travel time between two points with a known travel distance
+     * 
+     * @param distanceKm travel distance between the points
+     * @param at departure time (selects the hour bucket)
+     * @return seconds, or estimatedArrivalSeconds when the model is disabled
+     */
+    public long predictSeconds(double fromLat, double fromLng, double toLat, double toLng,
+                               double distanceKm, Instant at) {
+        if (!etaConfig.isEnabled()) {
+            return assignmentConfig.getEstimatedArrivalSeconds();
+        }
+        double cellSize = etaConfig.getCellSizeDegrees();
+        long origin = GeoGrid.cellId(fromLat, fromLng, cellSize);
+        long destination = GeoGrid.cellId(toLat, toLng, cellSize);
+        int hour = hourOf(at);
+        
+        long stamp = lock.tryOptimisticRead();
+        double speedKmh = learnedSpeed(origin, destination, hour);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                speedKmh = learnedSpeed(origin, destination, hour);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Math.round(distanceKm / speedKmh * 3600.0);
+    }
+    
+    /**
+     * Learn from a finished trip: the approach leg from where the cab was
+     * reserved to the group's pickup, and the ride leg from the pickup to the
+     * drop-off point
+     * 
+     * @param cab the cab as it was before completion (position and timestamps of the trip)
+     * @param group the cab's group (its centroid is the pickup point), null if unknown
+     * @param dropLat drop-off latitude
+     * @param dropLng drop-off longitude
+     */
+    public void learnFromTrip(Cab cab, RideGroup group, double dropLat, double dropLng) {
+        if (!etaConfig.isEnabled() || group == null || group.getMemberIds().isEmpty()) {
+            return;
+        }
+        double pickupLat = group.getCentroidLat();
+        double pickupLng = group.getCentroidLng();
+        
+        learnLeg(cab.getCurrentLat(), cab.getCurrentLng(), pickupLat, pickupLng,
+                cab.getReservedAt(), cab.getTripStartedAt());
+        learnLeg(pickupLat, pickupLng, dropLat, dropLng, cab.getTripStartedAt(), clock.instant());
+    }
+    
+    /**
+     * Learn the speed of one driven leg
+     * 
+     * @return true if the leg was learned, false if it was too short, implausible or the table was full
+     */
+    public boolean learnLeg(double fromLat, double fromLng, double toLat, double toLng,
+                            Instant departedAt, Instant arrivedAt) {
+        if (!etaConfig.isEnabled() || departedAt == null || arrivedAt == null) {
+            return false;
+        }
+        double distanceKm = distanceProvider.calculateDistance(fromLat, fromLng, toLat, toLng);
+        double hours = Duration.between(departedAt, arrivedAt).toMillis() / 3_600_000.0;
+        if (distanceKm < etaConfig.getMinLegKm() || hours <= 0) {
+            return false;
+        }
+        double speedKmh = distanceKm / hours;
+        if (speedKmh < etaConfig.getMinSpeedKmh() || speedKmh > etaConfig.getMaxSpeedKmh()) {
+            logger.debug("Ignoring leg of {} KM at {} KM/h", String.format("%.2f", distanceKm),
+                    String.format("%.1f", speedKmh));
+            return false;
+        }
+        
+        double cellSize = etaConfig.getCellSizeDegrees();
+        long origin = GeoGrid.cellId(fromLat, fromLng, cellSize);
+        long destination = GeoGrid.cellId(toLat, toLng, cellSize);
+        int hour = hourOf(departedAt);
+        double learningRate = etaConfig.getLearningRate();
+        
+        long stamp = lock.writeLock();
+        try {
+            boolean learned = speeds.record(origin, destination, hour, speedKmh, learningRate);
+            learned &= speeds.record(origin, destination, ANY_HOUR, speedKmh, learningRate);
+            learned &= speeds.record(ANY_CELL, ANY_CELL, hour, speedKmh, learningRate);
+            if (!learned && speeds.getDroppedSamples() % 1000 == 1) {
+                logger.warn("⚠ ETA table full at {} entries, {} samples dropped",
+                        speeds.size(), speeds.getDroppedSamples());
+            }
+            return learned;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    private double learnedSpeed(long origin, long destination, int hour) {
+        int minSamples = etaConfig.getMinSamples();
+        double speed = speeds.speed(origin, destination, hour, minSamples);
+        if (Double.isNaN(speed)) {
+            speed = speeds.speed(origin, destination, ANY_HOUR, minSamples);
+        }
+        if (Double.isNaN(speed)) {
+            speed = speeds.speed(ANY_CELL, ANY_CELL, hour, minSamples);
+        }
+        return Double.isNaN(speed) || speed <= 0 ? etaConfig.getDefaultSpeedKmh() : speed;
+    }
+    
+    private int hourOf(Instant at) {
+        long localSeconds = at.getEpochSecond() + zoneRules.getOffset(at).getTotalSeconds();
+        return (int) Math.floorMod(localSeconds, 86_400L) / 3600;
+    }
+}
@@ -0,0 +1,176 @@
+package com.hintro.ridepool.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hintro.ridepool.dto.ListingFilter;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.repository.CabRepository;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+/**
+ * Listing Service
+ * 
+ * Responsible for:
+ * 1. Streaming cab and ride request listings as JSON, one keyset page at a time
+ * 2. Validating field projections
+ * 
+ * A page is read from a MongoDB cursor and each document is written to the
+ * response as it arrives, so memory stays flat however large the fleet is.
+ * Only the projected fields are loaded. The body ends with the cursor to pass
+ * as "after" for the next page:
+ * {"items": [...], "nextCursor": "<last ID>" or null on the last page}
+ */
+@Service
+public class ListingService {
+    
+    /**
+     * Largest page a listing may request
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    private static final Set<String> CAB_FIELDS = fieldsOf(Cab.class);
+    private static final Set<String> RIDE_FIELDS = fieldsOf(RideRequest.class);
+    
+    private final CabRepository cabRepository;
+    private final RideRequestRepository rideRequestRepository;
+    private final ObjectMapper objectMapper;
+    
+    public ListingService(CabRepository cabRepository,
+                          RideRequestRepository rideRequestRepository,
+                          ObjectMapper objectMapper) {
+        this.cabRepository = cabRepository;
+        this.rideRequestRepository = rideRequestRepository;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Parse a comma-separated cab field projection
+     * 
+     * @param fields e.g. "status,currentLat,currentLng", null or blank for all fields
+     * @return field names, empty for all fields
+     * @throws IllegalArgumentException if a field does not exist on cabs
+     */
+    public List<String> cabFields(String fields) {
+        return parseFields(fields, CAB_FIELDS);
+    }
+    
+    /**
+     * Parse a comma-separated ride request field projection
+     * 
+     * @see #cabFields(String)
+     */
+    public List<String> rideFields(String fields) {
+        return parseFields(fields, RIDE_FIELDS);
+    }
+    
+    /**
+     * Write one page of cabs
+     * 
+     * @param filter status / airport / bounding box filter
+     * @param after nextCursor of the previous page, null for the first page
+     * @param limit most cabs written
+     * @param fields projection from {@link #cabFields(String)}
+     * @param out response body
+     */
+    public void streamCabs(ListingFilter filter, String after, int limit, List<String> fields, OutputStream out)
+            throws IOException {
+        try (Stream<Cab> page = cabRepository.streamPage(filter, after, limit + 1, fields)) {
+            writePage(page, Cab::getId, limit, fields, out);
+        }
+    }
+    
+    /**
+     * Write one page of ride requests (bounding box applies to the pickup point)
+     * 
+     * @see #streamCabs(ListingFilter, String, int, List, OutputStream)
+     */
+    public void streamRides(ListingFilter filter, String after, int limit, List<String> fields, OutputStream out)
+            throws IOException {
+        try (Stream<RideRequest> page = rideRequestRepository.streamPage(filter, after, limit + 1, fields)) {
+            writePage(page, RideRequest::getId, limit, fields, out);
+        }
+    }
+    
+    /**
+     * Write up to limit documents of a page read with limit + 1, so the extra
+     * document tells whether a next page exists without another query
+     */
+    private <T> void writePage(Stream<T> page, Function<T, String> idOf, int limit, List<String> fields,
+                               OutputStream out) throws IOException {
+        Set<String> retained = new LinkedHashSet<>(fields);
+        retained.add("id");
+        
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            String lastId = null;
+            int written = 0;
+            boolean more = false;
+            Iterator<T> documents = page.iterator();
+            while (documents.hasNext()) {
+                T document = documents.next();
+                if (written == limit) {
+                    more = true;
+                    break;
+                }
+                if (fields.isEmpty()) {
+                    json.writeObject(document);
+                } else {
+                    // Unloaded fields are null or zero on the entity; leave them out
+                    ObjectNode node = objectMapper.valueToTree(document);
+                    node.retain(retained);
+                    json.writeTree(node);
+                }
+                lastId = idOf.apply(document);
+                written++;
+            }
+            json.writeEndArray();
+            json.writeStringField("nextCursor", more ? lastId : null);
+            json.writeEndObject();
+        }
+    }
+    
+    private static List<String> parseFields(String fields, Set<String> known) {
+        List<String> parsed = new ArrayList<>();
+        if (fields == null || fields.isBlank()) {
+            return parsed;
+        }
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            parsed.add(name);
+        }
+        return parsed;
+    }
+    
+    private static Set<String> fieldsOf(Class<?> entity) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Field field : entity.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                names.add(field.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hintro.ridepool.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.SnapshotConfig;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.index.FleetIndex;
+import com.hintro.ridepool.index.SnapshotStore;
+import com.hintro.ridepool.index.SnapshotStore.Snapshot;
+import com.hintro.ridepool.index.StateJournal;
+import com.hintro.ridepool.index.WaitingRiderIndex;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Matching State Service
+ * 
+ * Responsible for:
+ * 1. Warming the fleet and waiting rider indexes when the application starts
+ * 2. Restoring them from the local snapshot plus journal instead of scanning MongoDB
+ * 3. Catching up on ride requests created while the instance was down
+ * 4. Taking periodic snapshots (and one on shutdown) so the journal stays short
+ */
+@Service
+public class MatchingStateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MatchingStateService.class);
+    
+    private final FleetIndex fleetIndex;
+    private final WaitingRiderIndex waitingRiderIndex;
+    private final SnapshotStore snapshotStore;
+    private final StateJournal stateJournal;
+    private final CabLifecycleService cabLifecycleService;
+    private final RideRequestRepository rideRequestRepository;
+    private final SnapshotConfig snapshotConfig;
+    private final CabAssignmentConfig assignmentConfig;
+    
+    private long generation;
+    private volatile boolean loaded;
+    
+    public MatchingStateService(FleetIndex fleetIndex,
+                                WaitingRiderIndex waitingRiderIndex,
+                                SnapshotStore snapshotStore,
+                                StateJournal stateJournal,
+                                CabLifecycleService cabLifecycleService,
+                                RideRequestRepository rideRequestRepository,
+                                SnapshotConfig snapshotConfig,
+                                CabAssignmentConfig assignmentConfig) {
+        this.fleetIndex = fleetIndex;
+        this.waitingRiderIndex = waitingRiderIndex;
+        this.snapshotStore = snapshotStore;
+        this.stateJournal = stateJournal;
+        this.cabLifecycleService = cabLifecycleService;
+        this.rideRequestRepository = rideRequestRepository;
+        this.snapshotConfig = snapshotConfig;
+        this.assignmentConfig = assignmentConfig;
+    }
+    
+    /**
+     * Load the indexes in the background once the application is up.
+     * Until they are warm, matching and assignment query MongoDB directly.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread loader = new Thread(this::loadState, "matching-state-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    /**
+     * Restore from snapshot when one is available, otherwise rebuild from MongoDB
+     */
+    public void loadState() {
+        long started = System.nanoTime();
+        try {
+            if (snapshotConfig.isEnabled() && restoreFromSnapshot()) {
+                logger.info("✓ Matching state restored from snapshot in {} ms",
+                        (System.nanoTime() - started) / 1_000_000);
+            } else {
+                rebuildFromDatabase();
+                logger.info("✓ Matching state rebuilt from MongoDB in {} ms",
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (Exception e) {
+            logger.error("✗ Failed to load matching state, lookups will query MongoDB", e);
+            return;
+        }
+        
+        loaded = true;
+        takeSnapshot();
+    }
+    
+    /**
+     * Write a snapshot and start a new journal generation
+     */
+    @Scheduled(fixedDelayString = "#{@snapshotConfig.intervalSeconds * 1000}",
+               initialDelayString = "#{@snapshotConfig.intervalSeconds * 1000}")
+    public synchronized void takeSnapshot() {
+        if (!snapshotConfig.isEnabled() || !loaded) {
+            return;
+        }
+        long started = System.nanoTime();
+        long next = generation + 1;
+        try {
+            // Rotate first: every change not yet in journal N+1 is already
+            // applied to the indexes, so the copy below includes it
+            stateJournal.open(next);
+            Instant takenAt = Instant.now();
+            snapshotStore.write(next, takenAt, fleetIndex.getAll(), waitingRiderIndex.getAll());
+            generation = next;
+            stateJournal.deleteBefore(next);
+            logger.debug("Snapshot {} written: {} cabs, {} riders in {} ms", next, fleetIndex.size(),
+                    waitingRiderIndex.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("✗ Failed to write matching state snapshot", e);
+        }
+    }
+    
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        takeSnapshot();
+        stateJournal.close();
+    }
+    
+    private synchronized boolean restoreFromSnapshot() {
+        Snapshot snapshot;
+        try {
+            snapshot = snapshotStore.read();
+        } catch (Exception e) {
+            logger.warn("⚠ Snapshot unreadable, rebuilding from MongoDB: {}", e.getMessage());
+            return false;
+        }
+        if (snapshot == null) {
+            logger.info("No snapshot found, rebuilding from MongoDB");
+            return false;
+        }
+        
+        fleetIndex.rebuild(snapshot.getCabs());
+        waitingRiderIndex.rebuild(snapshot.getRiders());
+        try {
+            long replayed = stateJournal.replay(snapshot.getGeneration(), fleetIndex, waitingRiderIndex);
+            logger.info("Replayed {} journal records on top of snapshot {}", replayed, snapshot.getGeneration());
+        } catch (Exception e) {
+            logger.warn("⚠ Journal replay failed, rebuilding from MongoDB: {}", e.getMessage());
+            return false;
+        }
+        generation = snapshot.getGeneration();
+        
+        // Riders created elsewhere while this instance was down
+        Instant since = snapshot.getTakenAt().minus(Duration.ofSeconds(snapshotConfig.getCatchUpOverlapSeconds()));
+        List<RideRequest> missed = rideRequestRepository.findByStatusAndRequestTimeSince(RideStatus.WAITING, since);
+        for (RideRequest rider : missed) {
+            waitingRiderIndex.upsert(rider);
+        }
+        logger.info("Caught up on {} ride requests since {}", missed.size(), since);
+        return true;
+    }
+    
+    private void rebuildFromDatabase() {
+        if (assignmentConfig.isEnableFleetIndex()) {
+            fleetIndex.rebuild(cabLifecycleService.findPoolableCabs());
+        }
+        waitingRiderIndex.rebuild(rideRequestRepository.findByStatus(RideStatus.WAITING));
+    }
+}
@@ -0,0 +1,333 @@
+package com.hintro.ridepool.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.dto.MatchedRideGroup;
+import com.hintro.ridepool.dto.RideCancellationResult;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.events.RideEventType;
+import com.hintro.ridepool.index.WaitingRiderIndex;
+import com.hintro.ridepool.matcher.GroupCapacityPolicy;
+import com.hintro.ridepool.matcher.RideMatcher;
+import com.hintro.ridepool.replay.TrafficRecorder;
+import com.hintro.ridepool.repository.RideGroupRepository;
+import com.hintro.ridepool.repository.RideRequestRepository;
+
+/**
+ * Ride Cancellation Service
+ * 
+ * Responsible for:
+ * 1. Cancelling a rider and taking it out of its group, one conditional update each
+ * 2. Giving the rider's seats back to the cab holding the group
+ * 3. Offering the freed seats to nearby WAITING riders through the matcher
+ * 4. Re-matching a rider left alone in a group without a cab
+ * 
+ * Every step touches only the documents involved (by ID or groupId); other
+ * groups and cabs are never rescanned. Riders join a group through the ride
+ * group document's seat counter, so two cancellations in one group cannot
+ * overfill it.
+ */
+@Service
+public class RideCancellationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideCancellationService.class);
+    
+    private final RideRequestRepository rideRequestRepository;
+    private final RideGroupRepository rideGroupRepository;
+    private final RideMatcher rideMatcher;
+    private final GroupCapacityPolicy groupCapacityPolicy;
+    private final CabLifecycleService cabLifecycleService;
+    private final CabAssignmentService cabAssignmentService;
+    private final WaitingRiderIndex waitingRiderIndex;
+    private final CabAssignmentConfig assignmentConfig;
+    private final RideEventLog eventLog;
+    private final TrafficRecorder trafficRecorder;
+    private final EtaService etaService;
+    
+    public RideCancellationService(RideRequestRepository rideRequestRepository,
+                                   RideGroupRepository rideGroupRepository,
+                                   RideMatcher rideMatcher,
+                                   GroupCapacityPolicy groupCapacityPolicy,
+                                   CabLifecycleService cabLifecycleService,
+                                   CabAssignmentService cabAssignmentService,
+                                   WaitingRiderIndex waitingRiderIndex,
+                                   CabAssignmentConfig assignmentConfig,
+                                   RideEventLog eventLog,
+                                   TrafficRecorder trafficRecorder,
+                                   EtaService etaService) {
+        this.rideRequestRepository = rideRequestRepository;
+        this.rideGroupRepository = rideGroupRepository;
+        this.rideMatcher = rideMatcher;
+        this.groupCapacityPolicy = groupCapacityPolicy;
+        this.cabLifecycleService = cabLifecycleService;
+        this.cabAssignmentService = cabAssignmentService;
+        this.waitingRiderIndex = waitingRiderIndex;
+        this.assignmentConfig = assignmentConfig;
+        this.eventLog = eventLog;
+        this.trafficRecorder = trafficRecorder;
+        this.etaService = etaService;
+    }
+    
+    /**
+     * Cancel a ride request
+     * 
+     * @param rideRequestId ride request ID
+     * @return what the cancellation released and who took the freed capacity
+     * @throws IllegalArgumentException if the ride request does not exist
+     * @throws IllegalStateException if the ride request is already COMPLETED or CANCELLED
+     */
+    public RideCancellationResult cancel(String rideRequestId) {
+        RideRequest before = rideRequestRepository.cancelIfActive(rideRequestId);
+        if (before == null) {
+            RideRequest current = rideRequestRepository.findById(rideRequestId)
+                    .orElseThrow(() -> new IllegalArgumentException("Ride request not found: " + rideRequestId));
+            throw new IllegalStateException("Ride request " + rideRequestId + " cannot be cancelled from " + current.getStatus());
+        }
+        waitingRiderIndex.remove(rideRequestId);
+        trafficRecorder.recordCancellation(rideRequestId);
+        eventLog.tryAppend(RideEvent.builder()
+                .type(RideEventType.CANCELLED)
+                .rideRequestId(rideRequestId)
+                .status(RideStatus.CANCELLED)
+                .groupId(before.getGroupId())
+                .cabId(before.getAssignedCabId())
+                .build());
+        logger.info("✓ Ride request {} cancelled (was {}, group {})", rideRequestId, before.getStatus(), before.getGroupId());
+        
+        RideCancellationResult result = RideCancellationResult.builder()
+                .rideRequestId(rideRequestId)
+                .previousStatus(before.getStatus())
+                .groupId(before.getGroupId())
+                .cabId(before.getAssignedCabId())
+                .rematchedRequestIds(List.of())
+                .build();
+        
+        if (before.getGroupId() == null) {
+            return result;
+        }
+        
+        try {
+            RideGroup group = rideGroupRepository.leave(before.getGroupId(), before);
+            if (group != null && group.getMemberIds().isEmpty()) {
+                rideGroupRepository.dissolve(group.getId());
+            }
+            if (before.getAssignedCabId() != null) {
+                releaseCabSeats(before, group, result);
+            } else {
+                regroupWithoutCab(before, group, result);
+            }
+        } catch (Exception e) {
+            // The cancellation itself stands; freed capacity is picked up by later requests
+            logger.error("✗ Error re-offering capacity after cancelling {}", rideRequestId, e);
+        }
+        return result;
+    }
+    
+    /**
+     * Give the rider's seats back to the cab and let nearby WAITING riders join it
+     * 
+     * @param group the group document after the cancelled rider left, null for
+     *              groups formed before ride groups were stored
+     */
+    private void releaseCabSeats(RideRequest cancelled, RideGroup group, RideCancellationResult result) {
+        String groupId = cancelled.getGroupId();
+        Cab cab = cabLifecycleService.releaseCapacity(cancelled.getAssignedCabId(), groupId,
+                cancelled.getSeatsRequired(), cancelled.getLuggageCount());
+        if (cab == null) {
+            return;
+        }
+        result.setSeatsReleased(cancelled.getSeatsRequired());
+        
+        // An emptied reservation goes straight back to the pool; only a cab still serving the group is re-offered
+        if (!assignmentConfig.isAllowMidRoutePooling() || !groupId.equals(cab.getAssignedGroupId())) {
+            return;
+        }
+        
+        List<RideRequest> offered = rideMatcher.findRidersForFreedSeats(cancelled.getAirportCode(),
+                cancelled.getPickupLat(), cancelled.getPickupLng(), cab.getAvailableSeats(), Set.of());
+        List<String> joined = new ArrayList<>();
+        for (RideRequest rider : offered) {
+            // Take the seats in the group first, then the cab's and the rider; undo on a lost race
+            if (group != null && rideGroupRepository.joinIfCapacity(groupId, rider) == null) {
+                logger.debug("Group {} has no room left for rider {}", groupId, rider.getId());
+                continue;
+            }
+            Cab updated = cabLifecycleService.reserve(cab, groupId, rider.getSeatsRequired(), rider.getLuggageCount());
+            if (updated == null) {
+                leaveGroup(group, rider);
+                continue;
+            }
+            Instant cabArrivalTime = etaService.predictArrival(updated.getCurrentLat(), updated.getCurrentLng(),
+                    rider.getPickupLat(), rider.getPickupLng());
+            RideRequest claimed = rideRequestRepository.claimIfWaiting(rider.getId(), groupId,
+                    RideStatus.ASSIGNED, updated, cabArrivalTime);
+            if (claimed == null) {
+                logger.debug("Rider {} was matched elsewhere meanwhile, returning seats", rider.getId());
+                leaveGroup(group, rider);
+                updated = cabLifecycleService.releaseCapacity(cab.getId(), groupId,
+                        rider.getSeatsRequired(), rider.getLuggageCount());
+                if (updated == null) {
+                    break;
+                }
+            } else {
+                waitingRiderIndex.upsert(claimed);
+                eventLog.tryAppend(RideEvent.of(RideEventType.ASSIGNED, claimed));
+                joined.add(claimed.getId());
+            }
+            cab = updated;
+        }
+        
+        logger.info("✓ {} waiting riders joined cab {} after cancellation", joined.size(), cab.getId());
+        result.setRematchedRequestIds(joined);
+    }
+    
+    /**
+     * The group has no cab yet: a lone remaining rider goes back to WAITING and
+     * is matched again; a larger group keeps its members and takes in nearby
+     * WAITING riders for the freed seats. A FULL group whose freed seats are not
+     * all taken again is demoted like one that loses a rider while forming:
+     * its ASSIGNED members go back to MATCHED.
+     * 
+     * @param group the group document after the cancelled rider left, null for
+     *              groups formed before ride groups were stored
+     */
+    private void regroupWithoutCab(RideRequest cancelled, RideGroup group, RideCancellationResult result) {
+        String groupId = cancelled.getGroupId();
+        Iterable<RideRequest> stored = group != null
+                ? rideRequestRepository.findAllById(group.getMemberIds())
+                : rideRequestRepository.findByAirportCodeAndGroupId(cancelled.getAirportCode(), groupId);
+        List<RideRequest> members = new ArrayList<>();
+        for (RideRequest member : stored) {
+            if (member.getAssignedCabId() == null
+                    && (member.getStatus() == RideStatus.MATCHED || member.getStatus() == RideStatus.ASSIGNED)) {
+                members.add(member);
+            }
+        }
+        
+        if (members.size() <= 1) {
+            rideRequestRepository.dissolveGroup(groupId);
+            rideGroupRepository.dissolve(groupId);
+            List<String> rematched = new ArrayList<>();
+            for (RideRequest member : members) {
+                member.setStatus(RideStatus.WAITING);
+                member.setGroupId(null);
+                waitingRiderIndex.upsert(member);
+                eventLog.tryAppend(RideEvent.of(RideEventType.REQUEUED, member));
+                
+                logger.info("Re-matching rider {} left alone in group {}", member.getId(), groupId);
+                MatchedRideGroup matchedGroup = rideMatcher.findAndGroupMatches(member);
+                cabAssignmentService.attemptCabAssignment(matchedGroup);
+                if (matchedGroup.getPassengers().size() > 1) {
+                    matchedGroup.getPassengers().forEach(passenger -> rematched.add(passenger.getId()));
+                }
+            }
+            result.setRematchedRequestIds(rematched);
+            return;
+        }
+        
+        int maxSeats = group != null ? group.getMaxSeats() : groupCapacityPolicy.targetSeats(cancelled);
+        Set<String> memberIds = new HashSet<>();
+        for (RideRequest member : members) {
+            memberIds.add(member.getId());
+        }
+        List<RideRequest> offered = rideMatcher.findRidersForFreedSeats(cancelled.getAirportCode(),
+                cancelled.getPickupLat(), cancelled.getPickupLng(),
+                maxSeats - seatsUsed(members), memberIds);
+        
+        List<String> joined = new ArrayList<>();
+        for (RideRequest rider : offered) {
+            // Take the seats in the group first: the offer was sized from a read
+            // that a concurrent cancellation in the same group may also have used
+            if (group != null && rideGroupRepository.joinIfCapacity(groupId, rider) == null) {
+                logger.debug("Group {} has no room left for rider {}", groupId, rider.getId());
+                continue;
+            }
+            RideRequest claimed = rideRequestRepository.claimIfWaiting(rider.getId(), groupId,
+                    RideStatus.MATCHED, null, null);
+            if (claimed == null) {
+                leaveGroup(group, rider);
+            }
+            if (claimed != null) {
+                waitingRiderIndex.upsert(claimed);
+                eventLog.tryAppend(RideEvent.of(RideEventType.MATCHED, claimed));
+                members.add(claimed);
+                joined.add(claimed.getId());
+            }
+        }
+        result.setRematchedRequestIds(joined);
+        
+        if (seatsUsed(members) < maxSeats) {
+            demoteToMatched(groupId, members);
+        }
+        if (!joined.isEmpty()) {
+            logger.info("✓ {} waiting riders joined group {} after cancellation", joined.size(), groupId);
+            cabAssignmentService.attemptCabAssignment(toMatchedGroup(cancelled.getAirportCode(), members, maxSeats));
+        }
+    }
+    
+    /**
+     * Give back the seats a rider took in the group document
+     */
+    private void leaveGroup(RideGroup group, RideRequest rider) {
+        if (group != null) {
+            rideGroupRepository.leave(group.getId(), rider);
+        }
+    }
+    
+    /**
+     * Move the ASSIGNED members of a group without a cab back to MATCHED
+     */
+    private void demoteToMatched(String groupId, List<RideRequest> members) {
+        if (rideRequestRepository.demoteGroupWithoutCab(groupId) == 0) {
+            return;
+        }
+        List<RideEvent> events = new ArrayList<>();
+        for (RideRequest member : members) {
+            if (member.getStatus() == RideStatus.ASSIGNED) {
+                member.setStatus(RideStatus.MATCHED);
+                waitingRiderIndex.upsert(member);
+                events.add(RideEvent.of(RideEventType.MATCHED, member));
+            }
+        }
+        eventLog.tryAppend(events);
+        logger.info("Group {} is no longer full, {} riders back to MATCHED", groupId, events.size());
+    }
+    
+    private static int seatsUsed(List<RideRequest> members) {
+        int seats = 0;
+        for (RideRequest member : members) {
+            seats += member.getSeatsRequired();
+        }
+        return seats;
+    }
+    
+    private MatchedRideGroup toMatchedGroup(String airportCode, List<RideRequest> members, int maxSeats) {
+        int seats = 0;
+        int luggage = 0;
+        for (RideRequest member : members) {
+            seats += member.getSeatsRequired();
+            luggage += member.getLuggageCount();
+        }
+        return MatchedRideGroup.builder()
+                .passengers(members)
+                .totalSeatsRequired(seats)
+                .totalLuggageCount(luggage)
+                .airportCode(airportCode)
+                .groupStatus(seats >= maxSeats ? "FULL" : "PARTIAL")
+                .build();
+    }
+}
@@ -1,17 +1,32 @@
 package com.hintro.ridepool.service;
 
-import java.time.Instant;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.hintro.ridepool.config.BulkConfig;
+import com.hintro.ridepool.dto.BulkItemResult;
+import com.hintro.ridepool.dto.BulkRegistrationResult;
 import com.hintro.ridepool.dto.MatchedRideGroup;
 import com.hintro.ridepool.dto.RideRequestDTO;
 import com.hintro.ridepool.entity.RideRequest;
 import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.events.RideEvent;
+import com.hintro.ridepool.events.RideEventLog;
+import com.hintro.ridepool.events.RideEventType;
+import com.hintro.ridepool.index.WaitingRiderIndex;
 import com.hintro.ridepool.matcher.RideMatcher;
+import com.hintro.ridepool.replay.TrafficRecorder;
 import com.hintro.ridepool.repository.RideRequestRepository;
+import com.hintro.ridepool.repository.ShardKeys;
 
 /**
  * Service layer for ride request operations
@@ -20,7 +35,9 @@ import com.hintro.ridepool.repository.RideRequestRepository;
  * 1. Handle ride request creation
  * 2. Integrate with matching engine
  * 3. Integrate with cab assignment engine
- * 4. Manage request updates
+ * 4. Feed the demand heatmap
+ * 5. Manage request updates
+ * 6. Register ride requests in bulk
  * 
  * Workflow:
  * Request Creation → Matching → Cab Assignment (if group full or min passengers)
@@ -30,15 +47,39 @@ public class RideRequestService {
     
     private static final Logger logger = LoggerFactory.getLogger(RideRequestService.class);
     private final RideRequestRepository rideRequestRepository;
+    private final ShardKeys shardKeys;
     private final RideMatcher rideMatcher;
     private final CabAssignmentService cabAssignmentService;
+    private final DemandHeatmapService demandHeatmapService;
+    private final WaitingRiderIndex waitingRiderIndex;
+    private final RideEventLog eventLog;
+    private final TrafficRecorder trafficRecorder;
+    private final BulkConfig bulkConfig;
+    private final AdmissionControlService admissionControlService;
+    private final Clock clock;
     
     public RideRequestService(RideRequestRepository rideRequestRepository,
+                            ShardKeys shardKeys,
                             RideMatcher rideMatcher,
-                            CabAssignmentService cabAssignmentService) {
+                            CabAssignmentService cabAssignmentService,
+                            DemandHeatmapService demandHeatmapService,
+                            WaitingRiderIndex waitingRiderIndex,
+                            RideEventLog eventLog,
+                            TrafficRecorder trafficRecorder,
+                            BulkConfig bulkConfig,
+                            AdmissionControlService admissionControlService,
+                            Clock clock) {
         this.rideRequestRepository = rideRequestRepository;
+        this.shardKeys = shardKeys;
         this.rideMatcher = rideMatcher;
         this.cabAssignmentService = cabAssignmentService;
+        this.demandHeatmapService = demandHeatmapService;
+        this.waitingRiderIndex = waitingRiderIndex;
+        this.eventLog = eventLog;
+        this.trafficRecorder = trafficRecorder;
+        this.bulkConfig = bulkConfig;
+        this.admissionControlService = admissionControlService;
+        this.clock = clock;
     }
     
     /**
@@ -54,67 +95,210 @@ public class RideRequestService {
      */
     public RideRequest createRideRequest(RideRequestDTO dto) {
         try {
-            logger.info("========================================");
-            logger.info("Creating new ride request for user: {}", dto.getUserId());
-            logger.info("========================================");
-            
             // Step 1: Create and save the new request
-            RideRequest rideRequest = RideRequest.builder()
-                    .userId(dto.getUserId())
-                    .pickupLat(dto.getPickupLat())
-                    .pickupLng(dto.getPickupLng())
-                    .airportCode(dto.getAirportCode())
-                    .seatsRequired(dto.getSeatsRequired())
-                    .luggageCount(dto.getLuggageCount())
-                    .requestTime(Instant.now())
-                    .status(RideStatus.WAITING)
-                    .build();
-            
-            RideRequest savedRequest = rideRequestRepository.save(rideRequest);
+            RideRequest savedRequest = rideRequestRepository.save(newRideRequest(dto));
+            logger.debug("Ride request {} created for user {}", savedRequest.getId(), dto.getUserId());
             
-            logger.info("✓ Ride request successfully created with ID: {}", savedRequest.getId());
-            System.out.println("✓ Ride request successfully created with ID: " + savedRequest.getId());
-            
-            // Verify the ride request was saved
-            RideRequest retrievedRequest = rideRequestRepository.findById(savedRequest.getId()).orElse(null);
-            if (retrievedRequest != null) {
-                logger.info("✓ Verification: Ride request retrieved from database");
-                System.out.println("✓ Verification: Ride request retrieved from database!");
-            } else {
-                logger.warn("⚠ Warning: Ride request was not found in database after saving!");
-                System.out.println("⚠ Warning: Ride request was not found in database after saving!");
-            }
+            eventLog.tryAppend(RideEvent.of(RideEventType.CREATED, savedRequest));
+            onSaved(dto, savedRequest);
             
             // Step 2: Trigger matching engine
-            logger.info("------------ INITIATING MATCHING ENGINE ----------");
-            MatchedRideGroup matchedGroup = rideMatcher.findAndGroupMatches(savedRequest);
-            logger.info("------------ MATCHING ENGINE COMPLETE ----------");
+            MatchedRideGroup matchedGroup = match(savedRequest);
             
-            // Step 3: Log matching results
-            logMatchingResults(matchedGroup, savedRequest);
-            
-            // Step 4: Trigger cab assignment if conditions met
-            logger.info("------------ INITIATING CAB ASSIGNMENT ----------");
-            boolean cabAssigned = cabAssignmentService.attemptCabAssignment(matchedGroup);
-            if (cabAssigned) {
-                logger.info("------------ CAB ASSIGNMENT SUCCESSFUL ----------");
-            } else {
-                logger.info("------------ CAB ASSIGNMENT SKIPPED/FAILED ----------");
-            }
-            
-            logger.info("========================================");
-            logger.info("Ride request creation workflow completed");
-            logger.info("========================================");
+            // Step 3: Trigger cab assignment if conditions met
+            assign(matchedGroup);
             
             return savedRequest;
             
         } catch (Exception e) {
             logger.error("✗ Error creating ride request", e);
-            System.err.println("✗ Error creating ride request: " + e.getMessage());
             throw new RuntimeException("Failed to create ride request", e);
         }
     }
     
+    /**
+     * Save a batch of new ride requests in one round trip (pipeline persistence stage)
+     * 
+     * @param dtos passenger details, in arrival order
+     * @return saved requests, in the same order
+     */
+    public List<RideRequest> persistBatch(List<RideRequestDTO> dtos) {
+        List<RideRequest> requests = new ArrayList<>(dtos.size());
+        for (RideRequestDTO dto : dtos) {
+            requests.add(newRideRequest(dto));
+        }
+        List<RideRequest> saved = rideRequestRepository.insert(requests);
+        
+        List<RideEvent> events = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            events.add(RideEvent.of(RideEventType.CREATED, saved.get(i)));
+            onSaved(dtos.get(i), saved.get(i));
+        }
+        eventLog.tryAppend(events);
+        logger.debug("{} ride requests created", saved.size());
+        return saved;
+    }
+    
+    /**
+     * Register many ride requests at once (e.g. from a partner integration).
+     * 
+     * Valid requests are saved with one insertMany per insertBatchSize
+     * requests and then matched one at a time in request order, the same way
+     * single requests are. Every saved request is already WAITING when the
+     * first one is matched, so requests can group with any other in the call
+     * instead of only with those submitted before them, and a request grouped
+     * as someone's companion is not matched again. Cab assignment runs once
+     * per resulting group after all of them are matched.
+     * 
+     * Each airport's requests take one admission slot per insertBatchSize
+     * requests, held until the set is assigned, so a bulk call counts against
+     * the airport's lane like the single requests it replaces. Requests an
+     * airport has no slot for are reported REJECTED and not stored.
+     * 
+     * @param dtos passenger details
+     * @return per-request results in request order
+     */
+    public BulkRegistrationResult createRideRequests(List<RideRequestDTO> dtos) {
+        BulkItemResult[] results = new BulkItemResult[dtos.size()];
+        int batchSize = Math.max(1, bulkConfig.getInsertBatchSize());
+        List<RideRequest> saved = new ArrayList<>(dtos.size());
+        List<Integer> savedIndexes = new ArrayList<>(dtos.size());
+        List<Runnable> slots = new ArrayList<>();
+        try {
+            // Step 1: Validate and take admission slots per airport
+            Map<String, List<Integer>> indexesByAirport = new LinkedHashMap<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                String problem = validationError(dtos.get(i));
+                if (problem != null) {
+                    results[i] = BulkItemResult.builder().index(i).status(BulkRegistrationResult.INVALID).error(problem).build();
+                    continue;
+                }
+                indexesByAirport.computeIfAbsent(dtos.get(i).getAirportCode(), code -> new ArrayList<>()).add(i);
+            }
+            boolean[] admitted = new boolean[dtos.size()];
+            for (Map.Entry<String, List<Integer>> airport : indexesByAirport.entrySet()) {
+                admitForBulk(airport.getKey(), airport.getValue(), batchSize, admitted, slots, results);
+            }
+            
+            // Step 2: Save the admitted requests in batches
+            List<RideRequestDTO> batch = new ArrayList<>(batchSize);
+            List<Integer> batchIndexes = new ArrayList<>(batchSize);
+            for (int i = 0; i < dtos.size(); i++) {
+                if (!admitted[i]) {
+                    continue;
+                }
+                batch.add(dtos.get(i));
+                batchIndexes.add(i);
+                if (batch.size() == batchSize) {
+                    persistForBulk(batch, batchIndexes, saved, savedIndexes, results);
+                    batch = new ArrayList<>(batchSize);
+                    batchIndexes = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                persistForBulk(batch, batchIndexes, saved, savedIndexes, results);
+            }
+            
+            return matchAndAssignForBulk(saved, savedIndexes, results);
+        } finally {
+            slots.forEach(Runnable::run);
+        }
+    }
+    
+    /**
+     * Match a saved bulk set and assign cabs to the groups it formed
+     * 
+     * @return the bulk result with the final state of every saved request
+     */
+    private BulkRegistrationResult matchAndAssignForBulk(List<RideRequest> saved, List<Integer> savedIndexes,
+                                                         BulkItemResult[] results) {
+        // Step 3: Match each saved request still WAITING; latest known state of every request touched
+        Map<String, RideRequest> latest = new HashMap<>();
+        List<MatchedRideGroup> groups = new ArrayList<>();
+        for (RideRequest request : saved) {
+            RideRequest current = latest.get(request.getId());
+            if (current != null && current.getStatus() != RideStatus.WAITING) {
+                continue;
+            }
+            try {
+                MatchedRideGroup group = match(request);
+                for (RideRequest passenger : group.getPassengers()) {
+                    latest.put(passenger.getId(), passenger);
+                }
+                groups.add(group);
+            } catch (Exception e) {
+                logger.error("✗ Matching failed for ride request {}", request.getId(), e);
+            }
+        }
+        
+        // Step 4: Assign cabs to the groups formed
+        for (MatchedRideGroup group : groups) {
+            try {
+                assign(group);
+            } catch (Exception e) {
+                logger.error("✗ Cab assignment failed for group of ride request {}",
+                        group.getPassengers().get(0).getId(), e);
+            }
+        }
+        
+        for (int j = 0; j < saved.size(); j++) {
+            RideRequest request = latest.getOrDefault(saved.get(j).getId(), saved.get(j));
+            results[savedIndexes.get(j)] = BulkItemResult.builder()
+                    .index(savedIndexes.get(j))
+                    .id(request.getId())
+                    .status(request.getStatus().name())
+                    .groupId(request.getGroupId())
+                    .build();
+        }
+        
+        BulkRegistrationResult result = BulkRegistrationResult.of(Arrays.asList(results));
+        logger.info("✓ Bulk registration stored {} of {} ride requests in {} groups ({} invalid, {} rejected, {} failed)",
+                result.getCreated(), result.getReceived(), groups.size(), result.getInvalid(), result.getRejected(),
+                result.getFailed());
+        return result;
+    }
+    
+    /**
+     * Why a ride request cannot be accepted
+     * 
+     * @return problem description, or null if the request is valid
+     */
+    public static String validationError(RideRequestDTO dto) {
+        if (dto == null) {
+            return "ride request is empty";
+        }
+        if (dto.getUserId() == null || dto.getUserId().isEmpty()) {
+            return "userId is empty";
+        }
+        if (dto.getAirportCode() == null || dto.getAirportCode().isEmpty()) {
+            return "airportCode is empty";
+        }
+        if (dto.getSeatsRequired() <= 0) {
+            return "seatsRequired must be greater than 0";
+        }
+        return null;
+    }
+    
+    /**
+     * Run the matching engine for a saved request
+     * 
+     * @param savedRequest request to match
+     * @return group the request ended up in (possibly just itself)
+     */
+    public MatchedRideGroup match(RideRequest savedRequest) {
+        return rideMatcher.findAndGroupMatches(savedRequest);
+    }
+    
+    /**
+     * Assign a cab to a matched group if it is ready for one
+     * 
+     * @param matchedGroup group returned by {@link #match(RideRequest)}
+     * @return true if a cab was assigned
+     */
+    public boolean assign(MatchedRideGroup matchedGroup) {
+        return cabAssignmentService.attemptCabAssignment(matchedGroup);
+    }
+    
     /**
      * Get ride request by ID
      * 
@@ -126,34 +310,79 @@ public class RideRequestService {
         return rideRequestRepository.findById(id).orElse(null);
     }
     
+    private RideRequest newRideRequest(RideRequestDTO dto) {
+        return RideRequest.builder()
+                .id(shardKeys.newId(dto.getAirportCode()))
+                .userId(dto.getUserId())
+                .pickupLat(dto.getPickupLat())
+                .pickupLng(dto.getPickupLng())
+                .airportCode(dto.getAirportCode())
+                .seatsRequired(dto.getSeatsRequired())
+                .luggageCount(dto.getLuggageCount())
+                .requestTime(clock.instant())
+                .status(RideStatus.WAITING)
+                .build();
+    }
+    
     /**
-     * Log matching results for debugging and monitoring
+     * Take one admission slot of an airport per batchSize of its bulk requests.
+     * Requests left without a slot are reported REJECTED.
+     * 
+     * @param admitted set for each request that got a slot
+     * @param slots collects the slots taken, to release once the set is assigned
      */
-    private void logMatchingResults(MatchedRideGroup matchedGroup, RideRequest newRequest) {
-        logger.info("========================================");
-        logger.info("MATCHING RESULTS");
-        logger.info("========================================");
-        logger.info("Request ID: {}", newRequest.getId());
-        logger.info("Airport: {}", matchedGroup.getAirportCode());
-        logger.info("Matched passengers: {}", matchedGroup.getPassengers().size());
-        logger.info("Total seats: {}", matchedGroup.getTotalSeatsRequired());
-        logger.info("Total luggage: {}", matchedGroup.getTotalLuggageCount());
-        logger.info("Group status: {}", matchedGroup.getGroupStatus());
-        
-        if ("FULL".equals(matchedGroup.getGroupStatus())) {
-            logger.info("✓ GROUP FULL - CAB ASSIGNMENT READY");
-            System.out.println("✓ GROUP FULL - CAB ASSIGNMENT READY");
-        } else {
-            logger.info("⏳ GROUP PARTIAL - WAITING FOR MORE PASSENGERS");
-            System.out.println("⏳ GROUP PARTIAL - WAITING FOR MORE PASSENGERS");
+    private void admitForBulk(String airportCode, List<Integer> indexes, int batchSize, boolean[] admitted,
+                              List<Runnable> slots, BulkItemResult[] results) {
+        for (int from = 0; from < indexes.size(); from += batchSize) {
+            try {
+                slots.add(admissionControlService.acquire(airportCode));
+            } catch (AdmissionRejectedException e) {
+                logger.warn("⚠ Bulk registration for airport {} rejected from item {}: {}",
+                        airportCode, indexes.get(from), e.getMessage());
+                refuseForBulk(indexes.subList(from, indexes.size()), BulkRegistrationResult.REJECTED,
+                        e.getMessage() + ", retry after " + e.getRetryAfterSeconds() + "s", results);
+                return;
+            }
+            for (int index : indexes.subList(from, Math.min(from + batchSize, indexes.size()))) {
+                admitted[index] = true;
+            }
         }
+    }
+    
+    private static void refuseForBulk(List<Integer> indexes, String status, String error, BulkItemResult[] results) {
+        for (int index : indexes) {
+            results[index] = BulkItemResult.builder().index(index).status(status).error(error).build();
+        }
+    }
+    
+    /**
+     * Save one batch of a bulk registration; a failed batch is reported FAILED item by item
+     */
+    private void persistForBulk(List<RideRequestDTO> batch, List<Integer> indexes,
+                                List<RideRequest> saved, List<Integer> savedIndexes, BulkItemResult[] results) {
+        try {
+            saved.addAll(persistBatch(batch));
+            savedIndexes.addAll(indexes);
+        } catch (Exception e) {
+            logger.error("✗ Failed to insert a batch of {} ride requests", batch.size(), e);
+            for (int index : indexes) {
+                results[index] = BulkItemResult.builder()
+                        .index(index)
+                        .status(BulkRegistrationResult.FAILED)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+    }
+    
+    /**
+     * In-memory bookkeeping for a newly saved request
+     */
+    private void onSaved(RideRequestDTO dto, RideRequest savedRequest) {
+        trafficRecorder.recordRequest(dto, savedRequest);
         
-        logger.info("Passengers:");
-        matchedGroup.getPassengers().forEach(p -> 
-            logger.info("  - User: {}, Seats: {}, Luggage: {}, Status: {}", 
-                    p.getUserId(), p.getSeatsRequired(), p.getLuggageCount(), p.getStatus())
-        );
-        logger.info("========================================");
+        // Feed the demand heatmap (O(1), in memory)
+        demandHeatmapService.recordRequest(savedRequest);
+        waitingRiderIndex.upsert(savedRequest);
     }
 }
-
@@ -0,0 +1,65 @@
+package com.hintro.ridepool.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one stage of assigning a cab to a group
+ * 
+ * Stages, in order: SEARCH finds cabs with room for the group, RANK keeps
+ * those within radius ordered by predicted arrival, RESERVE claims the best
+ * one still free and ASSIGN writes the cab to every passenger. The event
+ * duration is the time spent in the stage.
+ */
+@Name("ridepool.AssignmentStage")
+@Label("Assignment Stage")
+@Category({"Ridepool", "Assignment"})
+@StackTrace(false)
+public class AssignmentStageEvent extends Event {
+    
+    public static final String SEARCH = "SEARCH";
+    public static final String RANK = "RANK";
+    public static final String RESERVE = "RESERVE";
+    public static final String ASSIGN = "ASSIGN";
+    
+    @Label("Stage")
+    String stage;
+    
+    @Label("Airport")
+    String airportCode;
+    
+    @Label("Candidates")
+    @Description("Cabs left after the stage")
+    int candidates;
+    
+    @Label("Group Size")
+    @Description("Riders in the group")
+    int groupSize;
+    
+    /**
+     * Begin timing a stage
+     */
+    public static AssignmentStageEvent start(String stage, String airportCode, int groupSize) {
+        AssignmentStageEvent event = new AssignmentStageEvent();
+        event.stage = stage;
+        event.airportCode = airportCode;
+        event.groupSize = groupSize;
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * End the stage and commit it if a recording wants it
+     */
+    public void finish(int candidates) {
+        end();
+        if (shouldCommit()) {
+            this.candidates = candidates;
+            commit();
+        }
+    }
+}
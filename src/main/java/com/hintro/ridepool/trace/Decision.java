@@ -0,0 +1,61 @@
+package com.hintro.ridepool.trace;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One traced match or cab assignment decision. Built from values the engine
+ * computes anyway, so tracing costs no string formatting on the request path.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Decision {
+    
+    /**
+     * Assigned when the decision is recorded
+     */
+    private long sequence;
+    private Instant timestamp;
+    
+    private DecisionType type;
+    private DecisionOutcome outcome;
+    
+    /**
+     * Request being matched, or the first rider of the group getting a cab
+     */
+    private String rideRequestId;
+    private String groupId;
+    private String airportCode;
+    
+    /**
+     * MATCH: waiting riders found near the pickup / compatible ones the strategy chose from.
+     * ASSIGNMENT: cabs with room / cabs within the assignment radius.
+     */
+    private int candidates;
+    private int compatible;
+    
+    /**
+     * Riders and seats in the resulting group
+     */
+    private int groupSize;
+    private int seats;
+    
+    /**
+     * MATCH: matching radius and strategy used. ASSIGNMENT: assignment radius.
+     */
+    private double radiusKm;
+    private String strategy;
+    
+    /**
+     * Cab reserved, ASSIGNMENT only
+     */
+    private String cabId;
+    
+    private long durationMicros;
+}
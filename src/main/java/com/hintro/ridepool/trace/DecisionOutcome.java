@@ -0,0 +1,23 @@
+package com.hintro.ridepool.trace;
+
+/**
+ * How a traced decision ended
+ */
+public enum DecisionOutcome {
+    
+    // Matching
+    MATCHING_DISABLED,      // Matching switched off, request left alone
+    NO_CANDIDATES,          // No waiting rider near enough or small enough to group with
+    GROUPED_PARTIAL,        // Grouped, group can still take riders
+    GROUPED_FULL,           // Grouped, group is full
+    ALONE,                  // Companions were taken by concurrent matches, or the request was
+    
+    // Cab assignment
+    ASSIGNMENT_DISABLED,    // Cab assignment switched off
+    BELOW_MIN_PASSENGERS,   // Group too small to get a cab yet
+    NO_CAB,                 // No cab with room within the assignment radius
+    RESERVE_LOST,           // Every ranked cab was taken by a concurrent assignment
+    ASSIGNED,               // Cab reserved and riders assigned
+    
+    FAILED                  // Error; the request stays as it was
+}
@@ -0,0 +1,182 @@
+package com.hintro.ridepool.trace;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.TracingConfig;
+import com.hintro.ridepool.dto.DecisionTraceStats;
+import com.hintro.ridepool.pipeline.RingBuffer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the most recent match and cab assignment decisions in memory and
+ * logs a sample of them, one structured line each.
+ * 
+ * Recording a decision claims a sequence, stores the record in a fixed-size
+ * ring (overwriting the oldest) and, when sampled, offers it to a bounded
+ * lock-free queue. A single background thread formats and logs the queued
+ * decisions under the "ridepool.decisions" logger, so the request path never
+ * formats a log line or blocks on the appender. FAILED decisions are always
+ * logged; when the writer falls behind, sampled decisions are dropped and
+ * counted.
+ */
+@Component
+public class DecisionTracer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DecisionTracer.class);
+    private static final Logger decisionLog = LoggerFactory.getLogger("ridepool.decisions");
+    
+    private static final int LOG_BATCH = 256;
+    
+    private final TracingConfig tracingConfig;
+    private final Clock clock;
+    
+    private final int mask;
+    private final AtomicReferenceArray<Decision> recent;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final RingBuffer<Decision> logQueue;
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder droppedLogs = new LongAdder();
+    
+    private Thread writer;
+    private volatile boolean running;
+    
+    public DecisionTracer(TracingConfig tracingConfig, Clock clock) {
+        this.tracingConfig = tracingConfig;
+        this.clock = clock;
+        int size = Integer.highestOneBit(Math.max(2, tracingConfig.getBufferSize()) - 1) << 1;
+        this.mask = size - 1;
+        this.recent = new AtomicReferenceArray<>(size);
+        this.logQueue = new RingBuffer<>(tracingConfig.getLogQueueSize());
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!tracingConfig.isEnabled()) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "decision-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("✓ Decision tracing on: last {} decisions kept, {}% logged",
+                recent.length(), tracingConfig.getLogSampleRate() * 100);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return tracingConfig.isEnabled();
+    }
+    
+    /**
+     * Record a decision; assigns its sequence and timestamp
+     */
+    public void record(Decision decision) {
+        if (!tracingConfig.isEnabled()) {
+            return;
+        }
+        long seq = sequence.incrementAndGet();
+        decision.setSequence(seq);
+        decision.setTimestamp(clock.instant());
+        recent.set((int) (seq & mask), decision);
+        
+        if (running && (decision.getOutcome() == DecisionOutcome.FAILED
+                || ThreadLocalRandom.current().nextDouble() < tracingConfig.getLogSampleRate())) {
+            if (!logQueue.offer(decision)) {
+                droppedLogs.increment();
+            }
+        }
+    }
+    
+    /**
+     * Most recent decisions passing a filter, newest first
+     * 
+     * @param filter decisions to keep
+     * @param limit most decisions returned
+     */
+    public List<Decision> recent(Predicate<Decision> filter, int limit) {
+        List<Decision> result = new ArrayList<>(Math.min(limit, recent.length()));
+        long newest = sequence.get();
+        long oldest = Math.max(1, newest - recent.length() + 1);
+        for (long seq = newest; seq >= oldest && result.size() < limit; seq--) {
+            Decision decision = recent.get((int) (seq & mask));
+            // A slot may still hold an older decision while its new one is being stored
+            if (decision != null && decision.getSequence() == seq && filter.test(decision)) {
+                result.add(decision);
+            }
+        }
+        return result;
+    }
+    
+    public DecisionTraceStats getStats() {
+        return DecisionTraceStats.builder()
+                .enabled(tracingConfig.isEnabled())
+                .recorded(sequence.get())
+                .bufferSize(recent.length())
+                .logged(logged.sum())
+                .droppedLogs(droppedLogs.sum())
+                .build();
+    }
+    
+    private void run() {
+        List<Decision> batch = new ArrayList<>(LOG_BATCH);
+        while (running || logQueue.size() > 0) {
+            batch.clear();
+            if (logQueue.drainTo(batch, LOG_BATCH) == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                continue;
+            }
+            for (Decision decision : batch) {
+                write(decision);
+            }
+            logged.add(batch.size());
+        }
+    }
+    
+    private static void write(Decision d) {
+        if (d.getType() == DecisionType.MATCH) {
+            decisionLog.info("seq={} type=MATCH outcome={} request={} group={} airport={} candidates={} compatible={} "
+                            + "groupSize={} seats={} radiusKm={} strategy={} durationUs={}",
+                    d.getSequence(), d.getOutcome(), d.getRideRequestId(), d.getGroupId(), d.getAirportCode(),
+                    d.getCandidates(), d.getCompatible(), d.getGroupSize(), d.getSeats(),
+                    String.format("%.2f", d.getRadiusKm()), d.getStrategy(), d.getDurationMicros());
+        } else {
+            decisionLog.info("seq={} type=ASSIGNMENT outcome={} request={} group={} airport={} cabs={} inRadius={} "
+                            + "groupSize={} seats={} radiusKm={} cab={} durationUs={}",
+                    d.getSequence(), d.getOutcome(), d.getRideRequestId(), d.getGroupId(), d.getAirportCode(),
+                    d.getCandidates(), d.getCompatible(), d.getGroupSize(), d.getSeats(),
+                    String.format("%.2f", d.getRadiusKm()), d.getCabId(), d.getDurationMicros());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.hintro.ridepool.trace;
+
+/**
+ * Engine decisions that are traced
+ */
+public enum DecisionType {
+    MATCH,          // Grouping a new ride request with waiting riders
+    ASSIGNMENT      // Finding and reserving a cab for a group
+}
@@ -0,0 +1,66 @@
+package com.hintro.ridepool.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one stage of matching a ride request
+ * 
+ * Stages, in order: SEARCH reads waiting riders near the pickup, FILTER keeps
+ * those within radius and seats and ranks them, GROUP runs the matching
+ * strategy and CLAIM moves the group out of WAITING. The event duration is
+ * the time spent in the stage. Unless a recording enables the event, a stage
+ * costs an allocation the JIT usually removes and one flag check.
+ */
+@Name("ridepool.MatchingStage")
+@Label("Matching Stage")
+@Category({"Ridepool", "Matching"})
+@StackTrace(false)
+public class MatchingStageEvent extends Event {
+    
+    public static final String SEARCH = "SEARCH";
+    public static final String FILTER = "FILTER";
+    public static final String GROUP = "GROUP";
+    public static final String CLAIM = "CLAIM";
+    
+    @Label("Stage")
+    String stage;
+    
+    @Label("Airport")
+    String airportCode;
+    
+    @Label("Candidates")
+    @Description("Waiting riders left after the stage")
+    int candidates;
+    
+    @Label("Group Size")
+    @Description("Riders in the group after the stage, including the new request")
+    int groupSize;
+    
+    /**
+     * Begin timing a stage
+     */
+    public static MatchingStageEvent start(String stage, String airportCode) {
+        MatchingStageEvent event = new MatchingStageEvent();
+        event.stage = stage;
+        event.airportCode = airportCode;
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * End the stage and commit it if a recording wants it
+     */
+    public void finish(int candidates, int groupSize) {
+        end();
+        if (shouldCommit()) {
+            this.candidates = candidates;
+            this.groupSize = groupSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hintro.ridepool.trace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hintro.ridepool.config.ProfilingConfig;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Time-boxed JDK Flight Recorder recordings taken on demand.
+ * 
+ * A recording starts from the configured JDK settings (CPU samples,
+ * allocation, locks, GC) plus the matching and assignment stage events, runs
+ * for the requested time and is written to a file for the caller to send.
+ * One recording runs at a time. Nothing is recorded between requests, so
+ * the stage events cost only a flag check.
+ */
+@Component
+public class ProfilingRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingRecorder.class);
+    
+    private final ProfilingConfig profilingConfig;
+    private final AtomicBoolean recording = new AtomicBoolean();
+    
+    public ProfilingRecorder(ProfilingConfig profilingConfig) {
+        this.profilingConfig = profilingConfig;
+    }
+    
+    public boolean isEnabled() {
+        return profilingConfig.isEnabled() && FlightRecorder.isAvailable();
+    }
+    
+    /**
+     * Recording length for a request
+     * 
+     * @param durationSeconds requested length, null or not positive for the default
+     * @return the length, at most maxDurationSeconds
+     */
+    public Duration durationFor(Integer durationSeconds) {
+        int seconds = durationSeconds == null || durationSeconds <= 0
+                ? profilingConfig.getDefaultDurationSeconds() : durationSeconds;
+        return Duration.ofSeconds(Math.min(seconds, profilingConfig.getMaxDurationSeconds()));
+    }
+    
+    /**
+     * Record for a fixed time, blocking the caller until the recording is written
+     * 
+     * @param duration how long to record (see durationFor)
+     * @return the .jfr file, which the caller deletes
+     * @throws IllegalStateException if a recording is already running
+     */
+    public Path record(Duration duration) throws IOException, ParseException, InterruptedException {
+        if (!recording.compareAndSet(false, true)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Path file = null;
+        try {
+            file = newFile();
+            try (Recording jfr = new Recording(Configuration.getConfiguration(profilingConfig.getSettings()))) {
+                Duration threshold = Duration.ofMillis(profilingConfig.getStageThresholdMillis());
+                jfr.setName("ridepool-profile");
+                jfr.enable(MatchingStageEvent.class).withThreshold(threshold);
+                jfr.enable(AssignmentStageEvent.class).withThreshold(threshold);
+                jfr.start();
+                logger.info("✓ Flight recording started for {}s", duration.toSeconds());
+                try {
+                    Thread.sleep(duration.toMillis());
+                } finally {
+                    jfr.stop();
+                }
+                jfr.dump(file);
+            }
+            logger.info("✓ Flight recording written to {} ({} bytes)", file, Files.size(file));
+            return file;
+        } catch (IOException | ParseException | InterruptedException | RuntimeException e) {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        } finally {
+            recording.set(false);
+        }
+    }
+    
+    private Path newFile() throws IOException {
+        String directory = profilingConfig.getDirectory();
+        if (directory == null || directory.isBlank()) {
+            return Files.createTempFile("ridepool-", ".jfr");
+        }
+        return Files.createTempFile(Files.createDirectories(Path.of(directory)), "ridepool-", ".jfr");
+    }
+}
@@ -12,7 +12,7 @@ import org.springframework.stereotype.Component;
  * on Earth given their latitude and longitude.
  */
 @Component
-public class DistanceCalculator {
+public class DistanceCalculator implements DistanceProvider {
     
     private static final Logger logger = LoggerFactory.getLogger(DistanceCalculator.class);
     
@@ -28,6 +28,7 @@ public class DistanceCalculator {
      * @param lng2 Longitude of second point
      * @return Distance in kilometers
      */
+    @Override
     public double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
         try {
             // Convert degrees to radians
@@ -62,6 +63,7 @@ public class DistanceCalculator {
      * @param radiusKm Radius in kilometers
      * @return true if distance is within radius, false otherwise
      */
+    @Override
     public boolean isWithinRadius(double lat1, double lng1, double lat2, double lng2, double radiusKm) {
         double distance = calculateDistance(lat1, lng1, lat2, lng2);
         return distance <= radiusKm;
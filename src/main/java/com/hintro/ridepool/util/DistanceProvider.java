@@ -0,0 +1,72 @@
+package com.hintro.ridepool.util;
+
+/**
+ * Pluggable source of travel distances between geographic coordinates.
+ * 
+ * Implementations:
+ * - DistanceCalculator: straight-line Haversine distance (default)
+ * - RoadNetworkDistanceProvider: shortest road distance over a local road graph
+ * 
+ * The active provider is selected with ridepool.routing.provider
+ */
+public interface DistanceProvider {
+    
+    /**
+     * Calculate travel distance from the first point to the second
+     * 
+     * @param lat1 Latitude of origin
+     * @param lng1 Longitude of origin
+     * @param lat2 Latitude of destination
+     * @param lng2 Longitude of destination
+     * @return Distance in kilometers
+     */
+    double calculateDistance(double lat1, double lng1, double lat2, double lng2);
+    
+    /**
+     * Check if distance between two points is within given radius
+     * 
+     * @param lat1 Latitude of origin
+     * @param lng1 Longitude of origin
+     * @param lat2 Latitude of destination
+     * @param lng2 Longitude of destination
+     * @param radiusKm Radius in kilometers
+     * @return true if distance is within radius, false otherwise
+     */
+    default boolean isWithinRadius(double lat1, double lng1, double lat2, double lng2, double radiusKm) {
+        return calculateDistance(lat1, lng1, lat2, lng2) <= radiusKm;
+    }
+    
+    /**
+     * One-to-many query: distances from one origin to several destinations
+     * 
+     * @param fromLat Latitude of origin
+     * @param fromLng Longitude of origin
+     * @param toLats Latitudes of destinations
+     * @param toLngs Longitudes of destinations
+     * @return Distances in kilometers, aligned with the destination arrays
+     */
+    default double[] calculateDistances(double fromLat, double fromLng, double[] toLats, double[] toLngs) {
+        double[] distances = new double[toLats.length];
+        for (int i = 0; i < toLats.length; i++) {
+            distances[i] = calculateDistance(fromLat, fromLng, toLats[i], toLngs[i]);
+        }
+        return distances;
+    }
+    
+    /**
+     * Many-to-one query: distances from several origins to one destination
+     * 
+     * @param fromLats Latitudes of origins
+     * @param fromLngs Longitudes of origins
+     * @param toLat Latitude of destination
+     * @param toLng Longitude of destination
+     * @return Distances in kilometers, aligned with the origin arrays
+     */
+    default double[] calculateDistancesTo(double[] fromLats, double[] fromLngs, double toLat, double toLng) {
+        double[] distances = new double[fromLats.length];
+        for (int i = 0; i < fromLats.length; i++) {
+            distances[i] = calculateDistance(fromLats[i], fromLngs[i], toLat, toLng);
+        }
+        return distances;
+    }
+}
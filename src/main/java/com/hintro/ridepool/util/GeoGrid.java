@@ -0,0 +1,63 @@
+package com.hintro.ridepool.util;
+
+/**
+ * Uniform latitude/longitude grid used to bucket positions into cells.
+ * 
+ * A cell ID packs the row (latitude index) into the high 32 bits and the
+ * column (longitude index) into the low 32 bits, so it fits a primitive long
+ * and neighbouring cells can be derived without lookups.
+ */
+public final class GeoGrid {
+    
+    private GeoGrid() {
+    }
+    
+    /**
+     * Cell containing a coordinate
+     * 
+     * @param lat latitude
+     * @param lng longitude
+     * @param cellSizeDegrees cell edge length in degrees
+     * @return packed cell ID
+     */
+    public static long cellId(double lat, double lng, double cellSizeDegrees) {
+        return pack((int) Math.floor(lat / cellSizeDegrees), (int) Math.floor(lng / cellSizeDegrees));
+    }
+    
+    /**
+     * Pack a row/column pair into a cell ID
+     */
+    public static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+    
+    public static int row(long cellId) {
+        return (int) (cellId >> 32);
+    }
+    
+    public static int column(long cellId) {
+        return (int) cellId;
+    }
+    
+    /**
+     * Latitude of the cell center
+     */
+    public static double centerLat(long cellId, double cellSizeDegrees) {
+        return (row(cellId) + 0.5) * cellSizeDegrees;
+    }
+    
+    /**
+     * Longitude of the cell center
+     */
+    public static double centerLng(long cellId, double cellSizeDegrees) {
+        return (column(cellId) + 0.5) * cellSizeDegrees;
+    }
+    
+    /**
+     * Number of cell rings needed to cover a radius around a latitude
+     */
+    public static int ringsForRadius(double lat, double radiusKm, double cellSizeDegrees) {
+        double cellKm = cellSizeDegrees * 111.0 * Math.max(0.1, Math.cos(Math.toRadians(lat)));
+        return (int) Math.ceil(radiusKm / cellKm);
+    }
+}
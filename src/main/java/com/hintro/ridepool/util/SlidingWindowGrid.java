@@ -0,0 +1,181 @@
+package com.hintro.ridepool.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-memory sliding-window event counter per grid cell.
+ * 
+ * The window is split into bucketCount time buckets. Each cell owns one
+ * counter per bucket, stamped with the epoch it belongs to; a counter whose
+ * stamp is stale is treated as zero and reset lazily on the next write. This
+ * makes every update O(1) with no background expiry sweep.
+ * 
+ * Cells live in an open-addressing table of fixed capacity. Cells with no
+ * events inside the window are reclaimed when new cells need a slot; if the
+ * table is full of live cells, new events are dropped and counted.
+ * 
+ * Not thread-safe: callers synchronize per instance.
+ */
+public class SlidingWindowGrid {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private final int capacity;
+    private final int mask;
+    private final int bucketCount;
+    private final long bucketMillis;
+    
+    private final long[] keys;
+    private final long[] lastEpoch;
+    private final int[] counts;
+    private final long[] stamps;
+    
+    private long droppedEvents;
+    
+    /**
+     * @param maxCells maximum distinct live cells (rounded up to a power of two)
+     * @param bucketCount number of time buckets in the window
+     * @param bucketMillis length of each bucket
+     */
+    public SlidingWindowGrid(int maxCells, int bucketCount, long bucketMillis) {
+        int size = Integer.highestOneBit(Math.max(2, maxCells - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = bucketMillis;
+        this.keys = new long[size];
+        this.lastEpoch = new long[size];
+        this.counts = new int[size * bucketCount];
+        this.stamps = new long[size * bucketCount];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    /**
+     * Record one event in a cell
+     * 
+     * @param cellId cell ID
+     * @param nowMillis event time
+     * @return true if recorded, false if the table was full
+     */
+    public boolean increment(long cellId, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int slot = findOrClaim(cellId, epoch);
+        if (slot < 0) {
+            droppedEvents++;
+            return false;
+        }
+        
+        int index = slot * bucketCount + (int) (epoch % bucketCount);
+        if (stamps[index] != epoch) {
+            stamps[index] = epoch;
+            counts[index] = 0;
+        }
+        counts[index]++;
+        lastEpoch[slot] = epoch;
+        return true;
+    }
+    
+    /**
+     * Events recorded in a cell within the window ending at nowMillis
+     */
+    public int count(long cellId, long nowMillis) {
+        int slot = find(cellId);
+        return slot < 0 ? 0 : windowCount(slot, nowMillis / bucketMillis);
+    }
+    
+    /**
+     * All cells with at least one event in the window
+     * 
+     * @return pairs of {cellId, count}
+     */
+    public List<long[]> snapshot(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        List<long[]> cells = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            if (keys[slot] == EMPTY || isExpired(slot, epoch)) {
+                continue;
+            }
+            int count = windowCount(slot, epoch);
+            if (count > 0) {
+                cells.add(new long[]{keys[slot], count});
+            }
+        }
+        return cells;
+    }
+    
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+    
+    public long getWindowMillis() {
+        return bucketMillis * bucketCount;
+    }
+    
+    private int windowCount(int slot, long epoch) {
+        int total = 0;
+        int base = slot * bucketCount;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            long stamp = stamps[base + bucket];
+            if (stamp > epoch - bucketCount && stamp <= epoch) {
+                total += counts[base + bucket];
+            }
+        }
+        return total;
+    }
+    
+    private boolean isExpired(int slot, long epoch) {
+        return lastEpoch[slot] <= epoch - bucketCount;
+    }
+    
+    private int find(long cellId) {
+        int slot = hash(cellId);
+        for (int probe = 0; probe < capacity; probe++) {
+            if (keys[slot] == cellId) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Locate a cell, or claim an empty or expired slot for it.
+     * Probing continues past expired slots so an existing entry further
+     * along the chain is never duplicated.
+     */
+    private int findOrClaim(long cellId, long epoch) {
+        int slot = hash(cellId);
+        int reusable = -1;
+        for (int probe = 0; probe < capacity; probe++) {
+            if (keys[slot] == cellId) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                if (reusable < 0) {
+                    reusable = slot;
+                }
+                break;
+            }
+            if (reusable < 0 && isExpired(slot, epoch)) {
+                reusable = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        if (reusable >= 0) {
+            keys[reusable] = cellId;
+            Arrays.fill(stamps, reusable * bucketCount, (reusable + 1) * bucketCount, Long.MIN_VALUE);
+        }
+        return reusable;
+    }
+    
+    private int hash(long cellId) {
+        long h = cellId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,143 @@
+package com.hintro.ridepool.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory table of learned travel speeds keyed by (origin cell,
+ * destination cell, hour bucket).
+ * 
+ * Keys and values live in parallel primitive arrays of an open-addressing
+ * table kept at most half full, so a lookup is a hash and a few array reads
+ * with no allocation. Each entry keeps an exponentially weighted average
+ * speed and its sample count; the first samples are averaged plainly so one
+ * early outlier does not dominate. Entries are never evicted: once the table
+ * holds maxEntries keys, samples for new keys are dropped and counted.
+ * 
+ * Not thread-safe: callers synchronize per instance. Arrays are never
+ * replaced, so a concurrent reader can at worst see a torn entry, which an
+ * optimistic lock detects.
+ */
+public class SpeedTable {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private final int maxEntries;
+    private final int capacity;
+    private final int mask;
+    
+    private final long[] origins;
+    private final long[] destinations;
+    private final byte[] hours;
+    private final float[] speeds;
+    private final int[] samples;
+    
+    private int size;
+    private long droppedSamples;
+    
+    /**
+     * @param maxEntries maximum distinct keys
+     */
+    public SpeedTable(int maxEntries) {
+        int tableSize = Integer.highestOneBit(Math.max(2, 2 * maxEntries - 1)) << 1;
+        this.maxEntries = maxEntries;
+        this.capacity = tableSize;
+        this.mask = tableSize - 1;
+        this.origins = new long[tableSize];
+        this.destinations = new long[tableSize];
+        this.hours = new byte[tableSize];
+        this.speeds = new float[tableSize];
+        this.samples = new int[tableSize];
+        Arrays.fill(origins, EMPTY);
+    }
+    
+    /**
+     * Fold one observed speed into an entry
+     * 
+     * @param origin origin cell ID
+     * @param destination destination cell ID
+     * @param hour hour bucket
+     * @param speedKmh observed speed
+     * @param learningRate weight of a new sample once the entry is warm
+     * @return false if the key is new and the table is full
+     */
+    public boolean record(long origin, long destination, int hour, double speedKmh, double learningRate) {
+        int slot = findOrClaim(origin, destination, hour);
+        if (slot < 0) {
+            droppedSamples++;
+            return false;
+        }
+        
+        int count = samples[slot] + 1;
+        double weight = Math.max(learningRate, 1.0 / count);
+        speeds[slot] = (float) (speeds[slot] + weight * (speedKmh - speeds[slot]));
+        samples[slot] = count;
+        return true;
+    }
+    
+    /**
+     * Learned speed of an entry
+     * 
+     * @param minSamples samples required before the entry is trusted
+     * @return speed in KM/h, or NaN if the entry is missing or has too few samples
+     */
+    public double speed(long origin, long destination, int hour, int minSamples) {
+        int slot = find(origin, destination, hour);
+        if (slot < 0 || samples[slot] < minSamples) {
+            return Double.NaN;
+        }
+        return speeds[slot];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int maxEntries() {
+        return maxEntries;
+    }
+    
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+    
+    private int find(long origin, long destination, int hour) {
+        int slot = hash(origin, destination, hour);
+        for (int probe = 0; probe < capacity; probe++) {
+            if (origins[slot] == EMPTY) {
+                return -1;
+            }
+            if (origins[slot] == origin && destinations[slot] == destination && hours[slot] == hour) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    private int findOrClaim(long origin, long destination, int hour) {
+        int slot = hash(origin, destination, hour);
+        for (int probe = 0; probe < capacity; probe++) {
+            if (origins[slot] == EMPTY) {
+                if (size >= maxEntries) {
+                    return -1;
+                }
+                // Key first, then the sentinel-clearing origin, so readers never match a half-written key
+                destinations[slot] = destination;
+                hours[slot] = (byte) hour;
+                origins[slot] = origin;
+                size++;
+                return slot;
+            }
+            if (origins[slot] == origin && destinations[slot] == destination && hours[slot] == hour) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    private int hash(long origin, long destination, int hour) {
+        long h = (origin * 0x9E3779B97F4A7C15L) ^ (destination * 0xC2B2AE3D27D4EB4FL) ^ (hour * 0x165667B19E3779F9L);
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
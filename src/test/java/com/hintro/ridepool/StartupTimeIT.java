@@ -0,0 +1,67 @@
+package com.hintro.ridepool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Startup-time check for the fast-startup build.
+ * 
+ * Runs by failsafe in the fast-startup profile (mvnw -Pfast-startup verify),
+ * after the package phase has written the jar and its CDS archive. Starts the
+ * jar in a fresh JVM with -Xshare:on, so the run fails instead of silently
+ * starting without the archive, refreshes the AOT context once and exits.
+ * Override the budget with -Dridepool.startup.max-millis.
+ */
+@EnabledIfSystemProperty(named = "ridepool.startup.archive", matches = ".+")
+class StartupTimeIT {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeIT.class);
+    
+    private static final long DEFAULT_MAX_MILLIS = 20_000;
+    
+    @Test
+    void archivedStartupRefreshesWithinBudget() throws Exception {
+        long maxMillis = Long.getLong("ridepool.startup.max-millis", DEFAULT_MAX_MILLIS);
+        Path jar = Path.of(System.getProperty("ridepool.startup.jar"));
+        Path archive = Path.of(System.getProperty("ridepool.startup.archive"));
+        assertTrue(Files.isRegularFile(archive), "CDS archive missing: " + archive);
+        
+        Path output = jar.resolveSibling("startup-time.log");
+        ProcessBuilder builder = new ProcessBuilder(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-XX:SharedArchiveFile=" + archive,
+                "-Xshare:on",
+                "-Dspring.aot.enabled=true",
+                "-Dspring.context.exit=onRefresh",
+                "-jar", jar.toString(),
+                "--server.port=0",
+                "--spring.main.banner-mode=off"))
+                .directory(jar.getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile());
+        
+        long started = System.nanoTime();
+        Process process = builder.start();
+        boolean exited = process.waitFor(maxMillis * 2, TimeUnit.MILLISECONDS);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        if (!exited) {
+            process.destroyForcibly();
+        }
+        logger.info("Archived startup refreshed in {} ms (budget {} ms), output in {}", elapsedMillis, maxMillis, output);
+        
+        assertTrue(exited, "Startup did not exit within " + maxMillis * 2 + " ms, see " + output);
+        assertEquals(0, process.exitValue(), "Startup failed, see " + output);
+        assertTrue(elapsedMillis < maxMillis,
+                "Startup took " + elapsedMillis + " ms, budget is " + maxMillis + " ms");
+    }
+}
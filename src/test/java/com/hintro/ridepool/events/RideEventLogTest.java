@@ -0,0 +1,343 @@
+package com.hintro.ridepool.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hintro.ridepool.config.EventLogConfig;
+import com.hintro.ridepool.entity.RideStatus;
+
+/**
+ * Segment rollover, CRC checks, torn-tail recovery on startup and reading
+ * from a sequence, by writing a log, damaging its tail and reopening it
+ */
+class RideEventLogTest {
+    
+    private static final Instant NOW = Instant.parse("2026-02-16T10:30:00Z");
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void readStartsAtTheRequestedSequence() throws IOException {
+        RideEventLog log = open();
+        try {
+            for (int i = 1; i <= 10; i++) {
+                assertEquals(i, log.append(List.of(matched("ride-" + i))));
+            }
+            
+            assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L, 10L), sequences(log, 4));
+            
+            List<Long> firstThree = new ArrayList<>();
+            log.read(1, event -> {
+                firstThree.add(event.getSequence());
+                return firstThree.size() < 3;
+            });
+            assertEquals(List.of(1L, 2L, 3L), firstThree, "visitor returning false stops the read");
+        } finally {
+            log.stop();
+        }
+    }
+    
+    @Test
+    void eventFieldsSurviveTheRoundTrip() throws IOException {
+        RideEvent created = RideEvent.builder()
+                .type(RideEventType.CREATED)
+                .rideRequestId("ride-1")
+                .status(RideStatus.WAITING)
+                .userId("user-1")
+                .airportCode("DEL")
+                .pickupLat(28.5562)
+                .pickupLng(77.1000)
+                .seatsRequired(2)
+                .luggageCount(3)
+                .build();
+        RideEvent assigned = RideEvent.builder()
+                .type(RideEventType.ASSIGNED)
+                .rideRequestId("ride-1")
+                .status(RideStatus.ASSIGNED)
+                .groupId("group-1")
+                .cabId("cab-1")
+                .driverName("Ramesh")
+                .cabArrivalTime(NOW.plusSeconds(30))
+                .build();
+        
+        RideEventLog log = open();
+        try {
+            log.append(List.of(created, assigned));
+            List<RideEvent> read = readAll(log);
+            
+            assertEquals(2, read.size());
+            RideEvent first = read.get(0);
+            assertEquals(RideEventType.CREATED, first.getType());
+            assertEquals(NOW, first.getTimestamp(), "missing timestamps come from the clock");
+            assertEquals("user-1", first.getUserId());
+            assertEquals("DEL", first.getAirportCode());
+            assertEquals(28.5562, first.getPickupLat());
+            assertEquals(77.1000, first.getPickupLng());
+            assertEquals(2, first.getSeatsRequired());
+            assertEquals(3, first.getLuggageCount());
+            
+            RideEvent second = read.get(1);
+            assertEquals(RideStatus.ASSIGNED, second.getStatus());
+            assertEquals("group-1", second.getGroupId());
+            assertEquals("cab-1", second.getCabId());
+            assertEquals("Ramesh", second.getDriverName());
+            assertEquals(NOW.plusSeconds(30), second.getCabArrivalTime());
+        } finally {
+            log.stop();
+        }
+    }
+    
+    @Test
+    void reopenContinuesTheSequence() throws IOException {
+        RideEventLog log = open();
+        for (int i = 1; i <= 5; i++) {
+            log.append(List.of(matched("ride-" + i)));
+        }
+        log.stop();
+        
+        RideEventLog reopened = open();
+        try {
+            assertEquals(5, reopened.getCommittedSequence());
+            assertEquals(6, reopened.append(List.of(matched("ride-6"))));
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), sequences(reopened, 1));
+        } finally {
+            reopened.stop();
+        }
+    }
+    
+    @Test
+    void queuedEventsAreFlushedOnStop() throws IOException {
+        RideEventLog log = open();
+        for (int i = 1; i <= 50; i++) {
+            assertTrue(log.tryAppend(matched("ride-" + i)));
+        }
+        log.stop();
+        assertFalse(log.tryAppend(matched("ride-51")), "stopped log accepts nothing");
+        
+        RideEventLog reopened = open();
+        try {
+            assertEquals(50, reopened.getCommittedSequence());
+        } finally {
+            reopened.stop();
+        }
+    }
+    
+    @Test
+    void disabledLogRejectsAppends() throws IOException {
+        EventLogConfig config = new EventLogConfig();
+        config.setDirectory(directory.toString());
+        RideEventLog log = new RideEventLog(config, Clock.fixed(NOW, ZoneOffset.UTC));
+        log.start();
+        
+        assertFalse(log.isEnabled());
+        assertFalse(log.tryAppend(matched("ride-1")));
+        assertThrows(IllegalStateException.class, () -> log.append(List.of(matched("ride-1"))));
+        assertTrue(segments().isEmpty(), "disabled log writes no files");
+    }
+    
+    @Test
+    void rollsOverIntoNewSegmentsAndReadsAcrossThem() throws IOException {
+        // ~8 KB per event against 1 MB segments
+        String driverName = "d".repeat(8_000);
+        RideEventLog log = open();
+        try {
+            for (int i = 1; i <= 300; i++) {
+                RideEvent event = matched("ride-" + i);
+                event.setDriverName(driverName);
+                log.append(List.of(event));
+            }
+            
+            List<Path> segments = segments();
+            assertTrue(segments.size() >= 3, "expected rollover, got " + segments.size() + " segment(s)");
+            assertEquals("segment-00000000000000000001.log", segments.get(0).getFileName().toString());
+            
+            // Start inside the last segment so earlier ones are skipped
+            long lastFirst = firstSequenceOf(segments.get(segments.size() - 1));
+            List<Long> tail = sequences(log, lastFirst + 1);
+            assertEquals(lastFirst + 1, tail.get(0));
+            assertEquals(300L, tail.get(tail.size() - 1));
+            assertEquals(300 - lastFirst, tail.size());
+            
+            List<RideEvent> all = readAll(log);
+            assertEquals(300, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i + 1, all.get(i).getSequence());
+                assertEquals("ride-" + (i + 1), all.get(i).getRideRequestId());
+            }
+        } finally {
+            log.stop();
+        }
+        
+        RideEventLog reopened = open();
+        try {
+            assertEquals(300, reopened.getCommittedSequence(), "recovery scans the newest segment");
+            assertEquals(301, reopened.append(List.of(matched("ride-301"))));
+        } finally {
+            reopened.stop();
+        }
+    }
+    
+    @Test
+    void tornTailIsZeroedOnStartup() throws IOException {
+        RideEventLog log = open();
+        for (int i = 1; i <= 5; i++) {
+            log.append(List.of(matched("ride-" + i)));
+        }
+        log.stop();
+        
+        // Half-written record: a header promising more bytes than were written
+        Path segment = segments().get(0);
+        int end;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            end = endOfRecords(buffer);
+            buffer.putInt(end, 200);
+            buffer.putInt(end + 4, 0x12345678);
+            for (int i = 0; i < 50; i++) {
+                buffer.put(end + 8 + i, (byte) 0x7f);
+            }
+            buffer.force();
+        }
+        
+        RideEventLog reopened = open();
+        try {
+            assertEquals(5, reopened.getCommittedSequence());
+            assertTrue(isZero(segment, end, 58), "torn bytes are zeroed");
+            
+            assertEquals(6, reopened.append(List.of(matched("ride-6"))));
+            List<RideEvent> all = readAll(reopened);
+            assertEquals(6, all.size());
+            assertEquals("ride-6", all.get(5).getRideRequestId());
+        } finally {
+            reopened.stop();
+        }
+    }
+    
+    @Test
+    void recordWithBadChecksumEndsTheLog() throws IOException {
+        RideEventLog log = open();
+        for (int i = 1; i <= 5; i++) {
+            log.append(List.of(matched("ride-" + i)));
+        }
+        log.stop();
+        
+        // Flip one payload byte of the fourth record
+        Path segment = segments().get(0);
+        int fourth;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            fourth = 0;
+            for (int i = 0; i < 3; i++) {
+                fourth += 8 + buffer.getInt(fourth);
+            }
+            int payloadByte = fourth + 8 + 2;
+            buffer.put(payloadByte, (byte) (buffer.get(payloadByte) ^ 0xff));
+            buffer.force();
+        }
+        
+        RideEventLog reopened = open();
+        try {
+            assertEquals(3, reopened.getCommittedSequence(), "records from the corrupt one on are dropped");
+            assertTrue(isZero(segment, fourth, 64));
+            
+            assertEquals(4, reopened.append(List.of(matched("ride-new"))));
+            List<RideEvent> all = readAll(reopened);
+            assertEquals(List.of("ride-1", "ride-2", "ride-3", "ride-new"),
+                    all.stream().map(RideEvent::getRideRequestId).toList());
+        } finally {
+            reopened.stop();
+        }
+    }
+    
+    private RideEventLog open() throws IOException {
+        EventLogConfig config = new EventLogConfig();
+        config.setEnabled(true);
+        config.setDirectory(directory.toString());
+        config.setSegmentSizeMb(1);
+        RideEventLog log = new RideEventLog(config, Clock.fixed(NOW, ZoneOffset.UTC));
+        log.start();
+        return log;
+    }
+    
+    private static RideEvent matched(String rideRequestId) {
+        return RideEvent.builder()
+                .type(RideEventType.MATCHED)
+                .rideRequestId(rideRequestId)
+                .status(RideStatus.MATCHED)
+                .groupId("group-1")
+                .build();
+    }
+    
+    private static List<RideEvent> readAll(RideEventLog log) throws IOException {
+        List<RideEvent> events = new ArrayList<>();
+        log.read(1, events::add);
+        return events;
+    }
+    
+    private static List<Long> sequences(RideEventLog log, long from) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        log.read(from, event -> sequences.add(event.getSequence()));
+        return sequences;
+    }
+    
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.log")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+    
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+    
+    /**
+     * Offset of the first zero length header, i.e. just past the last record
+     */
+    private static int endOfRecords(ByteBuffer buffer) {
+        int position = 0;
+        int length;
+        while ((length = buffer.getInt(position)) > 0) {
+            position += 8 + length;
+        }
+        return position;
+    }
+    
+    private static boolean isZero(Path segment, int from, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.hintro.ridepool.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.config.SnapshotConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.index.SnapshotStore.Snapshot;
+import com.hintro.ridepool.util.DistanceCalculator;
+
+/**
+ * Warm restart from snapshot plus journal, sized like a busy multi-airport deployment
+ */
+class SnapshotRestoreTest {
+    
+    private static final int WAITING_RIDERS = 1_000_000;
+    private static final int CABS = 20_000;
+    private static final String[] AIRPORTS = {"DEL", "BOM", "BLR"};
+    
+    /**
+     * Budget for reading the snapshot and rebuilding both indexes
+     */
+    private static final long MAX_RESTORE_MILLIS = 10_000;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void restoresOneMillionWaitingRequestsWithinBudget() throws Exception {
+        SnapshotConfig snapshotConfig = new SnapshotConfig();
+        snapshotConfig.setDirectory(directory.toString());
+        SnapshotStore store = new SnapshotStore(snapshotConfig);
+        
+        // Running instance: indexes loaded, snapshot 1 taken, later changes journaled
+        StateJournal journal = new StateJournal(snapshotConfig);
+        CabAssignmentConfig assignmentConfig = new CabAssignmentConfig();
+        AirportRegistry airportRegistry = new AirportRegistry(new AirportConfig(), assignmentConfig,
+                new DistanceCalculator());
+        FleetIndex liveFleet = new FleetIndex(assignmentConfig, journal, airportRegistry);
+        WaitingRiderIndex liveRiders = new WaitingRiderIndex(journal, new RideMatcherConfig());
+        liveFleet.rebuild(generateCabs());
+        liveRiders.rebuild(generateRiders());
+        
+        Instant takenAt = Instant.now();
+        journal.open(1);
+        store.write(1, takenAt, liveFleet.getAll(), liveRiders.getAll());
+        liveRiders.upsert(rider(WAITING_RIDERS, "DEL", 28.60, 77.20));
+        liveRiders.upsert(RideRequest.builder().id(riderId(0)).status(RideStatus.MATCHED).build());
+        liveRiders.remove(riderId(1));
+        liveFleet.upsert(Cab.builder().id("cab-0").status(CabStatus.ON_TRIP).availableSeats(0).build());
+        journal.close();
+        liveFleet.rebuild(List.of());
+        liveRiders.rebuild(List.of());
+        
+        // Restart: fresh indexes, journaling off until restore completes
+        StateJournal restartedJournal = new StateJournal(snapshotConfig);
+        FleetIndex fleetIndex = new FleetIndex(assignmentConfig, restartedJournal, airportRegistry);
+        WaitingRiderIndex riderIndex = new WaitingRiderIndex(restartedJournal, new RideMatcherConfig());
+        
+        long started = System.nanoTime();
+        Snapshot snapshot = store.read();
+        assertNotNull(snapshot);
+        fleetIndex.rebuild(snapshot.getCabs());
+        riderIndex.rebuild(snapshot.getRiders());
+        long replayed = restartedJournal.replay(snapshot.getGeneration(), fleetIndex, riderIndex);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        
+        System.out.printf("Restored %d waiting riders and %d cabs in %d ms%n",
+                riderIndex.size(), fleetIndex.size(), elapsedMillis);
+        
+        assertEquals(1, snapshot.getGeneration());
+        assertEquals(takenAt.toEpochMilli(), snapshot.getTakenAt().toEpochMilli());
+        assertEquals(4, replayed);
+        assertEquals(WAITING_RIDERS + 1 - 2, riderIndex.size());
+        assertEquals(CABS - 1, fleetIndex.size());
+        assertTrue(elapsedMillis < MAX_RESTORE_MILLIS,
+                "Restore took " + elapsedMillis + " ms, budget is " + MAX_RESTORE_MILLIS + " ms");
+        
+        RideRequest restored = riderIndex.findWaiting("BOM").stream()
+                .filter(r -> r.getId().equals(riderId(4)))
+                .findFirst()
+                .orElse(null);
+        assertNotNull(restored);
+        assertEquals("user4", restored.getUserId());
+        assertEquals(RideStatus.WAITING, restored.getStatus());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L + 4), restored.getRequestTime());
+    }
+    
+    private static List<RideRequest> generateRiders() {
+        Random random = new Random(42);
+        List<RideRequest> riders = new ArrayList<>(WAITING_RIDERS);
+        for (int i = 0; i < WAITING_RIDERS; i++) {
+            riders.add(rider(i, AIRPORTS[i % AIRPORTS.length],
+                    28.4 + random.nextDouble() * 0.4, 76.9 + random.nextDouble() * 0.5));
+        }
+        return riders;
+    }
+    
+    private static List<Cab> generateCabs() {
+        Random random = new Random(7);
+        List<Cab> cabs = new ArrayList<>(CABS);
+        for (int i = 0; i < CABS; i++) {
+            cabs.add(Cab.builder()
+                    .id("cab-" + i)
+                    .driverName("Driver " + i)
+                    .currentLat(28.4 + random.nextDouble() * 0.4)
+                    .currentLng(76.9 + random.nextDouble() * 0.5)
+                    .totalSeats(4)
+                    .availableSeats(4)
+                    .luggageCapacity(10)
+                    .availableLuggage(10)
+                    .status(CabStatus.AVAILABLE)
+                    .build());
+        }
+        return cabs;
+    }
+    
+    private static RideRequest rider(int i, String airportCode, double lat, double lng) {
+        return RideRequest.builder()
+                .id(riderId(i))
+                .userId("user" + i)
+                .pickupLat(lat)
+                .pickupLng(lng)
+                .airportCode(airportCode)
+                .seatsRequired(1 + i % 4)
+                .luggageCount(i % 3)
+                .requestTime(Instant.ofEpochMilli(1_700_000_000_000L + i))
+                .status(RideStatus.WAITING)
+                .build();
+    }
+    
+    private static String riderId(int i) {
+        return String.format("%024x", i);
+    }
+}
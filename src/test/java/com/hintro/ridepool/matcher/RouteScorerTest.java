@@ -0,0 +1,157 @@
+package com.hintro.ridepool.matcher;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.config.RideMatcherConfig;
+import com.hintro.ridepool.dto.RoutePlan;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.util.DistanceProvider;
+
+/**
+ * Pickup ordering, route scoring and detour limits on a flat plane where one
+ * coordinate unit is one kilometre and the airport is at the origin
+ */
+class RouteScorerTest {
+    
+    private static final double DELTA = 1e-9;
+    
+    private static final DistanceProvider PLANE = (lat1, lng1, lat2, lng2) -> Math.hypot(lat2 - lat1, lng2 - lng1);
+    
+    @Test
+    void ridersOnTheWayArePickedUpFarthestFirstWithoutDetour() {
+        RouteScorer scorer = scorer(6, 1.5);
+        DistanceMatrix matrix = matrix(new double[][] {{2, 0}, {10, 0}, {5, 0}});
+        
+        RoutePlan plan = scorer.planRoute(matrix, new int[] {1, 2, 3});
+        
+        assertArrayEquals(new int[] {2, 3, 1}, plan.getPickupOrder());
+        assertEquals(10.0, plan.getTotalDistanceKm(), DELTA);
+        assertEquals(17.0, plan.getSoloDistanceKm(), DELTA);
+        assertEquals(1.0, plan.getMaxDetourRatio(), DELTA);
+        assertTrue(plan.isExact());
+        assertTrue(scorer.isAcceptable(plan));
+    }
+    
+    @Test
+    void detourBeyondTheLimitIsRejected() {
+        // Two riders at right angles: whoever is picked up first rides 10 + sqrt(200) KM
+        DistanceMatrix matrix = matrix(new double[][] {{10, 0}, {0, 10}});
+        
+        RoutePlan plan = scorer(6, 1.5).planRoute(matrix, new int[] {1, 2});
+        
+        assertEquals(10.0 + Math.sqrt(200.0), plan.getTotalDistanceKm(), DELTA);
+        assertEquals(1.0 + Math.sqrt(2.0), plan.getMaxDetourRatio(), DELTA);
+        assertFalse(scorer(6, 1.5).isAcceptable(plan));
+        assertTrue(scorer(6, 2.5).isAcceptable(plan));
+    }
+    
+    @Test
+    void detourAtExactlyTheLimitIsAccepted() {
+        // The rider 5 KM out is picked up first and rides 3 + 4 KM: a 1.4 detour
+        DistanceMatrix matrix = matrix(new double[][] {{4, 0}, {4, 3}});
+        RoutePlan plan = scorer(6, 1.0).planRoute(matrix, new int[] {1, 2});
+        
+        assertEquals(1.4, plan.getMaxDetourRatio(), DELTA);
+        assertTrue(scorer(6, plan.getMaxDetourRatio()).isAcceptable(plan));
+        assertFalse(scorer(6, 1.39).isAcceptable(plan));
+    }
+    
+    @Test
+    void shortSoloTripsAreMeasuredAgainstOneKilometre() {
+        DistanceMatrix matrix = matrix(new double[][] {{0.3, 0}, {3, 0}});
+        
+        RoutePlan single = scorer(6, 1.5).planRoute(matrix, new int[] {1});
+        RoutePlan pair = scorer(6, 1.5).planRoute(matrix, new int[] {1, 2});
+        
+        assertEquals(0.3, single.getMaxDetourRatio(), DELTA);
+        // The rider 0.3 KM out rides 0.3 KM; the far rider rides 3 KM with no detour
+        assertEquals(1.0, pair.getMaxDetourRatio(), DELTA);
+    }
+    
+    @Test
+    void exactOrderMatchesBruteForce() {
+        Random random = new Random(26);
+        RouteScorer scorer = scorer(6, 1.5);
+        for (int round = 0; round < 50; round++) {
+            double[][] points = new double[6][];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = new double[] {random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10};
+            }
+            DistanceMatrix matrix = matrix(points);
+            int[] stops = {1, 2, 3, 4, 5, 6};
+            
+            RoutePlan plan = scorer.planRoute(matrix, stops);
+            
+            assertTrue(plan.isExact());
+            assertEquals(shortestRoute(matrix, stops), plan.getTotalDistanceKm(), 1e-6);
+            assertEquals(routeLength(matrix, plan.getPickupOrder()), plan.getTotalDistanceKm(), 1e-6);
+        }
+    }
+    
+    @Test
+    void largeGroupsUseTheFarthestFirstHeuristic() {
+        RouteScorer scorer = scorer(2, 1.5);
+        DistanceMatrix matrix = matrix(new double[][] {{1, 0}, {6, 0}, {3, 0}});
+        
+        RoutePlan plan = scorer.planRoute(matrix, new int[] {1, 2, 3});
+        
+        assertFalse(plan.isExact());
+        assertArrayEquals(new int[] {2, 3, 1}, plan.getPickupOrder());
+        assertEquals(6.0, plan.getTotalDistanceKm(), DELTA);
+    }
+    
+    private static RouteScorer scorer(int maxExactStops, double maxDetourRatio) {
+        RideMatcherConfig config = new RideMatcherConfig();
+        config.setMaxExactPickupStops(maxExactStops);
+        config.setMaxDetourRatio(maxDetourRatio);
+        return new RouteScorer(config);
+    }
+    
+    private static DistanceMatrix matrix(double[][] pickups) {
+        List<RideRequest> requests = new ArrayList<>();
+        for (double[] pickup : pickups) {
+            requests.add(RideRequest.builder().pickupLat(pickup[0]).pickupLng(pickup[1]).build());
+        }
+        return new DistanceMatrix(0.0, 0.0, requests, PLANE);
+    }
+    
+    private static double routeLength(DistanceMatrix matrix, int[] order) {
+        double length = matrix.soloDistance(order[order.length - 1]);
+        for (int i = 0; i < order.length - 1; i++) {
+            length += matrix.get(order[i], order[i + 1]);
+        }
+        return length;
+    }
+    
+    private static double shortestRoute(DistanceMatrix matrix, int[] stops) {
+        return permute(matrix, stops.clone(), 0);
+    }
+    
+    private static double permute(DistanceMatrix matrix, int[] order, int fixed) {
+        if (fixed == order.length) {
+            return routeLength(matrix, order);
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = fixed; i < order.length; i++) {
+            swap(order, fixed, i);
+            best = Math.min(best, permute(matrix, order, fixed + 1));
+            swap(order, fixed, i);
+        }
+        return best;
+    }
+    
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
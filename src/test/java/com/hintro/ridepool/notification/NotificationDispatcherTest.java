@@ -0,0 +1,155 @@
+package com.hintro.ridepool.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.config.NotificationConfig;
+import com.hintro.ridepool.dto.Notification;
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.NotificationType;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.replay.InMemoryEngine;
+
+/**
+ * Notifications queued by matching and cab assignment reach the sinks from
+ * the outbox, off the request path
+ */
+class NotificationDispatcherTest {
+    
+    @Test
+    void deliversRiderAndDriverNotificationsOnce() throws Exception {
+        try (InMemoryEngine engine = new InMemoryEngine(Map.of(), Clock.systemUTC())) {
+            RecordingSink sink = new RecordingSink();
+            NotificationDispatcher dispatcher = dispatcher(engine, sink, Clock.systemUTC());
+            
+            String cabId = engine.getCabService().createCab("driver-1", 28.5560, 77.1000, 4, 8).getId();
+            RideRequest first = request(engine, "user-1", 28.5562);
+            RideRequest second = request(engine, "user-2", 28.5565);
+            
+            assertEquals(3, dispatcher.dispatchOnce());
+            Map<NotificationType, List<String>> received = sink.received.stream()
+                    .collect(Collectors.groupingBy(Notification::getType,
+                            Collectors.mapping(n -> n.getRideRequestId() != null ? n.getRideRequestId() : n.getCabId(),
+                                    Collectors.toList())));
+            assertEquals(List.of(cabId), received.get(NotificationType.DRIVER_GROUP_ASSIGNED));
+            assertEquals(2, received.get(NotificationType.RIDER_CAB_ASSIGNED).size());
+            assertTrue(received.get(NotificationType.RIDER_CAB_ASSIGNED).containsAll(List.of(first.getId(), second.getId())));
+            
+            assertEquals(0, dispatcher.dispatchOnce());
+            assertEquals(3, sink.received.size());
+        }
+    }
+    
+    @Test
+    void rejectedBatchStaysQueuedUntilDelivered() throws Exception {
+        try (InMemoryEngine engine = new InMemoryEngine(Map.of(), Clock.systemUTC())) {
+            RecordingSink sink = new RecordingSink();
+            sink.failuresLeft = 1;
+            NotificationDispatcher dispatcher = dispatcher(engine, sink, Clock.systemUTC());
+            
+            engine.getCabService().createCab("driver-1", 28.5560, 77.1000, 4, 8);
+            request(engine, "user-1", 28.5562);
+            request(engine, "user-2", 28.5565);
+            
+            assertThrows(IllegalStateException.class, dispatcher::dispatchOnce);
+            assertEquals(2, engine.getRideRequests().findPendingNotifications(10).size());
+            assertEquals(3, dispatcher.dispatchOnce());
+            assertEquals(3, sink.received.size());
+        }
+    }
+    
+    @Test
+    void staleNotificationsExpireUndelivered() throws Exception {
+        try (InMemoryEngine engine = new InMemoryEngine(Map.of(), Clock.systemUTC())) {
+            RecordingSink sink = new RecordingSink();
+            Clock hourLater = Clock.offset(Clock.systemUTC(), Duration.ofHours(1));
+            NotificationDispatcher dispatcher = dispatcher(engine, sink, hourLater);
+            
+            engine.getCabService().createCab("driver-1", 28.5560, 77.1000, 4, 8);
+            request(engine, "user-1", 28.5562);
+            request(engine, "user-2", 28.5565);
+            
+            assertEquals(3, dispatcher.dispatchOnce());
+            assertTrue(sink.received.isEmpty());
+            assertEquals(3, dispatcher.getExpired());
+            assertEquals(0, dispatcher.dispatchOnce());
+        }
+    }
+    
+    @Test
+    void requestsCompleteWhileSinkIsStalled() throws Exception {
+        try (InMemoryEngine engine = new InMemoryEngine(Map.of(), Clock.systemUTC())) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch stalled = new CountDownLatch(1);
+            NotificationSink stalledSink = batch -> {
+                stalled.countDown();
+                release.await();
+            };
+            NotificationDispatcher dispatcher = dispatcher(engine, stalledSink, Clock.systemUTC());
+            dispatcher.start();
+            try {
+                engine.getCabService().createCab("driver-1", 28.5560, 77.1000, 4, 8);
+                request(engine, "user-1", 28.5562);
+                request(engine, "user-2", 28.5565);
+                assertTrue(stalled.await(10, TimeUnit.SECONDS), "Dispatcher never reached the sink");
+                
+                // The sink is blocked; new requests still go through
+                engine.getCabService().createCab("driver-2", 28.6000, 77.2000, 4, 8);
+                request(engine, "user-3", 28.6002);
+                RideRequest fourth = request(engine, "user-4", 28.6004);
+                assertEquals("driver-2", engine.getRideRequests().findById(fourth.getId())
+                        .orElseThrow().getAssignedDriverName());
+            } finally {
+                release.countDown();
+                dispatcher.stop();
+            }
+        }
+    }
+    
+    private static NotificationDispatcher dispatcher(InMemoryEngine engine, NotificationSink sink, Clock clock) {
+        NotificationConfig config = new NotificationConfig();
+        config.setPollIntervalMillis(10);
+        return new NotificationDispatcher(engine.getRideRequests(), engine.getCabs(), List.of(sink), config, clock);
+    }
+    
+    private static RideRequest request(InMemoryEngine engine, String userId, double pickupLat) {
+        return engine.getRideRequestService().createRideRequest(RideRequestDTO.builder()
+                .userId(userId)
+                .pickupLat(pickupLat)
+                .pickupLng(77.1000 + (pickupLat - 28.5560))
+                .airportCode("DEL")
+                .seatsRequired(1)
+                .luggageCount(1)
+                .build());
+    }
+    
+    /**
+     * Local stand-in for a push / SMS provider
+     */
+    private static final class RecordingSink implements NotificationSink {
+        
+        private final List<Notification> received = new ArrayList<>();
+        private int failuresLeft;
+        
+        @Override
+        public synchronized void deliver(List<Notification> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Provider unavailable");
+            }
+            received.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.hintro.ridepool.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Capacity, full/empty behaviour, wraparound and many producers against the
+ * single consumer
+ */
+class RingBufferTest {
+    
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new RingBuffer<>(1).capacity());
+        assertEquals(8, new RingBuffer<>(8).capacity());
+        assertEquals(16, new RingBuffer<>(9).capacity());
+    }
+    
+    @Test
+    void emptyRingDrainsNothing() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        List<Integer> sink = new ArrayList<>();
+        
+        assertEquals(0, ring.drainTo(sink, 10));
+        assertTrue(sink.isEmpty());
+        assertEquals(0, ring.size());
+    }
+    
+    @Test
+    void fullRingRejectsUntilTheConsumerFreesSlots() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4), "ring is full");
+        assertEquals(4, ring.size());
+        
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(1, ring.drainTo(sink, 1));
+        assertTrue(ring.offer(4), "one slot freed");
+        assertFalse(ring.offer(5));
+        
+        assertEquals(4, ring.drainTo(sink, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), sink);
+        assertEquals(0, ring.size());
+    }
+    
+    @Test
+    void keepsFifoOrderAcrossManyWraparounds() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        List<Integer> sink = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 100; round++) {
+            // Uneven batches so the cursors cross the end of the ring at every offset
+            int batch = 1 + round % 4;
+            for (int i = 0; i < batch; i++) {
+                assertTrue(ring.offer(next++));
+            }
+            assertEquals(batch, ring.drainTo(sink, batch));
+        }
+        
+        assertEquals(next, sink.size());
+        for (int i = 0; i < sink.size(); i++) {
+            assertEquals(i, sink.get(i));
+        }
+    }
+    
+    @Test
+    void drainStopsAtMax() {
+        RingBuffer<Integer> ring = new RingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            ring.offer(i);
+        }
+        List<Integer> sink = new ArrayList<>();
+        
+        assertEquals(2, ring.drainTo(sink, 2));
+        assertEquals(3, ring.size());
+        assertEquals(3, ring.drainTo(sink, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), sink);
+    }
+    
+    @Test
+    void manyProducersDeliverEveryElementOnceInPerProducerOrder() throws Exception {
+        int producers = 8;
+        int perProducer = 20_000;
+        RingBuffer<long[]> ring = new RingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> producerRuns = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                producerRuns.add(executor.submit(() -> {
+                    start.await();
+                    int rejected = 0;
+                    for (long i = 0; i < perProducer; i++) {
+                        // A small ring keeps it full, so producers keep retrying against the consumer
+                        while (!ring.offer(new long[] {producer, i})) {
+                            rejected++;
+                            // Yield rather than spin: a producer preempted between claim and
+                            // publish holds up the consumer until it runs again
+                            Thread.yield();
+                        }
+                    }
+                    return rejected;
+                }));
+            }
+            
+            start.countDown();
+            long[] nextExpected = new long[producers];
+            List<long[]> batch = new ArrayList<>();
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received < (long) producers * perProducer) {
+                assertTrue(System.nanoTime() < deadline, "consumer stalled after " + received + " elements");
+                batch.clear();
+                if (ring.drainTo(batch, 32) == 0) {
+                    Thread.yield();
+                    continue;
+                }
+                for (long[] element : batch) {
+                    int producer = (int) element[0];
+                    assertEquals(nextExpected[producer], element[1], "producer " + producer + " out of order");
+                    nextExpected[producer]++;
+                }
+                received += batch.size();
+            }
+            
+            for (Future<Integer> run : producerRuns) {
+                run.get(10, TimeUnit.SECONDS);
+            }
+            for (int p = 0; p < producers; p++) {
+                assertEquals(perProducer, nextExpected[p]);
+            }
+            assertEquals(0, ring.drainTo(batch, 32), "nothing left over");
+            assertEquals(0, ring.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
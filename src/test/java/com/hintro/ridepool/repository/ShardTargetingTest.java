@@ -0,0 +1,152 @@
+package com.hintro.ridepool.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.hintro.ridepool.config.ShardingConfig;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.index.AirportRegistry;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Every hot ride request, cab and ride group operation carries its shard key.
+ * 
+ * The repositories run against a stand-in for a mongos that records the
+ * filter of every query it receives. With sharding enabled, a filter on a
+ * routable ID must also name the shard airport, or a real cluster would
+ * broadcast it to every shard.
+ */
+class ShardTargetingTest {
+    
+    private final List<Document> filters = new ArrayList<>();
+    private final MongoTemplate mongos = recordingMongos();
+    private final ShardKeys shardKeys = new ShardKeys(sharding(true));
+    
+    @Test
+    void newIdsCarryTheirShardAirport() {
+        String riderId = shardKeys.newId("DEL");
+        String groupId = shardKeys.newGroupId("DEL");
+        
+        assertTrue(riderId.startsWith("DEL."), riderId);
+        assertEquals("DEL", ShardKeys.airportOf(riderId));
+        assertEquals("DEL", ShardKeys.airportOf(groupId));
+        assertEquals(ShardKeys.NO_AIRPORT, ShardKeys.cabShardAirport(AirportRegistry.UNZONED));
+    }
+    
+    @Test
+    void idsStayPlainWithShardingDisabled() {
+        ShardKeys disabled = new ShardKeys(sharding(false));
+        
+        assertNull(disabled.newId("DEL"));
+        assertNull(ShardKeys.airportOf(disabled.newGroupId("DEL")));
+        assertEquals(new Document("_id", "65f0c1a2b3c4d5e6f7a8b9c0"),
+                ShardKeys.byId("65f0c1a2b3c4d5e6f7a8b9c0", ShardKeys.AIRPORT_FIELD).getCriteriaObject());
+    }
+    
+    @Test
+    void rideRequestOperationsAreTargeted() {
+        RideRequestRepositoryCustomImpl repository = new RideRequestRepositoryCustomImpl(mongos);
+        RideRequest rider = rider(shardKeys.newId("DEL"));
+        String groupId = shardKeys.newGroupId("DEL");
+        
+        repository.findById(rider.getId());
+        repository.cancelIfActive(rider.getId());
+        repository.claimIfWaiting(rider.getId(), groupId, RideStatus.MATCHED, null, null);
+        repository.assignIfActive(rider);
+        repository.updateStatusByGroupId(groupId, RideStatus.ASSIGNED, RideStatus.COMPLETED);
+        repository.dissolveGroup(groupId);
+        
+        assertEveryFilterTargets(ShardKeys.AIRPORT_FIELD, "DEL", 6);
+    }
+    
+    @Test
+    void cabOperationsAreTargeted() {
+        CabRepositoryCustomImpl repository = new CabRepositoryCustomImpl(mongos);
+        String cabId = shardKeys.newId("BOM");
+        String groupId = shardKeys.newGroupId("BOM");
+        
+        repository.findById(cabId);
+        repository.reserveIfAvailable(cabId, groupId, 2, 1);
+        repository.joinIfSpareCapacity(cabId, 1, 1);
+        repository.releaseCapacity(cabId, groupId, 1, 1);
+        repository.startTrip(cabId);
+        repository.completeTrip(cabId, 28.6, 77.2, null);
+        
+        assertEveryFilterTargets(ShardKeys.CAB_AIRPORT_FIELD, "BOM", 6);
+    }
+    
+    @Test
+    void rideGroupOperationsAreTargeted() {
+        RideGroupRepositoryCustomImpl repository = new RideGroupRepositoryCustomImpl(mongos);
+        String groupId = shardKeys.newGroupId("BLR");
+        RideRequest rider = rider(shardKeys.newId("BLR"));
+        
+        repository.findById(groupId);
+        repository.joinIfCapacity(groupId, rider);
+        repository.leave(groupId, rider);
+        repository.assignCab(groupId, shardKeys.newId(ShardKeys.NO_AIRPORT), 4);
+        repository.complete(groupId);
+        repository.dissolve(groupId);
+        
+        assertEveryFilterTargets(ShardKeys.AIRPORT_FIELD, "BLR", 6);
+    }
+    
+    private void assertEveryFilterTargets(String airportField, String airport, int expectedQueries) {
+        assertEquals(expectedQueries, filters.size(), () -> "Queries sent: " + filters);
+        for (Document filter : filters) {
+            assertEquals(airport, filter.get(airportField), () -> "Broadcast query: " + filter);
+        }
+    }
+    
+    private MongoTemplate recordingMongos() {
+        MongoTemplate template = mock(MongoTemplate.class);
+        when(template.findOne(any(Query.class), any())).thenAnswer(call -> record(call.getArgument(0), null));
+        when(template.findAndModify(any(Query.class), any(), ArgumentMatchers.<Class<Object>>any()))
+                .thenAnswer(call -> record(call.getArgument(0), null));
+        when(template.findAndModify(any(Query.class), any(), any(), ArgumentMatchers.<Class<Object>>any()))
+                .thenAnswer(call -> record(call.getArgument(0), null));
+        UpdateResult updated = UpdateResult.acknowledged(1, 1L, null);
+        when(template.updateFirst(any(Query.class), any(), any(Class.class)))
+                .thenAnswer(call -> record(call.getArgument(0), updated));
+        when(template.updateMulti(any(Query.class), any(), any(Class.class)))
+                .thenAnswer(call -> record(call.getArgument(0), updated));
+        return template;
+    }
+    
+    private <T> T record(Query query, T result) {
+        filters.add(query.getQueryObject());
+        return result;
+    }
+    
+    private static RideRequest rider(String id) {
+        return RideRequest.builder()
+                .id(id)
+                .airportCode(ShardKeys.airportOf(id))
+                .seatsRequired(1)
+                .luggageCount(1)
+                .status(RideStatus.MATCHED)
+                .groupId("group")
+                .build();
+    }
+    
+    private static ShardingConfig sharding(boolean enabled) {
+        ShardingConfig config = new ShardingConfig();
+        config.setEnabled(enabled);
+        return config;
+    }
+}
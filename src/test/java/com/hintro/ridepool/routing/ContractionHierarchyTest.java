@@ -0,0 +1,140 @@
+package com.hintro.ridepool.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Contraction hierarchy queries against plain Dijkstra on a small road graph,
+ * using the hierarchy as written by the preprocessor and mapped back at load
+ */
+class ContractionHierarchyTest {
+    
+    private static final int SIDE = 20;
+    private static final int QUERIES = 500;
+    
+    @Test
+    void preprocessedHierarchyMatchesDijkstra(@TempDir Path directory) throws Exception {
+        Random random = new Random(7);
+        int nodeCount = SIDE * SIDE + 1;  // last node has no roads
+        float[] lats = new float[nodeCount];
+        float[] lngs = new float[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            lats[node] = 28.5f + (node / SIDE) * 0.002f;
+            lngs[node] = 77.1f + (node % SIDE) * 0.002f;
+        }
+        
+        // Grid streets with random lengths; one in five is one-way
+        List<int[]> pairs = new ArrayList<>();
+        for (int node = 0; node < SIDE * SIDE; node++) {
+            if (node % SIDE < SIDE - 1) {
+                pairs.add(new int[] {node, node + 1});
+            }
+            if (node / SIDE < SIDE - 1) {
+                pairs.add(new int[] {node, node + SIDE});
+            }
+        }
+        List<Integer> from = new ArrayList<>();
+        List<Integer> to = new ArrayList<>();
+        List<Float> meters = new ArrayList<>();
+        for (int[] pair : pairs) {
+            float length = 200f + random.nextFloat() * 150f;
+            boolean oneWay = random.nextInt(5) == 0;
+            boolean reversed = random.nextBoolean();
+            if (!oneWay || !reversed) {
+                from.add(pair[0]);
+                to.add(pair[1]);
+                meters.add(length);
+            }
+            if (!oneWay || reversed) {
+                from.add(pair[1]);
+                to.add(pair[0]);
+                meters.add(length);
+            }
+        }
+        int[] edgeFrom = from.stream().mapToInt(Integer::intValue).toArray();
+        int[] edgeTo = to.stream().mapToInt(Integer::intValue).toArray();
+        float[] edgeMeters = new float[meters.size()];
+        for (int i = 0; i < edgeMeters.length; i++) {
+            edgeMeters[i] = meters.get(i);
+        }
+        
+        Path raw = directory.resolve("raw.rpg");
+        Path contracted = directory.resolve("contracted.rpg");
+        RoadGraph.write(raw, lats, lngs, edgeFrom, edgeTo, edgeMeters);
+        assertNull(RoadGraph.load(raw).getHierarchy());
+        RoadGraphPreprocessor.preprocess(raw, contracted, 500);
+        
+        RoadGraph graph = RoadGraph.load(contracted);
+        assertEquals(nodeCount, graph.getNodeCount());
+        assertEquals(edgeFrom.length, graph.getEdgeCount());
+        ContractionHierarchy hierarchy = graph.getHierarchy();
+        assertNotNull(hierarchy, "preprocessed file carries its hierarchy");
+        
+        for (int query = 0; query < QUERIES; query++) {
+            int source = random.nextInt(nodeCount);
+            int target = random.nextInt(nodeCount);
+            double expected = dijkstra(nodeCount, edgeFrom, edgeTo, edgeMeters, source)[target];
+            assertDistance(expected, hierarchy.distance(source, target), source + "->" + target);
+        }
+        
+        int[] endpoints = new int[50];
+        for (int i = 0; i < endpoints.length; i++) {
+            endpoints[i] = random.nextInt(nodeCount);
+        }
+        endpoints[0] = -1;
+        endpoints[1] = nodeCount - 1;
+        int hub = random.nextInt(SIDE * SIDE);
+        double[] fromHub = dijkstra(nodeCount, edgeFrom, edgeTo, edgeMeters, hub);
+        double[] oneToMany = hierarchy.distancesFrom(hub, endpoints);
+        double[] manyToOne = hierarchy.distancesTo(endpoints, hub);
+        for (int i = 0; i < endpoints.length; i++) {
+            double expectedFrom = endpoints[i] < 0 ? ContractionHierarchy.UNREACHABLE : fromHub[endpoints[i]];
+            double expectedTo = endpoints[i] < 0 ? ContractionHierarchy.UNREACHABLE
+                    : dijkstra(nodeCount, edgeFrom, edgeTo, edgeMeters, endpoints[i])[hub];
+            assertDistance(expectedFrom, oneToMany[i], hub + "->" + endpoints[i]);
+            assertDistance(expectedTo, manyToOne[i], endpoints[i] + "->" + hub);
+        }
+    }
+    
+    private static void assertDistance(double expected, double actual, String pair) {
+        if (expected == ContractionHierarchy.UNREACHABLE) {
+            assertEquals(ContractionHierarchy.UNREACHABLE, actual, pair);
+        } else {
+            // Shortcut weights are stored as floats
+            assertEquals(expected, actual, 1e-4 * Math.max(1.0, expected), pair);
+        }
+    }
+    
+    private static double[] dijkstra(int nodeCount, int[] from, int[] to, float[] meters, int source) {
+        double[] dist = new double[nodeCount];
+        Arrays.fill(dist, ContractionHierarchy.UNREACHABLE);
+        dist[source] = 0.0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0.0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[0] > dist[node]) {
+                continue;
+            }
+            for (int edge = 0; edge < from.length; edge++) {
+                if (from[edge] == node && dist[node] + meters[edge] < dist[to[edge]]) {
+                    dist[to[edge]] = dist[node] + meters[edge];
+                    queue.add(new double[] {dist[to[edge]], to[edge]});
+                }
+            }
+        }
+        return dist;
+    }
+}
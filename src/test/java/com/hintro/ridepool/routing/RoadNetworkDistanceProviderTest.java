@@ -0,0 +1,94 @@
+package com.hintro.ridepool.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hintro.ridepool.util.DistanceCalculator;
+
+/**
+ * Snapping and straight-line fallback of the road network provider, on a
+ * three-node road A-B-C plus a node D with no roads
+ */
+class RoadNetworkDistanceProviderTest {
+    
+    private static final double DELTA_KM = 1e-6;
+    
+    // A, B, C one hundredth of a degree apart on a meridian; D further north
+    private static final float[] LATS = {28.60f, 28.61f, 28.62f, 28.70f};
+    private static final float[] LNGS = {77.20f, 77.20f, 77.20f, 77.20f};
+    
+    // Two-way road A-B-C, 1.5 KM per segment (longer than straight line)
+    private static final int[] FROM = {0, 1, 1, 2};
+    private static final int[] TO = {1, 0, 2, 1};
+    private static final float[] METERS = {1500f, 1500f, 1500f, 1500f};
+    
+    @TempDir
+    Path directory;
+    
+    private final DistanceCalculator haversine = new DistanceCalculator();
+    private RoadNetworkDistanceProvider provider;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        Path graphFile = directory.resolve("line.rpg");
+        RoadGraph.write(graphFile, LATS, LNGS, FROM, TO, METERS);
+        RoadGraphPreprocessor.preprocess(graphFile, graphFile, 500);
+        provider = RoadNetworkDistanceProvider.load(graphFile, 1.0, 500, haversine);
+    }
+    
+    @Test
+    void routesBetweenNodesOverTheRoad() {
+        assertEquals(3.0, provider.calculateDistance(LATS[0], LNGS[0], LATS[2], LNGS[2]), DELTA_KM);
+    }
+    
+    @Test
+    void addsSnapDistanceAtBothEnds() {
+        double fromLat = 28.60;
+        double fromLng = 77.203;  // ~0.3 KM east of A
+        double toLat = 28.6205;   // ~0.06 KM north of C
+        double toLng = 77.20;
+        double expected = haversine.calculateDistance(fromLat, fromLng, LATS[0], LNGS[0])
+                + 3.0
+                + haversine.calculateDistance(LATS[2], LNGS[2], toLat, toLng);
+        
+        assertEquals(expected, provider.calculateDistance(fromLat, fromLng, toLat, toLng), DELTA_KM);
+    }
+    
+    @Test
+    void fallsBackBeyondSnapDistance() {
+        double farLat = 28.60;
+        double farLng = 77.25;  // ~4.9 KM east of A, past the 1 KM snap limit
+        
+        assertEquals(haversine.calculateDistance(farLat, farLng, LATS[2], LNGS[2]),
+                provider.calculateDistance(farLat, farLng, LATS[2], LNGS[2]), DELTA_KM);
+        assertEquals(haversine.calculateDistance(LATS[0], LNGS[0], farLat, farLng),
+                provider.calculateDistance(LATS[0], LNGS[0], farLat, farLng), DELTA_KM);
+    }
+    
+    @Test
+    void fallsBackWithoutConnectingRoad() {
+        assertEquals(haversine.calculateDistance(LATS[0], LNGS[0], LATS[3], LNGS[3]),
+                provider.calculateDistance(LATS[0], LNGS[0], LATS[3], LNGS[3]), DELTA_KM);
+    }
+    
+    @Test
+    void batchQueriesFallBackPerPoint() {
+        double[] lats = {LATS[2], 28.60, LATS[3]};
+        double[] lngs = {LNGS[2], 77.25, LNGS[3]};
+        
+        double[] from = provider.calculateDistances(LATS[0], LNGS[0], lats, lngs);
+        assertEquals(3.0, from[0], DELTA_KM);
+        assertEquals(haversine.calculateDistance(LATS[0], LNGS[0], lats[1], lngs[1]), from[1], DELTA_KM);
+        assertEquals(haversine.calculateDistance(LATS[0], LNGS[0], lats[2], lngs[2]), from[2], DELTA_KM);
+        
+        double[] to = provider.calculateDistancesTo(lats, lngs, LATS[0], LNGS[0]);
+        assertEquals(3.0, to[0], DELTA_KM);
+        assertEquals(haversine.calculateDistance(lats[1], lngs[1], LATS[0], LNGS[0]), to[1], DELTA_KM);
+        assertEquals(haversine.calculateDistance(lats[2], lngs[2], LATS[0], LNGS[0]), to[2], DELTA_KM);
+    }
+}
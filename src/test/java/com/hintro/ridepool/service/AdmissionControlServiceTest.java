@@ -0,0 +1,148 @@
+package com.hintro.ridepool.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.config.AdmissionConfig;
+import com.hintro.ridepool.config.AirportConfig;
+import com.hintro.ridepool.dto.AdmissionStats;
+
+/**
+ * Slots, queueing, queue-full and timeout rejections with Retry-After, and
+ * lane separation between airports
+ */
+class AdmissionControlServiceTest {
+    
+    @Test
+    void queuedRequestRunsOnceASlotIsReleased() throws Exception {
+        AdmissionControlService admission = service(2, 4, 5_000, 1);
+        Runnable first = admission.acquire("DEL");
+        Runnable second = admission.acquire("DEL");
+        
+        CompletableFuture<Runnable> third = CompletableFuture.supplyAsync(() -> admission.acquire("DEL"));
+        while (stats(admission, "DEL").getQueued() == 0) {
+            Thread.yield();
+        }
+        assertFalse(third.isDone(), "third request waits while both slots are held");
+        assertEquals(2, stats(admission, "DEL").getInFlight());
+        
+        first.run();
+        third.get(5, TimeUnit.SECONDS).run();
+        second.run();
+        
+        AdmissionStats stats = stats(admission, "DEL");
+        assertEquals(3, stats.getAdmitted());
+        assertEquals(0, stats.getInFlight());
+        assertEquals(0, stats.getQueued());
+    }
+    
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() {
+        AdmissionControlService admission = service(1, 0, 5_000, 3);
+        Runnable held = admission.acquire("DEL");
+        
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire("DEL"));
+        assertEquals("DEL", rejected.getAirportCode());
+        assertEquals(3, rejected.getRetryAfterSeconds(), "clamped to the minimum Retry-After");
+        assertEquals(1, stats(admission, "DEL").getRejectedQueueFull());
+        
+        held.run();
+        admission.acquire("DEL").run();
+    }
+    
+    @Test
+    void queuedRequestTimesOut() {
+        AdmissionControlService admission = service(1, 1, 50, 1);
+        Runnable held = admission.acquire("DEL");
+        
+        long started = System.nanoTime();
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire("DEL"));
+        long waitedMillis = (System.nanoTime() - started) / 1_000_000;
+        
+        assertTrue(waitedMillis >= 40, "rejected after waiting, not immediately: " + waitedMillis + " ms");
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        AdmissionStats stats = stats(admission, "DEL");
+        assertEquals(1, stats.getRejectedTimeout());
+        assertEquals(0, stats.getQueued());
+        held.run();
+    }
+    
+    @Test
+    void releasingTwiceFreesOneSlot() {
+        AdmissionControlService admission = service(1, 0, 5_000, 1);
+        Runnable release = admission.acquire("DEL");
+        release.run();
+        release.run();
+        
+        Runnable held = admission.acquire("DEL");
+        assertThrows(AdmissionRejectedException.class, () -> admission.acquire("DEL"));
+        held.run();
+    }
+    
+    @Test
+    void admitRunsTheWorkAndReleasesItsSlot() {
+        AdmissionControlService admission = service(1, 0, 5_000, 1);
+        assertEquals("done", admission.admit("DEL", () -> "done"));
+        assertThrows(IllegalStateException.class, () -> admission.admit("DEL", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals(0, stats(admission, "DEL").getInFlight(), "slot released after a failure");
+    }
+    
+    @Test
+    void unconfiguredAirportsShareOneLane() {
+        AdmissionControlService admission = service(1, 0, 5_000, 1);
+        Runnable del = admission.acquire("DEL");
+        Runnable bom = admission.acquire("BOM");
+        
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire("BLR"));
+        assertEquals("BLR", rejected.getAirportCode());
+        
+        List<AdmissionStats> stats = admission.getStats();
+        assertEquals(List.of("DEL", AdmissionControlService.OTHER_AIRPORTS),
+                stats.stream().map(AdmissionStats::getAirportCode).toList());
+        assertEquals(1, stats(admission, AdmissionControlService.OTHER_AIRPORTS).getRejectedQueueFull());
+        del.run();
+        bom.run();
+    }
+    
+    @Test
+    void disabledAdmissionNeverWaits() {
+        AdmissionConfig disabled = new AdmissionConfig();
+        disabled.setEnabled(false);
+        AdmissionControlService admission = new AdmissionControlService(disabled, new AirportConfig());
+        
+        for (int i = 0; i < 10; i++) {
+            admission.acquire("DEL");
+        }
+        assertTrue(admission.getStats().isEmpty());
+    }
+    
+    private static AdmissionControlService service(int maxConcurrent, int maxQueued, long maxQueueWaitMillis,
+                                                   int minRetryAfterSeconds) {
+        AdmissionConfig config = new AdmissionConfig();
+        config.setMaxConcurrentPerAirport(maxConcurrent);
+        config.setMaxQueuedPerAirport(maxQueued);
+        config.setMaxQueueWaitMillis(maxQueueWaitMillis);
+        config.setMinRetryAfterSeconds(minRetryAfterSeconds);
+        return new AdmissionControlService(config, new AirportConfig());
+    }
+    
+    private static AdmissionStats stats(AdmissionControlService admission, String lane) {
+        return admission.getStats().stream()
+                .filter(stats -> stats.getAirportCode().equals(lane))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,122 @@
+package com.hintro.ridepool.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.config.DemandConfig;
+import com.hintro.ridepool.dto.DemandCell;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.replay.InMemoryCabRepository;
+import com.hintro.ridepool.replay.SimulatedClock;
+import com.hintro.ridepool.util.DistanceCalculator;
+
+/**
+ * Demand window rollover and expiry on the injected clock, and supply
+ * counted from the airport's own cabs only
+ */
+class DemandHeatmapServiceTest {
+    
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    
+    // Pickup points in two different 0.01 degree cells
+    private static final double BUSY_LAT = 28.6055;
+    private static final double BUSY_LNG = 77.2055;
+    private static final double QUIET_LAT = 28.6255;
+    private static final double QUIET_LNG = 77.2255;
+    
+    private SimulatedClock clock;
+    private InMemoryCabRepository cabs;
+    private DemandHeatmapService service;
+    
+    @BeforeEach
+    void setUp() {
+        // Five 1-minute buckets: a 5-minute window
+        DemandConfig config = new DemandConfig();
+        config.setBucketSeconds(60);
+        config.setBucketCount(5);
+        clock = new SimulatedClock(START);
+        cabs = new InMemoryCabRepository(clock);
+        service = new DemandHeatmapService(config, cabs, new DistanceCalculator(), clock);
+    }
+    
+    @Test
+    void heatmapRollsOverAndExpiresWithTheClock() {
+        service.recordRequest(request(BUSY_LAT, BUSY_LNG));
+        service.recordRequest(request(BUSY_LAT, BUSY_LNG));
+        advance(Duration.ofSeconds(90));
+        service.recordRequest(request(QUIET_LAT, QUIET_LNG));
+        advance(Duration.ofSeconds(120));
+        
+        List<DemandCell> heatmap = service.getHeatmap("DEL");
+        assertEquals(2, heatmap.size());
+        assertEquals(2, heatmap.get(0).getDemand(), "busiest cell first");
+        assertEquals(1, heatmap.get(1).getDemand());
+        assertEquals(2, service.countNearby("DEL", BUSY_LAT, BUSY_LNG, 0));
+        assertEquals(3, service.countNearby("DEL", BUSY_LAT, BUSY_LNG, 2));
+        
+        // The first minute's bucket leaves the window at 5 minutes
+        advance(Duration.ofSeconds(300));
+        heatmap = service.getHeatmap("DEL");
+        assertEquals(1, heatmap.size());
+        assertEquals(1, heatmap.get(0).getDemand());
+        assertEquals(0, service.countNearby("DEL", BUSY_LAT, BUSY_LNG, 0));
+        
+        advance(Duration.ofSeconds(360));
+        assertTrue(service.getHeatmap("DEL").isEmpty());
+        assertEquals(0, service.countNearby("DEL", QUIET_LAT, QUIET_LNG, 0));
+    }
+    
+    @Test
+    void demandIsKeptPerAirport() {
+        service.recordRequest(request(BUSY_LAT, BUSY_LNG));
+        
+        assertEquals(1, service.getHeatmap("DEL").size());
+        assertTrue(service.getHeatmap("BOM").isEmpty());
+    }
+    
+    @Test
+    void supplyCountsOnlyTheAirportsAvailableCabs() {
+        cabs.save(cab("DEL", CabStatus.AVAILABLE));
+        cabs.save(cab("DEL", CabStatus.AVAILABLE));
+        cabs.save(cab("DEL", CabStatus.ON_TRIP));
+        cabs.save(cab("BOM", CabStatus.AVAILABLE));
+        service.recordRequest(request(BUSY_LAT, BUSY_LNG));
+        
+        List<DemandCell> heatmap = service.getHeatmap("DEL");
+        assertEquals(1, heatmap.size());
+        assertEquals(2, heatmap.get(0).getSupply());
+    }
+    
+    private void advance(Duration elapsed) {
+        clock.advanceTo(START.plus(elapsed));
+    }
+    
+    private static RideRequest request(double lat, double lng) {
+        return RideRequest.builder()
+                .airportCode("DEL")
+                .pickupLat(lat)
+                .pickupLng(lng)
+                .build();
+    }
+    
+    private static Cab cab(String airportCode, CabStatus status) {
+        return Cab.builder()
+                .airportCode(airportCode)
+                .homeAirportCode(airportCode)
+                .currentLat(BUSY_LAT)
+                .currentLng(BUSY_LNG)
+                .totalSeats(4)
+                .availableSeats(4)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.hintro.ridepool.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.config.CabAssignmentConfig;
+import com.hintro.ridepool.config.EtaConfig;
+
+/**
+ * Fallback order of the learned speeds, leg filtering, the full-table path
+ * and prediction cost
+ */
+class EtaServiceTest {
+    
+    /**
+     * Every leg is this long, so a leg's duration sets its speed
+     */
+    private static final double LEG_KM = 10.0;
+    
+    private static final Instant MORNING = Instant.parse("2026-02-16T08:00:00Z");
+    private static final Instant AFTERNOON = Instant.parse("2026-02-16T14:00:00Z");
+    
+    // Three distinct cells at the default cell size
+    private static final double[] A = {28.50, 77.10};
+    private static final double[] B = {28.60, 77.20};
+    private static final double[] C = {28.70, 77.30};
+    
+    /**
+     * Budget per prediction; the request path ranks every candidate cab with one
+     */
+    private static final double MAX_PREDICT_NANOS = 1_000;
+    
+    @Test
+    void fallsBackFromCellPairToAnyHourToAreaToDefault() {
+        EtaService eta = service(new EtaConfig());
+        
+        // Nothing learned: default 25 KM/h
+        assertEquals(1440, predict(eta, A, B, MORNING));
+        
+        // A -> C at 40 KM/h in the morning: only the area's morning speed applies to A -> B
+        learn(eta, A, C, MORNING, 3, 15);
+        assertEquals(900, predict(eta, A, B, MORNING));
+        
+        // A -> B at 20 KM/h in the afternoon: the pair at any hour beats the area
+        learn(eta, A, B, AFTERNOON, 3, 30);
+        assertEquals(1800, predict(eta, A, B, MORNING));
+        
+        // A -> B at 60 KM/h in the morning: the pair at that hour beats everything
+        learn(eta, A, B, MORNING, 3, 10);
+        assertEquals(600, predict(eta, A, B, MORNING));
+        
+        // Other cells in the afternoon only match the area's afternoon speed
+        assertEquals(1800, predict(eta, B, C, AFTERNOON));
+    }
+    
+    @Test
+    void learnedSpeedNeedsMinSamples() {
+        EtaService eta = service(new EtaConfig());
+        learn(eta, A, B, MORNING, 2, 10);
+        assertEquals(1440, predict(eta, A, B, MORNING), "two legs are not enough");
+        
+        learn(eta, A, B, MORNING, 1, 10);
+        assertEquals(600, predict(eta, A, B, MORNING));
+    }
+    
+    @Test
+    void warmUpAveragesTheFirstLegs() {
+        EtaService eta = service(new EtaConfig());
+        learn(eta, A, B, MORNING, 1, 10);  // 60 KM/h
+        learn(eta, A, B, MORNING, 1, 20);  // 30 KM/h
+        learn(eta, A, B, MORNING, 1, 40);  // 15 KM/h
+        
+        // Plain average of 60, 30 and 15 is 35 KM/h
+        assertEquals(Math.round(LEG_KM / 35.0 * 3600), predict(eta, A, B, MORNING));
+    }
+    
+    @Test
+    void shortAndImplausibleLegsAreNotLearned() {
+        EtaConfig config = new EtaConfig();
+        config.setMinLegKm(20);
+        EtaService eta = service(config);
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(900)), "too short");
+        
+        eta = service(new EtaConfig());
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(60)), "600 KM/h");
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(36_000)), "1 KM/h");
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING), "no time passed");
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], null, MORNING));
+    }
+    
+    @Test
+    void fullTableStopsLearningNewCellPairs() {
+        EtaConfig config = new EtaConfig();
+        // One leg writes the pair at its hour, the pair at any hour and the area at its hour
+        config.setMaxEntries(3);
+        EtaService eta = service(config);
+        
+        assertTrue(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(600)));
+        assertFalse(eta.learnLeg(A[0], A[1], C[0], C[1], MORNING, MORNING.plusSeconds(600)),
+                "a new pair has no room");
+        assertTrue(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(600)),
+                "the known pair keeps learning");
+    }
+    
+    @Test
+    void disabledModelQuotesTheFixedArrivalTime() {
+        EtaConfig config = new EtaConfig();
+        config.setEnabled(false);
+        EtaService eta = service(config);
+        
+        assertEquals(30, predict(eta, A, B, MORNING));
+        assertFalse(eta.learnLeg(A[0], A[1], B[0], B[1], MORNING, MORNING.plusSeconds(600)));
+    }
+    
+    @Test
+    void predictionOnALearnedTableStaysWithinBudget() {
+        EtaService eta = service(new EtaConfig());
+        double[][] points = new double[32][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{28.0 + (i / 8) * 0.05, 77.0 + (i % 8) * 0.05};
+        }
+        for (int hour = 0; hour < 24; hour++) {
+            Instant at = MORNING.plusSeconds((hour - 8) * 3600L);
+            for (double[] from : points) {
+                for (double[] to : points) {
+                    eta.learnLeg(from[0], from[1], to[0], to[1], at, at.plusSeconds(900));
+                }
+            }
+        }
+        
+        long sum = 0;
+        for (int i = 0; i < 500_000; i++) {
+            sum += predict(eta, points[i & 31], points[(i >> 5) & 31], MORNING);
+        }
+        
+        int predictions = 1_000_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < predictions; i++) {
+            sum += predict(eta, points[i & 31], points[(i >> 5) & 31], MORNING);
+        }
+        double nanosPerPrediction = (System.nanoTime() - started) / (double) predictions;
+        
+        assertTrue(sum > 0);
+        assertTrue(nanosPerPrediction < MAX_PREDICT_NANOS,
+                "Prediction took " + nanosPerPrediction + " ns, budget is " + MAX_PREDICT_NANOS + " ns");
+    }
+    
+    private static EtaService service(EtaConfig config) {
+        return new EtaService(config, new CabAssignmentConfig(), (lat1, lng1, lat2, lng2) -> LEG_KM,
+                Clock.fixed(MORNING, ZoneOffset.UTC));
+    }
+    
+    private static long predict(EtaService eta, double[] from, double[] to, Instant at) {
+        return eta.predictSeconds(from[0], from[1], to[0], to[1], LEG_KM, at);
+    }
+    
+    /**
+     * Learn the same leg several times, each taking the given minutes
+     */
+    private static void learn(EtaService eta, double[] from, double[] to, Instant at, int legs, int minutes) {
+        for (int i = 0; i < legs; i++) {
+            assertTrue(eta.learnLeg(from[0], from[1], to[0], to[1], at, at.plusSeconds(minutes * 60L)));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.hintro.ridepool.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.Cab;
+import com.hintro.ridepool.entity.CabStatus;
+import com.hintro.ridepool.entity.GroupStatus;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.replay.InMemoryEngine;
+
+/**
+ * Concurrency safety net for matching and cab assignment.
+ * 
+ * Fires overlapping ride requests and cab registrations from 1 to 64 threads
+ * at an {@link InMemoryEngine}, whose repositories apply the same conditional
+ * updates as MongoDB, then checks the pooling invariants on the final state:
+ * no rider in two groups, no group on two cabs, no cab reserved for two
+ * groups without mid-route pooling, and cab seats never over capacity or out
+ * of step with the riders on board, and ride group counters within their
+ * seat limit and in step with their members, and no rider in two open ride
+ * groups - with the event log both off and on. Riders are packed into a few kilometers
+ * so nearly every request competes for the same waiting riders and cabs.
+ * 
+ * Prints throughput per thread count. Size the run with
+ * -Dridepool.stress.requests and -Dridepool.stress.cabs.
+ */
+class PoolingStressTest {
+    
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int DEFAULT_REQUESTS = 2_000;
+    private static final int DEFAULT_CABS = 400;
+    
+    private static final double CENTER_LAT = 28.60;
+    private static final double CENTER_LNG = 77.20;
+    private static final double SPREAD_DEGREES = 0.04;
+    
+    private static Level previousLevel;
+    
+    @BeforeAll
+    static void quietLogging() {
+        // Lifecycle INFO lines per assignment still add up at this volume
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        previousLevel = root.getLevel();
+        root.setLevel(Level.WARN);
+    }
+    
+    @AfterAll
+    static void restoreLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(previousLevel);
+    }
+    
+    @Test
+    void poolingInvariantsHoldFromOneToSixtyFourThreads() throws Exception {
+        int requests = Integer.getInteger("ridepool.stress.requests", DEFAULT_REQUESTS);
+        int cabs = Integer.getInteger("ridepool.stress.cabs", DEFAULT_CABS);
+        
+        for (int threads : THREAD_COUNTS) {
+            try (InMemoryEngine engine = new InMemoryEngine(Map.of(), Clock.systemUTC())) {
+                long elapsedNanos = runConcurrently(engine, threads, requests, cabs, threads);
+                Summary summary = assertPoolingInvariants(engine, false);
+                System.out.printf("threads=%2d  %6d requests  %5d cabs  %9.0f req/s  %5d groups  %5.1f%% assigned%n",
+                        threads, requests, cabs, requests * 1e9 / elapsedNanos, summary.groups,
+                        100.0 * summary.assigned / requests);
+            }
+        }
+    }
+    
+    @Test
+    void ridersJoinOneGroupWithEventLog(@TempDir Path eventDirectory) throws Exception {
+        Map<String, String> properties = Map.of(
+                "ridepool.events.enabled", "true",
+                "ridepool.events.directory", eventDirectory.toString(),
+                "ridepool.events.segment-size-mb", "8");
+        try (InMemoryEngine engine = new InMemoryEngine(properties, Clock.systemUTC())) {
+            runConcurrently(engine, 32, DEFAULT_REQUESTS, DEFAULT_CABS, 11);
+            Summary summary = assertPoolingInvariants(engine, false);
+            assertTrue(summary.assigned > 0, "No rider was assigned a cab");
+        }
+    }
+    
+    @Test
+    void cabsServeOneGroupWithoutMidRoutePooling() throws Exception {
+        Map<String, String> properties = Map.of("ridepool.assignment.allow-mid-route-pooling", "false");
+        try (InMemoryEngine engine = new InMemoryEngine(properties, Clock.systemUTC())) {
+            runConcurrently(engine, 32, DEFAULT_REQUESTS, DEFAULT_CABS, 7);
+            Summary summary = assertPoolingInvariants(engine, true);
+            assertTrue(summary.assigned > 0, "No rider was assigned a cab");
+        }
+    }
+    
+    /**
+     * Submit the requests and cab registrations in a seeded random interleaving
+     * behind a start gate, wait for all of them and fail on any exception
+     * 
+     * @return wall time from the gate opening until the last task finished
+     */
+    private long runConcurrently(InMemoryEngine engine, int threads, int requests, int cabs, long seed)
+            throws Exception {
+        Random random = new Random(seed);
+        List<Runnable> tasks = new ArrayList<>(requests + cabs);
+        for (int i = 0; i < requests; i++) {
+            RideRequestDTO dto = RideRequestDTO.builder()
+                    .userId("user-" + i)
+                    .pickupLat(CENTER_LAT + (random.nextDouble() - 0.5) * SPREAD_DEGREES)
+                    .pickupLng(CENTER_LNG + (random.nextDouble() - 0.5) * SPREAD_DEGREES)
+                    .airportCode("DEL")
+                    .seatsRequired(1 + random.nextInt(3))
+                    .luggageCount(random.nextInt(3))
+                    .build();
+            tasks.add(() -> engine.getRideRequestService().createRideRequest(dto));
+        }
+        for (int i = 0; i < cabs; i++) {
+            String driver = "driver-" + i;
+            double lat = CENTER_LAT + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+            double lng = CENTER_LNG + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+            int seats = random.nextInt(4) == 0 ? 6 : 4;
+            tasks.add(() -> engine.getCabService().createCab(driver, lat, lng, seats, seats * 2));
+        }
+        Collections.shuffle(tasks, random);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch gate = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    gate.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            gate.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private Summary assertPoolingInvariants(InMemoryEngine engine, boolean oneGroupPerCab) {
+        int maxGroupSeats = Math.max(engine.getMatcherConfig().getCabCapacitySeats(),
+                engine.getMatcherConfig().getMaxGroupSeats());
+        Map<String, Cab> cabsById = new HashMap<>();
+        for (Cab cab : engine.getCabs().findAll()) {
+            cabsById.put(cab.getId(), cab);
+        }
+        
+        Set<String> riderIds = new HashSet<>();
+        Map<String, List<RideRequest>> groups = new HashMap<>();
+        Map<String, List<RideRequest>> ridersByCab = new HashMap<>();
+        Summary summary = new Summary();
+        for (RideRequest rider : engine.getRideRequests().findAll()) {
+            assertTrue(riderIds.add(rider.getId()), "Rider stored twice: " + rider.getId());
+            switch (rider.getStatus()) {
+                case WAITING -> {
+                    assertNull(rider.getGroupId(), "Waiting rider " + rider.getId() + " has a group");
+                    assertNull(rider.getAssignedCabId(), "Waiting rider " + rider.getId() + " has a cab");
+                }
+                case MATCHED -> {
+                    assertNotNull(rider.getGroupId(), "Matched rider " + rider.getId() + " has no group");
+                    assertNull(rider.getAssignedCabId(), "Matched rider " + rider.getId() + " has a cab");
+                }
+                case ASSIGNED -> {
+                    // A full group is ASSIGNED before a cab is found for it
+                    assertNotNull(rider.getGroupId(), "Assigned rider " + rider.getId() + " has no group");
+                    if (rider.getAssignedCabId() != null) {
+                        assertNotNull(cabsById.get(rider.getAssignedCabId()),
+                                "Rider " + rider.getId() + " points at unknown cab " + rider.getAssignedCabId());
+                        ridersByCab.computeIfAbsent(rider.getAssignedCabId(), id -> new ArrayList<>()).add(rider);
+                        summary.assigned++;
+                    }
+                }
+                default -> throw new AssertionError("Unexpected status " + rider.getStatus() + " for " + rider.getId());
+            }
+            if (rider.getGroupId() != null) {
+                groups.computeIfAbsent(rider.getGroupId(), id -> new ArrayList<>()).add(rider);
+            }
+        }
+        
+        for (Map.Entry<String, List<RideRequest>> group : groups.entrySet()) {
+            int seats = 0;
+            Set<String> cabIds = new HashSet<>();
+            for (RideRequest member : group.getValue()) {
+                seats += member.getSeatsRequired();
+                if (member.getAssignedCabId() != null) {
+                    cabIds.add(member.getAssignedCabId());
+                }
+            }
+            assertTrue(seats <= maxGroupSeats, "Group " + group.getKey() + " holds " + seats + " seats");
+            assertTrue(cabIds.size() <= 1, "Group " + group.getKey() + " is split across cabs " + cabIds);
+            if (group.getValue().size() > 1) {
+                summary.groups++;
+            }
+        }
+        
+        Map<String, String> groupOfMember = new HashMap<>();
+        for (RideGroup group : engine.getRideGroups().findAll()) {
+            if (group.getStatus() != GroupStatus.DISSOLVED) {
+                for (String memberId : group.getMemberIds()) {
+                    String other = groupOfMember.put(memberId, group.getId());
+                    assertNull(other, "Rider " + memberId + " is in groups " + other + " and " + group.getId());
+                }
+            }
+            assertTrue(group.getSeatsUsed() <= group.getMaxSeats(),
+                    "Ride group " + group.getId() + " holds " + group.getSeatsUsed() + " of " + group.getMaxSeats());
+            assertEquals(group.getMemberIds().size(), new HashSet<>(group.getMemberIds()).size(),
+                    "Ride group " + group.getId() + " lists a member twice");
+            int seats = 0;
+            for (RideRequest member : engine.getRideRequests().findAllById(group.getMemberIds())) {
+                seats += member.getSeatsRequired();
+            }
+            assertEquals(seats, group.getSeatsUsed(), "Seats of ride group " + group.getId() + " do not match its members");
+        }
+        for (Map.Entry<String, List<RideRequest>> group : groups.entrySet()) {
+            for (RideRequest rider : group.getValue()) {
+                assertEquals(group.getKey(), groupOfMember.get(rider.getId()),
+                        "Rider " + rider.getId() + " is missing from ride group " + group.getKey());
+            }
+        }
+        
+        for (Cab cab : cabsById.values()) {
+            List<RideRequest> onBoard = ridersByCab.getOrDefault(cab.getId(), List.of());
+            int seatsTaken = 0;
+            int luggageTaken = 0;
+            for (RideRequest rider : onBoard) {
+                seatsTaken += rider.getSeatsRequired();
+                luggageTaken += rider.getLuggageCount();
+                if (oneGroupPerCab) {
+                    assertEquals(cab.getAssignedGroupId(), rider.getGroupId(),
+                            "Cab " + cab.getId() + " carries rider " + rider.getId() + " of another group");
+                }
+            }
+            assertTrue(cab.getAvailableSeats() >= 0, "Cab " + cab.getId() + " is over capacity");
+            assertEquals(cab.getTotalSeats() - cab.getAvailableSeats(), seatsTaken,
+                    "Seats reserved on cab " + cab.getId() + " do not match its riders");
+            assertEquals(cab.getLuggageCapacity() - cab.getAvailableLuggage(), luggageTaken,
+                    "Luggage reserved on cab " + cab.getId() + " does not match its riders");
+            if (cab.getStatus() == CabStatus.AVAILABLE) {
+                assertTrue(onBoard.isEmpty(), "Available cab " + cab.getId() + " has riders");
+            }
+        }
+        return summary;
+    }
+    
+    private static final class Summary {
+        private long groups;
+        private long assigned;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hintro.ridepool.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.hintro.ridepool.dto.BulkItemResult;
+import com.hintro.ridepool.dto.BulkRegistrationResult;
+import com.hintro.ridepool.dto.RideCancellationResult;
+import com.hintro.ridepool.dto.RideRequestDTO;
+import com.hintro.ridepool.entity.GroupStatus;
+import com.hintro.ridepool.entity.RideGroup;
+import com.hintro.ridepool.entity.RideRequest;
+import com.hintro.ridepool.entity.RideStatus;
+import com.hintro.ridepool.replay.InMemoryEngine;
+
+/**
+ * Cancellation out of a group that has no cab yet
+ */
+class RideCancellationServiceTest {
+    
+    @Test
+    void fullGroupWithoutCabIsDemotedWhenNobodyBackfills() {
+        try (InMemoryEngine engine = new InMemoryEngine(Map.of("ridepool.matching.cab-capacity-seats", "4"),
+                Clock.systemUTC())) {
+            // No cabs: the set forms one FULL group of 2 + 1 + 1 seats that stays ASSIGNED without a cab
+            BulkRegistrationResult registered = engine.getRideRequestService().createRideRequests(List.of(
+                    rider("user-1", 28.6000, 77.2000, 2),
+                    rider("user-2", 28.6010, 77.2010, 1),
+                    rider("user-3", 28.6020, 77.2020, 1)));
+            List<BulkItemResult> items = registered.getItems();
+            String groupId = items.get(0).getGroupId();
+            for (BulkItemResult item : items) {
+                assertEquals(RideStatus.ASSIGNED.name(), item.getStatus(), "precondition: group is FULL");
+                assertEquals(groupId, item.getGroupId());
+            }
+            
+            RideCancellationResult result = engine.getCancellationService().cancel(items.get(2).getId());
+            
+            assertEquals(List.of(), result.getRematchedRequestIds());
+            for (BulkItemResult item : items.subList(0, 2)) {
+                RideRequest member = engine.getRideRequests().findById(item.getId()).orElseThrow();
+                assertEquals(RideStatus.MATCHED, member.getStatus(), "remaining rider demoted");
+                assertEquals(groupId, member.getGroupId());
+                assertNull(member.getAssignedCabId());
+            }
+            RideGroup group = engine.getRideGroups().findById(groupId).orElseThrow();
+            assertEquals(GroupStatus.FORMING, group.getStatus());
+            assertEquals(3, group.getSeatsUsed());
+            assertEquals(2, group.getMemberIds().size());
+        }
+    }
+    
+    private static RideRequestDTO rider(String userId, double lat, double lng, int seats) {
+        return RideRequestDTO.builder()
+                .userId(userId)
+                .pickupLat(lat)
+                .pickupLng(lng)
+                .airportCode("DEL")
+                .seatsRequired(seats)
+                .luggageCount(0)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.hintro.ridepool.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bucket rollover, window expiry and slot reuse of the sliding-window counter
+ */
+class SlidingWindowGridTest {
+    
+    // Three 1-second buckets: a 3-second window
+    private static final int BUCKETS = 3;
+    private static final long BUCKET_MILLIS = 1_000;
+    
+    private static final long CELL = 42L;
+    private static final long OTHER_CELL = 7L;
+    
+    @Test
+    void countsEventsAcrossBucketsOfTheWindow() {
+        SlidingWindowGrid grid = new SlidingWindowGrid(16, BUCKETS, BUCKET_MILLIS);
+        
+        grid.increment(CELL, 0);
+        grid.increment(CELL, 999);
+        grid.increment(CELL, 1_000);
+        grid.increment(CELL, 2_500);
+        
+        assertEquals(4, grid.count(CELL, 2_999));
+        assertEquals(0, grid.count(OTHER_CELL, 2_999));
+        assertEquals(3 * BUCKET_MILLIS, grid.getWindowMillis());
+    }
+    
+    @Test
+    void bucketsExpireOneAtATimeAsTheWindowSlides() {
+        SlidingWindowGrid grid = new SlidingWindowGrid(16, BUCKETS, BUCKET_MILLIS);
+        grid.increment(CELL, 500);      // bucket epoch 0
+        grid.increment(CELL, 1_500);    // epoch 1
+        grid.increment(CELL, 1_600);
+        grid.increment(CELL, 2_500);    // epoch 2
+        
+        assertEquals(4, grid.count(CELL, 2_999));
+        assertEquals(3, grid.count(CELL, 3_000), "epoch 0 left the window");
+        assertEquals(1, grid.count(CELL, 4_000), "epoch 1 left the window");
+        assertEquals(0, grid.count(CELL, 5_000), "epoch 2 left the window");
+    }
+    
+    @Test
+    void reusedBucketStartsFromZero() {
+        SlidingWindowGrid grid = new SlidingWindowGrid(16, BUCKETS, BUCKET_MILLIS);
+        grid.increment(CELL, 100);
+        grid.increment(CELL, 200);
+        
+        // Epoch 3 maps onto epoch 0's bucket; its stale count must not carry over
+        grid.increment(CELL, 3_100);
+        
+        assertEquals(1, grid.count(CELL, 3_100));
+    }
+    
+    @Test
+    void snapshotSkipsExpiredCells() {
+        SlidingWindowGrid grid = new SlidingWindowGrid(16, BUCKETS, BUCKET_MILLIS);
+        grid.increment(CELL, 0);
+        grid.increment(OTHER_CELL, 2_000);
+        grid.increment(OTHER_CELL, 2_100);
+        
+        List<long[]> live = grid.snapshot(3_000);
+        
+        assertEquals(1, live.size());
+        assertEquals(OTHER_CELL, live.get(0)[0]);
+        assertEquals(2, live.get(0)[1]);
+        assertTrue(grid.snapshot(5_000).isEmpty());
+    }
+    
+    @Test
+    void fullTableDropsEventsUntilCellsExpire() {
+        SlidingWindowGrid grid = new SlidingWindowGrid(4, BUCKETS, BUCKET_MILLIS);
+        for (long cell = 1; cell <= 4; cell++) {
+            assertTrue(grid.increment(cell, 0));
+        }
+        
+        assertFalse(grid.increment(5L, 1_000), "no free slot while every cell is live");
+        assertEquals(1, grid.getDroppedEvents());
+        
+        // Once the first cells fall out of the window their slots are reclaimed
+        assertTrue(grid.increment(5L, 3_000));
+        assertEquals(1, grid.count(5L, 3_000));
+        assertEquals(1, grid.getDroppedEvents());
+    }
+}
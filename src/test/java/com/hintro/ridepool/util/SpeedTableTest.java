@@ -0,0 +1,125 @@
+package com.hintro.ridepool.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Warm-up averaging, the sample threshold, the full-table drop path and
+ * lookup cost of the learned speed table
+ */
+class SpeedTableTest {
+    
+    private static final double LEARNING_RATE = 0.1;
+    
+    /**
+     * Budget per lookup on a full table; the assignment path ranks every
+     * candidate cab with one
+     */
+    private static final double MAX_LOOKUP_NANOS = 1_000;
+    
+    @Test
+    void firstSamplesAreAveragedPlainly() {
+        SpeedTable table = new SpeedTable(16);
+        table.record(1, 2, 8, 10, LEARNING_RATE);
+        table.record(1, 2, 8, 20, LEARNING_RATE);
+        table.record(1, 2, 8, 30, LEARNING_RATE);
+        assertEquals(20.0, table.speed(1, 2, 8, 1), 1e-4);
+        
+        // Fourth sample still weighs 1/4, more than the learning rate
+        table.record(1, 2, 8, 60, LEARNING_RATE);
+        assertEquals(30.0, table.speed(1, 2, 8, 1), 1e-4);
+    }
+    
+    @Test
+    void warmEntryMovesByTheLearningRate() {
+        SpeedTable table = new SpeedTable(16);
+        for (int i = 0; i < 10; i++) {
+            table.record(1, 2, 8, 40, LEARNING_RATE);
+        }
+        assertEquals(40.0, table.speed(1, 2, 8, 1), 1e-4);
+        
+        // From the 11th sample on 1/n is below the learning rate
+        table.record(1, 2, 8, 60, LEARNING_RATE);
+        assertEquals(42.0, table.speed(1, 2, 8, 1), 1e-4);
+    }
+    
+    @Test
+    void entryIsTrustedOnlyAfterMinSamples() {
+        SpeedTable table = new SpeedTable(16);
+        assertTrue(Double.isNaN(table.speed(1, 2, 8, 1)), "missing key");
+        
+        table.record(1, 2, 8, 40, LEARNING_RATE);
+        table.record(1, 2, 8, 40, LEARNING_RATE);
+        assertTrue(Double.isNaN(table.speed(1, 2, 8, 3)));
+        table.record(1, 2, 8, 40, LEARNING_RATE);
+        assertEquals(40.0, table.speed(1, 2, 8, 3), 1e-4);
+    }
+    
+    @Test
+    void keysDifferByEveryComponent() {
+        SpeedTable table = new SpeedTable(16);
+        table.record(1, 2, 8, 10, LEARNING_RATE);
+        table.record(2, 1, 8, 20, LEARNING_RATE);
+        table.record(1, 2, 9, 30, LEARNING_RATE);
+        
+        assertEquals(10.0, table.speed(1, 2, 8, 1), 1e-4);
+        assertEquals(20.0, table.speed(2, 1, 8, 1), 1e-4);
+        assertEquals(30.0, table.speed(1, 2, 9, 1), 1e-4);
+        assertEquals(3, table.size());
+    }
+    
+    @Test
+    void fullTableDropsNewKeysButKeepsLearningKnownOnes() {
+        SpeedTable table = new SpeedTable(2);
+        assertTrue(table.record(1, 1, 0, 10, LEARNING_RATE));
+        assertTrue(table.record(2, 2, 0, 20, LEARNING_RATE));
+        
+        assertFalse(table.record(3, 3, 0, 30, LEARNING_RATE), "no room for a third key");
+        assertFalse(table.record(3, 3, 0, 30, LEARNING_RATE));
+        assertEquals(2, table.getDroppedSamples());
+        assertEquals(2, table.size());
+        assertTrue(Double.isNaN(table.speed(3, 3, 0, 1)));
+        
+        assertTrue(table.record(1, 1, 0, 30, LEARNING_RATE), "known keys still learn");
+        assertEquals(20.0, table.speed(1, 1, 0, 1), 1e-4);
+    }
+    
+    @Test
+    void lookupOnAFullTableStaysWithinBudget() {
+        int entries = 65_536;
+        SpeedTable table = new SpeedTable(entries);
+        for (int i = 0; i < entries; i++) {
+            table.record(i, i * 31L, i % 24, 20 + i % 40, LEARNING_RATE);
+        }
+        assertEquals(entries, table.size());
+        
+        double sum = 0;
+        for (int round = 0; round < 5; round++) {
+            sum += lookups(table, entries);
+        }
+        
+        int lookups = 2_000_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            int key = i & (entries - 1);
+            sum += table.speed(key, key * 31L, key % 24, 1);
+        }
+        double nanosPerLookup = (System.nanoTime() - started) / (double) lookups;
+        
+        assertTrue(sum > 0);
+        assertTrue(nanosPerLookup < MAX_LOOKUP_NANOS,
+                "Lookup took " + nanosPerLookup + " ns, budget is " + MAX_LOOKUP_NANOS + " ns");
+    }
+    
+    private static double lookups(SpeedTable table, int entries) {
+        double sum = 0;
+        for (int i = 0; i < entries * 4; i++) {
+            int key = i & (entries - 1);
+            sum += table.speed(key, key * 31L, key % 24, 1);
+        }
+        return sum;
+    }
+}